@@ -69,6 +69,8 @@ public class DefaultCLIProperties {
     private static final String CLIENT_PRIVATE_KEY = "auth.client.key";
     private static final String SERVER_CERTIFICATE = "auth.server.cafile";
     private static final String WEBSOCKET_PATH = "ws.path";
+    private static final String CLIENT_NETTY_THREADS = "client.netty.threads";
+    private static final String CLIENT_APPLICATION_THREADS = "client.application.threads";
 
     private Map<String, String> propertyToValue = new HashMap<String, String>() {{
        put(MQTT_VERSION, "5");
@@ -89,6 +91,8 @@ public class DefaultCLIProperties {
        put(CLIENT_PRIVATE_KEY, null);
        put(SERVER_CERTIFICATE, null);
        put(WEBSOCKET_PATH, "/mqtt");
+       put(CLIENT_NETTY_THREADS, null);
+       put(CLIENT_APPLICATION_THREADS, null);
     }};
 
     private File storePropertiesFile;
@@ -281,4 +285,20 @@ public class DefaultCLIProperties {
         return propertyToValue.get(WEBSOCKET_PATH);
     }
 
+    /**
+     * @return the number of netty threads shared by all clients, defaults to the number of available processors
+     */
+    public int getClientNettyThreads() {
+        final String nettyThreads = propertyToValue.get(CLIENT_NETTY_THREADS);
+        return nettyThreads != null ? Integer.parseInt(nettyThreads) : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * @return the number of threads for the application callbacks of all clients, defaults to the number of available processors
+     */
+    public int getClientApplicationThreads() {
+        final String applicationThreads = propertyToValue.get(CLIENT_APPLICATION_THREADS);
+        return applicationThreads != null ? Integer.parseInt(applicationThreads) : Runtime.getRuntime().availableProcessors();
+    }
+
 }
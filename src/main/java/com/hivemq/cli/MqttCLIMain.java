@@ -16,19 +16,20 @@
  */
 package com.hivemq.cli;
 
+import com.hivemq.cli.daemon.DaemonClient;
+import com.hivemq.cli.daemon.DaemonProtocol;
 import com.hivemq.cli.ioc.DaggerMqttCLI;
 import com.hivemq.cli.ioc.MqttCLI;
 import com.hivemq.cli.mqtt.ClientData;
+import com.hivemq.cli.mqtt.ClientRegistry;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
 import picocli.CommandLine;
 
-import java.security.Security;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 
@@ -38,10 +39,15 @@ public class MqttCLIMain {
 
     public static void main(final String[] args) {
 
-        Security.setProperty("crypto.policy", "unlimited");
+        if (DaemonClient.isForwarded(args)) {
+            final Integer exitCode = DaemonClient.forward(DaemonProtocol.getDefaultSocketFile(), args);
+            if (exitCode != null) {
+                System.exit(exitCode);
+            }
+        }
 
         MQTTCLI = DaggerMqttCLI.create();
-        final CommandLine commandLine = MQTTCLI.cli();
+        final CommandLine commandLine = MQTTCLI.cliFactory().create(args);
         final DefaultCLIProperties defaultCLIProperties = MQTTCLI.defaultCLIProperties();
 
         try {
@@ -70,13 +76,13 @@ public class MqttCLIMain {
         @Override
         public void run() {
 
-            final Map<String, ClientData> clientKeyToClientData = MqttClientExecutor.getClientDataMap();
+            final ClientRegistry clientRegistry = MqttClientExecutor.getClientRegistry();
 
             final List<CompletableFuture<Void>> disconnectFutures = new ArrayList<CompletableFuture<Void>>();
 
-            for (final Map.Entry<String, ClientData> entry: clientKeyToClientData.entrySet()) {
+            for (final ClientData clientData : clientRegistry.getAll()) {
 
-                final MqttClient client = entry.getValue().getClient();
+                final MqttClient client = clientData.getClient();
                 if (client.getConfig().getState().isConnectedOrReconnect()) {
                     switch (client.getConfig().getMqttVersion()) {
                         case MQTT_5_0:
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commandline;
+
+import com.hivemq.cli.commands.MqttCLICommand;
+import com.hivemq.cli.commands.cli.DaemonCommand;
+import com.hivemq.cli.commands.cli.PublishCommand;
+import com.hivemq.cli.commands.cli.SubscribeCommand;
+import com.hivemq.cli.commands.cli.TestBrokerCommand;
+import com.hivemq.cli.commands.shell.ShellCommand;
+import dagger.Lazy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the command line of the CLI.
+ * <p>
+ * Building the picocli model of a command is the main part of the startup time, so only the invoked subcommand
+ * is created and added. The complete tree is only built if the first argument does not name a subcommand,
+ * e.g. to print the usage or to suggest a similar subcommand.
+ */
+@Singleton
+public class CLICommandLineFactory {
+
+    private final @NotNull MqttCLICommand main;
+    private final @NotNull List<LazySubcommand> subcommands = new ArrayList<>();
+    private final @NotNull LazyConverterFactory factory;
+    private final @NotNull CommandLineConfig config;
+    private final @NotNull CommandErrorMessageHandler handler;
+
+    @Inject
+    public CLICommandLineFactory(final @NotNull MqttCLICommand main,
+                                 final @NotNull Lazy<PublishCommand> publishCommand,
+                                 final @NotNull Lazy<SubscribeCommand> subscribeCommand,
+                                 final @NotNull Lazy<ShellCommand> shellCommand,
+                                 final @NotNull Lazy<TestBrokerCommand> testBrokerCommand,
+                                 final @NotNull @Named("hivemq-cli") Lazy<CommandLine> hivemqCliCommandLine,
+                                 final @NotNull Lazy<DaemonCommand> daemonCommand,
+                                 final @NotNull LazyConverterFactory factory,
+                                 final @NotNull CommandLineConfig config,
+                                 final @NotNull CommandErrorMessageHandler handler) {
+        this.main = main;
+        this.factory = factory;
+        this.config = config;
+        this.handler = handler;
+        // The names have to match the names and aliases of the commands
+        subcommands.add(new LazySubcommand(publishCommand, "pub", "publish"));
+        subcommands.add(new LazySubcommand(subscribeCommand, "sub", "subscribe"));
+        subcommands.add(new LazySubcommand(shellCommand, "shell", "sh"));
+        subcommands.add(new LazySubcommand(testBrokerCommand, "test"));
+        subcommands.add(new LazySubcommand(hivemqCliCommandLine, "hivemq"));
+        subcommands.add(new LazySubcommand(daemonCommand, "daemon"));
+    }
+
+    public @NotNull CommandLine create(final @NotNull String[] args) {
+        final CommandLine commandLine = new CommandLine(main, factory);
+
+        final String invokedName = args.length > 0 ? args[0] : null;
+        final LazySubcommand invoked = find(invokedName);
+        if (invoked != null) {
+            commandLine.addSubcommand(invoked.get());
+        } else {
+            for (final LazySubcommand subcommand : subcommands) {
+                commandLine.addSubcommand(subcommand.get());
+            }
+        }
+
+        return commandLine
+                .setColorScheme(config.getColorScheme())
+                .setUsageHelpWidth(config.getCliWidth())
+                .setParameterExceptionHandler(handler);
+    }
+
+    private @Nullable LazySubcommand find(final @Nullable String name) {
+        if (name == null) {
+            return null;
+        }
+        for (final LazySubcommand subcommand : subcommands) {
+            if (subcommand.names.contains(name)) {
+                return subcommand;
+            }
+        }
+        return null;
+    }
+
+    private static class LazySubcommand {
+
+        private final @NotNull Lazy<?> command;
+        private final @NotNull List<String> names;
+
+        LazySubcommand(final @NotNull Lazy<?> command, final @NotNull String... names) {
+            this.command = command;
+            this.names = Arrays.asList(names);
+        }
+
+        @NotNull Object get() {
+            return command.get();
+        }
+    }
+}
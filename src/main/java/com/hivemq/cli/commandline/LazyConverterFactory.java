@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commandline;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Picocli creates the converters of all options of a command when the command is added to a command line.
+ * This factory hands out placeholders instead, so a converter is only created when its option is actually used.
+ */
+@Singleton
+public class LazyConverterFactory implements CommandLine.IFactory {
+
+    private final @NotNull CommandLine.IFactory defaultFactory = CommandLine.defaultFactory();
+
+    @Inject
+    public LazyConverterFactory() {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K> K create(final @NotNull Class<K> cls) throws Exception {
+        if (CommandLine.ITypeConverter.class.isAssignableFrom(cls) && !cls.isInterface()) {
+            return (K) new LazyTypeConverter(cls, defaultFactory);
+        }
+        return defaultFactory.create(cls);
+    }
+
+    private static class LazyTypeConverter implements CommandLine.ITypeConverter<Object> {
+
+        private final @NotNull Class<?> converterClass;
+        private final @NotNull CommandLine.IFactory factory;
+        private @Nullable CommandLine.ITypeConverter<?> converter;
+
+        LazyTypeConverter(final @NotNull Class<?> converterClass, final @NotNull CommandLine.IFactory factory) {
+            this.converterClass = converterClass;
+            this.factory = factory;
+        }
+
+        @Override
+        public Object convert(final @NotNull String value) throws Exception {
+            if (converter == null) {
+                converter = (CommandLine.ITypeConverter<?>) factory.create(converterClass);
+            }
+            return converter.convert(value);
+        }
+    }
+}
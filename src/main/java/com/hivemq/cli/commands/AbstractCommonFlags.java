@@ -21,11 +21,13 @@ import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.MqttCLIMain;
 import com.hivemq.cli.converters.ByteBufferConverter;
 import com.hivemq.cli.converters.DirectoryToCertificateCollectionConverter;
+import com.hivemq.cli.converters.DurationConverter;
 import com.hivemq.cli.converters.EnvVarToByteBufferConverter;
 import com.hivemq.cli.converters.FileToCertificateConverter;
 import com.hivemq.cli.converters.FileToPrivateKeyConverter;
 import com.hivemq.cli.converters.PasswordFileToByteBufferConverter;
 import com.hivemq.cli.converters.UnsignedShortConverter;
+import com.hivemq.cli.utils.CryptoUtils;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
 import com.hivemq.client.mqtt.MqttWebSocketConfig;
 import org.jetbrains.annotations.NotNull;
@@ -45,6 +47,7 @@ import java.security.UnrecoverableKeyException;
 import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -73,6 +76,13 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
     @Nullable
     private Boolean cleanStart;
 
+    @CommandLine.Option(names = {"--reconnect"}, defaultValue = "false", description = "Reconnect with an exponential backoff when the connection is lost, resuming the session or subscribing again (default: false)", order = 2)
+    private boolean reconnect;
+
+    @CommandLine.Option(names = {"--reconnectMaxDelay", "--reconnect-max-delay"}, converter = DurationConverter.class, defaultValue = "2m", description = "The maximum delay between two reconnect attempts, e.g. 30s or 5m (default: 2m)", order = 2)
+    @NotNull
+    private Duration reconnectMaxDelay;
+
     @CommandLine.Option(names = {"-s", "--secure"}, defaultValue = "false", description = "Use default ssl configuration if no other ssl options are specified (default: false)", order = 2)
     private boolean useSsl;
 
@@ -184,6 +194,8 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
 
     private @NotNull MqttClientSslConfig doBuildSslConfig() throws Exception {
 
+        CryptoUtils.initCryptoPolicy();
+
         if (certificatesFromDir != null) {
             if (certificates == null) {
                 certificates = certificatesFromDir;
@@ -278,6 +290,7 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
                 (user != null ? (", user=" + user) : "") +
                 (keepAlive != null ? (", keepAlive=" + keepAlive) : "") +
                 (cleanStart != null ? (", cleanStart=" + cleanStart) : "") +
+                (reconnect ? (", reconnectMaxDelay=" + reconnectMaxDelay) : "") +
                 ", useDefaultSsl=" + useSsl +
                 (getSslConfig() != null ? (", sslConfig=" + getSslConfig()) : "") +
                 ", useWebSocket=" + useWebSocket +
@@ -309,6 +322,15 @@ public abstract class AbstractCommonFlags extends AbstractConnectRestrictionFlag
         return cleanStart;
     }
 
+    public boolean isReconnect() {
+        return reconnect;
+    }
+
+    @NotNull
+    public Duration getReconnectMaxDelay() {
+        return reconnectMaxDelay;
+    }
+
     @Nullable
     public MqttWebSocketConfig getWebSocketConfig() {
         if (useWebSocket) {
@@ -24,6 +24,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.nio.ByteBuffer;
+import java.time.Duration;
 
 public interface Connect extends Context, Will, ConnectRestrictions {
 
@@ -51,4 +52,11 @@ public interface Connect extends Context, Will, ConnectRestrictions {
 
     @Nullable MqttWebSocketConfig getWebSocketConfig();
 
+    /**
+     * @return whether the client reconnects with an exponential backoff when it lost the connection
+     */
+    boolean isReconnect();
+
+    @NotNull Duration getReconnectMaxDelay();
+
 }
@@ -156,4 +156,8 @@ public abstract class MqttCommand extends AbstractCommand implements Context {
         return identifier;
     }
 
+    public void setIdentifier(final @NotNull String identifier) {
+        this.identifier = identifier;
+    }
+
 }
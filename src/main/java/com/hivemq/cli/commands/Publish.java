@@ -46,5 +46,10 @@ public interface Publish extends Context {
 
     @Nullable Mqtt5UserProperties getUserProperties();
 
+    /**
+     * @return true if the publishes carry a {@link com.hivemq.cli.mqtt.LatencyStamp} for `sub --latency`
+     */
+    boolean isStamp();
+
 
 }
@@ -16,12 +16,19 @@
  */
 package com.hivemq.cli.commands;
 
+import com.hivemq.cli.mqtt.LatencyStatistics;
+import com.hivemq.cli.mqtt.PublishDeduplicator;
+import com.hivemq.cli.mqtt.PublishFilter;
+import com.hivemq.cli.mqtt.SubscribeLifecycle;
+import com.hivemq.cli.mqtt.SubscribeStatistics;
+import com.hivemq.cli.mqtt.TopicAggregator;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.PrintStream;
 
 public interface Subscribe extends Context {
 
@@ -33,6 +40,8 @@ public interface Subscribe extends Context {
 
     boolean isPrintToSTDOUT();
 
+    @NotNull PrintStream getOutput();
+
     boolean isBase64();
 
     boolean isJsonOutput();
@@ -41,4 +50,36 @@ public interface Subscribe extends Context {
 
     @Nullable Mqtt5UserProperties getUserProperties();
 
+    @NotNull PublishFilter getPublishFilter();
+
+    /**
+     * @return the statistics to record the received publishes in instead of printing them, or null to print them
+     */
+    @Nullable SubscribeStatistics getStatistics();
+
+    /**
+     * @return the statistics to record the latency of stamped publishes in instead of printing them, or null to print them
+     */
+    @Nullable LatencyStatistics getLatencyStatistics();
+
+    /**
+     * @return the lifecycle counting the handled publishes, or null if the subscribe does not end by itself
+     */
+    @Nullable SubscribeLifecycle getLifecycle();
+
+    /**
+     * @return the deduplicator dropping the publishes received again, or null to handle all publishes
+     */
+    @Nullable PublishDeduplicator getDeduplicator();
+
+    /**
+     * @return the aggregator to record the numeric fields of the received publishes in instead of printing them, or null to print them
+     */
+    @Nullable TopicAggregator getAggregator();
+
+    /**
+     * @return the number of publishes requested from the client at once, or 0 to receive them without backpressure
+     */
+    int getRequestBatchSize();
+
 }
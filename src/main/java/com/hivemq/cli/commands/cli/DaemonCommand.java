@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.cli;
+
+import com.google.common.base.Throwables;
+import com.hivemq.cli.daemon.DaemonProtocol;
+import com.hivemq.cli.daemon.MqttCLIDaemon;
+import com.hivemq.cli.utils.LoggerUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.concurrent.Callable;
+
+@CommandLine.Command(
+        name = "daemon",
+        description = "Runs a daemon which executes the pub and sub commands of this user and keeps their connections open between invocations. " +
+                "The commands are only forwarded to the daemon if $" + DaemonProtocol.FORWARD_ENV + " is set to true",
+        sortOptions = false)
+public class DaemonCommand implements Callable<Integer> {
+
+    @CommandLine.Option(names = {"--help"}, usageHelp = true, description = "display this help message")
+    boolean usageHelpRequested;
+
+    @CommandLine.Option(names = {"-s", "--socket"}, description = "The unix domain socket to listen on (default $HOME/.mqtt-cli/daemon.sock or $" + DaemonProtocol.SOCKET_ENV + ")", order = 1)
+    private @Nullable File socketFile;
+
+    @CommandLine.Option(names = {"-l"}, defaultValue = "false", description = "Log to $HOME/.mqtt.cli/logs (Configurable through $HOME/.mqtt-cli/config.properties)", order = 1)
+    private boolean logToLogfile;
+
+    private final MqttCLIDaemon daemon;
+
+    //needed for pico cli - reflection code generation
+    public DaemonCommand() {
+        this(null);
+    }
+
+    @Inject
+    public DaemonCommand(final @NotNull MqttCLIDaemon daemon) {
+        this.daemon = daemon;
+    }
+
+    @Override
+    public Integer call() {
+
+        LoggerUtils.turnOffConsoleLogging(logToLogfile);
+
+        Logger.trace("Command {}", this);
+
+        if (!MqttCLIDaemon.isSupported()) {
+            Logger.error("Daemon not supported on {} {}", System.getProperty("os.name"), System.getProperty("os.arch"));
+            System.err.println(MqttCLIDaemon.UNSUPPORTED_MESSAGE);
+            return -1;
+        }
+
+        try {
+            daemon.run(socketFile != null ? socketFile : DaemonProtocol.getDefaultSocketFile());
+        } catch (final Exception ex) {
+            Logger.error(ex, "Daemon failed");
+            System.err.println(Throwables.getRootCause(ex).getMessage());
+            return -1;
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "DaemonCommand{" +
+                "socketFile=" + socketFile +
+                '}';
+    }
+}
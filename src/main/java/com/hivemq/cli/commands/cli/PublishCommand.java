@@ -104,6 +104,9 @@ public class PublishCommand extends AbstractConnectFlags implements MqttAction,
     @CommandLine.Option(names = {"-up", "--userProperty"}, converter = Mqtt5UserPropertyConverter.class, description = "A user property of the publish message", order = 1)
     @Nullable private Mqtt5UserProperty[] userProperties;
 
+    @CommandLine.Option(names = {"--stamp"}, defaultValue = "false", description = "Add the send time and a sequence number to the publishes to measure the latency with 'sub --latency' (default: false)", order = 1)
+    private boolean stamp;
+
     @CommandLine.Option(names = {"-l"}, defaultValue = "false", description = "Log to $HOME/.mqtt-cli/logs (Configurable through $HOME/.mqtt-cli/config.properties)", order = 1)
     private boolean logToLogfile;
 
@@ -115,16 +118,10 @@ public class PublishCommand extends AbstractConnectFlags implements MqttAction,
         else if (isVerbose()) logLevel = "trace";
         LoggerUtils.setupConsoleLogging(logToLogfile, logLevel);
 
-        setDefaultOptions();
-        sslConfig = buildSslConfig();
-
-        Logger.trace("Command {} ", this);
-
-        logUnusedOptions();
+        prepare();
 
         try {
-            qos = MqttUtils.arrangeQosToMatchTopics(topics, qos);
-            mqttClientExecutor.publish(this);
+            publish();
         }
         catch (final ConnectionFailedException cex) {
             Logger.error(cex, cex.getCause().getMessage());
@@ -135,6 +132,23 @@ public class PublishCommand extends AbstractConnectFlags implements MqttAction,
 
     }
 
+    /**
+     * Applies the default options and builds the ssl configuration. Has to be called before {@link #publish()}.
+     */
+    public void prepare() {
+        setDefaultOptions();
+        sslConfig = buildSslConfig();
+
+        Logger.trace("Command {} ", this);
+
+        logUnusedOptions();
+    }
+
+    public void publish() {
+        qos = MqttUtils.arrangeQosToMatchTopics(topics, qos);
+        mqttClientExecutor.publish(this);
+    }
+
     public void logUnusedOptions() {
 
         super.logUnusedOptions();
@@ -176,6 +190,7 @@ public class PublishCommand extends AbstractConnectFlags implements MqttAction,
                 (responseTopic != null ? (", responseTopic=" + responseTopic) : "") +
                 (correlationData != null ? (", correlationData=" + new String(correlationData.array(), StandardCharsets.UTF_8)) : "") +
                 (userProperties != null ? (", userProperties=" + getUserProperties()) : "") +
+                (stamp ? ", stamp=true" : "") +
                 '}';
     }
 
@@ -248,6 +263,11 @@ public class PublishCommand extends AbstractConnectFlags implements MqttAction,
         this.userProperties = userProperties;
     }
 
+    @Override
+    public boolean isStamp() {
+        return stamp;
+    }
+
     @Nullable
     @Override
     public MqttClientSslConfig getSslConfig() {
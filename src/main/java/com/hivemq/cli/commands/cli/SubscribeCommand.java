@@ -20,12 +20,25 @@ import com.google.common.base.Throwables;
 import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.MqttCLIMain;
 import com.hivemq.cli.commands.Subscribe;
+import com.hivemq.cli.commands.Unsubscribe;
+import com.hivemq.cli.converters.DurationConverter;
+import com.hivemq.cli.converters.JsonPathPredicateConverter;
 import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
 import com.hivemq.cli.converters.MqttQosConverter;
 import com.hivemq.cli.impl.MqttAction;
+import com.hivemq.cli.mqtt.ClientData;
+import com.hivemq.cli.mqtt.LatencyStatistics;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.cli.mqtt.PublishDeduplicator;
+import com.hivemq.cli.mqtt.PublishFilter;
+import com.hivemq.cli.mqtt.ReconnectHandler;
+import com.hivemq.cli.mqtt.SubscribeLifecycle;
+import com.hivemq.cli.mqtt.SubscribeStatistics;
+import com.hivemq.cli.mqtt.TopicAggregator;
 import com.hivemq.cli.utils.LoggerUtils;
 import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.cli.utils.json.JsonNumberExtractor;
+import com.hivemq.cli.utils.json.JsonPathPredicate;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
 import com.hivemq.client.mqtt.MqttVersion;
@@ -40,10 +53,30 @@ import org.tinylog.configuration.Configuration;
 import picocli.CommandLine;
 
 import javax.inject.Inject;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @CommandLine.Command(name = "sub",
         versionProvider = MqttCLIMain.CLIVersionProvider.class,
@@ -51,15 +84,28 @@ import java.util.Map;
         description = "Subscribe an mqtt client to a list of topics.",
         abbreviateSynopsis = false)
 
-public class SubscribeCommand extends AbstractConnectFlags implements MqttAction, Subscribe {
+public class SubscribeCommand extends AbstractConnectFlags implements MqttAction, Subscribe, Unsubscribe, CommandLine.IExitCodeGenerator {
+
+    public static final int EXIT_CODE_OK = 0;
+    public static final int EXIT_CODE_ERROR = 1;
+    public static final int EXIT_CODE_TIMEOUT = 3;
+    public static final int EXIT_CODE_IDLE_TIMEOUT = 4;
+    public static final int EXIT_CODE_DISCONNECTED = 5;
+    public static final int DEFAULT_REQUEST_BATCH_SIZE = 64;
 
     private final MqttClientExecutor mqttClientExecutor;
     private final DefaultCLIProperties defaultCLIProperties;
     private MqttClient subscribeClient;
+    private @NotNull List<MqttClient> consumerClients = Collections.emptyList();
 
     private MqttClientSslConfig sslConfig;
-
-    public static final int IDLE_TIME = 5000;
+    private @NotNull PrintStream output = System.out;
+    private @Nullable SubscribeStatistics statistics;
+    private @Nullable LatencyStatistics latencyStatistics;
+    private @Nullable SubscribeLifecycle lifecycle;
+    private @Nullable PublishDeduplicator deduplicator;
+    private @Nullable TopicAggregator aggregator;
+    private int exitCode = EXIT_CODE_OK;
 
     //needed for pico cli - reflection code generation
     public SubscribeCommand() {
@@ -79,8 +125,14 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
     @CommandLine.Option(names = {"--help"}, usageHelp = true, description = "display this help message")
     boolean usageHelpRequested;
 
-    @CommandLine.Option(names = {"-t", "--topic"}, required = true, description = "The topics to subscribe to", order = 1)
-    @NotNull private String[] topics;
+    @CommandLine.Option(names = {"-t", "--topic"}, description = "The topics to subscribe to", order = 1)
+    @Nullable private String[] topics;
+
+    // The topic filters with the share prefix of the group, the option keeps the topics as given
+    private @Nullable String[] sharedTopics;
+
+    @CommandLine.Option(names = {"--topicFile", "--topic-file"}, description = "A file with one topic to subscribe to per line, subscribed with the first QoS", order = 1)
+    @Nullable private File topicFile;
 
     @CommandLine.Option(names = {"-q", "--qos"}, converter = MqttQosConverter.class, defaultValue = "2", description = "Quality of service for the corresponding topics (default for all: 2)", order = 1)
     @NotNull private MqttQos[] qos;
@@ -103,6 +155,66 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
     @CommandLine.Option(names = {"-T", "--showTopics"}, defaultValue = "false", description = "Prepend the specific topic name to the received publish", order = 1)
     private boolean showTopics;
 
+    @CommandLine.Option(names = {"--filterTopic", "--filter-topic"}, description = "Only print publishes with a topic containing this regular expression", order = 1)
+    @Nullable private Pattern filterTopic;
+
+    @CommandLine.Option(names = {"--filterPayload", "--filter-payload"}, description = "Only print publishes with a payload containing this text", order = 1)
+    @Nullable private String filterPayload;
+
+    @CommandLine.Option(names = {"--filterPayloadRegex", "--filter-payload-regex"}, description = "Only print publishes with a payload containing this regular expression", order = 1)
+    @Nullable private Pattern filterPayloadRegex;
+
+    @CommandLine.Option(names = {"--filterJson", "--filter-json"}, converter = JsonPathPredicateConverter.class, description = "Only print publishes with a JSON payload matching this JSONPath predicate (e.g. \"$.temperature > 20\")", order = 1)
+    @Nullable private JsonPathPredicate filterJson;
+
+    @CommandLine.Option(names = {"--filterUserProperty", "--filter-user-property"}, converter = Mqtt5UserPropertyConverter.class, description = "Only print publishes with this user property (key=value)", order = 1)
+    @Nullable private Mqtt5UserProperty filterUserProperty;
+
+    @CommandLine.Option(names = {"--stats"}, defaultValue = "false", description = "Print a periodically refreshed table of the topics with the highest message and byte rates instead of the received publishes (default: false)", order = 1)
+    private boolean stats;
+
+    @CommandLine.Option(names = {"--latency"}, defaultValue = "false", description = "Print the latency of the publishes stamped by 'pub --stamp' and the lost, duplicate and reordered publishes instead of the received publishes (default: false)", order = 1)
+    private boolean latency;
+
+    @CommandLine.Option(names = {"--statsInterval", "--stats-interval"}, defaultValue = "1", description = "The seconds between two statistics or latency reports (default: 1)", order = 1)
+    private int statsInterval;
+
+    @CommandLine.Option(names = {"--statsTop", "--stats-top"}, defaultValue = "10", description = "The number of topics in the statistics reports (default: 10)", order = 1)
+    private int statsTop;
+
+    @CommandLine.Option(names = {"--aggregate"}, description = "Print the count, min, max, average and 95th percentile of this numeric JSON field (e.g. temperature or sensor.values[0]) per topic and window instead of the received publishes, can be given multiple times", order = 1)
+    @Nullable private String[] aggregateFields;
+
+    @CommandLine.Option(names = {"--window"}, converter = DurationConverter.class, defaultValue = "10s", description = "The length of the aggregation windows, e.g. 500ms, 10s or 5m (default: 10s)", order = 1)
+    @NotNull private Duration window;
+
+    @CommandLine.Option(names = {"--dedup"}, defaultValue = "false", description = "Drop the publishes received again, identified by topic and payload or by the stamp of 'pub --stamp', and print the duplicate rate at the end (default: false)", order = 1)
+    private boolean dedup;
+
+    @CommandLine.Option(names = {"--dedupWindow", "--dedup-window"}, defaultValue = "60", description = "The seconds a publish is remembered for the deduplication, 0 to only limit the number of publishes (default: 60)", order = 1)
+    private int dedupWindow;
+
+    @CommandLine.Option(names = {"--dedupSize", "--dedup-size"}, defaultValue = "100000", description = "The maximum number of publishes remembered for the deduplication (default: 100000)", order = 1)
+    private int dedupSize;
+
+    @CommandLine.Option(names = {"--backpressure"}, arity = "0..1", defaultValue = "0", fallbackValue = "" + DEFAULT_REQUEST_BATCH_SIZE, description = "Receive the publishes with backpressure, requesting this number of publishes at once, so a slow output throttles the broker through the receive maximum instead of filling the memory (default: off, " + DEFAULT_REQUEST_BATCH_SIZE + " if given without a number). Not available in the shell, where the client is connected by 'con'", order = 1)
+    private int requestBatchSize;
+
+    @CommandLine.Option(names = {"--group"}, description = "Subscribe to the topics as this shared subscription group ($share/<group>/<topic>), so the broker distributes their publishes among the consumers of the group", order = 1)
+    @Nullable private String group;
+
+    @CommandLine.Option(names = {"--consumers"}, defaultValue = "1", description = "The number of clients consuming in the shared subscription group, their publishes go to the same output (default: 1)", order = 1)
+    private int consumers;
+
+    @CommandLine.Option(names = {"--count"}, defaultValue = "0", description = "Exit after this number of received publishes, 0 for no limit (default: 0)", order = 1)
+    private long count;
+
+    @CommandLine.Option(names = {"--timeout"}, defaultValue = "0", description = "Exit after this number of seconds, with exit code " + EXIT_CODE_TIMEOUT + " if the count was not reached, 0 for no timeout (default: 0)", order = 1)
+    private int timeout;
+
+    @CommandLine.Option(names = {"--idleTimeout", "--idle-timeout"}, defaultValue = "0", description = "Exit after this number of seconds without a received publish, with exit code " + EXIT_CODE_IDLE_TIMEOUT + " if the count was not reached, 0 for no idle timeout (default: 0)", order = 1)
+    private int idleTimeout;
+
     @CommandLine.Option(names = {"-l"}, defaultValue = "false", description = "Log to $HOME/.mqtt-cli/logs (Configurable through $HOME/.mqtt-cli/config.properties)", order = 1)
     private boolean logToLogfile;
 
@@ -114,34 +226,248 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
         else if (isVerbose()) logLevel = "trace";
         LoggerUtils.setupConsoleLogging(logToLogfile, logLevel);
 
-        setDefaultOptions();
-        sslConfig = buildSslConfig();
-
-        Logger.trace("Command {} ", this);
-
-        logUnusedOptions();
-
         try {
-            qos = MqttUtils.arrangeQosToMatchTopics(topics, qos);
-            subscribeClient = mqttClientExecutor.subscribe(this);
+            prepare();
+            subscribe();
         }
         catch (final ConnectionFailedException cex) {
             Logger.error(cex, cex.getCause().getMessage());
+            exitCode = EXIT_CODE_ERROR;
             return;
         }
         catch (final Exception ex) {
             Logger.error(ex, Throwables.getRootCause(ex).getMessage());
+            exitCode = EXIT_CODE_ERROR;
             return;
         }
 
+        final ScheduledExecutorService statisticsPrinter = startStatisticsPrinter();
+        if (deduplicator != null) {
+            // Printed to stderr, so the captured publishes on stdout stay clean, also when the CLI is stopped with Ctrl+C
+            final PublishDeduplicator deduplicator = this.deduplicator;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> deduplicator.printReport(System.err)));
+        }
+        for (final MqttClient consumerClient : consumerClients) {
+            final ClientData clientData = getClientData(consumerClient);
+            final ReconnectHandler reconnectHandler = clientData != null ? clientData.getReconnectHandler() : null;
+            if (reconnectHandler != null) {
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> reconnectHandler.printReport(System.err)));
+            }
+        }
+        final ScheduledExecutorService lifecycleScheduler = newDaemonScheduler("mqtt-cli-lifecycle");
+
         try {
-            stay();
+            exitCode = getExitCode(stay(lifecycleScheduler));
         }
         catch (final InterruptedException ex) {
             Logger.error(ex, Throwables.getRootCause(ex).getMessage());
+            exitCode = EXIT_CODE_ERROR;
+        }
+        finally {
+            lifecycleScheduler.shutdownNow();
+            if (statisticsPrinter != null) {
+                statisticsPrinter.shutdownNow();
+            }
+        }
+
+
+    }
+
+    /**
+     * Applies the default options and builds the ssl configuration. Has to be called before {@link #subscribe()}.
+     */
+    public void prepare() {
+        setDefaultOptions();
+        sslConfig = buildSslConfig();
+        if (count < 0 || timeout < 0 || idleTimeout < 0) {
+            Logger.warn("The count, timeout and idle timeout must not be negative, using 0");
+            count = Math.max(0, count);
+            timeout = Math.max(0, timeout);
+            idleTimeout = Math.max(0, idleTimeout);
+        }
+        if (consumers < 1) {
+            Logger.warn("The number of consumers must be at least 1, using 1");
+            consumers = 1;
+        }
+        if (consumers > 1 && group == null) {
+            throw new IllegalArgumentException("More than one consumer needs a shared subscription group, use '--group'");
+        }
+        if (requestBatchSize < 0) {
+            Logger.warn("The backpressure batch size must not be negative, receiving without backpressure");
+            requestBatchSize = 0;
+        }
+        lifecycle = new SubscribeLifecycle(count, TimeUnit.SECONDS.toMillis(timeout), TimeUnit.SECONDS.toMillis(idleTimeout));
+        if (statsInterval < 1 || statsTop < 1) {
+            Logger.warn("The statistics interval and number of topics must be at least 1, using 1");
+            statsInterval = Math.max(1, statsInterval);
+            statsTop = Math.max(1, statsTop);
+        }
+        if (stats) {
+            statistics = new SubscribeStatistics(statsTop);
+        }
+        if (latency) {
+            latencyStatistics = new LatencyStatistics();
+        }
+        if (aggregateFields != null) {
+            aggregator = new TopicAggregator(JsonNumberExtractor.of(Arrays.asList(aggregateFields)));
+        }
+        if (dedup) {
+            if (dedupSize < 1 || dedupWindow < 0) {
+                Logger.warn("The deduplication size must be at least 1 and the window must not be negative, using 1 and 0");
+                dedupSize = Math.max(1, dedupSize);
+                dedupWindow = Math.max(0, dedupWindow);
+            }
+            deduplicator = new PublishDeduplicator(dedupSize, dedupWindow);
+        }
+
+        Logger.trace("Command {} ", this);
+
+        logUnusedOptions();
+    }
+
+    private @Nullable ScheduledExecutorService startStatisticsPrinter() {
+        if (statistics == null && latencyStatistics == null && aggregator == null) {
+            return null;
+        }
+        final SubscribeStatistics statistics = this.statistics;
+        final LatencyStatistics latencyStatistics = this.latencyStatistics;
+        final TopicAggregator aggregator = this.aggregator;
+        final ScheduledExecutorService statisticsPrinter = newDaemonScheduler("mqtt-cli-statistics");
+        if (statistics != null || latencyStatistics != null) {
+            statisticsPrinter.scheduleAtFixedRate(() -> {
+                if (statistics != null) {
+                    if (System.console() != null) {
+                        // Refresh the table in place on a terminal
+                        output.print("\033[H\033[2J");
+                    }
+                    statistics.printReport(output);
+                }
+                if (latencyStatistics != null) {
+                    latencyStatistics.printReport(output, false);
+                }
+            }, statsInterval, statsInterval, TimeUnit.SECONDS);
+        }
+        if (aggregator != null) {
+            statisticsPrinter.scheduleAtFixedRate(() -> aggregator.printReport(output),
+                    window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        if (latencyStatistics != null) {
+            // Also print the results of the whole run when the CLI is stopped with Ctrl+C
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> latencyStatistics.printReport(output, true)));
+        }
+        if (aggregator != null) {
+            // Also print the last, incomplete window
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> aggregator.printReport(output)));
+        }
+        return statisticsPrinter;
+    }
+
+    private static @NotNull ScheduledExecutorService newDaemonScheduler(final @NotNull String name) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public @NotNull MqttClient subscribe() {
+        if (topics == null && topicFile == null) {
+            throw new IllegalArgumentException("Missing topics to subscribe to, use '-t' or '--topicFile'");
+        }
+        final MqttQos topicFileQos = qos[0];
+        if (topics != null) {
+            qos = MqttUtils.arrangeQosToMatchTopics(topics, qos);
+            if (group != null) {
+                sharedTopics = new String[topics.length];
+                for (int i = 0; i < topics.length; i++) {
+                    sharedTopics[i] = MqttUtils.toSharedTopicFilter(group, topics[i]);
+                }
+            }
+        }
+        consumerClients = connectConsumers();
+        subscribeClient = consumerClients.get(0);
+        for (final MqttClient consumerClient : consumerClients) {
+            mqttClientExecutor.subscribe(consumerClient, this);
+            if (topicFile != null) {
+                try (final BufferedReader reader = Files.newBufferedReader(topicFile.toPath(), StandardCharsets.UTF_8)) {
+                    mqttClientExecutor.subscribe(consumerClient, this, readTopicFile(reader), topicFileQos);
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException("Could not read topic file " + topicFile, ex);
+                }
+            }
+        }
+        return subscribeClient;
+    }
+
+    /**
+     * Connects the consumers of the group at the same time. They share this command, so the publishes of all of them
+     * go through the same filters, statistics and output.
+     */
+    private @NotNull List<MqttClient> connectConsumers() {
+        if (consumers == 1) {
+            return Collections.singletonList(mqttClientExecutor.connect(this));
+        }
+        // The broker would assign the identifiers, but connects with the same identifier are merged
+        final String identifier = getIdentifier().isEmpty() ?
+                defaultCLIProperties.getClientPrefix() + MqttUtils.buildRandomClientID(defaultCLIProperties.getClientLength()) :
+                getIdentifier();
+        final List<CompletableFuture<MqttClient>> connectFutures = new ArrayList<>(consumers);
+        for (int i = 1; i <= consumers; i++) {
+            connectFutures.add(mqttClientExecutor.connectAsync(this, identifier + "-" + i));
+        }
+        final List<MqttClient> clients = new ArrayList<>(consumers);
+        RuntimeException failure = null;
+        for (final CompletableFuture<MqttClient> connectFuture : connectFutures) {
+            try {
+                clients.add(connectFuture.join());
+            } catch (final CompletionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause() : ex;
+                }
+            }
         }
+        if (failure != null) {
+            // The connected consumers would take their share of the publishes of the group without an output
+            for (final MqttClient client : clients) {
+                mqttClientExecutor.disconnect(client);
+            }
+            throw failure;
+        }
+        return clients;
+    }
 
+    private @NotNull Iterator<String> readTopicFile(final @NotNull BufferedReader reader) {
+        final Stream<String> topicFilters = MqttUtils.readTopicFilters(reader);
+        final String group = this.group;
+        if (group == null) {
+            return topicFilters.iterator();
+        }
+        return topicFilters.map(topicFilter -> MqttUtils.toSharedTopicFilter(group, topicFilter)).iterator();
+    }
 
+    /**
+     * Disconnects all consumers, which ends their subscriptions as well.
+     */
+    public void disconnect() {
+        for (final MqttClient consumerClient : consumerClients) {
+            mqttClientExecutor.disconnect(consumerClient);
+        }
+    }
+
+    /**
+     * Removes the subscriptions of {@link #subscribe()} of all consumers, also the ones of the topic file.
+     */
+    public void unsubscribe() {
+        for (final MqttClient consumerClient : consumerClients) {
+            mqttClientExecutor.unsubscribe(consumerClient, this);
+            if (topicFile != null) {
+                try (final BufferedReader reader = Files.newBufferedReader(topicFile.toPath(), StandardCharsets.UTF_8)) {
+                    mqttClientExecutor.unsubscribe(consumerClient, this, readTopicFile(reader));
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException("Could not read topic file " + topicFile, ex);
+                }
+            }
+        }
     }
 
     @Override
@@ -151,15 +477,71 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
             if (userProperties != null) {
                 Logger.warn("Subscribe user properties were set but are unused in Mqtt version {}", MqttVersion.MQTT_3_1_1);
             }
+            if (filterUserProperty != null) {
+                Logger.warn("A user property filter was set but Mqtt version {} publishes have no user properties, so no publish will be printed", MqttVersion.MQTT_3_1_1);
+            }
+        }
+    }
+
+    /**
+     * Blocks until the count, a timeout or a disconnect ends the subscribe, no thread polls for any of them.
+     */
+    private @NotNull SubscribeLifecycle.Result stay(final @NotNull ScheduledExecutorService scheduler) throws InterruptedException {
+        final SubscribeLifecycle lifecycle = Objects.requireNonNull(this.lifecycle);
+        // The subscribe ends when any consumer is disconnected, as the group would silently consume less
+        for (final MqttClient consumerClient : consumerClients) {
+            final ClientData clientData = getClientData(consumerClient);
+            if (clientData == null) {
+                // The client was disconnected before it could be looked up
+                lifecycle.disconnected();
+            }
+            else {
+                clientData.getDisconnectedFuture().thenRun(lifecycle::disconnected);
+            }
+        }
+        lifecycle.start(scheduler);
+
+        final SubscribeLifecycle.Result result;
+        try {
+            result = lifecycle.getResult().get();
+        }
+        catch (final ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+        if (result != SubscribeLifecycle.Result.COUNT_REACHED && count > 0) {
+            Logger.warn("Received {} of {} publishes", lifecycle.getHandled(), count);
         }
+        return result;
+    }
+
+    private static @Nullable ClientData getClientData(final @NotNull MqttClient client) {
+        return MqttClientExecutor.getClientRegistry().get(MqttUtils.buildKey(
+                client.getConfig().getClientIdentifier().get().toString(), client.getConfig().getServerHost()));
     }
 
-    private void stay() throws InterruptedException {
-        while (subscribeClient.getState().isConnectedOrReconnect()) {
-            Thread.sleep(IDLE_TIME);
+    /**
+     * @return the exit code for the condition that ended the subscribe, a timeout is only an error if a count was given
+     */
+    public int getExitCode(final @NotNull SubscribeLifecycle.Result result) {
+        switch (result) {
+            case COUNT_REACHED:
+                return EXIT_CODE_OK;
+            case TIMEOUT:
+                return count > 0 ? EXIT_CODE_TIMEOUT : EXIT_CODE_OK;
+            case IDLE_TIMEOUT:
+                return count > 0 ? EXIT_CODE_IDLE_TIMEOUT : EXIT_CODE_OK;
+            case DISCONNECTED:
+                return EXIT_CODE_DISCONNECTED;
+            default:
+                throw new IllegalStateException("Unknown subscribe result " + result);
         }
     }
 
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
     @Override
     public void setDefaultOptions() {
         super.setDefaultOptions();
@@ -176,6 +558,7 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
         return getClass().getSimpleName() + "{" +
                 connectOptions() +
                 "topics=" + Arrays.toString(topics) +
+                (topicFile != null ? (", topicFile=" + topicFile.getAbsolutePath()) : "") +
                 ", qos=" + Arrays.toString(qos) +
                 ", outputToConsole=" + printToSTDOUT +
                 ", base64=" + base64 +
@@ -183,6 +566,17 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
                 ", showTopics=" + showTopics +
                 (userProperties != null ? (", userProperties=" + Arrays.toString(userProperties)) : "") +
                 (publishFile != null ? (", publishFile=" + publishFile.getAbsolutePath()) : "") +
+                (getPublishFilter().isAcceptAll() ? "" : (", publishFilter=" + getPublishFilter())) +
+                (stats ? ", stats=true" : "") +
+                (latency ? ", latency=true" : "") +
+                (stats || latency ? (", statsInterval=" + statsInterval + ", statsTop=" + statsTop) : "") +
+                (aggregateFields != null ? (", aggregateFields=" + Arrays.toString(aggregateFields) + ", window=" + window) : "") +
+                (dedup ? (", dedupWindow=" + dedupWindow + ", dedupSize=" + dedupSize) : "") +
+                (group != null ? (", group=" + group + ", consumers=" + consumers) : "") +
+                (requestBatchSize > 0 ? (", requestBatchSize=" + requestBatchSize) : "") +
+                (count > 0 ? (", count=" + count) : "") +
+                (timeout > 0 ? (", timeout=" + timeout) : "") +
+                (idleTimeout > 0 ? (", idleTimeout=" + idleTimeout) : "") +
                 '}';
     }
 
@@ -190,7 +584,10 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
     @NotNull
     @Override
     public String[] getTopics() {
-        return topics;
+        if (topics == null) {
+            return new String[0];
+        }
+        return sharedTopics != null ? sharedTopics : topics;
     }
 
     @NotNull
@@ -209,6 +606,26 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
         return printToSTDOUT;
     }
 
+    @NotNull
+    @Override
+    public PrintStream getOutput() {
+        return output;
+    }
+
+    /**
+     * Resolves a relative output file, also the default one of the properties, against the given working directory
+     * instead of the one of the process.
+     */
+    public void resolvePublishFile(final @NotNull File workingDirectory) {
+        if (publishFile != null && !publishFile.isAbsolute()) {
+            publishFile = new File(workingDirectory, publishFile.getPath());
+        }
+    }
+
+    public void setOutput(final @NotNull PrintStream output) {
+        this.output = output;
+    }
+
     public boolean isBase64() { return base64; }
 
     public boolean isJsonOutput() { return jsonOutput; }
@@ -223,6 +640,47 @@ public class SubscribeCommand extends AbstractConnectFlags implements MqttAction
         this.userProperties = userProperties;
     }
 
+    @NotNull
+    @Override
+    public PublishFilter getPublishFilter() {
+        return new PublishFilter(filterTopic, filterUserProperty, filterPayload, filterPayloadRegex, filterJson);
+    }
+
+    @Nullable
+    @Override
+    public SubscribeStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Nullable
+    @Override
+    public LatencyStatistics getLatencyStatistics() {
+        return latencyStatistics;
+    }
+
+    @Nullable
+    @Override
+    public SubscribeLifecycle getLifecycle() {
+        return lifecycle;
+    }
+
+    @Nullable
+    @Override
+    public PublishDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
+    @Nullable
+    @Override
+    public TopicAggregator getAggregator() {
+        return aggregator;
+    }
+
+    @Override
+    public int getRequestBatchSize() {
+        return requestBatchSize;
+    }
+
     @Nullable
     @Override
     public MqttClientSslConfig getSslConfig() {
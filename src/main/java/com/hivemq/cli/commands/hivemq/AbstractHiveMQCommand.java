@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq;
+
+import com.google.common.base.Throwables;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.hivemq.cli.openapi.ApiException;
+import com.hivemq.cli.rest.HiveMQRestService;
+import com.hivemq.cli.utils.LoggerUtils;
+import okhttp3.HttpUrl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+/**
+ * Common options of the commands which manage a single HiveMQ cluster through its REST API.
+ */
+public abstract class AbstractHiveMQCommand {
+
+    // Management calls are issued one at a time, so the rate is not limited
+    private static final double REST_RATE_LIMIT = Double.MAX_VALUE;
+
+    @CommandLine.Option(names = {"-url"}, defaultValue = "http://localhost:8888", description = "The URL of the HiveMQ REST API endpoint (default http://localhost:8888)", order = 1)
+    protected @NotNull String url;
+
+    @CommandLine.Option(names = {"-l"}, defaultValue = "false", description = "Log to $HOME/.mqtt.cli/logs (Configurable through $HOME/.mqtt-cli/config.properties)", order = 10)
+    private void initLogging(final boolean logToLogfile) {
+        LoggerUtils.turnOffConsoleLogging(logToLogfile);
+    }
+
+    /**
+     * @return the rest service for the given URL or null if the URL is not valid
+     */
+    protected @Nullable HiveMQRestService createRestService() {
+        if (HttpUrl.parse(url) == null) {
+            Logger.error("URL is not in a valid format: {}", url);
+            System.err.println("URL is not in a valid format: " + url);
+            return null;
+        }
+        return new HiveMQRestService(url, REST_RATE_LIMIT);
+    }
+
+    protected void printError(final @NotNull String message, final @NotNull Throwable throwable) {
+        Logger.error(throwable, message);
+        System.err.println("\r" + message + ": " + Throwables.getRootCause(throwable).getMessage());
+
+        final Throwable cause = throwable instanceof ApiException ? throwable : throwable.getCause();
+        if (cause instanceof ApiException && ((ApiException) cause).getResponseBody() != null) {
+            try {
+                final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+                final JsonElement je = JsonParser.parseString(((ApiException) cause).getResponseBody());
+                System.err.println(gson.toJson(je));
+            } catch (final JsonParseException jsonEx) {
+                System.err.println("Please check the URL for the HiveMQ REST-API");
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AbstractHiveMQCommand{" +
+                "url='" + url + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.backup;
+
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.commands.hivemq.AbstractHiveMQCommand;
+import com.hivemq.cli.openapi.ApiException;
+import com.hivemq.cli.openapi.hivemq.Backup;
+import com.hivemq.cli.rest.HiveMQRestService;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.util.concurrent.Callable;
+
+
+@CommandLine.Command(
+        name = "create",
+        description = "Create a new HiveMQ backup",
+        sortOptions = false,
+        mixinStandardHelpOptions = true,
+        versionProvider = MqttCLIMain.CLIVersionProvider.class)
+public class BackupCreateCommand extends AbstractHiveMQCommand implements Callable<Integer> {
+
+    private static final long POLL_INTERVAL = 1000;
+
+    @CommandLine.Option(names = {"-w", "--wait"}, defaultValue = "false", description = "Wait until the backup is completed (default false)", order = 2)
+    private boolean waitForCompletion;
+
+    @Inject
+    public BackupCreateCommand() {
+    }
+
+    @Override
+    public Integer call() throws InterruptedException {
+        Logger.trace("Command {}", this);
+
+        final HiveMQRestService hivemqRestService = createRestService();
+        if (hivemqRestService == null) {
+            return -1;
+        }
+
+        Backup backup;
+        try {
+            backup = hivemqRestService.createBackup().getBackup();
+        } catch (final ApiException apiException) {
+            printError("Failed to create backup", apiException);
+            return -1;
+        }
+        if (backup == null || backup.getId() == null) {
+            System.err.println("Failed to create backup: The HiveMQ REST API returned no backup");
+            return -1;
+        }
+        Logger.info("Created backup {} at {}", backup.getId(), url);
+
+        if (waitForCompletion) {
+            System.out.append("Waiting for backup ").append(backup.getId()).append(" to complete").flush();
+            while (backup.getState() == Backup.StateEnum.IN_PROGRESS) {
+                Thread.sleep(POLL_INTERVAL);
+                try {
+                    backup = hivemqRestService.getBackup(backup.getId()).getBackup();
+                } catch (final ApiException apiException) {
+                    System.out.println();
+                    printError("Failed to retrieve state of backup " + backup.getId(), apiException);
+                    return -1;
+                }
+                if (backup == null) {
+                    System.out.println();
+                    System.err.println("Failed to retrieve state of backup: The HiveMQ REST API returned no backup");
+                    return -1;
+                }
+                System.out.append('.').flush();
+            }
+            System.out.println();
+        }
+
+        if (backup.getState() == Backup.StateEnum.FAILED) {
+            System.err.println("Backup " + backup.getId() + " failed: " + backup.getFailReason());
+            return -1;
+        }
+        System.out.println("Backup " + backup.getId() + " " + backup.getState());
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BackupCreateCommand{" +
+                "waitForCompletion=" + waitForCompletion +
+                ", " + super.toString() +
+                '}';
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.backup;
+
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.commands.hivemq.AbstractHiveMQCommand;
+import com.hivemq.cli.openapi.ApiException;
+import com.hivemq.cli.openapi.hivemq.Backup;
+import com.hivemq.cli.rest.HiveMQRestService;
+import com.hivemq.cli.rest.ResumableFileDownloader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+
+@CommandLine.Command(
+        name = "download",
+        description = "Download a HiveMQ backup file",
+        sortOptions = false,
+        mixinStandardHelpOptions = true,
+        versionProvider = MqttCLIMain.CLIVersionProvider.class)
+public class BackupDownloadCommand extends AbstractHiveMQCommand implements Callable<Integer> {
+
+    private static final String DEFAULT_FILE_NAME = "hivemq_backup";
+
+    @CommandLine.Parameters(index = "0", description = "The id of the backup to download")
+    private @NotNull String backupId;
+
+    @CommandLine.Option(names = {"-f", "--file"}, description = "The file to write the backup to (defaults to hivemq_backup_<id> in the current working directory)", order = 2)
+    private @Nullable File file;
+
+    @CommandLine.Option(names = {"--sha256"}, description = "The expected SHA-256 checksum of the backup file", order = 3)
+    private @Nullable String expectedChecksum;
+
+    @CommandLine.Option(names = {"--retries"}, defaultValue = "5", description = "The number of times an interrupted download is resumed (default 5)", order = 4)
+    private int retries;
+
+    @Inject
+    public BackupDownloadCommand() {
+    }
+
+    @Override
+    public Integer call() throws InterruptedException {
+        Logger.trace("Command {}", this);
+
+        final HiveMQRestService hivemqRestService = createRestService();
+        if (hivemqRestService == null) {
+            return -1;
+        }
+
+        final Backup backup;
+        try {
+            backup = hivemqRestService.getBackup(backupId).getBackup();
+        } catch (final ApiException apiException) {
+            printError("Failed to retrieve backup " + backupId, apiException);
+            return -1;
+        }
+        if (backup == null) {
+            System.err.println("Failed to retrieve backup " + backupId + ": The HiveMQ REST API returned no backup");
+            return -1;
+        }
+        if (backup.getState() == Backup.StateEnum.IN_PROGRESS || backup.getState() == Backup.StateEnum.FAILED) {
+            System.err.println("Backup " + backupId + " can not be downloaded in state " + backup.getState());
+            return -1;
+        }
+
+        if (file == null) {
+            file = new File(DEFAULT_FILE_NAME + "_" + backupId);
+        }
+
+        Logger.info("Starting download of backup {} from {} to {}", backupId, url, file);
+
+        final ResumableFileDownloader downloader = new ResumableFileDownloader(
+                offset -> hivemqRestService.downloadBackupFile(backupId, offset), file, retries);
+
+        final ScheduledExecutorService printingScheduler = Executors.newSingleThreadScheduledExecutor();
+        printingScheduler.scheduleWithFixedDelay(() -> {
+            final long totalBytes = downloader.getTotalBytes();
+            if (totalBytes >= 0) {
+                System.out.append("\rDownloading backup: " + downloader.getDownloadedBytes() + " / " + totalBytes + " bytes").flush();
+            } else {
+                System.out.append("\rDownloading backup: " + downloader.getDownloadedBytes() + " bytes").flush();
+            }
+        }, 100, 500, TimeUnit.MILLISECONDS);
+
+        final String checksum;
+        try {
+            checksum = downloader.download(backup.getBytes() != null ? backup.getBytes() : -1, expectedChecksum);
+        } catch (final ResumableFileDownloader.VerificationException ex) {
+            System.err.println("\r" + ex.getMessage());
+            System.err.println("The downloaded file was deleted, run the command again to download backup " + backupId + " from the beginning");
+            return -1;
+        } catch (final ApiException | IOException ex) {
+            printError("Failed to download backup " + backupId, ex);
+            System.err.println("Run the command again to resume the download");
+            return -1;
+        } finally {
+            printingScheduler.shutdownNow();
+        }
+
+        try {
+            Files.write(new File(file.getPath() + ".sha256").toPath(),
+                    (checksum + "  " + file.getName() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        } catch (final IOException ex) {
+            Logger.warn(ex, "Could not write checksum file for {}", file);
+        }
+
+        Logger.info("Finished download of backup {} with SHA-256 {}", backupId, checksum);
+        System.out.println("\rSuccessfully downloaded backup " + backupId + " (" + downloader.getDownloadedBytes() + " bytes) to " + file.getPath());
+        System.out.println("SHA-256: " + checksum);
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BackupDownloadCommand{" +
+                "backupId='" + backupId + '\'' +
+                ", file=" + file +
+                ", expectedChecksum=" + expectedChecksum +
+                ", retries=" + retries +
+                ", " + super.toString() +
+                '}';
+    }
+}
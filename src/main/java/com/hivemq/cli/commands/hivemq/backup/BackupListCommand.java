@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.backup;
+
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.commands.hivemq.AbstractHiveMQCommand;
+import com.hivemq.cli.openapi.ApiException;
+import com.hivemq.cli.openapi.hivemq.Backup;
+import com.hivemq.cli.openapi.hivemq.BackupList;
+import com.hivemq.cli.rest.HiveMQRestService;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.util.concurrent.Callable;
+
+
+@CommandLine.Command(
+        name = "list",
+        aliases = "ls",
+        description = "List all HiveMQ backups",
+        sortOptions = false,
+        mixinStandardHelpOptions = true,
+        versionProvider = MqttCLIMain.CLIVersionProvider.class)
+public class BackupListCommand extends AbstractHiveMQCommand implements Callable<Integer> {
+
+    private static final String ROW_FORMAT = "%-40s %-30s %-20s %15s%n";
+
+    @Inject
+    public BackupListCommand() {
+    }
+
+    @Override
+    public Integer call() {
+        Logger.trace("Command {}", this);
+
+        final HiveMQRestService hivemqRestService = createRestService();
+        if (hivemqRestService == null) {
+            return -1;
+        }
+
+        final BackupList backupList;
+        try {
+            backupList = hivemqRestService.getAllBackups();
+        } catch (final ApiException apiException) {
+            printError("Failed to list backups", apiException);
+            return -1;
+        }
+
+        System.out.printf(ROW_FORMAT, "ID", "CREATED AT", "STATE", "BYTES");
+        if (backupList.getItems() != null) {
+            for (final Backup backup : backupList.getItems()) {
+                System.out.printf(ROW_FORMAT,
+                        backup.getId(),
+                        backup.getCreatedAt() != null ? backup.getCreatedAt() : "",
+                        backup.getState() != null ? backup.getState() : "",
+                        backup.getBytes() != null ? backup.getBytes() : "");
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BackupListCommand{" + super.toString() + '}';
+    }
+}
@@ -24,6 +24,7 @@ import org.tinylog.configuration.Configuration;
 import picocli.CommandLine;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -33,31 +34,37 @@ public abstract class AbstractExportCommand {
         csv
     }
 
-    @CommandLine.Option(names = {"-url"}, defaultValue = "http://localhost:8888", description = "The URL of the HiveMQ REST API endpoint (default http://localhost:8888)", order = 1)
-    protected @NotNull String url;
+    @CommandLine.Option(names = {"-url"}, defaultValue = "http://localhost:8888", split = ",", description = "The URLs of the HiveMQ REST API endpoints. Detail requests are spread across all given cluster nodes (default http://localhost:8888)", order = 1)
+    protected @NotNull String[] urls;
 
     @CommandLine.Option(names = {"-f", "--file"}, description = "The file to write the output to (defaults to a timestamped file in the current working directory)", order = 2)
     protected @Nullable File file;
 
-    @CommandLine.Option(names = {"-r", "--rate"}, defaultValue = "1500", description = "The rate limit of the rest calls to the HiveMQ API endpoint in requests per second (default 1500 rps)", order = 3)
+    @CommandLine.Option(names = {"-r", "--rate"}, defaultValue = "1500", description = "The rate limit of the rest calls to each HiveMQ API endpoint in requests per second (default 1500 rps)", order = 3)
     protected double rateLimit;
 
-    @CommandLine.Option(names = {"--format"}, defaultValue = "csv", description = "The export output format (default csv)", order = 4)
+    @CommandLine.Option(names = {"--maxConcurrentRequests"}, defaultValue = "100", description = "The maximum number of concurrent rest calls to each HiveMQ API endpoint (default 100)", order = 4)
+    protected int maxConcurrentRequests;
+
+    @CommandLine.Option(names = {"--format"}, defaultValue = "csv", description = "The export output format (default csv)", order = 5)
     protected @NotNull OutputFormat format;
 
-    @CommandLine.Option(names = {"--csvSeparator"}, defaultValue = "" + CSVWriter.DEFAULT_SEPARATOR, description = "The separator for CSV export (default " + CSVWriter.DEFAULT_SEPARATOR + ")", order = 5)
+    @CommandLine.Option(names = {"--csvSeparator"}, defaultValue = "" + CSVWriter.DEFAULT_SEPARATOR, description = "The separator for CSV export (default " + CSVWriter.DEFAULT_SEPARATOR + ")", order = 6)
     public char csvSeparator;
 
-    @CommandLine.Option(names = {"--csvQuoteChar"}, defaultValue = "" + CSVWriter.DEFAULT_QUOTE_CHARACTER, description = "The quote character for csv export (default " + CSVWriter.DEFAULT_QUOTE_CHARACTER + ")", order = 6)
+    @CommandLine.Option(names = {"--csvQuoteChar"}, defaultValue = "" + CSVWriter.DEFAULT_QUOTE_CHARACTER, description = "The quote character for csv export (default " + CSVWriter.DEFAULT_QUOTE_CHARACTER + ")", order = 7)
     public char csvQuoteCharacter;
 
-    @CommandLine.Option(names = {"--csvEscChar"}, defaultValue = "" + CSVWriter.DEFAULT_ESCAPE_CHARACTER, description = "The escape character for csv export (default " + CSVWriter.DEFAULT_ESCAPE_CHARACTER + ")", order = 7)
+    @CommandLine.Option(names = {"--csvEscChar"}, defaultValue = "" + CSVWriter.DEFAULT_ESCAPE_CHARACTER, description = "The escape character for csv export (default " + CSVWriter.DEFAULT_ESCAPE_CHARACTER + ")", order = 8)
     public char csvEscapeChar;
 
-    @CommandLine.Option(names = {"--csvLineEndChar"}, defaultValue = CSVWriter.DEFAULT_LINE_END, description = "The line-end character for csv export (default \\n)", order = 8)
+    @CommandLine.Option(names = {"--csvLineEndChar"}, defaultValue = CSVWriter.DEFAULT_LINE_END, description = "The line-end character for csv export (default \\n)", order = 9)
     public @NotNull String csvLineEndCharacter;
 
-    @CommandLine.Option(names = {"-l"}, defaultValue = "false", description = "Log to $HOME/.mqtt.cli/logs (Configurable through $HOME/.mqtt-cli/config.properties)", order = 9)
+    @CommandLine.Option(names = {"--metricsFile"}, description = "The file to write the progress and throughput metrics of the export to as one JSON line every 500ms", order = 10)
+    protected @Nullable File metricsFile;
+
+    @CommandLine.Option(names = {"-l"}, defaultValue = "false", description = "Log to $HOME/.mqtt.cli/logs (Configurable through $HOME/.mqtt-cli/config.properties)", order = 11)
     private void initLogging(final boolean logToLogfile) {
         LoggerUtils.turnOffConsoleLogging(logToLogfile);
     }
@@ -65,14 +72,16 @@ public abstract class AbstractExportCommand {
     @Override
     public String toString() {
         return "AbstractExportCommand{" +
-                "url='" + url + '\'' +
+                "urls=" + Arrays.toString(urls) +
                 ", file=" + file +
                 ", rateLimit=" + rateLimit +
+                ", maxConcurrentRequests=" + maxConcurrentRequests +
                 ", format=" + format +
                 ", csvSeparator=" + csvSeparator +
                 ", csvQuoteCharacter=" + csvQuoteCharacter +
                 ", csvEscapeChar=" + csvEscapeChar +
                 ", csvLineEndCharacter='\\n" + '\'' +
+                ", metricsFile=" + metricsFile +
                 '}';
     }
 }
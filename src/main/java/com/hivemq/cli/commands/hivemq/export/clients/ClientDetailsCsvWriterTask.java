@@ -23,16 +23,18 @@ import com.hivemq.cli.openapi.hivemq.ConnectionDetails;
 import com.hivemq.cli.openapi.hivemq.ProxyInformation;
 import com.hivemq.cli.openapi.hivemq.TLV;
 import com.hivemq.cli.openapi.hivemq.TlsInformation;
-import com.opencsv.CSVWriter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
@@ -78,12 +80,19 @@ public class ClientDetailsCsvWriterTask implements Runnable {
             "certificateState"
     };
 
+    static final int BATCH_SIZE = 1_000;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
     private final @NotNull CompletableFuture<Void> clientDetailsFuture;
     private final @NotNull BlockingQueue<ClientDetails> clientDetailsQueue;
     private final @NotNull File file;
-    private final @NotNull CSVWriter csvWriter;
+    private final @NotNull CsvRowWriter csvWriter;
     private final @NotNull BufferedWriter bufferedFileWriter;
 
+    // Reused for every row, the writer task is the only thread filling it
+    private final @NotNull String[] row = new String[EXPORT_CSV_HEADER.length];
+    private int column;
+
     private final @NotNull AtomicLong writtenClientDetails = new AtomicLong(0);
 
     public ClientDetailsCsvWriterTask(final @NotNull CompletableFuture<Void> clientDetailsFuture,
@@ -96,9 +105,12 @@ public class ClientDetailsCsvWriterTask implements Runnable {
         this.clientDetailsFuture = clientDetailsFuture;
         this.clientDetailsQueue = clientDetailsQueue;
         this.file = file;
-        this.bufferedFileWriter = new BufferedWriter(new FileWriter(file, false));
+        final FileChannel fileChannel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.bufferedFileWriter = new BufferedWriter(
+                new OutputStreamWriter(Channels.newOutputStream(fileChannel), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
 
-        csvWriter = new CSVWriter(
+        csvWriter = new CsvRowWriter(
                 bufferedFileWriter,
                 lineSeparator,
                 quoteCharacter,
@@ -123,15 +135,24 @@ public class ClientDetailsCsvWriterTask implements Runnable {
 
             writeHeader();
 
+            final List<ClientDetails> batch = new ArrayList<>(BATCH_SIZE);
             while (!clientDetailsFuture.isDone() || !clientDetailsQueue.isEmpty()) {
 
-                final ClientDetails clientDetails = clientDetailsQueue.poll(50, TimeUnit.MILLISECONDS);
-
-                if (clientDetails != null) {
-                    writeRow(clientDetails);
-                    writtenClientDetails.incrementAndGet();
+                // Only block if the queue is empty, otherwise take everything that is available at once
+                if (clientDetailsQueue.drainTo(batch, BATCH_SIZE) == 0) {
+                    final ClientDetails clientDetails = clientDetailsQueue.poll(50, TimeUnit.MILLISECONDS);
+                    if (clientDetails == null) {
+                        continue;
+                    }
+                    batch.add(clientDetails);
+                    clientDetailsQueue.drainTo(batch, BATCH_SIZE - 1);
                 }
 
+                for (int i = 0; i < batch.size(); i++) {
+                    writeRow(batch.get(i));
+                }
+                writtenClientDetails.addAndGet(batch.size());
+                batch.clear();
             }
 
             csvWriter.close();
@@ -145,113 +166,117 @@ public class ClientDetailsCsvWriterTask implements Runnable {
 
     public long getWrittenClientDetails() { return writtenClientDetails.get(); }
 
-    private void writeHeader() {
-        csvWriter.writeNext(EXPORT_CSV_HEADER);
+    private void writeHeader() throws IOException {
+        csvWriter.writeRow(EXPORT_CSV_HEADER);
     }
 
-    private void writeRow(final @NotNull ClientDetails clientDetails) {
-        final List<String> row = new ArrayList<>();
-        row.add(clientDetails.getId());
-        row.add(toCsvString(clientDetails.getConnected()));
-        row.add(toCsvString(clientDetails.getSessionExpiryInterval()));
-        row.add(toCsvString(clientDetails.getConnectedAt()));
-        row.add(toCsvString(clientDetails.getMessageQueueSize()));
-        row.add(toCsvString(clientDetails.getWillPresent()));
+    private void writeRow(final @NotNull ClientDetails clientDetails) throws IOException {
+        column = 0;
+        add(clientDetails.getId());
+        add(toCsvString(clientDetails.getConnected()));
+        add(toCsvString(clientDetails.getSessionExpiryInterval()));
+        add(toCsvString(clientDetails.getConnectedAt()));
+        add(toCsvString(clientDetails.getMessageQueueSize()));
+        add(toCsvString(clientDetails.getWillPresent()));
 
         final ClientRestrictions restrictions = clientDetails.getRestrictions();
-        addRestrictions(row, restrictions);
+        addRestrictions(restrictions);
 
         final ConnectionDetails connectionDetails = clientDetails.getConnection();
-        addConnectionDetails(row, connectionDetails);
+        addConnectionDetails(connectionDetails);
+
+        csvWriter.writeRow(row, column);
+    }
 
-        csvWriter.writeNext(row.toArray(new String[]{}));
+    private void add(final @Nullable String value) {
+        row[column++] = value;
     }
 
-    private void addConnectionDetails(List<String> row, ConnectionDetails connectionDetails) {
+    private void addConnectionDetails(final @Nullable ConnectionDetails connectionDetails) {
         if (connectionDetails != null) {
 
-            row.add(connectionDetails.getSourceIp());
+            add(connectionDetails.getSourceIp());
 
             final ProxyInformation proxyInformation = connectionDetails.getProxyInformation();
-            addProxyInformation(row, proxyInformation);
+            addProxyInformation(proxyInformation);
 
-            row.add(connectionDetails.getMqttVersion());
-            row.add(connectionDetails.getConnectedListenerId());
-            row.add(connectionDetails.getConnectedNodeId());
-            row.add(toCsvString(connectionDetails.getKeepAlive()));
-            row.add(connectionDetails.getUsername());
+            add(connectionDetails.getMqttVersion());
+            add(connectionDetails.getConnectedListenerId());
+            add(connectionDetails.getConnectedNodeId());
+            add(toCsvString(connectionDetails.getKeepAlive()));
+            add(connectionDetails.getUsername());
 
             final byte[] password = connectionDetails.getPassword();
             if (password != null) {
-                row.add(new String(password, StandardCharsets.UTF_8));
+                add(new String(password, StandardCharsets.UTF_8));
             } else {
-                row.add(null); // password
+                add(null); // password
             }
 
-            row.add(toCsvString(connectionDetails.getCleanStart()));
+            add(toCsvString(connectionDetails.getCleanStart()));
 
             final TlsInformation tlsInformation = connectionDetails.getTlsInformation();
-            addTlsInformation(row, tlsInformation);
+            addTlsInformation(tlsInformation);
         }
         else {
-            row.add(null); // Ip
-            addProxyInformation(row, null);
-            row.add(null); // mqttVersion
-            row.add(null); // connectedListenerId
-            row.add(null); // connectedNodeId
-            row.add(null); // keepAlive
-            row.add(null); // username
-            row.add(null); // password
-            row.add(null); // cleanStart
-            addTlsInformation(row, null);
+            add(null); // Ip
+            addProxyInformation(null);
+            add(null); // mqttVersion
+            add(null); // connectedListenerId
+            add(null); // connectedNodeId
+            add(null); // keepAlive
+            add(null); // username
+            add(null); // password
+            add(null); // cleanStart
+            addTlsInformation(null);
         }
     }
 
-    private void addTlsInformation(List<String> row, TlsInformation tlsInformation) {
+    private void addTlsInformation(final @Nullable TlsInformation tlsInformation) {
         if (tlsInformation != null) {
 
-            row.add(tlsInformation.getCipherSuite());
-            row.add(tlsInformation.getTlsVersion());
+            add(tlsInformation.getCipherSuite());
+            add(tlsInformation.getTlsVersion());
 
             final CertificateInformation certificateInformation = tlsInformation.getCertificateInformation();
-            addCertificateInformation(row, certificateInformation);
+            addCertificateInformation(certificateInformation);
         }
         else {
-            row.add(null); // cipherSuite
-            row.add(null); // tlsVersion
-            addCertificateInformation(row, null);
+            add(null); // cipherSuite
+            add(null); // tlsVersion
+            addCertificateInformation(null);
         }
     }
 
-    private void addCertificateInformation(List<String> row, CertificateInformation certificateInformation) {
+    private void addCertificateInformation(final @Nullable CertificateInformation certificateInformation) {
         if (certificateInformation != null) {
-            row.add(certificateInformation.getCommonName());
-            row.add(certificateInformation.getOrganization());
-            row.add(certificateInformation.getOrganizationalUnit());
-            row.add(certificateInformation.getSerial());
-            row.add(toCsvString(certificateInformation.getValidFrom()));
-            row.add(toCsvString(certificateInformation.getValidUntil()));
-            row.add(toCsvString(certificateInformation.getCountry()));
-            row.add(toCsvString(certificateInformation.getState()));
+            add(certificateInformation.getCommonName());
+            add(certificateInformation.getOrganization());
+            add(certificateInformation.getOrganizationalUnit());
+            add(certificateInformation.getSerial());
+            add(toCsvString(certificateInformation.getValidFrom()));
+            add(toCsvString(certificateInformation.getValidUntil()));
+            add(toCsvString(certificateInformation.getCountry()));
+            add(toCsvString(certificateInformation.getState()));
         }
         else {
-            row.add(null); // certificateCommonName
-            row.add(null); // certificateOrganization
-            row.add(null); // certificateOrganizationalUnit
-            row.add(null); // certificateSerial
-            row.add(null); // certificateValidFrom
-            row.add(null); // certificateValidUntil
-            row.add(null); // certificateCountry
-            row.add(null); // certificateState
+            add(null); // certificateCommonName
+            add(null); // certificateOrganization
+            add(null); // certificateOrganizationalUnit
+            add(null); // certificateSerial
+            add(null); // certificateValidFrom
+            add(null); // certificateValidUntil
+            add(null); // certificateCountry
+            add(null); // certificateState
         }
     }
 
-    private void addProxyInformation(List<String> row, ProxyInformation proxyInformation) {
+    private void addProxyInformation(final @Nullable ProxyInformation proxyInformation) {
         if (proxyInformation != null) {
-            row.add(proxyInformation.getSourceIp());
-            row.add(toCsvString(proxyInformation.getSourcePort()));
-            row.add(proxyInformation.getDestinationIp());
-            row.add(toCsvString(proxyInformation.getDestinationPort()));
+            add(proxyInformation.getSourceIp());
+            add(toCsvString(proxyInformation.getSourcePort()));
+            add(proxyInformation.getDestinationIp());
+            add(toCsvString(proxyInformation.getDestinationPort()));
 
             final List<TLV> tlvs = proxyInformation.getTlvs();
             if (tlvs != null) {
@@ -264,29 +289,29 @@ public class ClientDetailsCsvWriterTask implements Runnable {
                         }
                         sb.append(';');
                     }
-                row.add(sb.toString());
+                add(sb.toString());
             } else {
-                row.add(null); // tlvs
+                add(null); // tlvs
             }
         }
         else {
-            row.add(null); // sourceIp
-            row.add(null); // sourcePort
-            row.add(null); // destinationIp
-            row.add(null); // destinationPort
-            row.add(null); // tlvs
+            add(null); // sourceIp
+            add(null); // sourcePort
+            add(null); // destinationIp
+            add(null); // destinationPort
+            add(null); // tlvs
         }
     }
 
-    private void addRestrictions(List<String> row, ClientRestrictions restrictions) {
+    private void addRestrictions(final @Nullable ClientRestrictions restrictions) {
         if (restrictions != null) {
-            row.add(toCsvString(restrictions.getMaxMessageSize()));
-            row.add(toCsvString(restrictions.getMaxQueueSize()));
-            row.add(toCsvString(restrictions.getQueuedMessageStrategy()));
+            add(toCsvString(restrictions.getMaxMessageSize()));
+            add(toCsvString(restrictions.getMaxQueueSize()));
+            add(toCsvString(restrictions.getQueuedMessageStrategy()));
         } else {
-            row.add(null); // maxMessageSize
-            row.add(null); // maxQueueSize
-            row.add(null); // queuedMessageStrategy
+            add(null); // maxMessageSize
+            add(null); // maxQueueSize
+            add(null); // queuedMessageStrategy
         }
     }
 
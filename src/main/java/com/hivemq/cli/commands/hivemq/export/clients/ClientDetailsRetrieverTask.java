@@ -40,19 +40,40 @@ public class ClientDetailsRetrieverTask implements Runnable {
     final @NotNull BlockingQueue<String> clientIdsQueue;
     final @NotNull BlockingQueue<ClientDetails> clientDetailsQueue;
     final @NotNull Semaphore clientDetailsInProgress;
-    final @NotNull AtomicBoolean failed = new AtomicBoolean(false);
+    final @NotNull AtomicBoolean failed;
+    final @NotNull ExportMetrics metrics;
+    final int maxConcurrentRequests;
 
-    final static int MAX_CONCURRENT_REQUESTS = 100;
+    final static int MAX_CONCURRENT_REQUESTS = HiveMQRestService.DEFAULT_MAX_CONCURRENT_REQUESTS;
 
     public ClientDetailsRetrieverTask(final @NotNull HiveMQRestService hivemqRestService,
                                       final @NotNull CompletableFuture<Void> clientIdsFuture,
                                       final @NotNull BlockingQueue<String> clientIdsQueue,
                                       final @NotNull BlockingQueue<ClientDetails> clientDetailsQueue) {
+        this(hivemqRestService, clientIdsFuture, clientIdsQueue, clientDetailsQueue, MAX_CONCURRENT_REQUESTS, new AtomicBoolean(false), new ExportMetrics());
+    }
+
+    /**
+     * Several retriever tasks (one per HiveMQ node) may share the same client ids queue and client details queue.
+     * Each task takes the next client id as soon as one of its own request slots is free, so faster nodes
+     * automatically take a bigger share of the export. The failed flag is shared between all tasks of one export
+     * so that a failure on any node stops the retrieval on all nodes, the metrics are shared to report the whole export.
+     */
+    public ClientDetailsRetrieverTask(final @NotNull HiveMQRestService hivemqRestService,
+                                      final @NotNull CompletableFuture<Void> clientIdsFuture,
+                                      final @NotNull BlockingQueue<String> clientIdsQueue,
+                                      final @NotNull BlockingQueue<ClientDetails> clientDetailsQueue,
+                                      final int maxConcurrentRequests,
+                                      final @NotNull AtomicBoolean failed,
+                                      final @NotNull ExportMetrics metrics) {
         this.hivemqRestService = hivemqRestService;
         this.clientIdsFuture = clientIdsFuture;
         this.clientIdsQueue = clientIdsQueue;
         this.clientDetailsQueue = clientDetailsQueue;
-        clientDetailsInProgress = new Semaphore(MAX_CONCURRENT_REQUESTS);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.failed = failed;
+        this.metrics = metrics;
+        clientDetailsInProgress = new Semaphore(maxConcurrentRequests);
     }
 
     @Override
@@ -65,33 +86,46 @@ public class ClientDetailsRetrieverTask implements Runnable {
                     throw new CompletionException(new RuntimeException("Retrieval of client details failed"));
                 }
 
+                // Only take a client id from the shared queue if this node can request it right away
+                if (!clientDetailsInProgress.tryAcquire(50, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
                 final String clientId = clientIdsQueue.poll(50, TimeUnit.MILLISECONDS);
                 if (clientId != null) {
-                    final ClientItemApiCallback clientItemApiCallback = new ClientItemApiCallback(clientDetailsQueue, clientDetailsInProgress, failed);
-                    clientDetailsInProgress.acquire();
+                    final ClientItemApiCallback clientItemApiCallback =
+                            new ClientItemApiCallback(clientDetailsQueue, clientDetailsInProgress, failed, metrics, metrics.requestStarted());
                     hivemqRestService.getClientDetails(clientId, clientItemApiCallback);
+                } else {
+                    clientDetailsInProgress.release();
                 }
             }
 
             // Block until all callbacks are finished
-            clientDetailsInProgress.acquire(MAX_CONCURRENT_REQUESTS);
+            clientDetailsInProgress.acquire(maxConcurrentRequests);
         } catch (final Exception e) {
-            Logger.error(e, "Retrieval of client details failed");
+            Logger.error(e, "Retrieval of client details from {} failed", hivemqRestService.getHost());
             throw new CompletionException(e);
         }
-        Logger.debug("Finished retrieving client details");
+        Logger.debug("Finished retrieving client details from {}", hivemqRestService.getHost());
     }
 
     private static class ClientItemApiCallback implements ApiCallback<ClientItem> {
         private final @NotNull BlockingQueue<ClientDetails> clientDetailsQueue;
         private final @NotNull Semaphore clientDetailsInProgress;
         private final @NotNull AtomicBoolean failed;
+        private final @NotNull ExportMetrics metrics;
+        private final long startNanos;
 
         public ClientItemApiCallback(final @NotNull BlockingQueue<ClientDetails> clientDetailsQueue,
-                                     final @NotNull Semaphore clientDetailsInProgress, final @NotNull AtomicBoolean failed) {
+                                     final @NotNull Semaphore clientDetailsInProgress,
+                                     final @NotNull AtomicBoolean failed,
+                                     final @NotNull ExportMetrics metrics,
+                                     final long startNanos) {
             this.clientDetailsQueue = clientDetailsQueue;
             this.clientDetailsInProgress = clientDetailsInProgress;
             this.failed = failed;
+            this.metrics = metrics;
+            this.startNanos = startNanos;
         }
 
         @Override
@@ -99,13 +133,17 @@ public class ClientDetailsRetrieverTask implements Runnable {
             //ignore 404 because MQTT client could be non-persistent and disconnected by now
             if (e.getCode() != 404) {
                 Logger.trace(e, "Failed to retrieve client details");
+                metrics.requestFailed(startNanos);
                 failed.set(true);
+            } else {
+                metrics.requestNotFound(startNanos);
             }
             clientDetailsInProgress.release();
         }
 
         @Override
         public void onSuccess(ClientItem result, int statusCode, @NotNull Map<String, List<String>> responseHeaders) {
+            metrics.requestSucceeded(startNanos);
             final ClientDetails clientDetails = result.getClient();
             if (clientDetails != null) {
                 try {
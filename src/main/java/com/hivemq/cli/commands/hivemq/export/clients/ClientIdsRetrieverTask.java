@@ -34,7 +34,7 @@ public class ClientIdsRetrieverTask implements Runnable {
     private static final Pattern CURSOR_PATTERN = Pattern.compile("cursor=([^&]*)");
     private final @NotNull BlockingQueue<String> clientIdsQueue;
     private @NotNull HiveMQRestService hivemqRestService;
-    private long receivedClientIds = 0;
+    private volatile long receivedClientIds = 0;
 
     public ClientIdsRetrieverTask(final @NotNull HiveMQRestService hivemqRestService,
                                   final @NotNull BlockingQueue<String> clientIdsQueue) {
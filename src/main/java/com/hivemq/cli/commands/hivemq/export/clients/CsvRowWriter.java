@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.export.clients;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes CSV rows directly to the underlying writer without building an intermediate string per row.
+ * <p>
+ * The output is the same as the one of {@link com.opencsv.CSVWriter#writeNext(String[])}: every field is quoted,
+ * quote and escape characters inside a field are escaped and a null field is written as an empty, unquoted field.
+ */
+public class CsvRowWriter implements Closeable {
+
+    static final char NO_QUOTE_CHARACTER = '\u0000';
+    static final char NO_ESCAPE_CHARACTER = '\u0000';
+
+    private final @NotNull Writer writer;
+    private final char separator;
+    private final char quoteCharacter;
+    private final char escapeCharacter;
+    private final @NotNull String lineEnd;
+
+    public CsvRowWriter(final @NotNull Writer writer,
+                        final char separator,
+                        final char quoteCharacter,
+                        final char escapeCharacter,
+                        final @NotNull String lineEnd) {
+        this.writer = writer;
+        this.separator = separator;
+        this.quoteCharacter = quoteCharacter;
+        this.escapeCharacter = escapeCharacter;
+        this.lineEnd = lineEnd;
+    }
+
+    public void writeRow(final @NotNull String[] row) throws IOException {
+        writeRow(row, row.length);
+    }
+
+    /**
+     * Writes the first fields of the row, so a reused row array can be longer than the row.
+     */
+    public void writeRow(final @NotNull String[] row, final int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            if (i != 0) {
+                writer.write(separator);
+            }
+            final String field = row[i];
+            if (field != null) {
+                writeField(field);
+            }
+        }
+        writer.write(lineEnd);
+    }
+
+    private void writeField(final @NotNull String field) throws IOException {
+        if (quoteCharacter != NO_QUOTE_CHARACTER) {
+            writer.write(quoteCharacter);
+        }
+        final int firstEscaped = escapeCharacter != NO_ESCAPE_CHARACTER ? indexOfCharacterToEscape(field, 0) : -1;
+        if (firstEscaped < 0) {
+            writer.write(field);
+        } else {
+            // Copy the unescaped runs in between in one call each
+            int start = 0;
+            int escaped = firstEscaped;
+            while (escaped >= 0) {
+                writer.write(field, start, escaped - start);
+                writer.write(escapeCharacter);
+                start = escaped;
+                escaped = indexOfCharacterToEscape(field, escaped + 1);
+            }
+            writer.write(field, start, field.length() - start);
+        }
+        if (quoteCharacter != NO_QUOTE_CHARACTER) {
+            writer.write(quoteCharacter);
+        }
+    }
+
+    private int indexOfCharacterToEscape(final @NotNull String field, final int fromIndex) {
+        for (int i = fromIndex; i < field.length(); i++) {
+            if (isCharacterToEscape(field.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isCharacterToEscape(final char c) {
+        if (quoteCharacter == NO_QUOTE_CHARACTER) {
+            // Unquoted fields also need their separators and line breaks escaped
+            return c == quoteCharacter || c == escapeCharacter || c == separator || c == '\n';
+        }
+        return c == quoteCharacter || c == escapeCharacter;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -24,17 +24,26 @@ import com.hivemq.cli.commands.hivemq.export.AbstractExportCommand;
 import com.hivemq.cli.openapi.ApiException;
 import com.hivemq.cli.openapi.hivemq.ClientDetails;
 import com.hivemq.cli.rest.HiveMQRestService;
+import com.hivemq.cli.utils.LatencyHistogram;
 import okhttp3.HttpUrl;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 import picocli.CommandLine;
 
 import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 
 
@@ -61,12 +70,14 @@ public class ExportClientsCommand extends AbstractExportCommand implements Calla
         // For now only CSV is supported as output format
         assert format == OutputFormat.csv;
 
-        // Check if given URL is valid
-        final HttpUrl httpUrl = HttpUrl.parse(url);
-        if (httpUrl == null) {
-            Logger.error("URL is not in a valid format: {}", url);
-            System.err.println("URL is not in a valid format: " + url);
-            return -1;
+        // Check if given URLs are valid
+        for (final String url : urls) {
+            final HttpUrl httpUrl = HttpUrl.parse(url);
+            if (httpUrl == null) {
+                Logger.error("URL is not in a valid format: {}", url);
+                System.err.println("URL is not in a valid format: " + url);
+                return -1;
+            }
         }
 
         // If no file is given create a new file with a current timestamp
@@ -76,25 +87,39 @@ public class ExportClientsCommand extends AbstractExportCommand implements Calla
             file = new File(DEFAULT_FILE_NAME + "_" + timestamp + "." + fileType);
         }
 
-        // Setup rest service and queues
-        final HiveMQRestService hivemqRestService = new HiveMQRestService(url, rateLimit);
+        // Setup a rest service per node and the queues shared by all nodes
+        final List<HiveMQRestService> hivemqRestServices = new ArrayList<>(urls.length);
+        for (final String url : urls) {
+            hivemqRestServices.add(new HiveMQRestService(url, rateLimit, maxConcurrentRequests));
+        }
         final BlockingQueue<String> clientIdsQueue = new LinkedBlockingQueue<>(CLIENT_IDS_QUEUE_LIMIT);
         final BlockingQueue<ClientDetails> clientDetailsQueue = new LinkedBlockingQueue<>(CLIENT_DETAILS_QUEUE_LIMIT);
 
-        Logger.info("Starting export of client details for HiveMQ at {} ", url);
+        Logger.info("Starting export of client details for HiveMQ at {} ", Arrays.toString(urls));
 
-        // Start retrieving client ids
-        final ClientIdsRetrieverTask clientIdsRetrieverTask = new ClientIdsRetrieverTask(hivemqRestService, clientIdsQueue);
+        // Start retrieving client ids, the client ids are the same on every node so the first node is used
+        final ClientIdsRetrieverTask clientIdsRetrieverTask = new ClientIdsRetrieverTask(hivemqRestServices.get(0), clientIdsQueue);
         final CompletableFuture<Void> clientIdsRetrieverFuture = CompletableFuture.runAsync(clientIdsRetrieverTask);
 
-        // Start retrieving client details
-        final ClientDetailsRetrieverTask clientDetailsRetrieverTask = new ClientDetailsRetrieverTask(
-                hivemqRestService,
-                clientIdsRetrieverFuture,
-                clientIdsQueue,
-                clientDetailsQueue
-        );
-        final CompletableFuture<Void> clientDetailsRetrieverFuture = CompletableFuture.runAsync(clientDetailsRetrieverTask);
+        // Start retrieving client details from every node
+        final AtomicBoolean clientDetailsRetrievalFailed = new AtomicBoolean(false);
+        final ExportMetrics exportMetrics = new ExportMetrics();
+        final ExecutorService clientDetailsRetrieverExecutor = Executors.newFixedThreadPool(hivemqRestServices.size());
+        final CompletableFuture<?>[] clientDetailsRetrieverFutures = new CompletableFuture<?>[hivemqRestServices.size()];
+        for (int i = 0; i < hivemqRestServices.size(); i++) {
+            final ClientDetailsRetrieverTask clientDetailsRetrieverTask = new ClientDetailsRetrieverTask(
+                    hivemqRestServices.get(i),
+                    clientIdsRetrieverFuture,
+                    clientIdsQueue,
+                    clientDetailsQueue,
+                    maxConcurrentRequests,
+                    clientDetailsRetrievalFailed,
+                    exportMetrics
+            );
+            clientDetailsRetrieverFutures[i] = CompletableFuture.runAsync(clientDetailsRetrieverTask, clientDetailsRetrieverExecutor);
+        }
+        clientDetailsRetrieverExecutor.shutdown();
+        final CompletableFuture<Void> clientDetailsRetrieverFuture = CompletableFuture.allOf(clientDetailsRetrieverFutures);
 
         //Fix line end character if "\n" or "\r" are passed
         switch (csvLineEndCharacter) {
@@ -118,15 +143,22 @@ public class ExportClientsCommand extends AbstractExportCommand implements Calla
         final CompletableFuture<Void> clientDetailsCsvWriterFuture = CompletableFuture.runAsync(clientDetailsCsvWriterTask);
 
         // Start printing
+        final Writer metricsWriter = metricsFile != null ? Files.newBufferedWriter(metricsFile.toPath(), StandardCharsets.UTF_8) : null;
+        final PrintingTask printingTask = new PrintingTask(
+                clientIdsRetrieverTask,
+                clientIdsRetrieverFuture,
+                clientDetailsCsvWriterTask,
+                clientIdsQueue,
+                clientDetailsQueue,
+                exportMetrics,
+                metricsWriter);
         final ScheduledExecutorService printingScheduler = Executors.newScheduledThreadPool(1);
-        printingScheduler.scheduleWithFixedDelay(
-                new PrintingTask(clientIdsRetrieverTask, clientIdsRetrieverFuture, clientDetailsCsvWriterTask),
-                100, 500, TimeUnit.MILLISECONDS);
+        printingScheduler.scheduleWithFixedDelay(printingTask, 100, 500, TimeUnit.MILLISECONDS);
 
 
         // Handle completion of all futures
         final CompletableFuture<Void> exportFuture = CompletableFuture.allOf(clientIdsRetrieverFuture, clientDetailsRetrieverFuture, clientDetailsCsvWriterFuture);
-        final CompletableFuture<Integer> exportResultFuture = exportFuture.handle(new ExportCompletedHandler(clientDetailsCsvWriterTask, printingScheduler));
+        final CompletableFuture<Integer> exportResultFuture = exportFuture.handle(new ExportCompletedHandler(clientDetailsCsvWriterTask, printingScheduler, printingTask));
 
         // Join all future
         final Integer exitCode = exportResultFuture.get();
@@ -137,50 +169,186 @@ public class ExportClientsCommand extends AbstractExportCommand implements Calla
     }
 
 
+    /**
+     * Prints the progress and writes the metrics of every stage, so a slow stage shows up as a filling queue in front of it.
+     */
     private static class PrintingTask implements Runnable {
+        private static final double RATE_SMOOTHING = 0.3;
+
         private final @NotNull ClientIdsRetrieverTask clientIdsRetrieverTask;
         private final @NotNull CompletableFuture<Void> clientIdsRetrieverFuture;
         private final @NotNull ClientDetailsCsvWriterTask clientDetailsCsvWriterTask;
-        private long lastReported = -1;
-
+        private final @NotNull BlockingQueue<String> clientIdsQueue;
+        private final @NotNull BlockingQueue<ClientDetails> clientDetailsQueue;
+        private final @NotNull ExportMetrics metrics;
+        private final @Nullable Writer metricsWriter;
+        private final @NotNull Gson gson = new Gson();
+
+        private final long startNanos = System.nanoTime();
+        private long lastNanos = startNanos;
+        private long lastClientIds;
+        private long lastClientDetails;
+        private long lastRows;
+        private @NotNull LatencyHistogram.Snapshot lastLatency;
+        private double clientIdsRate;
+        private double clientDetailsRate;
+        private double rowsRate;
+        private boolean closed;
 
         public PrintingTask(final @NotNull ClientIdsRetrieverTask clientIdsRetrieverTask,
                             final @NotNull CompletableFuture<Void> clientIdsRetrieverFuture,
-                            final @NotNull ClientDetailsCsvWriterTask clientDetailsCsvWriterTask) {
+                            final @NotNull ClientDetailsCsvWriterTask clientDetailsCsvWriterTask,
+                            final @NotNull BlockingQueue<String> clientIdsQueue,
+                            final @NotNull BlockingQueue<ClientDetails> clientDetailsQueue,
+                            final @NotNull ExportMetrics metrics,
+                            final @Nullable Writer metricsWriter) {
             this.clientIdsRetrieverTask = clientIdsRetrieverTask;
             this.clientIdsRetrieverFuture = clientIdsRetrieverFuture;
             this.clientDetailsCsvWriterTask = clientDetailsCsvWriterTask;
+            this.clientIdsQueue = clientIdsQueue;
+            this.clientDetailsQueue = clientDetailsQueue;
+            this.metrics = metrics;
+            this.metricsWriter = metricsWriter;
+            this.lastLatency = metrics.getRequestLatencyMicros();
+        }
+
+        public synchronized void run() {
+            if (!closed) {
+                report(true);
+            }
         }
 
-        public void run() {
-            long newValue = clientDetailsCsvWriterTask.getWrittenClientDetails();
-            if (newValue != lastReported) {
-                lastReported = newValue;
+        /**
+         * Writes the final metrics without printing, as the result of the export is printed instead.
+         */
+        public synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            report(false);
+            if (metricsWriter != null) {
+                try {
+                    metricsWriter.close();
+                } catch (final IOException ex) {
+                    Logger.warn(ex, "Could not close export metrics file");
+                }
+            }
+        }
+
+        private void report(final boolean print) {
+            final long now = System.nanoTime();
+            final double seconds = (now - lastNanos) / 1_000_000_000d;
+            if (seconds <= 0) {
+                return;
+            }
+            final long clientIds = clientIdsRetrieverTask.getReceivedClientIds();
+            final long clientDetails = metrics.getReceivedClientDetails();
+            final long rows = clientDetailsCsvWriterTask.getWrittenClientDetails();
+            final LatencyHistogram.Snapshot latency = metrics.getRequestLatencyMicros();
+            final LatencyHistogram.Snapshot intervalLatency = latency.minus(lastLatency);
+
+            clientIdsRate = smooth(clientIdsRate, (clientIds - lastClientIds) / seconds);
+            clientDetailsRate = smooth(clientDetailsRate, (clientDetails - lastClientDetails) / seconds);
+            rowsRate = smooth(rowsRate, (rows - lastRows) / seconds);
+            lastNanos = now;
+            lastClientIds = clientIds;
+            lastClientDetails = clientDetails;
+            lastRows = rows;
+            lastLatency = latency;
+
+            // Ids of clients which disconnected in the meantime will never be written
+            final long etaSeconds;
+            if (clientIdsRetrieverFuture.isDone() && rowsRate > 0) {
+                final long remaining = Math.max(0, clientIds - rows - metrics.getNotFoundClientDetails());
+                etaSeconds = (long) Math.ceil(remaining / rowsRate);
+            } else {
+                etaSeconds = -1;
+            }
+
+            if (print) {
+                // The stages show which one is slow: its rate drops while the queue in front of it fills
+                final String stages = " | " + Math.round(clientIdsRate) + " ids/s, " +
+                        Math.round(clientDetailsRate) + " details/s, " +
+                        "queued " + clientIdsQueue.size() + " ids / " + clientDetailsQueue.size() + " details, " +
+                        metrics.getRequestsInFlight() + " in flight, " +
+                        metrics.getFailedRequests() + " errors, " +
+                        "p99 " + (intervalLatency.getCount() > 0 ? String.format("%.1f ms", intervalLatency.getValueAtQuantile(0.99) / 1000d) : "-");
                 if (clientIdsRetrieverFuture.isDone()) {
-                    final long receivedClientIds = clientIdsRetrieverTask.getReceivedClientIds();
-                    System.out.append("\rExporting client details: " + lastReported + " / " + receivedClientIds).flush();
+                    System.out.append("\rExporting client details: " + rows + " / " + clientIds + " (" + Math.round(rowsRate) + " rows/s, ETA " + formatEta(etaSeconds) + ")" + stages + "   ").flush();
                 } else {
-                    System.out.append("\rExporting client details: " + lastReported).flush();
+                    System.out.append("\rExporting client details: " + rows + " (" + Math.round(rowsRate) + " rows/s)" + stages + "   ").flush();
+                }
+            }
+
+            if (metricsWriter != null) {
+                final JsonObject json = new JsonObject();
+                json.addProperty("timestamp", System.currentTimeMillis());
+                json.addProperty("elapsedSeconds", (now - startNanos) / 1_000_000_000L);
+                json.addProperty("clientIds", clientIds);
+                json.addProperty("clientIdsPerSecond", Math.round(clientIdsRate));
+                json.addProperty("clientIdsComplete", clientIdsRetrieverFuture.isDone());
+                json.addProperty("clientDetails", clientDetails);
+                json.addProperty("clientDetailsPerSecond", Math.round(clientDetailsRate));
+                json.addProperty("rows", rows);
+                json.addProperty("rowsPerSecond", Math.round(rowsRate));
+                json.addProperty("clientIdsQueueSize", clientIdsQueue.size());
+                json.addProperty("clientDetailsQueueSize", clientDetailsQueue.size());
+                json.addProperty("requestsInFlight", metrics.getRequestsInFlight());
+                json.addProperty("errors", metrics.getFailedRequests());
+                json.addProperty("notFound", metrics.getNotFoundClientDetails());
+                if (intervalLatency.getCount() > 0) {
+                    json.addProperty("requestLatencyP99Millis", intervalLatency.getValueAtQuantile(0.99) / 1000d);
+                }
+                if (etaSeconds >= 0) {
+                    json.addProperty("etaSeconds", etaSeconds);
+                }
+                try {
+                    metricsWriter.write(gson.toJson(json));
+                    metricsWriter.write('\n');
+                    metricsWriter.flush();
+                } catch (final IOException ex) {
+                    Logger.warn(ex, "Could not write export metrics");
                 }
             }
         }
 
+        private static double smooth(final double previousRate, final double currentRate) {
+            return previousRate == 0 ? currentRate : previousRate + RATE_SMOOTHING * (currentRate - previousRate);
+        }
+
+        private static @NotNull String formatEta(final long etaSeconds) {
+            if (etaSeconds < 0) {
+                return "unknown";
+            }
+            if (etaSeconds >= 3600) {
+                return String.format("%dh%02dm%02ds", etaSeconds / 3600, (etaSeconds % 3600) / 60, etaSeconds % 60);
+            }
+            if (etaSeconds >= 60) {
+                return String.format("%dm%02ds", etaSeconds / 60, etaSeconds % 60);
+            }
+            return etaSeconds + "s";
+        }
     }
 
     private class ExportCompletedHandler implements BiFunction<Void, Throwable, Integer> {
         private final @NotNull ClientDetailsCsvWriterTask clientDetailsCsvWriterTask;
         private final @NotNull ScheduledExecutorService printingScheduler;
+        private final @NotNull PrintingTask printingTask;
 
         public ExportCompletedHandler(final @NotNull ClientDetailsCsvWriterTask clientDetailsCsvWriterTask,
-                                      final @NotNull ScheduledExecutorService printingScheduler) {
+                                      final @NotNull ScheduledExecutorService printingScheduler,
+                                      final @NotNull PrintingTask printingTask) {
             this.clientDetailsCsvWriterTask = clientDetailsCsvWriterTask;
             this.printingScheduler = printingScheduler;
+            this.printingTask = printingTask;
         }
 
 
         @Override
         public @NotNull Integer apply(Void o, Throwable throwable) {
             printingScheduler.shutdown();
+            printingTask.close();
             if (throwable != null) {
                 if (throwable.getCause() instanceof ApiException) {
                     final ApiException apiException = (ApiException) throwable.getCause();
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.export.clients;
+
+import com.hivemq.cli.utils.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the client details requests, shared by the retriever tasks of all HiveMQ nodes of one export.
+ */
+public class ExportMetrics {
+
+    private final @NotNull LongAdder receivedClientDetails = new LongAdder();
+    private final @NotNull LongAdder notFoundClientDetails = new LongAdder();
+    private final @NotNull LongAdder failedRequests = new LongAdder();
+    private final @NotNull AtomicInteger requestsInFlight = new AtomicInteger();
+    private final @NotNull LatencyHistogram requestLatencyMicros = new LatencyHistogram();
+
+    /**
+     * @return the start time of the request to pass to the completion methods
+     */
+    public long requestStarted() {
+        requestsInFlight.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void requestSucceeded(final long startNanos) {
+        receivedClientDetails.increment();
+        requestCompleted(startNanos);
+    }
+
+    public void requestNotFound(final long startNanos) {
+        notFoundClientDetails.increment();
+        requestCompleted(startNanos);
+    }
+
+    public void requestFailed(final long startNanos) {
+        failedRequests.increment();
+        requestCompleted(startNanos);
+    }
+
+    private void requestCompleted(final long startNanos) {
+        requestsInFlight.decrementAndGet();
+        requestLatencyMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    public long getReceivedClientDetails() {
+        return receivedClientDetails.sum();
+    }
+
+    public long getNotFoundClientDetails() {
+        return notFoundClientDetails.sum();
+    }
+
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+
+    public int getRequestsInFlight() {
+        return requestsInFlight.get();
+    }
+
+    public @NotNull LatencyHistogram.Snapshot getRequestLatencyMicros() {
+        return requestLatencyMicros.getSnapshot();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.trace;
+
+import com.google.common.io.CountingInputStream;
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.commands.hivemq.AbstractHiveMQCommand;
+import com.hivemq.cli.openapi.ApiException;
+import com.hivemq.cli.rest.HiveMQRestService;
+import com.hivemq.cli.rest.ResumableFileDownloader;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+
+@CommandLine.Command(
+        name = "download",
+        description = "Download a HiveMQ trace recording, optionally keeping only the events of certain clients or topics",
+        sortOptions = false,
+        mixinStandardHelpOptions = true,
+        versionProvider = MqttCLIMain.CLIVersionProvider.class)
+public class TraceDownloadCommand extends AbstractHiveMQCommand implements Callable<Integer> {
+
+    private static final String DEFAULT_FILE_NAME = "hivemq_trace";
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    @CommandLine.Parameters(index = "0", description = "The name of the trace recording to download")
+    private @NotNull String name;
+
+    @CommandLine.Option(names = {"-f", "--file"}, description = "The zip file to write the trace recording to (defaults to hivemq_trace_<name>.zip in the current working directory)", order = 2)
+    private @Nullable File file;
+
+    @CommandLine.Option(names = {"-c", "--clientId"}, description = "Only keep the events of clients whose id matches this regular expression", order = 3)
+    private @Nullable String clientIdRegex;
+
+    @CommandLine.Option(names = {"-t", "--topic"}, description = "Only keep the events with a topic matching this regular expression", order = 4)
+    private @Nullable String topicRegex;
+
+    @CommandLine.Option(names = {"--retries"}, defaultValue = "5", description = "The number of times an interrupted unfiltered download is resumed (default 5)", order = 5)
+    private int retries;
+
+    @Inject
+    public TraceDownloadCommand() {
+    }
+
+    @Override
+    public Integer call() throws InterruptedException {
+        Logger.trace("Command {}", this);
+
+        final Pattern clientIdFilter;
+        final Pattern topicFilter;
+        try {
+            clientIdFilter = clientIdRegex != null ? Pattern.compile(clientIdRegex) : null;
+            topicFilter = topicRegex != null ? Pattern.compile(topicRegex) : null;
+        } catch (final PatternSyntaxException ex) {
+            System.err.println("Filter is not a valid regular expression: " + ex.getMessage());
+            return -1;
+        }
+
+        final HiveMQRestService hivemqRestService = createRestService();
+        if (hivemqRestService == null) {
+            return -1;
+        }
+
+        if (file == null) {
+            file = new File(DEFAULT_FILE_NAME + "_" + name + ".zip");
+        }
+
+        Logger.info("Starting download of trace recording {} from {} to {}", name, url, file);
+
+        if (clientIdFilter == null && topicFilter == null) {
+            return download(hivemqRestService);
+        }
+        return downloadFiltered(hivemqRestService, new TraceRecordingFilter(clientIdFilter, topicFilter));
+    }
+
+    private int download(final @NotNull HiveMQRestService hivemqRestService) throws InterruptedException {
+        final ResumableFileDownloader downloader = new ResumableFileDownloader(
+                offset -> hivemqRestService.downloadTraceRecordingFile(name, offset), file, retries);
+
+        final ScheduledExecutorService printingScheduler = Executors.newSingleThreadScheduledExecutor();
+        printingScheduler.scheduleWithFixedDelay(() ->
+                        System.out.append("\rDownloading trace recording: " + downloader.getDownloadedBytes() + " bytes").flush(),
+                100, 500, TimeUnit.MILLISECONDS);
+
+        try {
+            downloader.download();
+        } catch (final ApiException | IOException ex) {
+            printError("Failed to download trace recording " + name, ex);
+            return -1;
+        } finally {
+            printingScheduler.shutdownNow();
+        }
+
+        Logger.info("Finished download of trace recording {}", name);
+        System.out.println("\rSuccessfully downloaded trace recording " + name + " (" + downloader.getDownloadedBytes() + " bytes) to " + file.getPath());
+        return 0;
+    }
+
+    private int downloadFiltered(final @NotNull HiveMQRestService hivemqRestService,
+                                 final @NotNull TraceRecordingFilter filter) {
+
+        final ScheduledExecutorService printingScheduler = Executors.newSingleThreadScheduledExecutor();
+        printingScheduler.scheduleWithFixedDelay(() ->
+                        System.out.append("\rFiltering trace recording: " + filter.getMatchedLines() + " / " + filter.getScannedLines() + " lines").flush(),
+                100, 500, TimeUnit.MILLISECONDS);
+
+        // The recording is filtered while it is streamed, so neither the complete download nor a single log file is held on disk or in memory
+        long downloadedBytes = 0;
+        try (final Response response = hivemqRestService.downloadTraceRecordingFile(name, 0).execute()) {
+            final ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new ApiException(response.message(), response.code(), response.headers().toMultimap(), body != null ? body.string() : null);
+            }
+            final CountingInputStream input = new CountingInputStream(body.byteStream());
+            try (final OutputStream output = new BufferedOutputStream(Files.newOutputStream(file.toPath()), OUTPUT_BUFFER_SIZE)) {
+                filter.filter(input, output);
+            }
+            downloadedBytes = input.getCount();
+        } catch (final ApiException | IOException ex) {
+            printError("Failed to download trace recording " + name, ex);
+            file.delete();
+            return -1;
+        } finally {
+            printingScheduler.shutdownNow();
+        }
+
+        Logger.info("Finished filtered download of trace recording {}, kept {} of {} lines", name, filter.getMatchedLines(), filter.getScannedLines());
+        System.out.println("\rSuccessfully downloaded trace recording " + name + " (" + downloadedBytes + " bytes) to " + file.getPath() +
+                ", kept " + filter.getMatchedLines() + " of " + filter.getScannedLines() + " lines");
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceDownloadCommand{" +
+                "name='" + name + '\'' +
+                ", file=" + file +
+                ", clientIdRegex=" + clientIdRegex +
+                ", topicRegex=" + topicRegex +
+                ", retries=" + retries +
+                ", " + super.toString() +
+                '}';
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.trace;
+
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.commands.hivemq.AbstractHiveMQCommand;
+import com.hivemq.cli.openapi.ApiException;
+import com.hivemq.cli.openapi.hivemq.TraceFilter;
+import com.hivemq.cli.openapi.hivemq.TraceRecording;
+import com.hivemq.cli.openapi.hivemq.TraceRecordingList;
+import com.hivemq.cli.rest.HiveMQRestService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.util.StringJoiner;
+import java.util.concurrent.Callable;
+
+
+@CommandLine.Command(
+        name = "list",
+        aliases = "ls",
+        description = "List all HiveMQ trace recordings",
+        sortOptions = false,
+        mixinStandardHelpOptions = true,
+        versionProvider = MqttCLIMain.CLIVersionProvider.class)
+public class TraceListCommand extends AbstractHiveMQCommand implements Callable<Integer> {
+
+    private static final String ROW_FORMAT = "%-30s %-12s %-30s %-30s %-25s %-25s%n";
+
+    @Inject
+    public TraceListCommand() {
+    }
+
+    @Override
+    public Integer call() {
+        Logger.trace("Command {}", this);
+
+        final HiveMQRestService hivemqRestService = createRestService();
+        if (hivemqRestService == null) {
+            return -1;
+        }
+
+        final TraceRecordingList traceRecordingList;
+        try {
+            traceRecordingList = hivemqRestService.getAllTraceRecordings();
+        } catch (final ApiException apiException) {
+            printError("Failed to list trace recordings", apiException);
+            return -1;
+        }
+
+        System.out.printf(ROW_FORMAT, "NAME", "STATE", "START AT", "END AT", "CLIENT ID FILTERS", "TOPIC FILTERS");
+        if (traceRecordingList.getItems() != null) {
+            for (final TraceRecording traceRecording : traceRecordingList.getItems()) {
+                System.out.printf(ROW_FORMAT,
+                        traceRecording.getName(),
+                        traceRecording.getState() != null ? traceRecording.getState() : "",
+                        traceRecording.getStartAt() != null ? traceRecording.getStartAt() : "",
+                        traceRecording.getEndAt() != null ? traceRecording.getEndAt() : "",
+                        joinFilters(traceRecording.getClientIdFilters()),
+                        joinFilters(traceRecording.getTopicFilters()));
+            }
+        }
+        return 0;
+    }
+
+    private static @NotNull String joinFilters(final @Nullable Iterable<TraceFilter> filters) {
+        final StringJoiner joiner = new StringJoiner(",");
+        if (filters != null) {
+            for (final TraceFilter filter : filters) {
+                joiner.add(filter.getRegex());
+            }
+        }
+        return joiner.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "TraceListCommand{" + super.toString() + '}';
+    }
+}
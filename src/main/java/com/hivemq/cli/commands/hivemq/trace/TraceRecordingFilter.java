@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.trace;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Filters the log lines of a zipped trace recording while it is read, so only the matching slice is ever written.
+ * <p>
+ * A trace line names the client in the first pair of square brackets, e.g.
+ * {@code 2020-07-23 12:07:30,000 - [client-1] - Received PUBLISH message (topic: a/b, QoS: 1, ...)}.
+ * Lines without a client id or topic do not match the respective filter.
+ */
+public class TraceRecordingFilter {
+
+    private static final Pattern CLIENT_ID_PATTERN = Pattern.compile("\\[([^\\]]*)]");
+    private static final Pattern TOPIC_PATTERN = Pattern.compile("topic(?:Filter)?: ?'?([^,'\\s)\\]}]+)");
+
+    private final @Nullable Pattern clientIdFilter;
+    private final @Nullable Pattern topicFilter;
+
+    private final @NotNull AtomicLong scannedLines = new AtomicLong(0);
+    private final @NotNull AtomicLong matchedLines = new AtomicLong(0);
+
+    public TraceRecordingFilter(final @Nullable Pattern clientIdFilter, final @Nullable Pattern topicFilter) {
+        this.clientIdFilter = clientIdFilter;
+        this.topicFilter = topicFilter;
+    }
+
+    /**
+     * Copies every entry of the zipped trace recording to the output zip, keeping only the matching lines.
+     * The output stream is finished but not closed.
+     */
+    public void filter(final @NotNull InputStream zippedTraceRecording, final @NotNull OutputStream filteredOutput) throws IOException {
+        final ZipInputStream zipInputStream = new ZipInputStream(zippedTraceRecording);
+        final ZipOutputStream zipOutputStream = new ZipOutputStream(filteredOutput);
+        // Neither the reader nor the writer are closed, as that would close the underlying zip streams
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(zipOutputStream, StandardCharsets.UTF_8));
+
+        ZipEntry entry;
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+            zipOutputStream.putNextEntry(new ZipEntry(entry.getName()));
+            if (!entry.isDirectory()) {
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(zipInputStream, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    scannedLines.incrementAndGet();
+                    if (matches(line)) {
+                        matchedLines.incrementAndGet();
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                }
+                writer.flush();
+            }
+            zipOutputStream.closeEntry();
+        }
+        zipOutputStream.finish();
+    }
+
+    boolean matches(final @NotNull String line) {
+        if (clientIdFilter != null) {
+            final Matcher clientIdMatcher = CLIENT_ID_PATTERN.matcher(line);
+            if (!clientIdMatcher.find() || !clientIdFilter.matcher(clientIdMatcher.group(1)).matches()) {
+                return false;
+            }
+        }
+        if (topicFilter != null) {
+            final Matcher topicMatcher = TOPIC_PATTERN.matcher(line);
+            while (topicMatcher.find()) {
+                if (topicFilter.matcher(topicMatcher.group(1)).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    public long getScannedLines() {
+        return scannedLines.get();
+    }
+
+    public long getMatchedLines() {
+        return matchedLines.get();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.trace;
+
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.commands.hivemq.AbstractHiveMQCommand;
+import com.hivemq.cli.openapi.ApiException;
+import com.hivemq.cli.openapi.hivemq.TraceFilter;
+import com.hivemq.cli.openapi.hivemq.TraceRecording;
+import com.hivemq.cli.rest.HiveMQRestService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+
+@CommandLine.Command(
+        name = "start",
+        description = "Start a new HiveMQ trace recording",
+        sortOptions = false,
+        mixinStandardHelpOptions = true,
+        versionProvider = MqttCLIMain.CLIVersionProvider.class)
+public class TraceStartCommand extends AbstractHiveMQCommand implements Callable<Integer> {
+
+    @CommandLine.Parameters(index = "0", description = "The unique name of the trace recording (letters, numbers, dashes and underscores)")
+    private @NotNull String name;
+
+    @CommandLine.Option(names = {"-c", "--clientIdFilter"}, description = "A regular expression for the client ids to trace", order = 2)
+    private @Nullable String[] clientIdFilters;
+
+    @CommandLine.Option(names = {"-t", "--topicFilter"}, description = "A regular expression for the topics to trace", order = 3)
+    private @Nullable String[] topicFilters;
+
+    @CommandLine.Option(names = {"-e", "--events"}, split = ",", description = "The MQTT events to trace, e.g. MQTT_MESSAGE_PUBLISH (default all events)", order = 4)
+    private @Nullable TraceRecording.EventsEnum[] events;
+
+    @CommandLine.Option(names = {"-d", "--duration"}, defaultValue = "1h", description = "The duration of the trace recording, e.g. 30m or 1h30m (default 1h)", order = 5)
+    private @NotNull String duration;
+
+    @Inject
+    public TraceStartCommand() {
+    }
+
+    @Override
+    public Integer call() {
+        Logger.trace("Command {}", this);
+
+        if (clientIdFilters == null && topicFilters == null) {
+            System.err.println("At least one client id filter or topic filter is required");
+            return -1;
+        }
+
+        final Duration recordingDuration;
+        try {
+            recordingDuration = Duration.parse("PT" + duration.toUpperCase());
+        } catch (final DateTimeParseException ex) {
+            System.err.println("Duration is not in a valid format: " + duration);
+            return -1;
+        }
+
+        final HiveMQRestService hivemqRestService = createRestService();
+        if (hivemqRestService == null) {
+            return -1;
+        }
+
+        final OffsetDateTime startAt = OffsetDateTime.now();
+        final TraceRecording traceRecording = new TraceRecording()
+                .name(name)
+                .startAt(startAt)
+                .endAt(startAt.plus(recordingDuration));
+        if (clientIdFilters != null) {
+            for (final String clientIdFilter : clientIdFilters) {
+                traceRecording.addClientIdFiltersItem(new TraceFilter().regex(clientIdFilter));
+            }
+        }
+        if (topicFilters != null) {
+            for (final String topicFilter : topicFilters) {
+                traceRecording.addTopicFiltersItem(new TraceFilter().regex(topicFilter));
+            }
+        }
+        for (final TraceRecording.EventsEnum event : events != null ? events : TraceRecording.EventsEnum.values()) {
+            traceRecording.addEventsItem(event);
+        }
+
+        final TraceRecording created;
+        try {
+            created = hivemqRestService.createTraceRecording(traceRecording).getTraceRecording();
+        } catch (final ApiException apiException) {
+            printError("Failed to start trace recording " + name, apiException);
+            return -1;
+        }
+
+        Logger.info("Started trace recording {} at {}", name, url);
+        System.out.println("Trace recording " + name + " " + (created != null ? created.getState() : TraceRecording.StateEnum.SCHEDULED) +
+                " until " + traceRecording.getEndAt());
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceStartCommand{" +
+                "name='" + name + '\'' +
+                ", clientIdFilters=" + Arrays.toString(clientIdFilters) +
+                ", topicFilters=" + Arrays.toString(topicFilters) +
+                ", events=" + Arrays.toString(events) +
+                ", duration='" + duration + '\'' +
+                ", " + super.toString() +
+                '}';
+    }
+}
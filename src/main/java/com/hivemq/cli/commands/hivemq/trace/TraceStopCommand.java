@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.trace;
+
+import com.hivemq.cli.MqttCLIMain;
+import com.hivemq.cli.commands.hivemq.AbstractHiveMQCommand;
+import com.hivemq.cli.openapi.ApiException;
+import com.hivemq.cli.rest.HiveMQRestService;
+import org.jetbrains.annotations.NotNull;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import javax.inject.Inject;
+import java.util.concurrent.Callable;
+
+
+@CommandLine.Command(
+        name = "stop",
+        description = "Stop a running HiveMQ trace recording",
+        sortOptions = false,
+        mixinStandardHelpOptions = true,
+        versionProvider = MqttCLIMain.CLIVersionProvider.class)
+public class TraceStopCommand extends AbstractHiveMQCommand implements Callable<Integer> {
+
+    @CommandLine.Parameters(index = "0", description = "The name of the trace recording to stop")
+    private @NotNull String name;
+
+    @Inject
+    public TraceStopCommand() {
+    }
+
+    @Override
+    public Integer call() {
+        Logger.trace("Command {}", this);
+
+        final HiveMQRestService hivemqRestService = createRestService();
+        if (hivemqRestService == null) {
+            return -1;
+        }
+
+        try {
+            hivemqRestService.stopTraceRecording(name);
+        } catch (final ApiException apiException) {
+            printError("Failed to stop trace recording " + name, apiException);
+            return -1;
+        }
+
+        Logger.info("Stopped trace recording {} at {}", name, url);
+        System.out.println("Trace recording " + name + " STOPPED");
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceStopCommand{" +
+                "name='" + name + '\'' +
+                ", " + super.toString() +
+                '}';
+    }
+}
@@ -19,6 +19,7 @@ package com.hivemq.cli.commands.options;
 import com.hivemq.cli.converters.DirectoryToCertificateCollectionConverter;
 import com.hivemq.cli.converters.FileToCertificateConverter;
 import com.hivemq.cli.converters.FileToPrivateKeyConverter;
+import com.hivemq.cli.utils.CryptoUtils;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -85,6 +86,8 @@ public class SslOptions {
             return null;
         }
 
+        CryptoUtils.initCryptoPolicy();
+
         if (certificatesFromDir != null) {
             if (certificates == null) {
                 certificates = certificatesFromDir;
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.shell;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.RateLimiter;
+import com.hivemq.cli.utils.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Connects many clients whose identifiers are built from a pattern like 'dev-%d'.
+ * <p>
+ * At most {@code parallelism} connects are in flight at the same time and new connects are started with at most
+ * {@code connectRate} per second, so connection storms can be reproduced without exhausting the shell.
+ */
+@SuppressWarnings("UnstableApiUsage")
+class BulkConnect {
+
+    private final int count;
+    private final @NotNull String idPattern;
+    private final int parallelism;
+    private final @Nullable RateLimiter rateLimiter;
+
+    BulkConnect(final int count, final @NotNull String idPattern, final int parallelism, final @Nullable Double connectRate) {
+        if (count < 1) {
+            throw new IllegalArgumentException("The number of clients must be at least 1");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1");
+        }
+        if (connectRate != null && connectRate <= 0) {
+            throw new IllegalArgumentException("The connect rate must be greater than 0");
+        }
+        // Fails fast with an IllegalFormatException if the pattern does not take a number
+        String.format(idPattern, 1);
+        this.count = count;
+        this.idPattern = idPattern;
+        this.parallelism = parallelism;
+        this.rateLimiter = connectRate != null ? RateLimiter.create(connectRate) : null;
+    }
+
+    @NotNull String getIdentifier(final int index) {
+        return String.format(idPattern, index);
+    }
+
+    /**
+     * Connects the clients 1 to count and waits until all connects completed or failed.
+     *
+     * @param connector starts to connect a client with the given identifier
+     */
+    @NotNull Result run(final @NotNull Function<String, CompletableFuture<?>> connector) throws InterruptedException {
+        final Result result = new Result(count);
+        final Semaphore inFlight = new Semaphore(parallelism);
+
+        final long startNanos = System.nanoTime();
+        try {
+            for (int i = 1; i <= count; i++) {
+                inFlight.acquire();
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+                final long connectStartNanos = System.nanoTime();
+                CompletableFuture<?> connectFuture;
+                try {
+                    connectFuture = connector.apply(getIdentifier(i));
+                } catch (final RuntimeException ex) {
+                    connectFuture = new CompletableFuture<>();
+                    connectFuture.completeExceptionally(ex);
+                }
+                connectFuture.whenComplete((ignored, throwable) -> {
+                    if (throwable == null) {
+                        result.connectLatencyMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - connectStartNanos));
+                        result.connected.increment();
+                    } else {
+                        result.addFailure(throwable);
+                    }
+                    inFlight.release();
+                });
+            }
+            inFlight.acquire(parallelism);
+        } finally {
+            result.durationNanos = System.nanoTime() - startNanos;
+        }
+        return result;
+    }
+
+    static class Result {
+
+        private final int count;
+        private final @NotNull LongAdder connected = new LongAdder();
+        private final @NotNull LongAdder failed = new LongAdder();
+        private final @NotNull Map<String, LongAdder> failureCauses = new ConcurrentHashMap<>();
+        private final @NotNull LatencyHistogram connectLatencyMicros = new LatencyHistogram();
+        private volatile long durationNanos;
+
+        private Result(final int count) {
+            this.count = count;
+        }
+
+        private void addFailure(final @NotNull Throwable exception) {
+            failed.increment();
+            final Throwable rootCause = Throwables.getRootCause(exception);
+            final String cause = rootCause.getMessage() != null ? rootCause.getMessage() : rootCause.getClass().getSimpleName();
+            failureCauses.computeIfAbsent(cause, key -> new LongAdder()).increment();
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        long getConnected() {
+            return connected.sum();
+        }
+
+        long getFailed() {
+            return failed.sum();
+        }
+
+        /**
+         * @return the number of failed connects by their root cause, sorted by cause
+         */
+        @NotNull Map<String, Long> getFailureCauses() {
+            final Map<String, Long> causes = new TreeMap<>();
+            failureCauses.forEach((cause, causeCount) -> causes.put(cause, causeCount.sum()));
+            return causes;
+        }
+
+        @NotNull LatencyHistogram.Snapshot getConnectLatencyMicros() {
+            return connectLatencyMicros.getSnapshot();
+        }
+
+        long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
@@ -91,6 +91,9 @@ public class ContextPublishCommand extends ShellContextCommand implements Runnab
     @CommandLine.Option(names = {"-up", "--userProperty"}, converter = Mqtt5UserPropertyConverter.class, description = "A user property of the publish message")
     @Nullable private Mqtt5UserProperty[] userProperties;
 
+    @CommandLine.Option(names = {"--stamp"}, defaultValue = "false", description = "Add the send time and a sequence number to the publishes to measure the latency with 'sub --latency' (default: false)")
+    private boolean stamp;
+
     @Override
     public void run() {
         logUnusedOptions();
@@ -99,7 +102,13 @@ public class ContextPublishCommand extends ShellContextCommand implements Runnab
 
         try {
             qos = MqttUtils.arrangeQosToMatchTopics(topics, qos);
-            mqttClientExecutor.publish(contextClient, this);
+            final PublishPipeline publishPipeline = ShellCommand.getPublishPipeline();
+            if (publishPipeline != null) {
+                publishPipeline.add(mqttClientExecutor.publishAsync(contextClient, this));
+            }
+            else {
+                mqttClientExecutor.publish(contextClient, this);
+            }
         }
         catch (final Exception ex) {
             Logger.error(ex, Throwables.getRootCause(ex).getMessage());
@@ -143,6 +152,7 @@ public class ContextPublishCommand extends ShellContextCommand implements Runnab
                 (responseTopic != null ? (", responseTopic=" + responseTopic) : "") +
                 (correlationData != null ? (", correlationData=" + new String(correlationData.array(), StandardCharsets.UTF_8)) : "") +
                 (userProperties != null ? (", userProperties=" + Arrays.toString(userProperties)) : "") +
+                (stamp ? ", stamp=true" : "") +
                 '}';
     }
 
@@ -213,4 +223,9 @@ public class ContextPublishCommand extends ShellContextCommand implements Runnab
     public void setUserProperties(@Nullable final Mqtt5UserProperty... userProperties) {
         this.userProperties = userProperties;
     }
+
+    @Override
+    public boolean isStamp() {
+        return stamp;
+    }
 }
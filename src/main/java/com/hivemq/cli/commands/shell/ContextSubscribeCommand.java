@@ -20,10 +20,19 @@ import com.google.common.base.Throwables;
 import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.commands.Subscribe;
 import com.hivemq.cli.commands.Unsubscribe;
+import com.hivemq.cli.converters.JsonPathPredicateConverter;
 import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
 import com.hivemq.cli.converters.MqttQosConverter;
+import com.hivemq.cli.mqtt.ClientData;
+import com.hivemq.cli.mqtt.LatencyStatistics;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.cli.mqtt.PublishDeduplicator;
+import com.hivemq.cli.mqtt.PublishFilter;
+import com.hivemq.cli.mqtt.SubscribeLifecycle;
+import com.hivemq.cli.mqtt.SubscribeStatistics;
+import com.hivemq.cli.mqtt.TopicAggregator;
 import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.cli.utils.json.JsonPathPredicate;
 import com.hivemq.client.mqtt.MqttVersion;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
@@ -35,18 +44,19 @@ import picocli.CommandLine;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.Scanner;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
 
 @CommandLine.Command(name = "sub",
         aliases = "subscribe",
         description = "Subscribe this mqtt client to a list of topics")
 public class ContextSubscribeCommand extends ShellContextCommand implements Runnable, Subscribe, Unsubscribe {
 
-    public static final int IDLE_TIME = 1000;
     private final DefaultCLIProperties defaultCLIProperties;
 
     //needed for pico cli - reflection code generation
@@ -91,6 +101,21 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
     @CommandLine.Option(names = {"-T", "--showTopics"}, defaultValue = "false", description = "Prepend the specific topic name to the received publish", order = 1)
     private boolean showTopics;
 
+    @CommandLine.Option(names = {"--filterTopic", "--filter-topic"}, description = "Only print publishes with a topic containing this regular expression", order = 1)
+    @Nullable private Pattern filterTopic;
+
+    @CommandLine.Option(names = {"--filterPayload", "--filter-payload"}, description = "Only print publishes with a payload containing this text", order = 1)
+    @Nullable private String filterPayload;
+
+    @CommandLine.Option(names = {"--filterPayloadRegex", "--filter-payload-regex"}, description = "Only print publishes with a payload containing this regular expression", order = 1)
+    @Nullable private Pattern filterPayloadRegex;
+
+    @CommandLine.Option(names = {"--filterJson", "--filter-json"}, converter = JsonPathPredicateConverter.class, description = "Only print publishes with a JSON payload matching this JSONPath predicate (e.g. \"$.temperature > 20\")", order = 1)
+    @Nullable private JsonPathPredicate filterJson;
+
+    @CommandLine.Option(names = {"--filterUserProperty", "--filter-user-property"}, converter = Mqtt5UserPropertyConverter.class, description = "Only print publishes with this user property (key=value)", order = 1)
+    @Nullable private Mqtt5UserProperty filterUserProperty;
+
     @Override
     public void run() {
 
@@ -126,17 +151,14 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
 
         final CountDownLatch latch = new CountDownLatch(1);
 
-        final Runnable waitForDisconnectRunnable = () -> {
-            while (contextClient.getState().isConnected()) {
-                try {
-                    Thread.sleep(IDLE_TIME);
-                }
-                catch (final InterruptedException e) {
-                    return;
-                }
-            }
+        final ClientData clientData = MqttClientExecutor.getClientRegistry().get(getKey());
+        if (clientData == null) {
+            // The client was already disconnected and removed
             latch.countDown();
-        };
+        }
+        else {
+            clientData.getDisconnectedFuture().thenRun(latch::countDown);
+        }
 
         final Runnable waitForExitCommandRunnable = () -> {
             final Scanner scanner = new Scanner(System.in);
@@ -144,9 +166,8 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
             latch.countDown();
         };
 
-        final ExecutorService WORKER_THREADS = Executors.newFixedThreadPool(2);
+        final ExecutorService WORKER_THREADS = Executors.newSingleThreadExecutor();
 
-        WORKER_THREADS.submit(waitForDisconnectRunnable);
         WORKER_THREADS.submit(waitForExitCommandRunnable);
 
         latch.await();
@@ -177,6 +198,7 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
                 ", showTopics=" + showTopics +
                 (userProperties != null ? (", userProperties=" + Arrays.toString(userProperties)) : "") +
                 (publishFile != null ? (", publishFile=" + publishFile.getAbsolutePath()) : "") +
+                (getPublishFilter().isAcceptAll() ? "" : (", publishFilter=" + getPublishFilter())) +
                 '}';
     }
 
@@ -196,6 +218,9 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
             if (userProperties != null) {
                 Logger.warn("Subscribe user properties were set but are unused in Mqtt version {}", MqttVersion.MQTT_3_1_1);
             }
+            if (filterUserProperty != null) {
+                Logger.warn("A user property filter was set but Mqtt version {} publishes have no user properties, so no publish will be printed", MqttVersion.MQTT_3_1_1);
+            }
         }
     }
 
@@ -218,6 +243,12 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
         return printToSTDOUT;
     }
 
+    @NotNull
+    @Override
+    public PrintStream getOutput() {
+        return System.out;
+    }
+
     public boolean isBase64() { return base64; }
 
     public boolean isJsonOutput() { return jsonOutput; }
@@ -233,4 +264,48 @@ public class ContextSubscribeCommand extends ShellContextCommand implements Runn
     public void setUserProperties(@Nullable final Mqtt5UserProperty... userProperties) {
         this.userProperties = userProperties;
     }
+
+    @NotNull
+    @Override
+    public PublishFilter getPublishFilter() {
+        return new PublishFilter(filterTopic, filterUserProperty, filterPayload, filterPayloadRegex, filterJson);
+    }
+
+    @Nullable
+    @Override
+    public SubscribeStatistics getStatistics() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public LatencyStatistics getLatencyStatistics() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public SubscribeLifecycle getLifecycle() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public PublishDeduplicator getDeduplicator() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public TopicAggregator getAggregator() {
+        return null;
+    }
+
+    /**
+     * The flow control is set up when the client connects, the context client was already connected by 'con'.
+     */
+    @Override
+    public int getRequestBatchSize() {
+        return 0;
+    }
 }
@@ -30,6 +30,10 @@ import org.tinylog.Logger;
 import picocli.CommandLine;
 
 import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 
 @CommandLine.Command(name = "unsub",
@@ -51,8 +55,11 @@ public class ContextUnsubscribeCommand extends ShellContextCommand implements Ru
     @CommandLine.Option(names = {"-h", "--help"}, usageHelp = true, description = "display this help message")
     boolean usageHelpRequested;
 
-    @CommandLine.Option(names = {"-t", "--topic"}, required = true, description = "The topics to publish to")
-    @NotNull private String[] topics;
+    @CommandLine.Option(names = {"-t", "--topic"}, description = "The topics to unsubscribe from")
+    @Nullable private String[] topics;
+
+    @CommandLine.Option(names = {"--topicFile", "--topic-file"}, description = "A file with one topic to unsubscribe from per line")
+    @Nullable private File topicFile;
 
     @CommandLine.Option(names = {"-up", "--userProperty"}, converter = Mqtt5UserPropertyConverter.class, description = "A user property for the unsubscribe message")
     @Nullable
@@ -65,8 +72,20 @@ public class ContextUnsubscribeCommand extends ShellContextCommand implements Ru
 
         logUnusedUnsubscribeOptions();
 
+        if (topics == null && topicFile == null) {
+            Logger.error("Missing topics to unsubscribe from, use '-t' or '--topicFile'");
+            return;
+        }
+
         try {
-            mqttClientExecutor.unsubscribe(contextClient, this);
+            if (topics != null) {
+                mqttClientExecutor.unsubscribe(contextClient, this);
+            }
+            if (topicFile != null) {
+                try (final BufferedReader reader = Files.newBufferedReader(topicFile.toPath(), StandardCharsets.UTF_8)) {
+                    mqttClientExecutor.unsubscribe(contextClient, this, MqttUtils.readTopicFilters(reader).iterator());
+                }
+            }
         }
         catch (final Exception ex) {
             Logger.error(ex, Throwables.getRootCause(ex).getMessage());
@@ -86,6 +105,7 @@ public class ContextUnsubscribeCommand extends ShellContextCommand implements Ru
         return getClass().getSimpleName() + "{" +
                 "key=" + getKey() +
                 ", topics=" + Arrays.toString(topics) +
+                (topicFile != null ? (", topicFile=" + topicFile.getAbsolutePath()) : "") +
                 (userProperties != null ? (", userProperties=" + Arrays.toString(userProperties)) : "") +
                 '}';
     }
@@ -93,7 +113,7 @@ public class ContextUnsubscribeCommand extends ShellContextCommand implements Ru
     @Override
     @NotNull
     public String[] getTopics() {
-        return topics;
+        return topics != null ? topics : new String[0];
     }
 
     @Override
@@ -18,9 +18,13 @@ package com.hivemq.cli.commands.shell;
 
 import com.hivemq.cli.commands.CliCommand;
 import com.hivemq.cli.mqtt.ClientData;
+import com.hivemq.cli.mqtt.ClientRegistry;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
 import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.MqttClientState;
+import com.hivemq.client.mqtt.MqttVersion;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 import picocli.CommandLine;
 
@@ -28,10 +32,9 @@ import javax.inject.Inject;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.NavigableSet;
 
 @CommandLine.Command(name = "ls",
         aliases = "list",
@@ -40,6 +43,16 @@ import java.util.stream.Collectors;
 
 public class ListClientsCommand implements Runnable, CliCommand {
 
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+    private static final int STATE_WIDTH = Arrays.stream(MqttClientState.values())
+            .mapToInt(state -> state.toString().length())
+            .max()
+            .getAsInt();
+    private static final int VERSION_WIDTH = Arrays.stream(MqttVersion.values())
+            .mapToInt(version -> version.name().length())
+            .max()
+            .getAsInt();
+
     private final MqttClientExecutor mqttClientExecutor;
 
     public ListClientsCommand() {
@@ -69,61 +82,51 @@ public class ListClientsCommand implements Runnable, CliCommand {
     @CommandLine.Option(names = {"-s", "--subscriptions"}, defaultValue = "false", description = "list subscribed topics of clients")
     private boolean listSubscriptions;
 
+    @CommandLine.Option(names = {"--host"}, description = "list only the clients connected to this host")
+    private @Nullable String host;
+
+    @CommandLine.Option(names = {"--state"}, description = "list only the clients in this state (${COMPLETION-CANDIDATES})")
+    private @Nullable MqttClientState state;
+
+    @CommandLine.Option(names = {"-p", "--page"}, defaultValue = "1", description = "the page of clients to list (default 1)")
+    private int page;
+
+    @CommandLine.Option(names = {"--pageSize"}, defaultValue = "" + DEFAULT_PAGE_SIZE, description = "the number of clients per page (default " + DEFAULT_PAGE_SIZE + ")")
+    private int pageSize;
+
     @Override
     public void run() {
 
         Logger.trace("Command {}", this);
 
-        final List<ClientData> sortedClientData = getSortedClientData();
+        if (page < 1 || pageSize < 1) {
+            Logger.error("Page and page size must be at least 1");
+            return;
+        }
+
+        final ClientRegistry clientRegistry = MqttClientExecutor.getClientRegistry();
+        final List<ClientData> clientDataPage = new ArrayList<>(Math.min(pageSize, clientRegistry.size()));
+        final boolean hasMore = getPage(clientRegistry, clientDataPage);
 
         final PrintWriter writer = ShellCommand.TERMINAL_WRITER;
 
         if (longOutput) {
-            writer.println("total " + sortedClientData.size());
+            writer.println("total " + clientRegistry.count(host, state));
 
-            if (sortedClientData.size() == 0) {
+            if (clientDataPage.size() == 0) {
                 return;
             }
 
-
-            final Set<MqttClient> clients = sortedClientData.stream()
-                    .map(clientData -> clientData.getClient())
-                    .collect(Collectors.toSet());
-
-            final int longestID = clients.stream()
-                    .map(c -> c.getConfig().getClientIdentifier().get().toString().length())
-                    .max(Integer::compareTo)
-                    .get();
-
-            final int longestHost = clients.stream()
-                    .map(c -> c.getConfig().getServerHost().length())
-                    .max(Integer::compareTo)
-                    .get();
-
-            final int longestState = clients.stream()
-                    .map(c -> c.getConfig().getState().toString().length())
-                    .max(Integer::compareTo)
-                    .get();
-
-            final int longestVersion = clients.stream()
-                    .map(c -> c.getConfig().getMqttVersion().toString().length())
-                    .max(Integer::compareTo)
-                    .get();
-
-            final int longestSSLVersion = clients.stream()
-                    .map(c -> c.getConfig().getSslConfig().toString().length())
-                    .max(Integer::compareTo)
-                    .orElse("NO_SSL".length());
-
-            final String format = new String("%-" + longestState + "s " +
+            // The widths are tracked by the registry, so the format does not depend on the number of clients
+            final String format = "%-" + STATE_WIDTH + "s " +
                     "%02d:%02d:%02d " +
-                    "%-" + longestID + "s " +
-                    "%-" + longestHost + "s " +
+                    "%-" + Math.max(1, clientRegistry.getIdentifierWidth()) + "s " +
+                    "%-" + Math.max(1, clientRegistry.getHostWidth()) + "s " +
                     "%5d " +
-                    "%-" + longestVersion + "s " +
-                    "%-" + longestSSLVersion + "s\n");
+                    "%-" + VERSION_WIDTH + "s " +
+                    "%-" + clientRegistry.getSslWidth() + "s\n";
 
-            for (final ClientData clientData : sortedClientData) {
+            for (final ClientData clientData : clientDataPage) {
 
                 final MqttClient client = clientData.getClient();
 
@@ -134,11 +137,11 @@ public class ListClientsCommand implements Runnable, CliCommand {
                 writer.printf(format,
                         connectionState,
                         dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(),
-                        client.getConfig().getClientIdentifier().get().toString(),
+                        ClientRegistry.getIdentifier(client),
                         client.getConfig().getServerHost(),
                         client.getConfig().getServerPort(),
                         client.getConfig().getMqttVersion().name(),
-                        client.getConfig().getSslConfig().map(ssl -> ssl.getProtocols().get().toString()).orElse("NO_SSL"));
+                        ClientRegistry.getSslProtocols(client));
 
                 if (listSubscriptions) {
                     writer.printf(" -subscribed topics: %s\n", clientData.getSubscribedTopics());
@@ -148,7 +151,7 @@ public class ListClientsCommand implements Runnable, CliCommand {
 
         } else {
 
-            for (final ClientData clientData : sortedClientData) {
+            for (final ClientData clientData : clientDataPage) {
                 writer.println(clientData.getClient().getConfig().getClientIdentifier().get() + "@" + clientData.getClient().getConfig().getServerHost());
                 if (listSubscriptions) {
                     writer.printf(" -subscribed topics: %s\n", clientData.getSubscribedTopics());
@@ -156,35 +159,59 @@ public class ListClientsCommand implements Runnable, CliCommand {
             }
         }
 
-
+        if (hasMore) {
+            writer.printf("more clients on page %d\n", page + 1);
+        }
     }
 
+    /**
+     * Walks the matching index of the registry and collects the requested page,
+     * so only the clients up to the end of the page are visited.
+     *
+     * @return true if there are more clients after the page
+     */
+    private boolean getPage(final @NotNull ClientRegistry clientRegistry, final @NotNull List<ClientData> clientDataPage) {
+        final Iterable<ClientData> clientData = getClientDataInOrder(clientRegistry);
+        final long skip = (long) (page - 1) * pageSize;
+        long matched = 0;
+        for (final ClientData data : clientData) {
+            if (!matches(data)) {
+                continue;
+            }
+            if (matched++ < skip) {
+                continue;
+            }
+            if (clientDataPage.size() == pageSize) {
+                return true;
+            }
+            clientDataPage.add(data);
+        }
+        return false;
+    }
 
-    public List<ClientData> getSortedClientData() {
-        List<ClientData> sortedClientData =  new ArrayList<>(MqttClientExecutor.getClientDataMap().values());
-
+    private @NotNull Iterable<ClientData> getClientDataInOrder(final @NotNull ClientRegistry clientRegistry) {
         if (doNotSort) {
-            return sortedClientData;
+            return host != null ? clientRegistry.getByHost(host) : clientRegistry.getAll();
         }
-
-        Comparator<ClientData> comparator;
+        final NavigableSet<ClientData> sorted;
         if (sortByTime) {
-            comparator = Comparator.comparing(ClientData::getCreationTime);
+            sorted = clientRegistry.getByCreationTime();
         }
-        else {
-            comparator = Comparator.comparing(clientData -> clientData
-                    .getClient()
-                    .getConfig()
-                    .getClientIdentifier()
-                    .map(Object::toString)
-                    .orElse(""));
+        else if (host != null) {
+            sorted = clientRegistry.getByHost(host);
         }
-        if (reverse) {
-            comparator = comparator.reversed();
+        else {
+            sorted = clientRegistry.getByIdentifier();
         }
+        return reverse ? sorted.descendingSet() : sorted;
+    }
 
-        sortedClientData.sort(comparator);
-        return sortedClientData;
+    private boolean matches(final @NotNull ClientData clientData) {
+        final MqttClient client = clientData.getClient();
+        if (host != null && !host.equals(client.getConfig().getServerHost())) {
+            return false;
+        }
+        return state == null || state == client.getState();
     }
 
 
@@ -196,6 +223,10 @@ public class ListClientsCommand implements Runnable, CliCommand {
                 ", reverse=" + reverse +
                 ", listSubscriptions" + listSubscriptions +
                 ", longOutput=" + longOutput +
+                (host != null ? (", host=" + host) : "") +
+                (state != null ? (", state=" + state) : "") +
+                ", page=" + page +
+                ", pageSize=" + pageSize +
                 '}';
     }
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.shell;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Keeps track of the publishes of a script which were sent without waiting for their acknowledgements.
+ * <p>
+ * The number of publishes in flight is bounded, the oldest publish is awaited if the limit is reached.
+ * Failures were already logged by the executor, the pipeline only counts them.
+ */
+class PublishPipeline {
+
+    static final int DEFAULT_MAX_IN_FLIGHT = 10_000;
+
+    private final @NotNull Deque<CompletableFuture<?>> inFlight = new ArrayDeque<>();
+    private final int maxInFlight;
+    private long completed;
+    private long failed;
+
+    PublishPipeline(final int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    void add(final @NotNull CompletableFuture<?> publishFuture) {
+        inFlight.add(publishFuture);
+        while (inFlight.size() > maxInFlight) {
+            await(inFlight.poll());
+        }
+        // Release completed publishes early so their messages can be garbage collected
+        while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+            await(inFlight.poll());
+        }
+    }
+
+    void awaitAll() {
+        while (!inFlight.isEmpty()) {
+            await(inFlight.poll());
+        }
+    }
+
+    int getInFlight() {
+        return inFlight.size();
+    }
+
+    long getCompleted() {
+        return completed;
+    }
+
+    long getFailed() {
+        return failed;
+    }
+
+    private void await(final @NotNull CompletableFuture<?> publishFuture) {
+        try {
+            publishFuture.join();
+            completed++;
+        } catch (final CompletionException | CancellationException e) {
+            failed++;
+        }
+    }
+}
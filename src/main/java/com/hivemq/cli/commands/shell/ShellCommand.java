@@ -22,6 +22,7 @@ import com.hivemq.cli.DefaultCLIProperties;
 import com.hivemq.cli.MqttCLIMain;
 import com.hivemq.cli.utils.LoggerUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jline.reader.LineReaderBuilder;
 import org.jline.reader.MaskingCallback;
 import org.jline.reader.ParsedLine;
@@ -38,8 +39,17 @@ import picocli.CommandLine;
 import picocli.shell.jline3.PicocliJLineCompleter;
 
 import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @CommandLine.Command(name = "shell", aliases = "sh",
@@ -52,9 +62,15 @@ import java.util.Map;
         commandListHeading = "%n@|bold Commands|@:%n",
         separator = " ")
 
-public class ShellCommand implements Runnable {
+public class ShellCommand implements Runnable, CommandLine.IExitCodeGenerator {
+
+    public static final int EXIT_CODE_OK = 0;
+    public static final int EXIT_CODE_ERROR = 1;
 
     private static final String DEFAULT_PROMPT = "mqtt> ";
+    private static final String STDIN_SCRIPT = "-";
+    // Commands of a script which do not depend on the acknowledgements of the publishes before them
+    private static final List<String> PIPELINED_COMMANDS = Arrays.asList("pub", "publish", "switch", "con", "connect");
     private static String prompt = DEFAULT_PROMPT;
 
     public static boolean DEBUG;
@@ -73,8 +89,12 @@ public class ShellCommand implements Runnable {
 
     private static boolean exitShell = false;
 
+    private static @Nullable PublishPipeline publishPipeline;
+
     private final DefaultCLIProperties defaultCLIProperties;
 
+    private int exitCode = EXIT_CODE_OK;
+
     @SuppressWarnings("NullableProblems")
     @CommandLine.Spec
     private @NotNull CommandLine.Model.CommandSpec spec;
@@ -93,12 +113,82 @@ public class ShellCommand implements Runnable {
     @CommandLine.Option(names = {"-l"}, defaultValue = "false", description = "Log to $HOME/.mqtt-cli/logs (Configurable through $HOME/.mqtt-cli/config.properties)", order = 1)
     private boolean logToLogfile;
 
+    @CommandLine.Option(names = {"--script"}, description = "Run the shell commands of the given file (or stdin for '-') without interaction and exit afterwards, with exit code " + EXIT_CODE_ERROR + " if a line or publish failed", order = 2)
+    private @Nullable String script;
+
+    @CommandLine.Option(names = {"--maxInFlight"}, defaultValue = "" + PublishPipeline.DEFAULT_MAX_IN_FLIGHT, description = "The maximum number of publishes of a script which are sent without waiting for their acknowledgement (default " + PublishPipeline.DEFAULT_MAX_IN_FLIGHT + ")", order = 3)
+    private int maxInFlight;
+
     @Override
     public void run() {
         LoggerUtils.setupConsoleLogging(logToLogfile, "warn");
         logfilePath = Configuration.get("writer.file");
 
-        interact();
+        if (script != null) {
+            runScript(script);
+        }
+        else {
+            interact();
+        }
+    }
+
+    /**
+     * Runs the commands of the script line by line. Consecutive publishes are sent without waiting for their
+     * acknowledgements, the script only waits for them before a command which may depend on them.
+     */
+    private void runScript(final @NotNull String script) {
+        shellCommandLine = MqttCLIMain.MQTTCLI.shell();
+        contextCommandLine = MqttCLIMain.MQTTCLI.shellContext();
+        TERMINAL_WRITER = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), true);
+        publishPipeline = new PublishPipeline(maxInFlight);
+        readFromShell();
+
+        Logger.info("--- Shell-Mode started with script {} ---", script);
+
+        final DefaultParser parser = new DefaultParser();
+        try (final BufferedReader reader = script.equals(STDIN_SCRIPT) ?
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)) :
+                Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+
+            String line;
+            int lineNumber = 0;
+            int failedLines = 0;
+            while (!exitShell && (line = reader.readLine()) != null) {
+                lineNumber++;
+                final String trimmedLine = line.trim();
+                if (trimmedLine.isEmpty() || trimmedLine.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    final String[] arguments = parser.parse(line, line.length()).words().toArray(new String[0]);
+                    if (!PIPELINED_COMMANDS.contains(arguments[0])) {
+                        publishPipeline.awaitAll();
+                    }
+                    if (currentCommandLine.execute(arguments) != EXIT_CODE_OK) {
+                        failedLines++;
+                    }
+                } catch (final Exception ex) {
+                    Logger.error(ex, "Line {}: {}", lineNumber, Throwables.getRootCause(ex).getMessage());
+                    failedLines++;
+                }
+            }
+            if (failedLines > 0) {
+                Logger.warn("{} lines of the script failed", failedLines);
+                exitCode = EXIT_CODE_ERROR;
+            }
+        } catch (final IOException ex) {
+            Logger.error(ex, "Could not read script {}: {}", script, Throwables.getRootCause(ex).getMessage());
+            exitCode = EXIT_CODE_ERROR;
+        } finally {
+            publishPipeline.awaitAll();
+        }
+
+        if (publishPipeline.getFailed() > 0) {
+            Logger.warn("{} of {} publishes of the script failed", publishPipeline.getFailed(),
+                    publishPipeline.getFailed() + publishPipeline.getCompleted());
+            exitCode = EXIT_CODE_ERROR;
+        }
+        Logger.info("--- Shell-Mode exited ---");
     }
 
 
@@ -206,7 +296,21 @@ public class ShellCommand implements Runnable {
     }
 
     static void clearScreen() {
-        currentReader.clearScreen();
+        if (currentReader != null) {
+            currentReader.clearScreen();
+        }
+    }
+
+    /**
+     * @return the pipeline for the publishes of a script or null if the shell is interactive
+     */
+    static @Nullable PublishPipeline getPublishPipeline() {
+        return publishPipeline;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
     }
 
     static boolean isVerbose() {
@@ -221,6 +325,7 @@ public class ShellCommand implements Runnable {
     public String toString() {
         return  getClass().getSimpleName() + "{" +
                 "logfilePath=" + logfilePath +
+                (script != null ? (", script=" + script + ", maxInFlight=" + maxInFlight) : "") +
                 ", debug=" + DEBUG +
                 ", verbose=" + VERBOSE +
                 "}";
@@ -22,6 +22,7 @@ import com.hivemq.cli.commands.Connect;
 import com.hivemq.cli.converters.Mqtt5UserPropertyConverter;
 import com.hivemq.cli.converters.UnsignedIntConverter;
 import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.cli.utils.LatencyHistogram;
 import com.hivemq.cli.utils.MqttUtils;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.MqttClientSslConfig;
@@ -35,6 +36,7 @@ import org.tinylog.Logger;
 import picocli.CommandLine;
 
 import javax.inject.Inject;
+import java.io.PrintWriter;
 import java.util.Arrays;
 
 @CommandLine.Command(name = "con",
@@ -66,15 +68,75 @@ public class ShellConnectCommand extends AbstractCommonFlags implements Runnable
     @CommandLine.Option(names = {"-up", "--userProperty"}, converter = Mqtt5UserPropertyConverter.class, description = "A user property of the connect message")
     @Nullable private Mqtt5UserProperty[] connectUserProperties;
 
+    @CommandLine.Option(names = {"--count"}, description = "Connect this number of clients at once, the identifiers are built from the id pattern")
+    @Nullable private Integer count;
+
+    @CommandLine.Option(names = {"--idPattern", "--id-pattern"}, description = "The identifier pattern of the clients connected with --count, e.g. 'dev-%d' (default: <identifier>-%d)")
+    @Nullable private String idPattern;
+
+    @CommandLine.Option(names = {"--parallelism"}, defaultValue = "100", description = "The maximum number of connects in flight when connecting with --count (default: 100)")
+    private int parallelism;
+
+    @CommandLine.Option(names = {"--connectRate"}, description = "The maximum number of connects started per second when connecting with --count (default: unlimited)")
+    @Nullable private Double connectRate;
+
     public void run() {
         setDefaultOptions();
         sslConfig = buildSslConfig();
         logUnusedOptions();
+        if (count != null) {
+            bulkConnect(count);
+            sslConfig = null;
+            return;
+        }
         final MqttClient client = connect();
         sslConfig = null;
         ShellContextCommand.updateContext(client);
     }
 
+    private void bulkConnect(final int count) {
+
+        Logger.trace("Command {} ", this);
+
+        final BulkConnect bulkConnect;
+        try {
+            bulkConnect = new BulkConnect(count, idPattern != null ? idPattern : getIdentifier() + "-%d", parallelism, connectRate);
+        }
+        catch (final IllegalArgumentException ex) {
+            Logger.error(ex.getMessage());
+            return;
+        }
+
+        final BulkConnect.Result result;
+        try {
+            result = bulkConnect.run(identifier -> mqttClientExecutor.connectAsync(this, identifier));
+        }
+        catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Logger.error("Connecting {} clients was interrupted", count);
+            return;
+        }
+
+        final PrintWriter writer = ShellCommand.TERMINAL_WRITER;
+        final double seconds = result.getDurationNanos() / 1_000_000_000d;
+        writer.printf("Connected %d of %d clients in %.2fs (%d connects/s)\n",
+                result.getConnected(), result.getCount(), seconds, Math.round(result.getConnected() / Math.max(seconds, 0.001)));
+
+        final LatencyHistogram.Snapshot latency = result.getConnectLatencyMicros();
+        if (latency.getCount() > 0) {
+            writer.printf("connect latency: p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms\n",
+                    latency.getValueAtQuantile(0.5) / 1000d,
+                    latency.getValueAtQuantile(0.9) / 1000d,
+                    latency.getValueAtQuantile(0.99) / 1000d,
+                    latency.getMax() / 1000d);
+        }
+
+        if (result.getFailed() > 0) {
+            writer.printf("%d connects failed:\n", result.getFailed());
+            result.getFailureCauses().forEach((cause, causeCount) -> writer.printf(" %6d %s\n", causeCount, cause));
+        }
+    }
+
     private @Nullable MqttClient connect() {
 
         Logger.trace("Command {} ", this);
@@ -109,6 +171,8 @@ public class ShellConnectCommand extends AbstractCommonFlags implements Runnable
         return commonOptions() +
                 (sessionExpiryInterval != null ? (", sessionExpiryInterval=" + sessionExpiryInterval) : "") +
                 (connectUserProperties != null ? (", userProperties=" + Arrays.toString(connectUserProperties)) : "") +
+                (count != null ? (", count=" + count + ", idPattern=" + idPattern + ", parallelism=" + parallelism) : "") +
+                (connectRate != null ? (", connectRate=" + connectRate) : "") +
                 connectRestrictionOptions();
     }
 
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.converters;
+
+import org.jetbrains.annotations.NotNull;
+import picocli.CommandLine;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class DurationConverter implements CommandLine.ITypeConverter<Duration> {
+
+    public static final String WRONG_INPUT_MESSAGE = "Value must be a positive duration like 500ms, 10s, 5m or 1h (a number without unit is in seconds)";
+    private static final Pattern DURATION_PATTERN = Pattern.compile("(\\d{1,9})(ms|s|m|h)?");
+
+    @Override
+    public Duration convert(final @NotNull String s) throws Exception {
+        final Matcher matcher = DURATION_PATTERN.matcher(s.trim());
+        if (!matcher.matches()) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+        final long amount = Long.parseLong(matcher.group(1));
+        if (amount == 0) {
+            throw new Exception(WRONG_INPUT_MESSAGE);
+        }
+        final String unit = matcher.group(2) != null ? matcher.group(2) : "s";
+        switch (unit) {
+            case "ms": return Duration.ofMillis(amount);
+            case "m": return Duration.ofMinutes(amount);
+            case "h": return Duration.ofHours(amount);
+            default: return Duration.ofSeconds(amount);
+        }
+    }
+}
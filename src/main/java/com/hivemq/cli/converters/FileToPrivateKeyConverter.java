@@ -17,9 +17,9 @@
 package com.hivemq.cli.converters;
 
 
+import com.hivemq.cli.utils.CryptoUtils;
 import com.hivemq.cli.utils.PasswordUtils;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMDecryptorProvider;
 import org.bouncycastle.openssl.PEMEncryptedKeyPair;
 import org.bouncycastle.openssl.PEMException;
@@ -37,7 +37,6 @@ import java.io.File;
 import java.io.FileReader;
 import java.security.KeyPair;
 import java.security.PrivateKey;
-import java.security.Security;
 
 public class FileToPrivateKeyConverter implements CommandLine.ITypeConverter<PrivateKey> {
     static final String UNRECOGNIZED_KEY = "The private key could not be recognized.";
@@ -51,7 +50,7 @@ public class FileToPrivateKeyConverter implements CommandLine.ITypeConverter<Pri
     }
 
     private PrivateKey getPrivateKeyFromFile(final @NotNull File keyFile) throws Exception {
-        Security.addProvider(new BouncyCastleProvider());
+        CryptoUtils.initBouncyCastle();
         // read the keyfile
         final PEMParser pemParser = new PEMParser(new FileReader(keyFile));
 
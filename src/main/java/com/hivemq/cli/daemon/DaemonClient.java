@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The thin client side of the daemon. It is used before any other part of the CLI is initialized,
+ * so an invocation which is forwarded only pays for the socket round trip.
+ */
+public class DaemonClient {
+
+    private static final @NotNull List<String> FORWARDED_COMMANDS = Arrays.asList("pub", "publish", "sub", "subscribe");
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Invocations are only forwarded if the user opted in by setting $MQTT_CLI_DAEMON to true.
+     */
+    public static boolean isForwarded(final @NotNull String[] args) {
+        return isForwarded(System.getenv(DaemonProtocol.FORWARD_ENV), args);
+    }
+
+    static boolean isForwarded(final @Nullable String forwardEnv, final @NotNull String[] args) {
+        return Boolean.parseBoolean(forwardEnv) && args.length > 0 && FORWARDED_COMMANDS.contains(args[0]);
+    }
+
+    /**
+     * Runs the invocation on the daemon listening on the given socket.
+     *
+     * @return the exit code of the invocation or null if no daemon is reachable and the invocation has to run locally
+     */
+    public static @Nullable Integer forward(final @NotNull File socketFile, final @NotNull String[] args) {
+        if (!socketFile.exists() || !Epoll.isAvailable()) {
+            return null;
+        }
+        final CompletableFuture<Integer> exitCode = new CompletableFuture<>();
+        final EventLoopGroup eventLoopGroup = new EpollEventLoopGroup(1);
+        try {
+            final Channel channel = connect(eventLoopGroup, socketFile, new ResponseHandler(exitCode));
+            if (channel == null) {
+                return null;
+            }
+            channel.closeFuture().addListener(future -> exitCode.complete(-1));
+            final File workingDirectory = new File(System.getProperty("user.dir"));
+            channel.writeAndFlush(DaemonProtocol.frame(channel.alloc(), DaemonProtocol.RUN, DaemonProtocol.encodeRun(workingDirectory, args)));
+            return exitCode.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (final ExecutionException e) {
+            return -1;
+        } finally {
+            eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+        }
+    }
+
+    static boolean isReachable(final @NotNull File socketFile) {
+        if (!Epoll.isAvailable()) {
+            return false;
+        }
+        final EventLoopGroup eventLoopGroup = new EpollEventLoopGroup(1);
+        try {
+            final Channel channel = connect(eventLoopGroup, socketFile, new ResponseHandler(new CompletableFuture<>()));
+            if (channel == null) {
+                return false;
+            }
+            channel.close();
+            return true;
+        } finally {
+            eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+        }
+    }
+
+    private static @Nullable Channel connect(final @NotNull EventLoopGroup eventLoopGroup,
+                                             final @NotNull File socketFile,
+                                             final @NotNull ChannelHandler handler) {
+        try {
+            return new Bootstrap()
+                    .group(eventLoopGroup)
+                    .channel(EpollDomainSocketChannel.class)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(final @NotNull Channel channel) {
+                            DaemonProtocol.addFraming(channel.pipeline());
+                            channel.pipeline().addLast(handler);
+                        }
+                    })
+                    .connect(new DomainSocketAddress(socketFile))
+                    .sync()
+                    .channel();
+        } catch (final Exception e) {
+            // A stale socket file of a daemon which is not running anymore
+            return null;
+        }
+    }
+
+    private static class ResponseHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private final @NotNull CompletableFuture<Integer> exitCode;
+
+        ResponseHandler(final @NotNull CompletableFuture<Integer> exitCode) {
+            this.exitCode = exitCode;
+        }
+
+        @Override
+        protected void channelRead0(final @NotNull ChannelHandlerContext ctx, final @NotNull ByteBuf frame) {
+            final byte type = frame.readByte();
+            switch (type) {
+                case DaemonProtocol.OUT:
+                    write(System.out, frame);
+                    break;
+                case DaemonProtocol.ERR:
+                    write(System.err, frame);
+                    break;
+                case DaemonProtocol.EXIT:
+                    exitCode.complete(Integer.parseInt(DaemonProtocol.text(frame)));
+                    ctx.close();
+                    break;
+                default:
+                    ctx.close();
+            }
+        }
+
+        @Override
+        public void exceptionCaught(final @NotNull ChannelHandlerContext ctx, final @NotNull Throwable cause) {
+            System.err.println("Connection to the daemon failed: " + cause.getMessage());
+            ctx.close();
+        }
+
+        private static void write(final @NotNull PrintStream stream, final @NotNull ByteBuf frame) {
+            final byte[] content = new byte[frame.readableBytes()];
+            frame.readBytes(content);
+            stream.write(content, 0, content.length);
+            stream.flush();
+        }
+    }
+}
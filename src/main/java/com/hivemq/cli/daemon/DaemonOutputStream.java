@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import io.netty.channel.Channel;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Collects the output of a forwarded command and sends it to the thin client as one frame on every flush.
+ */
+class DaemonOutputStream extends OutputStream {
+
+    private final @NotNull Channel channel;
+    private final byte type;
+    private final @NotNull ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    DaemonOutputStream(final @NotNull Channel channel, final byte type) {
+        this.channel = channel;
+        this.type = type;
+    }
+
+    @Override
+    public synchronized void write(final int b) {
+        buffer.write(b);
+    }
+
+    @Override
+    public synchronized void write(final @NotNull byte[] b, final int off, final int len) {
+        buffer.write(b, off, len);
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (buffer.size() == 0 || !channel.isActive()) {
+            buffer.reset();
+            return;
+        }
+        channel.writeAndFlush(DaemonProtocol.frame(channel.alloc(), type, buffer.toByteArray(), buffer.size()));
+        buffer.reset();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The thin clients and the daemon exchange length prefixed frames over a unix domain socket.
+ * Every frame starts with one type byte followed by the content of the frame.
+ * <ul>
+ * <li>{@link #RUN}: client to daemon, the working directory of the client and the arguments of the invocation, all
+ * separated by '\0'</li>
+ * <li>{@link #OUT} and {@link #ERR}: daemon to client, raw bytes for stdout and stderr</li>
+ * <li>{@link #EXIT}: daemon to client, the exit code of the invocation as decimal string</li>
+ * </ul>
+ */
+public final class DaemonProtocol {
+
+    public static final byte RUN = 1;
+    public static final byte OUT = 2;
+    public static final byte ERR = 3;
+    public static final byte EXIT = 4;
+
+    public static final @NotNull String SOCKET_ENV = "MQTT_CLI_DAEMON_SOCKET";
+    public static final @NotNull String FORWARD_ENV = "MQTT_CLI_DAEMON";
+
+    private static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+    private static final int LENGTH_FIELD_LENGTH = 4;
+    private static final @NotNull String ARGUMENT_SEPARATOR = "\0";
+    private static final @NotNull String DEFAULT_SOCKET_FILE_PATH =
+            System.getProperty("user.home") + File.separator +
+                    ".mqtt-cli" + File.separator +
+                    "daemon.sock";
+
+    private DaemonProtocol() {
+    }
+
+    public static @NotNull File getDefaultSocketFile() {
+        final String socketFilePath = System.getenv(SOCKET_ENV);
+        if (socketFilePath != null && !socketFilePath.isEmpty()) {
+            return new File(socketFilePath);
+        }
+        return new File(DEFAULT_SOCKET_FILE_PATH);
+    }
+
+    static void addFraming(final @NotNull ChannelPipeline pipeline) {
+        pipeline.addLast(new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, LENGTH_FIELD_LENGTH, 0, LENGTH_FIELD_LENGTH));
+        pipeline.addLast(new LengthFieldPrepender(LENGTH_FIELD_LENGTH));
+    }
+
+    static @NotNull ByteBuf frame(final @NotNull ByteBufAllocator allocator,
+                                  final byte type,
+                                  final @NotNull byte[] content,
+                                  final int length) {
+        final ByteBuf frame = allocator.buffer(1 + length);
+        frame.writeByte(type);
+        frame.writeBytes(content, 0, length);
+        return frame;
+    }
+
+    static @NotNull ByteBuf frame(final @NotNull ByteBufAllocator allocator, final byte type, final @NotNull String text) {
+        final byte[] content = text.getBytes(StandardCharsets.UTF_8);
+        return frame(allocator, type, content, content.length);
+    }
+
+    static @NotNull String text(final @NotNull ByteBuf frame) {
+        return frame.toString(frame.readerIndex(), frame.readableBytes(), StandardCharsets.UTF_8);
+    }
+
+    static @NotNull String encodeArguments(final @NotNull String[] args) {
+        return String.join(ARGUMENT_SEPARATOR, args);
+    }
+
+    static @NotNull String[] decodeArguments(final @NotNull String text) {
+        if (text.isEmpty()) {
+            return new String[0];
+        }
+        return text.split(ARGUMENT_SEPARATOR, -1);
+    }
+
+    /**
+     * The working directory is sent along, as the daemon runs in its own one but the relative paths of the arguments
+     * are meant relative to the one of the client.
+     */
+    static @NotNull String encodeRun(final @NotNull File workingDirectory, final @NotNull String[] args) {
+        return workingDirectory.getAbsolutePath() + ARGUMENT_SEPARATOR + encodeArguments(args);
+    }
+
+    static @NotNull File decodeWorkingDirectory(final @NotNull String text) {
+        final int separator = text.indexOf(ARGUMENT_SEPARATOR);
+        return new File(separator == -1 ? text : text.substring(0, separator));
+    }
+
+    static @NotNull String[] decodeRunArguments(final @NotNull String text) {
+        final int separator = text.indexOf(ARGUMENT_SEPARATOR);
+        return separator == -1 ? new String[0] : decodeArguments(text.substring(separator + 1));
+    }
+}
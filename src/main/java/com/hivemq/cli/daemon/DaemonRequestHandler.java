@@ -0,0 +1,269 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import com.google.common.base.Throwables;
+import com.hivemq.cli.commands.cli.PublishCommand;
+import com.hivemq.cli.commands.cli.SubscribeCommand;
+import com.hivemq.cli.mqtt.SubscribeLifecycle;
+import com.hivemq.client.mqtt.MqttClient;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+import picocli.CommandLine;
+
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the invocation forwarded by one thin client. The output is sent back over the socket.
+ * A forwarded subscribe streams the received messages until the thin client closes the connection or its count or
+ * timeout is reached, the subscription is then removed while the MQTT connection stays open for the next invocation.
+ */
+class DaemonRequestHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+    /**
+     * The options of pub and sub taking a path, some of them are already read while the arguments are parsed.
+     */
+    private static final @NotNull List<String> PATH_OPTIONS = Arrays.asList(
+            "-of", "--outputToFile", "--topicFile", "--topic-file", "-pw:file", "--cafile", "--capath", "--cert", "--key");
+
+    private final @NotNull MqttCLIDaemon daemon;
+    private final @NotNull ExecutorService commandExecutor;
+
+    DaemonRequestHandler(final @NotNull MqttCLIDaemon daemon, final @NotNull ExecutorService commandExecutor) {
+        this.daemon = daemon;
+        this.commandExecutor = commandExecutor;
+    }
+
+    @Override
+    protected void channelRead0(final @NotNull ChannelHandlerContext ctx, final @NotNull ByteBuf frame) {
+        final byte type = frame.readByte();
+        if (type != DaemonProtocol.RUN) {
+            Logger.debug("Closing daemon connection after unexpected frame type {}", type);
+            ctx.close();
+            return;
+        }
+        final String text = DaemonProtocol.text(frame);
+        final File workingDirectory = DaemonProtocol.decodeWorkingDirectory(text);
+        final String[] args = resolvePaths(DaemonProtocol.decodeRunArguments(text), workingDirectory);
+        final Channel channel = ctx.channel();
+        commandExecutor.execute(() -> execute(channel, workingDirectory, args));
+    }
+
+    @Override
+    public void exceptionCaught(final @NotNull ChannelHandlerContext ctx, final @NotNull Throwable cause) {
+        Logger.debug(cause, "Daemon connection failed");
+        ctx.close();
+    }
+
+    private void execute(final @NotNull Channel channel, final @NotNull File workingDirectory, final @NotNull String[] args) {
+        final PrintStream out = printStream(channel, DaemonProtocol.OUT);
+        final PrintStream err = printStream(channel, DaemonProtocol.ERR);
+        Logger.debug("Running forwarded command {}", Arrays.toString(args));
+        int exitCode;
+        try {
+            final Integer result = forward(channel, workingDirectory, args, out, err);
+            if (result == null) {
+                // The command keeps running until the thin client disconnects
+                return;
+            }
+            exitCode = result;
+        } catch (final Exception ex) {
+            Logger.debug(ex, "Forwarded command {} failed", Arrays.toString(args));
+            err.println(Throwables.getRootCause(ex).getMessage());
+            exitCode = -1;
+        }
+        out.flush();
+        err.flush();
+        channel.writeAndFlush(DaemonProtocol.frame(channel.alloc(), DaemonProtocol.EXIT, Integer.toString(exitCode)))
+                .addListener(ChannelFutureListener.CLOSE);
+    }
+
+    private @Nullable Integer forward(final @NotNull Channel channel,
+                                      final @NotNull File workingDirectory,
+                                      final @NotNull String[] args,
+                                      final @NotNull PrintStream out,
+                                      final @NotNull PrintStream err) throws Exception {
+        if (args.length == 0) {
+            err.println("No command was forwarded to the daemon");
+            return -1;
+        }
+        switch (args[0]) {
+            case "pub":
+            case "publish": {
+                final PublishCommand publishCommand = daemon.createPublishCommand();
+                final Integer exitCode = parse(publishCommand, args, out, err);
+                if (exitCode != null) {
+                    return exitCode;
+                }
+                final boolean useDefaultIdentifier = publishCommand.getIdentifier() == null;
+                publishCommand.prepare();
+                if (useDefaultIdentifier) {
+                    publishCommand.setIdentifier(daemon.getDefaultIdentifier(publishCommand));
+                }
+                publishCommand.publish();
+                return 0;
+            }
+            case "sub":
+            case "subscribe": {
+                final SubscribeCommand subscribeCommand = daemon.createSubscribeCommand();
+                final Integer exitCode = parse(subscribeCommand, args, out, err);
+                if (exitCode != null) {
+                    return exitCode;
+                }
+                // Unlike publishes, subscribes without an identifier get a client of their own, as ending one
+                // subscribe must not unsubscribe the same topic filters of another one
+                final boolean ownClient = subscribeCommand.getIdentifier() == null;
+                subscribeCommand.prepare();
+                if (ownClient) {
+                    // Set explicitly, as concurrent connects with the same empty MQTT 5 identifier would be merged
+                    subscribeCommand.setIdentifier(daemon.createIdentifier());
+                }
+                // The default output file of the properties is not part of the arguments
+                subscribeCommand.resolvePublishFile(workingDirectory);
+                subscribeCommand.setOutput(out);
+                final MqttClient client = subscribeCommand.subscribe();
+                channel.closeFuture().addListener(future -> commandExecutor.execute(() -> end(client, subscribeCommand, ownClient)));
+                endOnLifecycle(channel, subscribeCommand, out);
+                return null;
+            }
+            default:
+                err.println("Command '" + args[0] + "' can not be run by the daemon");
+                return -1;
+        }
+    }
+
+    /**
+     * Makes the relative paths of the path options absolute with the working directory of the client,
+     * both for the separate ('-of file') and the attached ('--outputToFile=file') form.
+     */
+    static @NotNull String[] resolvePaths(final @NotNull String[] args, final @NotNull File workingDirectory) {
+        final String[] resolved = args.clone();
+        for (int i = 0; i < resolved.length; i++) {
+            final String arg = resolved[i];
+            if (PATH_OPTIONS.contains(arg)) {
+                if (i + 1 < resolved.length) {
+                    resolved[i + 1] = resolvePath(resolved[i + 1], workingDirectory);
+                    i++;
+                }
+                continue;
+            }
+            final int equals = arg.indexOf('=');
+            if (equals != -1 && PATH_OPTIONS.contains(arg.substring(0, equals))) {
+                resolved[i] = arg.substring(0, equals + 1) + resolvePath(arg.substring(equals + 1), workingDirectory);
+            }
+        }
+        return resolved;
+    }
+
+    private static @NotNull String resolvePath(final @NotNull String path, final @NotNull File workingDirectory) {
+        if (path.isEmpty() || new File(path).isAbsolute()) {
+            return path;
+        }
+        return new File(workingDirectory, path).getPath();
+    }
+
+    /**
+     * @return the exit code if the invocation ends with parsing (help, version or invalid arguments), else null
+     */
+    private @Nullable Integer parse(final @NotNull Object command,
+                                    final @NotNull String[] args,
+                                    final @NotNull PrintStream out,
+                                    final @NotNull PrintStream err) throws Exception {
+        final CommandLine commandLine = new CommandLine(command, daemon.getConverterFactory())
+                .setColorScheme(daemon.getConfig().getColorScheme())
+                .setUsageHelpWidth(daemon.getConfig().getCliWidth())
+                .setOut(new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), true))
+                .setErr(new PrintWriter(new OutputStreamWriter(err, StandardCharsets.UTF_8), true));
+        try {
+            commandLine.parseArgs(Arrays.copyOfRange(args, 1, args.length));
+        } catch (final CommandLine.ParameterException ex) {
+            final int exitCode = daemon.getHandler().handleParseException(ex, args);
+            commandLine.getErr().flush();
+            return exitCode;
+        }
+        if (commandLine.isUsageHelpRequested()) {
+            commandLine.usage(commandLine.getOut());
+            commandLine.getOut().flush();
+            return 0;
+        }
+        if (commandLine.isVersionHelpRequested()) {
+            commandLine.printVersionHelp(commandLine.getOut());
+            commandLine.getOut().flush();
+            return 0;
+        }
+        return null;
+    }
+
+    /**
+     * Ends the forwarded subscribe with its exit code when the count or a timeout is reached.
+     * The daemon keeps its connections, so a disconnect does not end it.
+     */
+    private static void endOnLifecycle(final @NotNull Channel channel,
+                                       final @NotNull SubscribeCommand subscribeCommand,
+                                       final @NotNull PrintStream out) {
+        final SubscribeLifecycle lifecycle = subscribeCommand.getLifecycle();
+        if (lifecycle == null) {
+            return;
+        }
+        lifecycle.getResult().thenAccept(result -> {
+            out.flush();
+            channel.writeAndFlush(DaemonProtocol.frame(channel.alloc(), DaemonProtocol.EXIT, Integer.toString(subscribeCommand.getExitCode(result))))
+                    .addListener(ChannelFutureListener.CLOSE);
+        });
+        // Stops the scheduled timeouts if the thin client closes the connection first
+        channel.closeFuture().addListener(future -> lifecycle.getResult().cancel(false));
+        lifecycle.start(channel.eventLoop());
+    }
+
+    /**
+     * Disconnects the clients of a subscribe which were created for it, else only removes its subscriptions,
+     * so the client stays connected for other invocations with the same identifier.
+     */
+    private void end(final @NotNull MqttClient client, final @NotNull SubscribeCommand subscribeCommand, final boolean ownClient) {
+        try {
+            if (ownClient) {
+                subscribeCommand.disconnect();
+            } else if (client.getState().isConnected()) {
+                subscribeCommand.unsubscribe();
+            }
+        } catch (final Exception ex) {
+            Logger.debug(ex, "Could not end closed forwarded command {}", subscribeCommand);
+        }
+    }
+
+    private static @NotNull PrintStream printStream(final @NotNull Channel channel, final byte type) {
+        try {
+            return new PrintStream(new DaemonOutputStream(channel, type), true, StandardCharsets.UTF_8.name());
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
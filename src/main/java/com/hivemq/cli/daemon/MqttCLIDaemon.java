@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import com.hivemq.cli.DefaultCLIProperties;
+import com.hivemq.cli.commandline.CommandErrorMessageHandler;
+import com.hivemq.cli.commandline.CommandLineConfig;
+import com.hivemq.cli.commandline.LazyConverterFactory;
+import com.hivemq.cli.commands.MqttCommand;
+import com.hivemq.cli.commands.cli.PublishCommand;
+import com.hivemq.cli.commands.cli.SubscribeCommand;
+import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.cli.utils.MqttUtils;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import org.jetbrains.annotations.NotNull;
+import org.tinylog.Logger;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Hosts the {@link MqttClientExecutor} for thin clients which forward their pub and sub invocations over a unix
+ * domain socket, so the MQTT connections stay open across invocations.
+ */
+@Singleton
+public class MqttCLIDaemon {
+
+    public static final @NotNull String UNSUPPORTED_MESSAGE = "The daemon requires epoll and unix domain sockets (Linux)";
+
+    private final @NotNull MqttClientExecutor mqttClientExecutor;
+    private final @NotNull Provider<PublishCommand> publishCommandProvider;
+    private final @NotNull Provider<SubscribeCommand> subscribeCommandProvider;
+    private final @NotNull DefaultCLIProperties defaultCLIProperties;
+    private final @NotNull LazyConverterFactory converterFactory;
+    private final @NotNull CommandLineConfig config;
+    private final @NotNull CommandErrorMessageHandler handler;
+
+    private final @NotNull Map<String, String> defaultIdentifiers = new ConcurrentHashMap<>();
+
+    @Inject
+    public MqttCLIDaemon(final @NotNull MqttClientExecutor mqttClientExecutor,
+                         final @NotNull Provider<PublishCommand> publishCommandProvider,
+                         final @NotNull Provider<SubscribeCommand> subscribeCommandProvider,
+                         final @NotNull DefaultCLIProperties defaultCLIProperties,
+                         final @NotNull LazyConverterFactory converterFactory,
+                         final @NotNull CommandLineConfig config,
+                         final @NotNull CommandErrorMessageHandler handler) {
+        this.mqttClientExecutor = mqttClientExecutor;
+        this.publishCommandProvider = publishCommandProvider;
+        this.subscribeCommandProvider = subscribeCommandProvider;
+        this.defaultCLIProperties = defaultCLIProperties;
+        this.converterFactory = converterFactory;
+        this.config = config;
+        this.handler = handler;
+    }
+
+    /**
+     * @return true if the platform provides the epoll transport and unix domain sockets the daemon needs
+     */
+    public static boolean isSupported() {
+        return Epoll.isAvailable();
+    }
+
+    /**
+     * Listens on the given socket until the daemon is stopped.
+     *
+     * @throws IllegalStateException if the platform does not support the daemon or another daemon uses the socket
+     */
+    public void run(final @NotNull File socketFile) throws Exception {
+        if (!isSupported()) {
+            throw new IllegalStateException(UNSUPPORTED_MESSAGE, Epoll.unavailabilityCause());
+        }
+        if (socketFile.exists()) {
+            if (DaemonClient.isReachable(socketFile)) {
+                throw new IllegalStateException("A daemon is already listening on " + socketFile);
+            }
+            Logger.debug("Removing stale daemon socket {}", socketFile);
+            Files.delete(socketFile.toPath());
+        }
+        final File parent = socketFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+
+        // Forwarded commands block until their CONNACK, SUBACK or PUBACK, so they must not run on the event loop
+        final ExecutorService commandExecutor = Executors.newCachedThreadPool();
+        final EventLoopGroup eventLoopGroup = new EpollEventLoopGroup(1);
+        final Thread removeSocketFileHook = new Thread(() -> deleteSocketFile(socketFile));
+        try {
+            final Channel serverChannel = new ServerBootstrap()
+                    .group(eventLoopGroup)
+                    .channel(EpollServerDomainSocketChannel.class)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(final @NotNull Channel channel) {
+                            DaemonProtocol.addFraming(channel.pipeline());
+                            channel.pipeline().addLast(new DaemonRequestHandler(MqttCLIDaemon.this, commandExecutor));
+                        }
+                    })
+                    .bind(new DomainSocketAddress(socketFile))
+                    .sync()
+                    .channel();
+
+            Runtime.getRuntime().addShutdownHook(removeSocketFileHook);
+            System.out.println("MQTT CLI daemon listening on " + socketFile);
+
+            serverChannel.closeFuture().sync();
+        } finally {
+            eventLoopGroup.shutdownGracefully();
+            commandExecutor.shutdownNow();
+            deleteSocketFile(socketFile);
+        }
+    }
+
+    @NotNull PublishCommand createPublishCommand() {
+        return publishCommandProvider.get();
+    }
+
+    @NotNull SubscribeCommand createSubscribeCommand() {
+        return subscribeCommandProvider.get();
+    }
+
+    @NotNull MqttClientExecutor getMqttClientExecutor() {
+        return mqttClientExecutor;
+    }
+
+    @NotNull LazyConverterFactory getConverterFactory() {
+        return converterFactory;
+    }
+
+    @NotNull CommandLineConfig getConfig() {
+        return config;
+    }
+
+    @NotNull CommandErrorMessageHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * Publishes without an identifier would connect a new client with a random identifier each time.
+     * The daemon assigns them one identifier per broker instead, so their connection can be reused.
+     * Must be called after the default options of the command were applied.
+     */
+    @NotNull String getDefaultIdentifier(final @NotNull MqttCommand command) {
+        final String broker = command.getHost() + ":" + command.getPort() + " " + command.getVersion();
+        return defaultIdentifiers.computeIfAbsent(broker, key -> createIdentifier());
+    }
+
+    /**
+     * @return a new random identifier with the client prefix of the properties
+     */
+    @NotNull String createIdentifier() {
+        return defaultCLIProperties.getClientPrefix() + MqttUtils.buildRandomClientID(defaultCLIProperties.getClientLength());
+    }
+
+    private static void deleteSocketFile(final @NotNull File socketFile) {
+        try {
+            Files.deleteIfExists(socketFile.toPath());
+        } catch (final IOException e) {
+            Logger.debug(e, "Could not remove daemon socket {}", socketFile);
+        }
+    }
+}
@@ -18,9 +18,19 @@ package com.hivemq.cli.ioc;
 
 import com.hivemq.cli.commandline.CommandErrorMessageHandler;
 import com.hivemq.cli.commandline.CommandLineConfig;
+import com.hivemq.cli.commandline.LazyConverterFactory;
 import com.hivemq.cli.commands.hivemq.HiveMQCLICommand;
+import com.hivemq.cli.commands.hivemq.backup.BackupCommand;
+import com.hivemq.cli.commands.hivemq.backup.BackupCreateCommand;
+import com.hivemq.cli.commands.hivemq.backup.BackupDownloadCommand;
+import com.hivemq.cli.commands.hivemq.backup.BackupListCommand;
 import com.hivemq.cli.commands.hivemq.export.ExportCommand;
 import com.hivemq.cli.commands.hivemq.export.clients.ExportClientsCommand;
+import com.hivemq.cli.commands.hivemq.trace.TraceCommand;
+import com.hivemq.cli.commands.hivemq.trace.TraceDownloadCommand;
+import com.hivemq.cli.commands.hivemq.trace.TraceListCommand;
+import com.hivemq.cli.commands.hivemq.trace.TraceStartCommand;
+import com.hivemq.cli.commands.hivemq.trace.TraceStopCommand;
 import dagger.Module;
 import dagger.Provides;
 import org.jetbrains.annotations.NotNull;
@@ -39,12 +49,31 @@ public class HiveMQCLIModule {
             final @NotNull HiveMQCLICommand hivemqCliCommand,
             final @NotNull ExportCommand exportCommand,
             final @NotNull ExportClientsCommand exportClientsCommand,
+            final @NotNull BackupCommand backupCommand,
+            final @NotNull BackupCreateCommand backupCreateCommand,
+            final @NotNull BackupListCommand backupListCommand,
+            final @NotNull BackupDownloadCommand backupDownloadCommand,
+            final @NotNull TraceCommand traceCommand,
+            final @NotNull TraceStartCommand traceStartCommand,
+            final @NotNull TraceStopCommand traceStopCommand,
+            final @NotNull TraceListCommand traceListCommand,
+            final @NotNull TraceDownloadCommand traceDownloadCommand,
+            final @NotNull LazyConverterFactory factory,
             final @NotNull CommandLineConfig config,
             final @NotNull CommandErrorMessageHandler handler) {
 
-        return new CommandLine(hivemqCliCommand)
-                .addSubcommand(new CommandLine(exportCommand)
+        return new CommandLine(hivemqCliCommand, factory)
+                .addSubcommand(new CommandLine(exportCommand, factory)
                         .addSubcommand(exportClientsCommand))
+                .addSubcommand(new CommandLine(backupCommand, factory)
+                        .addSubcommand(backupCreateCommand)
+                        .addSubcommand(backupListCommand)
+                        .addSubcommand(backupDownloadCommand))
+                .addSubcommand(new CommandLine(traceCommand, factory)
+                        .addSubcommand(traceStartCommand)
+                        .addSubcommand(traceStopCommand)
+                        .addSubcommand(traceListCommand)
+                        .addSubcommand(traceDownloadCommand))
                 .setColorScheme(config.getColorScheme())
                 .setUsageHelpWidth(config.getCliWidth())
                 .setParameterExceptionHandler(handler);
@@ -17,6 +17,7 @@
 package com.hivemq.cli.ioc;
 
 import com.hivemq.cli.DefaultCLIProperties;
+import com.hivemq.cli.commandline.CLICommandLineFactory;
 import dagger.Component;
 import org.jetbrains.annotations.NotNull;
 import picocli.CommandLine;
@@ -32,8 +33,7 @@ import javax.inject.Singleton;
 })
 public interface MqttCLI {
 
-    @Named("cli")
-    @NotNull CommandLine cli();
+    @NotNull CLICommandLineFactory cliFactory();
 
     @Named("shell")
     @NotNull CommandLine shell();
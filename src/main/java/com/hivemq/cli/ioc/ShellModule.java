@@ -17,6 +17,7 @@
 package com.hivemq.cli.ioc;
 
 import com.hivemq.cli.commandline.CommandLineConfig;
+import com.hivemq.cli.commandline.LazyConverterFactory;
 import com.hivemq.cli.commandline.ShellErrorMessageHandler;
 import com.hivemq.cli.commands.shell.ClearScreenCommand;
 import com.hivemq.cli.commands.shell.ContextDisconnectCommand;
@@ -55,10 +56,11 @@ class ShellModule {
             final @NotNull ClearScreenCommand clearScreenCommand,
             final @NotNull ListClientsCommand listClientsCommand,
             final @NotNull ShellExitCommand shellExitCommand,
+            final @NotNull LazyConverterFactory factory,
             final @NotNull CommandLineConfig config,
             final @NotNull ShellErrorMessageHandler handler) {
 
-        return new CommandLine(shellCommand)
+        return new CommandLine(shellCommand, factory)
                 .addSubcommand(CommandLine.HelpCommand.class)
                 .addSubcommand(versionCommand)
                 .addSubcommand(shellConnectCommand)
@@ -87,10 +89,11 @@ class ShellModule {
             final @NotNull ListClientsCommand listClientsCommand,
             final @NotNull ClearScreenCommand clearScreenCommand,
             final @NotNull VersionCommand versionCommand,
+            final @NotNull LazyConverterFactory factory,
             final @NotNull CommandLineConfig config,
             final @NotNull ShellErrorMessageHandler handler) {
 
-        return new CommandLine(main)
+        return new CommandLine(main, factory)
                 .addSubcommand(CommandLine.HelpCommand.class)
                 .addSubcommand(versionCommand)
                 .addSubcommand(contextPublishCommand)
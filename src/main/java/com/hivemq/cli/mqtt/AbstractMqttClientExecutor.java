@@ -16,6 +16,7 @@
  */
 package com.hivemq.cli.mqtt;
 
+import com.google.common.base.Throwables;
 import com.hivemq.cli.commands.Connect;
 import com.hivemq.cli.commands.ConnectRestrictions;
 import com.hivemq.cli.commands.Context;
@@ -26,19 +27,26 @@ import com.hivemq.cli.commands.Unsubscribe;
 import com.hivemq.cli.commands.Will;
 import com.hivemq.cli.commands.cli.PublishCommand;
 import com.hivemq.cli.commands.cli.SubscribeCommand;
+import com.hivemq.cli.utils.LoggerUtils;
 import com.hivemq.cli.utils.MqttUtils;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.MqttClientBuilder;
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
 import com.hivemq.client.mqtt.MqttClientState;
 import com.hivemq.client.mqtt.MqttGlobalPublishFilter;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
+import com.hivemq.client.mqtt.datatypes.MqttTopicFilter;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
 import com.hivemq.client.mqtt.mqtt3.message.auth.Mqtt3SimpleAuth;
 import com.hivemq.client.mqtt.mqtt3.message.connect.Mqtt3Connect;
 import com.hivemq.client.mqtt.mqtt3.message.connect.Mqtt3ConnectBuilder;
 import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
 import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3PublishBuilder;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscribe;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscription;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
 import com.hivemq.client.mqtt.mqtt5.message.auth.Mqtt5SimpleAuth;
 import com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5Connect;
 import com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5ConnectBuilder;
@@ -47,36 +55,62 @@ import com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5ConnectRestrictionsBuil
 import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
 import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5WillPublish;
 import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5WillPublishBuilder;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import dagger.Lazy;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 abstract class AbstractMqttClientExecutor {
 
-    @NotNull private static final Map<String, ClientData> clientKeyToClientData = new ConcurrentHashMap<>();
+    @NotNull private static final ClientRegistry clientRegistry = new ClientRegistry();
 
+    private static final int MAXIMUM_TOPIC_FILTERS_PER_BATCH = 1000;
+    private static final int MAXIMUM_BATCHES_IN_FLIGHT = 8;
+    private static final long DEFAULT_RECONNECT_SESSION_EXPIRY_INTERVAL = 300;
 
-    abstract void mqtt5Connect(final @NotNull Mqtt5Client client, final @NotNull Mqtt5Connect connectMessage, final @NotNull Connect connect);
+    @NotNull private final Map<String, CompletableFuture<MqttClient>> pendingConnects = new ConcurrentHashMap<>();
+    @NotNull private final Lazy<MqttClientExecutorConfig> executorConfig;
 
-    abstract void mqtt3Connect(final @NotNull Mqtt3Client client, final @NotNull Mqtt3Connect connectMessage, final @NotNull Connect connect);
+    AbstractMqttClientExecutor(final @NotNull Lazy<MqttClientExecutorConfig> executorConfig) {
+        this.executorConfig = executorConfig;
+    }
+
+
+    abstract @NotNull CompletableFuture<?> mqtt5Connect(final @NotNull Mqtt5Client client, final @NotNull Mqtt5Connect connectMessage, final @NotNull Connect connect);
+
+    abstract @NotNull CompletableFuture<?> mqtt3Connect(final @NotNull Mqtt3Client client, final @NotNull Mqtt3Connect connectMessage, final @NotNull Connect connect);
 
-    abstract void mqtt5Subscribe(final @NotNull Mqtt5Client client, final @NotNull Subscribe subscribe, final @NotNull String topic, final @NotNull MqttQos qos);
+    abstract @NotNull CompletableFuture<?> mqtt5Subscribe(final @NotNull Mqtt5Client client, final @NotNull Subscribe subscribe, final @NotNull String[] topics, final @NotNull MqttQos[] qos);
 
-    abstract void mqtt3Subscribe(final @NotNull Mqtt3Client client, final @NotNull Subscribe subscribe, final @NotNull String topic, final @NotNull MqttQos qos);
+    abstract @NotNull CompletableFuture<?> mqtt3Subscribe(final @NotNull Mqtt3Client client, final @NotNull Subscribe subscribe, final @NotNull String[] topics, final @NotNull MqttQos[] qos);
 
-    abstract void mqtt5Publish(final @NotNull Mqtt5Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos);
+    abstract @NotNull CompletableFuture<?> mqtt5Publish(final @NotNull Mqtt5Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos);
 
-    abstract void mqtt3Publish(final @NotNull Mqtt3Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos);
+    abstract @NotNull CompletableFuture<?> mqtt3Publish(final @NotNull Mqtt3Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos);
 
-    abstract void mqtt5Unsubscribe(final @NotNull Mqtt5Client client, final @NotNull Unsubscribe unsubscribe);
+    abstract @NotNull CompletableFuture<?> mqtt5Unsubscribe(final @NotNull Mqtt5Client client, final @NotNull Unsubscribe unsubscribe, final @NotNull String[] topics);
 
-    abstract void mqtt3Unsubscribe(final @NotNull Mqtt3Client client, final @NotNull Unsubscribe unsubscribe);
+    abstract @NotNull CompletableFuture<?> mqtt3Unsubscribe(final @NotNull Mqtt3Client client, final @NotNull Unsubscribe unsubscribe, final @NotNull String[] topics);
 
     abstract void mqtt5Disconnect(final @NotNull Mqtt5Client client, final @NotNull Disconnect disconnect);
 
@@ -93,24 +127,130 @@ abstract class AbstractMqttClientExecutor {
 
     }
 
+    /**
+     * Subscribes to all topics of the subscribe with as few SUBSCRIBE packets as the maximum packet size allows.
+     * The packets are sent without waiting for each other and this method returns when all were acknowledged.
+     */
     public void subscribe(final @NotNull MqttClient client, final @NotNull Subscribe subscribe) {
-        for (int i = 0; i < subscribe.getTopics().length; i++) {
-            final String topic = subscribe.getTopics()[i];
-
+        final String[] topics = subscribe.getTopics();
+        final MqttQos[] qos = new MqttQos[topics.length];
+        for (int i = 0; i < topics.length; i++) {
             int qosI = i < subscribe.getQos().length ? i: subscribe.getQos().length-1;
-            final MqttQos qos = subscribe.getQos()[qosI];
+            qos[i] = subscribe.getQos()[qosI];
+        }
 
-            switch (client.getConfig().getMqttVersion()) {
-                case MQTT_5_0:
-                    mqtt5Subscribe((Mqtt5Client) client, subscribe, topic, qos);
-                    break;
-                case MQTT_3_1_1:
-                    mqtt3Subscribe((Mqtt3Client) client, subscribe, topic, qos);
-                    break;
+        final List<CompletableFuture<?>> subscribeFutures = new ArrayList<>();
+        switch (client.getConfig().getMqttVersion()) {
+            case MQTT_5_0:
+                final Mqtt5Client mqtt5Client = (Mqtt5Client) client;
+                for (final int[] range : TopicFilterBatches.split(topics, getMqtt5HeaderSize(subscribe.getUserProperties()), getMqtt5MaximumPacketSize(mqtt5Client))) {
+                    subscribeFutures.add(mqtt5Subscribe(mqtt5Client, subscribe,
+                            Arrays.copyOfRange(topics, range[0], range[1]),
+                            Arrays.copyOfRange(qos, range[0], range[1])));
+                }
+                break;
+            case MQTT_3_1_1:
+                for (final int[] range : TopicFilterBatches.split(topics, TopicFilterBatches.mqtt3HeaderSize(), TopicFilterBatches.MAXIMUM_PACKET_SIZE)) {
+                    subscribeFutures.add(mqtt3Subscribe((Mqtt3Client) client, subscribe,
+                            Arrays.copyOfRange(topics, range[0], range[1]),
+                            Arrays.copyOfRange(qos, range[0], range[1])));
+                }
+                break;
+        }
+        CompletableFuture.allOf(subscribeFutures.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    /**
+     * Subscribes to the topic filters while they are read, e.g. from a file, with the same QoS for all.
+     * <p>
+     * The topic filters are sent in batches of up to {@value #MAXIMUM_TOPIC_FILTERS_PER_BATCH} filters which fit into
+     * one SUBSCRIBE packet, and up to {@value #MAXIMUM_BATCHES_IN_FLIGHT} batches wait for their SUBACK at the same
+     * time. This method returns when all batches were acknowledged.
+     */
+    public void subscribe(final @NotNull MqttClient client, final @NotNull Subscribe subscribe, final @NotNull Iterator<String> topicFilters, final @NotNull MqttQos qos) {
+        switch (client.getConfig().getMqttVersion()) {
+            case MQTT_5_0:
+                final Mqtt5Client mqtt5Client = (Mqtt5Client) client;
+                sendBatches(topicFilters,
+                        new TopicFilterBatches(getMqtt5HeaderSize(subscribe.getUserProperties()), TopicFilterBatches.SUBSCRIBE_TOPIC_FILTER_OVERHEAD,
+                                getMqtt5MaximumPacketSize(mqtt5Client), MAXIMUM_TOPIC_FILTERS_PER_BATCH),
+                        topics -> mqtt5Subscribe(mqtt5Client, subscribe, topics, sameQos(topics.length, qos)));
+                break;
+            case MQTT_3_1_1:
+                sendBatches(topicFilters,
+                        new TopicFilterBatches(TopicFilterBatches.mqtt3HeaderSize(), TopicFilterBatches.SUBSCRIBE_TOPIC_FILTER_OVERHEAD,
+                                TopicFilterBatches.MAXIMUM_PACKET_SIZE, MAXIMUM_TOPIC_FILTERS_PER_BATCH),
+                        topics -> mqtt3Subscribe((Mqtt3Client) client, subscribe, topics, sameQos(topics.length, qos)));
+                break;
+        }
+    }
+
+    private static @NotNull MqttQos[] sameQos(final int length, final @NotNull MqttQos qos) {
+        final MqttQos[] sameQos = new MqttQos[length];
+        Arrays.fill(sameQos, qos);
+        return sameQos;
+    }
+
+    private void sendBatches(final @NotNull Iterator<String> topicFilters,
+                             final @NotNull TopicFilterBatches batches,
+                             final @NotNull Function<String[], CompletableFuture<?>> sendBatch) {
+
+        final Semaphore inFlight = new Semaphore(MAXIMUM_BATCHES_IN_FLIGHT);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Consumer<List<String>> send = batch -> {
+            inFlight.acquireUninterruptibly();
+            final CompletableFuture<?> batchFuture;
+            try {
+                batchFuture = sendBatch.apply(batch.toArray(new String[0]));
+            } catch (final RuntimeException ex) {
+                inFlight.release();
+                throw ex;
+            }
+            batchFuture.whenComplete((ignored, throwable) -> {
+                if (throwable != null) {
+                    failure.compareAndSet(null, throwable);
+                }
+                inFlight.release();
+            });
+        };
+
+        try {
+            while (topicFilters.hasNext()) {
+                final List<String> batch = batches.add(topicFilters.next());
+                if (batch != null) {
+                    send.accept(batch);
+                }
+            }
+            final List<String> lastBatch = batches.flush();
+            if (lastBatch != null) {
+                send.accept(lastBatch);
             }
+        } finally {
+            inFlight.acquireUninterruptibly(MAXIMUM_BATCHES_IN_FLIGHT);
+        }
+
+        if (failure.get() != null) {
+            throw new CompletionException(failure.get());
         }
     }
 
+    private int getMqtt5HeaderSize(final @Nullable Mqtt5UserProperties userProperties) {
+        int propertiesSize = 0;
+        if (userProperties != null) {
+            for (final Mqtt5UserProperty userProperty : userProperties.asList()) {
+                propertiesSize += TopicFilterBatches.userPropertySize(userProperty.getName().toString(), userProperty.getValue().toString());
+            }
+        }
+        return TopicFilterBatches.mqtt5HeaderSize(propertiesSize);
+    }
+
+    private int getMqtt5MaximumPacketSize(final @NotNull Mqtt5Client client) {
+        return client.getConfig()
+                .getConnectionConfig()
+                .map(connectionConfig -> connectionConfig.getRestrictions().getSendMaximumPacketSize())
+                .orElse(TopicFilterBatches.MAXIMUM_PACKET_SIZE);
+    }
+
     public void publish(final @NotNull PublishCommand publishCommand) {
 
         final MqttClient client = connect(publishCommand);
@@ -120,6 +260,16 @@ abstract class AbstractMqttClientExecutor {
     }
 
     public void publish(final @NotNull MqttClient client, final @NotNull Publish publish) {
+        publishAsync(client, publish).join();
+    }
+
+    /**
+     * Sends the publish to all its topics without waiting for the acknowledgements.
+     *
+     * @return a future which completes when all topics were acknowledged
+     */
+    public @NotNull CompletableFuture<Void> publishAsync(final @NotNull MqttClient client, final @NotNull Publish publish) {
+        final CompletableFuture<?>[] publishFutures = new CompletableFuture<?>[publish.getTopics().length];
         for (int i = 0; i < publish.getTopics().length; i++) {
             final String topic = publish.getTopics()[i];
             int qosI = i < publish.getQos().length ? i: publish.getQos().length-1;
@@ -127,21 +277,23 @@ abstract class AbstractMqttClientExecutor {
 
             switch (client.getConfig().getMqttVersion()) {
                 case MQTT_5_0:
-                    mqtt5Publish((Mqtt5Client) client, publish, topic, qos);
+                    publishFutures[i] = mqtt5Publish((Mqtt5Client) client, publish, topic, qos);
                     break;
                 case MQTT_3_1_1:
-                    mqtt3Publish((Mqtt3Client) client, publish, topic, qos);
+                    publishFutures[i] = mqtt3Publish((Mqtt3Client) client, publish, topic, qos);
                     break;
             }
 
         }
+        return CompletableFuture.allOf(publishFutures);
     }
 
     public void disconnect(final @NotNull Disconnect disconnect) {
         final String clientKey = disconnect.getKey();
 
-        if (clientKeyToClientData.containsKey(clientKey)) {
-            final MqttClient client = clientKeyToClientData.get(clientKey).getClient();
+        final ClientData clientData = clientRegistry.get(clientKey);
+        if (clientData != null) {
+            final MqttClient client = clientData.getClient();
 
             switch (client.getConfig().getMqttVersion()) {
                 case MQTT_5_0:
@@ -151,16 +303,33 @@ abstract class AbstractMqttClientExecutor {
                     mqtt3Disconnect((Mqtt3Client) client, disconnect);
                     break;
             }
-            clientKeyToClientData.remove(clientKey);
+            clientRegistry.remove(clientKey);
         }
         else {
             Logger.error("client to disconnect is not connected ({}) ", clientKey);
         }
     }
 
+    /**
+     * Disconnects the client with the default disconnect options, the disconnect listener removes it from the registry.
+     */
+    public void disconnect(final @NotNull MqttClient client) {
+        if (!client.getState().isConnectedOrReconnect()) {
+            return;
+        }
+        switch (client.getConfig().getMqttVersion()) {
+            case MQTT_5_0:
+                ((Mqtt5Client) client).toBlocking().disconnect();
+                break;
+            case MQTT_3_1_1:
+                ((Mqtt3Client) client).toBlocking().disconnect();
+                break;
+        }
+    }
+
     public void disconnectAllClients(final @NotNull Disconnect disconnect) {
-        for (Map.Entry<String,ClientData> entry: clientKeyToClientData.entrySet()) {
-            final MqttClient client = entry.getValue().getClient();
+        for (final ClientData clientData : clientRegistry.getAll()) {
+            final MqttClient client = clientData.getClient();
             switch (client.getConfig().getMqttVersion()) {
                 case MQTT_5_0:
                     mqtt5Disconnect((Mqtt5Client) client, disconnect);
@@ -170,26 +339,39 @@ abstract class AbstractMqttClientExecutor {
                     break;
             }
         }
-        clientKeyToClientData.clear();
+        clientRegistry.clear();
     }
 
     public void unsubscribe(final @NotNull MqttClient client, final @NotNull Unsubscribe unsubscribe) {
+        unsubscribe(client, unsubscribe, Arrays.asList(unsubscribe.getTopics()).iterator());
+    }
+
+    /**
+     * Unsubscribes from the topic filters while they are read, in batches like {@link #subscribe(MqttClient, Subscribe, Iterator, MqttQos)}.
+     */
+    public void unsubscribe(final @NotNull MqttClient client, final @NotNull Unsubscribe unsubscribe, final @NotNull Iterator<String> topicFilters) {
         switch (client.getConfig().getMqttVersion()) {
             case MQTT_5_0:
-                mqtt5Unsubscribe((Mqtt5Client) client, unsubscribe);
+                final Mqtt5Client mqtt5Client = (Mqtt5Client) client;
+                sendBatches(topicFilters,
+                        new TopicFilterBatches(getMqtt5HeaderSize(unsubscribe.getUserProperties()), TopicFilterBatches.UNSUBSCRIBE_TOPIC_FILTER_OVERHEAD,
+                                getMqtt5MaximumPacketSize(mqtt5Client), MAXIMUM_TOPIC_FILTERS_PER_BATCH),
+                        topics -> mqtt5Unsubscribe(mqtt5Client, unsubscribe, topics));
                 break;
             case MQTT_3_1_1:
-                mqtt3Unsubscribe((Mqtt3Client) client, unsubscribe);
+                sendBatches(topicFilters,
+                        new TopicFilterBatches(TopicFilterBatches.mqtt3HeaderSize(), TopicFilterBatches.UNSUBSCRIBE_TOPIC_FILTER_OVERHEAD,
+                                TopicFilterBatches.MAXIMUM_PACKET_SIZE, MAXIMUM_TOPIC_FILTERS_PER_BATCH),
+                        topics -> mqtt3Unsubscribe((Mqtt3Client) client, unsubscribe, topics));
                 break;
         }
-
     }
 
 
     public boolean isConnected(final @NotNull Context context) {
-        if (clientKeyToClientData.containsKey(context.getKey())) {
-            final MqttClient client = clientKeyToClientData.get(context.getKey()).getClient();
-            final MqttClientState state = client.getState();
+        final ClientData clientData = clientRegistry.get(context.getKey());
+        if (clientData != null) {
+            final MqttClientState state = clientData.getClient().getState();
             return state.isConnected();
         }
         return false;
@@ -197,25 +379,84 @@ abstract class AbstractMqttClientExecutor {
 
 
     public @NotNull MqttClient connect(final @NotNull Connect connect) {
-        if (isConnected(connect)) {
-            Logger.debug("Client is already connected ({})", connect.getKey());
-            Logger.info("Using already connected  ({})", connect.getKey());
-            return clientKeyToClientData.get(connect.getKey()).getClient();
+        return connect(connect, connect.getIdentifier());
+    }
+
+    /**
+     * Connects a client with the options of the given connect but another identifier,
+     * so one connect command can be used for many clients at the same time.
+     */
+    public @NotNull MqttClient connect(final @NotNull Connect connect, final @NotNull String identifier) {
+        try {
+            return connectAsync(connect, identifier).join();
+        } catch (final CompletionException ex) {
+            // Rethrow the cause so callers can handle the exceptions of the blocking connect as before
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
         }
+    }
 
-        switch (connect.getVersion()) {
-            case MQTT_5_0:
-                return connectMqtt5Client(connect);
-            case MQTT_3_1_1:
-                return connectMqtt3Client(connect);
+    public @NotNull CompletableFuture<MqttClient> connectAsync(final @NotNull Connect connect) {
+        return connectAsync(connect, connect.getIdentifier());
+    }
+
+    /**
+     * Starts to connect a client without blocking the calling thread.
+     * <p>
+     * The client is added to the client registry when its CONNACK is received, so it is never listed before it is
+     * connected. Connects of the same client which are started while one is in flight complete with the pending one.
+     * A registered client which is reconnecting automatically is reused, as its reconnect resumes the connection.
+     */
+    public @NotNull CompletableFuture<MqttClient> connectAsync(final @NotNull Connect connect, final @NotNull String identifier) {
+        final String clientKey = MqttUtils.buildKey(identifier, connect.getHost());
+        final ClientData connectedClientData = clientRegistry.get(clientKey);
+        if (connectedClientData != null && connectedClientData.getClient().getState().isConnectedOrReconnect()) {
+            Logger.debug("Client is already connected or reconnecting ({})", clientKey);
+            Logger.info("Using already connected  ({})", clientKey);
+            return CompletableFuture.completedFuture(connectedClientData.getClient());
+        }
+
+        final CompletableFuture<MqttClient> future = new CompletableFuture<>();
+        final CompletableFuture<MqttClient> pendingFuture = pendingConnects.putIfAbsent(clientKey, future);
+        if (pendingFuture != null) {
+            Logger.debug("Client is already connecting ({})", clientKey);
+            return pendingFuture;
+        }
+
+        CompletableFuture<MqttClient> connectFuture;
+        try {
+            switch (connect.getVersion()) {
+                case MQTT_5_0:
+                    connectFuture = connectMqtt5Client(connect, identifier);
+                    break;
+                case MQTT_3_1_1:
+                    connectFuture = connectMqtt3Client(connect, identifier);
+                    break;
+                default:
+                    throw new IllegalStateException("The MQTT Version specified is not supported. Version was " + connect.getVersion());
+            }
+        } catch (final RuntimeException ex) {
+            connectFuture = new CompletableFuture<>();
+            connectFuture.completeExceptionally(ex);
         }
 
-        throw new IllegalStateException("The MQTT Version specified is not supported. Version was " + connect.getVersion());
+        connectFuture.whenComplete((client, throwable) -> {
+            pendingConnects.remove(clientKey, future);
+            if (throwable != null) {
+                future.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+            } else {
+                future.complete(client);
+            }
+        });
+        return future;
     }
 
-    private @NotNull Mqtt5Client connectMqtt5Client(final @NotNull Connect connect) {
+    private @NotNull CompletableFuture<MqttClient> connectMqtt5Client(final @NotNull Connect connect, final @NotNull String identifier) {
 
-        final MqttClientBuilder clientBuilder = createBuilder(connect);
+        final ReconnectHandler reconnectHandler = createReconnectHandler(connect, true);
+        final MqttClientBuilder clientBuilder = createBuilder(connect, identifier, reconnectHandler);
         final Mqtt5Client client = clientBuilder.useMqttVersion5().build();
         final @Nullable Mqtt5Publish willPublish = createMqtt5WillPublish(connect);
         final @NotNull Mqtt5ConnectRestrictions connectRestrictions = createMqtt5ConnectRestrictions(connect);
@@ -232,25 +473,33 @@ abstract class AbstractMqttClientExecutor {
         if (connect.getCleanStart() != null) { connectBuilder.cleanStart(connect.getCleanStart()); }
         if (connect.getKeepAlive() != null) { connectBuilder.keepAlive(connect.getKeepAlive()); }
         if (connect.getSessionExpiryInterval() != null) { connectBuilder.sessionExpiryInterval(connect.getSessionExpiryInterval()); }
+        // Without a session expiry the session would end with the lost connection and could not be resumed
+        else if (reconnectHandler != null) { connectBuilder.sessionExpiryInterval(DEFAULT_RECONNECT_SESSION_EXPIRY_INTERVAL); }
         if (connect.getConnectUserProperties() != null) { connectBuilder.userProperties(connect.getConnectUserProperties()); }
 
         connectBuilder.simpleAuth(buildMqtt5Authentication(connect));
 
-        client.toAsync().publishes(MqttGlobalPublishFilter.REMAINING, buildRemainingMqtt5PublishesCallback(connect, client));
-
-        mqtt5Connect(client, connectBuilder.build(), connect);
-
-        final ClientData clientData = new ClientData(client);
-
-        final String key = MqttUtils.buildKey(client.getConfig().getClientIdentifier().get().toString(), client.getConfig().getServerHost());
-
-        clientKeyToClientData.put(key, clientData);
+        // Subscriptions are sent without callbacks, so all publishes are routed by the topic filters of the client
+        final PublishRouter<Mqtt5Publish> publishRouter = new PublishRouter<>(
+                publish -> publish.getTopic().toString(),
+                subscribe -> new SubscribeMqtt5PublishCallback(subscribe, client),
+                buildRemainingMqtt5PublishesCallback(connect, client));
+        final int requestBatchSize = getRequestBatchSize(connect);
+        if (requestBatchSize > 0) {
+            routeWithBackpressure(client.toRx().publishes(MqttGlobalPublishFilter.REMAINING),
+                    client.getConfig().getExecutorConfig().getApplicationScheduler(), requestBatchSize, publishRouter);
+        }
+        else {
+            client.toAsync().publishes(MqttGlobalPublishFilter.REMAINING, publishRouter);
+        }
 
-        return client;
+        return mqtt5Connect(client, connectBuilder.build(), connect).thenApply(connAck -> register(client, publishRouter, reconnectHandler));
     }
 
-    private @NotNull Mqtt3Client connectMqtt3Client(final @NotNull Connect connect) {
-        final MqttClientBuilder clientBuilder = createBuilder(connect);
+    private @NotNull CompletableFuture<MqttClient> connectMqtt3Client(final @NotNull Connect connect, final @NotNull String identifier) {
+        // A MQTT 3 session is only resumed if it was persistent, as clean session false would keep it forever
+        final ReconnectHandler reconnectHandler = createReconnectHandler(connect, Boolean.FALSE.equals(connect.getCleanStart()));
+        final MqttClientBuilder clientBuilder = createBuilder(connect, identifier, reconnectHandler);
         final Mqtt3Client client = clientBuilder.useMqttVersion3().build();
 
         final @Nullable Mqtt3Publish willPublish = createMqtt3WillPublish(connect);
@@ -268,15 +517,31 @@ abstract class AbstractMqttClientExecutor {
 
         connectBuilder.simpleAuth(buildMqtt3Authentication(connect));
 
-        client.toAsync().publishes(MqttGlobalPublishFilter.REMAINING, buildRemainingMqtt3PublishesCallback(connect, client));
+        final PublishRouter<Mqtt3Publish> publishRouter = new PublishRouter<>(
+                publish -> publish.getTopic().toString(),
+                subscribe -> new SubscribeMqtt3PublishCallback(subscribe, client),
+                buildRemainingMqtt3PublishesCallback(connect, client));
+        final int requestBatchSize = getRequestBatchSize(connect);
+        if (requestBatchSize > 0) {
+            routeWithBackpressure(client.toRx().publishes(MqttGlobalPublishFilter.REMAINING),
+                    client.getConfig().getExecutorConfig().getApplicationScheduler(), requestBatchSize, publishRouter);
+        }
+        else {
+            client.toAsync().publishes(MqttGlobalPublishFilter.REMAINING, publishRouter);
+        }
 
-        mqtt3Connect(client, connectBuilder.build(), connect);
+        return mqtt3Connect(client, connectBuilder.build(), connect).thenApply(connAck -> register(client, publishRouter, reconnectHandler));
+    }
 
-        final ClientData clientData = new ClientData(client);
+    private @NotNull MqttClient register(final @NotNull MqttClient client,
+                                         final @NotNull PublishRouter<?> publishRouter,
+                                         final @Nullable ReconnectHandler reconnectHandler) {
+
+        final ClientData clientData = new ClientData(client, publishRouter, reconnectHandler);
 
         final String key = MqttUtils.buildKey(client.getConfig().getClientIdentifier().get().toString(), client.getConfig().getServerHost());
 
-        clientKeyToClientData.put(key, clientData);
+        clientRegistry.put(key, clientData);
 
         return client;
     }
@@ -375,15 +640,86 @@ abstract class AbstractMqttClientExecutor {
         return restrictionsBuilder.build();
     }
 
-    private @NotNull MqttClientBuilder createBuilder(final @NotNull Connect connect) {
+    private @NotNull MqttClientBuilder createBuilder(final @NotNull Connect connect,
+                                                     final @NotNull String identifier,
+                                                     final @Nullable ReconnectHandler reconnectHandler) {
+
+        final MqttClientBuilder builder = MqttClient.builder()
+                .executorConfig(executorConfig.get());
+
+        if (reconnectHandler != null) {
+            // Added first, so the disconnect listener already sees the scheduled reconnect
+            builder.addConnectedListener(reconnectHandler)
+                    .addDisconnectedListener(reconnectHandler);
+        }
 
-        return MqttClient.builder()
+        return builder
                 .addDisconnectedListener(new ContextClientDisconnectListener())
                 .webSocketConfig(connect.getWebSocketConfig())
                 .serverHost(connect.getHost())
                 .serverPort(connect.getPort())
                 .sslConfig(connect.getSslConfig())
-                .identifier(connect.getIdentifier());
+                .identifier(identifier);
+    }
+
+    private @Nullable ReconnectHandler createReconnectHandler(final @NotNull Connect connect, final boolean resumeSession) {
+        if (!connect.isReconnect()) {
+            return null;
+        }
+        return new ReconnectHandler(connect.getReconnectMaxDelay().toMillis(), resumeSession, this::resubscribe,
+                connect instanceof Subscribe ? ((Subscribe) connect).getLatencyStatistics() : null);
+    }
+
+    /**
+     * Sends the granted subscriptions of the client again after it reconnected without its session.
+     * The publish router still routes their topic filters, so the subscriptions need no callbacks.
+     */
+    private void resubscribe(final @NotNull ClientData clientData) {
+        final List<Map.Entry<MqttTopicFilter, MqttQos>> subscriptions = new ArrayList<>(clientData.getSubscriptionQos().entrySet());
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        final MqttClient client = clientData.getClient();
+        final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
+        final String[] topics = new String[subscriptions.size()];
+        for (int i = 0; i < topics.length; i++) {
+            topics[i] = subscriptions.get(i).getKey().toString();
+        }
+
+        Logger.info("{} resubscribing to {} topic filters", clientLogPrefix, topics.length);
+
+        switch (client.getConfig().getMqttVersion()) {
+            case MQTT_5_0:
+                final Mqtt5Client mqtt5Client = (Mqtt5Client) client;
+                for (final int[] range : TopicFilterBatches.split(topics, getMqtt5HeaderSize(null), getMqtt5MaximumPacketSize(mqtt5Client))) {
+                    final List<Mqtt5Subscription> batch = new ArrayList<>(range[1] - range[0]);
+                    for (int i = range[0]; i < range[1]; i++) {
+                        batch.add(Mqtt5Subscription.builder().topicFilter(topics[i]).qos(subscriptions.get(i).getValue()).build());
+                    }
+                    mqtt5Client.toAsync()
+                            .subscribe(Mqtt5Subscribe.builder().addSubscriptions(batch).build())
+                            .whenComplete((subAck, throwable) -> logResubscribeFailure(throwable, clientLogPrefix));
+                }
+                break;
+            case MQTT_3_1_1:
+                final Mqtt3Client mqtt3Client = (Mqtt3Client) client;
+                for (final int[] range : TopicFilterBatches.split(topics, TopicFilterBatches.mqtt3HeaderSize(), TopicFilterBatches.MAXIMUM_PACKET_SIZE)) {
+                    final List<Mqtt3Subscription> batch = new ArrayList<>(range[1] - range[0]);
+                    for (int i = range[0]; i < range[1]; i++) {
+                        batch.add(Mqtt3Subscription.builder().topicFilter(topics[i]).qos(subscriptions.get(i).getValue()).build());
+                    }
+                    mqtt3Client.toAsync()
+                            .subscribe(Mqtt3Subscribe.builder().addSubscriptions(batch).build())
+                            .whenComplete((subAck, throwable) -> logResubscribeFailure(throwable, clientLogPrefix));
+                }
+                break;
+        }
+    }
+
+    private static void logResubscribeFailure(final @Nullable Throwable throwable, final @NotNull String clientLogPrefix) {
+        if (throwable != null) {
+            Logger.error(throwable, "{} failed to resubscribe after the reconnect: {}", clientLogPrefix, Throwables.getRootCause(throwable).getMessage());
+        }
     }
 
     private @Nullable Mqtt5SimpleAuth buildMqtt5Authentication(final @NotNull Connect connect) {
@@ -424,21 +760,46 @@ abstract class AbstractMqttClientExecutor {
         return null;
     }
 
-    public @NotNull static Map<String, ClientData> getClientDataMap() {
-        return clientKeyToClientData;
+    public @NotNull static ClientRegistry getClientRegistry() {
+        return clientRegistry;
     }
 
     public @Nullable MqttClient getMqttClient(final @NotNull Context context) {
 
         MqttClient client = null;
 
-        if (clientKeyToClientData.containsKey(context.getKey())) {
-            client = clientKeyToClientData.get(context.getKey()).getClient();
+        final ClientData clientData = clientRegistry.get(context.getKey());
+        if (clientData != null) {
+            client = clientData.getClient();
         }
 
         return client;
     }
 
+    /**
+     * @return the request batch size of a subscribe or 0 if the publishes are received without backpressure
+     */
+    static int getRequestBatchSize(final @NotNull Connect connect) {
+        return connect instanceof Subscribe ? ((Subscribe) connect).getRequestBatchSize() : 0;
+    }
+
+    /**
+     * Passes the publishes to the router on the scheduler, requesting only a batch of publishes at once and the next
+     * part of a batch when the router caught up with it.
+     * <p>
+     * The client acknowledges a QoS 1 or 2 publish when it is emitted into the buffer of observeOn, not when the
+     * router consumed it. As publishes are only emitted when requested, the ones beyond the buffer stay
+     * unacknowledged, so the receive maximum throttles the broker instead of the buffer growing.
+     */
+    static <P> @NotNull Disposable routeWithBackpressure(final @NotNull Flowable<P> publishes,
+                                                        final @NotNull Scheduler scheduler,
+                                                        final int requestBatchSize,
+                                                        final @NotNull Consumer<P> publishRouter) {
+        return publishes
+                .observeOn(scheduler, true, requestBatchSize)
+                .subscribe(publishRouter::accept, throwable -> Logger.error(throwable, "Receiving publishes failed"));
+    }
+
     @NotNull private Consumer<Mqtt5Publish> buildRemainingMqtt5PublishesCallback(final @NotNull Connect connect, final @NotNull Mqtt5Client client) {
         if (connect instanceof Subscribe) {
             return new SubscribeMqtt5PublishCallback((Subscribe) connect, client);
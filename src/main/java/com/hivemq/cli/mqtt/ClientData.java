@@ -17,48 +17,136 @@
 package com.hivemq.cli.mqtt;
 
 import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.datatypes.MqttTopicFilter;
+import com.hivemq.client.mqtt.lifecycle.MqttClientDisconnectedContext;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ClientData {
 
     @NotNull private final MqttClient mqttClient;
     @NotNull private final LocalDateTime creationTime;
     @NotNull private final Set<MqttTopicFilter> subscribedTopics;
+    @NotNull private final Map<MqttTopicFilter, MqttQos> subscriptionQos = new ConcurrentHashMap<>();
+    @NotNull private final Map<MqttTopicFilter, String> subscribeReasonCodes = new ConcurrentHashMap<>();
+    @Nullable private final PublishRouter<?> publishRouter;
+    @Nullable private final ReconnectHandler reconnectHandler;
+    @NotNull private final Map<String, AtomicLong> publishSequences = new ConcurrentHashMap<>();
+    @NotNull private final String publisherId;
+    @NotNull private final CompletableFuture<MqttClientDisconnectedContext> disconnectedFuture = new CompletableFuture<>();
 
 
     public ClientData(final @NotNull MqttClient mqttClient) {
-        this.mqttClient = mqttClient;
-        this.creationTime = LocalDateTime.now();
-        this.subscribedTopics = new HashSet<>();
+        this(mqttClient, LocalDateTime.now());
+    }
+
+    public ClientData(final @NotNull MqttClient mqttClient, final @Nullable PublishRouter<?> publishRouter) {
+        this(mqttClient, publishRouter, null);
+    }
+
+    public ClientData(final @NotNull MqttClient mqttClient,
+                      final @Nullable PublishRouter<?> publishRouter,
+                      final @Nullable ReconnectHandler reconnectHandler) {
+        this(mqttClient, LocalDateTime.now(), ConcurrentHashMap.newKeySet(), publishRouter, reconnectHandler);
     }
 
     public ClientData(final @NotNull MqttClient mqttClient, final @NotNull LocalDateTime creationTime) {
-        this.mqttClient = mqttClient;
-        this.creationTime = creationTime;
-        this.subscribedTopics = new HashSet<>();
+        this(mqttClient, creationTime, ConcurrentHashMap.newKeySet());
     }
 
     public ClientData(final @NotNull MqttClient mqttClient, final @NotNull LocalDateTime creationTime, final @NotNull Set<MqttTopicFilter> subscribedTopics) {
+        this(mqttClient, creationTime, subscribedTopics, null, null);
+    }
+
+    private ClientData(final @NotNull MqttClient mqttClient,
+                       final @NotNull LocalDateTime creationTime,
+                       final @NotNull Set<MqttTopicFilter> subscribedTopics,
+                       final @Nullable PublishRouter<?> publishRouter,
+                       final @Nullable ReconnectHandler reconnectHandler) {
         this.mqttClient = mqttClient;
         this.creationTime = creationTime;
         this.subscribedTopics = subscribedTopics;
+        this.publishRouter = publishRouter;
+        this.reconnectHandler = reconnectHandler;
+        this.publisherId = LatencyStamp.newPublisherId(mqttClient.getConfig().getClientIdentifier().map(Object::toString).orElse(""));
     }
 
-    public void addSubscription(final @NotNull MqttTopicFilter topic) {
+    public void addSubscription(final @NotNull MqttTopicFilter topic, final @NotNull MqttQos qos) {
         subscribedTopics.add(topic);
+        subscriptionQos.put(topic, qos);
     }
 
     public boolean removeSubscription(final @NotNull MqttTopicFilter topic) {
+        subscriptionQos.remove(topic);
+        subscribeReasonCodes.remove(topic);
+        if (publishRouter != null) {
+            publishRouter.removeAll(topic.toString());
+        }
         return subscribedTopics.remove(topic);
     }
 
     public void removeAllSubscriptions() {
         subscribedTopics.clear();
+        subscriptionQos.clear();
+        subscribeReasonCodes.clear();
+        if (publishRouter != null) {
+            publishRouter.clear();
+        }
+    }
+
+    /**
+     * @return the requested QoS of every granted subscription, to subscribe again after a reconnect without session
+     */
+    @NotNull public Map<MqttTopicFilter, MqttQos> getSubscriptionQos() {
+        return subscriptionQos;
+    }
+
+    /**
+     * Stores the reason code of the SUBACK for the topic filter, also if the subscription was rejected.
+     */
+    public void setSubscribeReasonCode(final @NotNull MqttTopicFilter topic, final @NotNull String reasonCode) {
+        subscribeReasonCodes.put(topic, reasonCode);
+    }
+
+    @NotNull public Map<MqttTopicFilter, String> getSubscribeReasonCodes() {
+        return subscribeReasonCodes;
+    }
+
+    /**
+     * @return the router passing the publishes of the client to the outputs of its subscriptions
+     */
+    @Nullable public PublishRouter<?> getPublishRouter() {
+        return publishRouter;
+    }
+
+    /**
+     * @return the stamp for the next publish of the client to the topic, the sequence numbers are counted per topic
+     */
+    @NotNull public LatencyStamp nextLatencyStamp(final @NotNull String topic) {
+        final long sequence = publishSequences.computeIfAbsent(topic, t -> new AtomicLong()).getAndIncrement();
+        return new LatencyStamp(publisherId, sequence, LatencyStamp.currentTimeMicros());
+    }
+
+    /**
+     * @return the future completed when the client is disconnected and removed from the registry
+     */
+    @NotNull public CompletableFuture<MqttClientDisconnectedContext> getDisconnectedFuture() {
+        return disconnectedFuture;
+    }
+
+    /**
+     * @return the handler reconnecting the client after a lost connection, or null if the client is not reconnected
+     */
+    @Nullable public ReconnectHandler getReconnectHandler() {
+        return reconnectHandler;
     }
 
     @NotNull public LocalDateTime getCreationTime() {
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
+import io.netty.channel.epoll.Epoll;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import org.jetbrains.annotations.NotNull;
+import org.tinylog.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executor config which is shared by all clients of the CLI.
+ * <p>
+ * All clients with the same config share one Netty event loop group, which uses the native epoll transport if it is
+ * available, and one scheduler for the application callbacks. So the number of threads stays the same no matter how
+ * many clients are connected.
+ */
+public class ClientExecutorConfigFactory {
+
+    private ClientExecutorConfigFactory() {
+    }
+
+    public static @NotNull MqttClientExecutorConfig create(final int nettyThreads, final int applicationThreads) {
+        if (nettyThreads < 1) {
+            throw new IllegalArgumentException("The number of netty threads must be at least 1 but was " + nettyThreads);
+        }
+        if (applicationThreads < 1) {
+            throw new IllegalArgumentException("The number of application threads must be at least 1 but was " + applicationThreads);
+        }
+
+        if (Epoll.isAvailable()) {
+            Logger.debug("Using native epoll transport with {} netty threads", nettyThreads);
+        } else {
+            Logger.debug("Using NIO transport with {} netty threads, native epoll is not available: {}", nettyThreads, Epoll.unavailabilityCause().getMessage());
+        }
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        final ExecutorService applicationExecutor = Executors.newFixedThreadPool(applicationThreads, runnable -> {
+            final Thread thread = new Thread(runnable, "mqtt-cli-application-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final Scheduler applicationScheduler = Schedulers.from(applicationExecutor);
+
+        return MqttClientExecutorConfig.builder()
+                .nettyThreads(nettyThreads)
+                .applicationScheduler(applicationScheduler)
+                .build();
+    }
+}
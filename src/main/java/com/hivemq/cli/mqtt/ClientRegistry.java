@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.MqttClientState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Holds the data of all clients by their key (see {@link com.hivemq.cli.utils.MqttUtils#buildKey}).
+ * <p>
+ * Besides the lookup by key the clients are indexed by identifier, by host and by creation time, so sorted and paged
+ * listings do not have to copy and sort all clients. The widths of the identifier, host and ssl columns of the
+ * client listing are tracked on every change as well.
+ * <p>
+ * Reads are lock free, changes are serialized so the indexes stay consistent with each other.
+ */
+public class ClientRegistry {
+
+    public static final @NotNull String NO_SSL = "NO_SSL";
+
+    private static final @NotNull Comparator<ClientData> BY_IDENTIFIER =
+            Comparator.comparing((ClientData clientData) -> getIdentifier(clientData.getClient()))
+                    .thenComparing(clientData -> clientData.getClient().getConfig().getServerHost());
+
+    private static final @NotNull Comparator<ClientData> BY_CREATION_TIME =
+            Comparator.comparing(ClientData::getCreationTime).thenComparing(BY_IDENTIFIER);
+
+    private final @NotNull Map<String, ClientData> clientKeyToClientData = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentSkipListSet<ClientData> byIdentifier = new ConcurrentSkipListSet<>(BY_IDENTIFIER);
+    private final @NotNull Map<String, NavigableSet<ClientData>> byHost = new ConcurrentHashMap<>();
+    private final @NotNull Map<String, Integer> hostCounts = new ConcurrentHashMap<>();
+    private final @NotNull ConcurrentSkipListSet<ClientData> byCreationTime = new ConcurrentSkipListSet<>(BY_CREATION_TIME);
+
+    private final @NotNull ColumnWidth identifierWidth = new ColumnWidth();
+    private final @NotNull ColumnWidth hostWidth = new ColumnWidth();
+    private final @NotNull ColumnWidth sslWidth = new ColumnWidth();
+
+    public synchronized void put(final @NotNull String clientKey, final @NotNull ClientData clientData) {
+        final ClientData previous = clientKeyToClientData.put(clientKey, clientData);
+        if (previous != null) {
+            removeFromIndexes(previous);
+        }
+        byIdentifier.add(clientData);
+        byHost.computeIfAbsent(clientData.getClient().getConfig().getServerHost(),
+                host -> new ConcurrentSkipListSet<>(BY_IDENTIFIER)).add(clientData);
+        hostCounts.merge(clientData.getClient().getConfig().getServerHost(), 1, Integer::sum);
+        byCreationTime.add(clientData);
+        final MqttClient client = clientData.getClient();
+        identifierWidth.add(getIdentifier(client).length());
+        hostWidth.add(client.getConfig().getServerHost().length());
+        sslWidth.add(getSslProtocols(client).length());
+    }
+
+    public synchronized @Nullable ClientData remove(final @NotNull String clientKey) {
+        final ClientData removed = clientKeyToClientData.remove(clientKey);
+        if (removed != null) {
+            removeFromIndexes(removed);
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        clientKeyToClientData.clear();
+        byIdentifier.clear();
+        byHost.clear();
+        hostCounts.clear();
+        byCreationTime.clear();
+        identifierWidth.clear();
+        hostWidth.clear();
+        sslWidth.clear();
+    }
+
+    public @Nullable ClientData get(final @NotNull String clientKey) {
+        return clientKeyToClientData.get(clientKey);
+    }
+
+    public boolean containsKey(final @NotNull String clientKey) {
+        return clientKeyToClientData.containsKey(clientKey);
+    }
+
+    public int size() {
+        return clientKeyToClientData.size();
+    }
+
+    /**
+     * @return an unsorted view of all clients
+     */
+    public @NotNull Collection<ClientData> getAll() {
+        return clientKeyToClientData.values();
+    }
+
+    /**
+     * @return a view of all clients sorted by identifier and host
+     */
+    public @NotNull NavigableSet<ClientData> getByIdentifier() {
+        return byIdentifier;
+    }
+
+    /**
+     * @return a view of all clients sorted by creation time, oldest first
+     */
+    public @NotNull NavigableSet<ClientData> getByCreationTime() {
+        return byCreationTime;
+    }
+
+    /**
+     * @return a view of the clients connected to the given host, sorted by identifier
+     */
+    public @NotNull NavigableSet<ClientData> getByHost(final @NotNull String host) {
+        final NavigableSet<ClientData> clientsOfHost = byHost.get(host);
+        return clientsOfHost != null ? clientsOfHost : Collections.emptyNavigableSet();
+    }
+
+    /**
+     * Counts the clients which match the filters of the client listing. Without a state the count is taken from the
+     * indexes, the state changes with the connection, so only the clients of the host are checked for it.
+     *
+     * @param host  the host of the clients or null for all hosts
+     * @param state the state of the clients or null for all states
+     */
+    public int count(final @Nullable String host, final @Nullable MqttClientState state) {
+        if (state == null) {
+            return host != null ? hostCounts.getOrDefault(host, 0) : size();
+        }
+        int count = 0;
+        for (final ClientData clientData : host != null ? getByHost(host) : getAll()) {
+            if (clientData.getClient().getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getIdentifierWidth() {
+        return identifierWidth.max();
+    }
+
+    public int getHostWidth() {
+        return hostWidth.max();
+    }
+
+    public int getSslWidth() {
+        return Math.max(NO_SSL.length(), sslWidth.max());
+    }
+
+    public static @NotNull String getIdentifier(final @NotNull MqttClient client) {
+        return client.getConfig().getClientIdentifier().map(Object::toString).orElse("");
+    }
+
+    public static @NotNull String getSslProtocols(final @NotNull MqttClient client) {
+        return client.getConfig().getSslConfig()
+                .map(ssl -> ssl.getProtocols().map(Object::toString).orElse("DEFAULT"))
+                .orElse(NO_SSL);
+    }
+
+    private void removeFromIndexes(final @NotNull ClientData clientData) {
+        final MqttClient client = clientData.getClient();
+        byIdentifier.remove(clientData);
+        byHost.computeIfPresent(client.getConfig().getServerHost(), (host, clientsOfHost) -> {
+            clientsOfHost.remove(clientData);
+            return clientsOfHost.isEmpty() ? null : clientsOfHost;
+        });
+        hostCounts.computeIfPresent(client.getConfig().getServerHost(), (host, count) -> count == 1 ? null : count - 1);
+        byCreationTime.remove(clientData);
+        identifierWidth.remove(getIdentifier(client).length());
+        hostWidth.remove(client.getConfig().getServerHost().length());
+        sslWidth.remove(getSslProtocols(client).length());
+    }
+
+    /**
+     * Counts the values of a column by their length, so the widest value is known after removals as well.
+     */
+    private static class ColumnWidth {
+
+        private final @NotNull TreeMap<Integer, Integer> lengthCounts = new TreeMap<>();
+
+        synchronized void add(final int length) {
+            lengthCounts.merge(length, 1, Integer::sum);
+        }
+
+        synchronized void remove(final int length) {
+            lengthCounts.computeIfPresent(length, (key, count) -> count == 1 ? null : count - 1);
+        }
+
+        synchronized void clear() {
+            lengthCounts.clear();
+        }
+
+        synchronized int max() {
+            return lengthCounts.isEmpty() ? 0 : lengthCounts.lastKey();
+        }
+    }
+}
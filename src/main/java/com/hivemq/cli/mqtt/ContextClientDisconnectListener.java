@@ -39,6 +39,11 @@ public class ContextClientDisconnectListener implements MqttClientDisconnectedLi
             Logger.debug(cause, "{} DISCONNECTED {}", LoggerUtils.getClientPrefix(context.getClientConfig()),
                     Throwables.getRootCause(cause).getMessage());
 
+            if (context.getReconnector().isReconnect()) {
+                // The reconnect handler resumes the connection, so the client stays registered
+                return;
+            }
+
             // If the currently active shell client gets disconnected from the server prompt the user to enter
             if (contextEqualsShellContext(context)) {
                 Logger.error(cause, Throwables.getRootCause(cause).getMessage());
@@ -51,7 +56,10 @@ public class ContextClientDisconnectListener implements MqttClientDisconnectedLi
             ShellContextCommand.removeContext();
         }
 
-        MqttClientExecutor.getClientDataMap().remove(getKeyFromConfig(context.getClientConfig()));
+        final ClientData clientData = MqttClientExecutor.getClientRegistry().remove(getKeyFromConfig(context.getClientConfig()));
+        if (clientData != null) {
+            clientData.getDisconnectedFuture().complete(context);
+        }
     }
 
     private String getKeyFromConfig(final @NotNull MqttClientConfig clientConfig) {
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The publisher, sequence number and send time which `pub --stamp` adds to a publish, so `sub --latency` can
+ * measure the end-to-end latency and find lost, duplicate and reordered publishes.
+ * <p>
+ * MQTT 5 publishes carry the stamp in a user property, MQTT 3 publishes in a first payload line. The send time is
+ * taken from a clock which is anchored to the wall clock once and then advanced with {@link System#nanoTime()}, so it
+ * never jumps backwards while a CLI runs. Latencies between two hosts are only as accurate as their clock
+ * synchronization.
+ */
+public class LatencyStamp {
+
+    public static final @NotNull String USER_PROPERTY_NAME = "mqtt-cli-stamp";
+
+    private static final @NotNull byte[] PAYLOAD_PREFIX = (USER_PROPERTY_NAME + "=").getBytes(StandardCharsets.UTF_8);
+    private static final byte PAYLOAD_SEPARATOR = '\n';
+    private static final char FIELD_SEPARATOR = '/';
+
+    private static final long CLOCK_ANCHOR_MICROS = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    private static final long CLOCK_ANCHOR_NANOS = System.nanoTime();
+
+    private final @NotNull String publisherId;
+    private final long sequence;
+    private final long timestampMicros;
+
+    public LatencyStamp(final @NotNull String publisherId, final long sequence, final long timestampMicros) {
+        this.publisherId = publisherId;
+        this.sequence = sequence;
+        this.timestampMicros = timestampMicros;
+    }
+
+    /**
+     * @return microseconds since the epoch, which never decrease within this JVM
+     */
+    public static long currentTimeMicros() {
+        return CLOCK_ANCHOR_MICROS + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - CLOCK_ANCHOR_NANOS);
+    }
+
+    /**
+     * @return an id for the publishes of a client which differs for every run of the CLI, so sequence numbers
+     *         starting again are not taken for duplicates
+     */
+    public static @NotNull String newPublisherId(final @NotNull String clientIdentifier) {
+        return clientIdentifier + "-" + Integer.toHexString(ThreadLocalRandom.current().nextInt());
+    }
+
+    /**
+     * @return the stamp or null if the value is not a valid stamp
+     */
+    public static @Nullable LatencyStamp decode(final @NotNull String value) {
+        final int timestampStart = value.lastIndexOf(FIELD_SEPARATOR);
+        final int sequenceStart = timestampStart > 0 ? value.lastIndexOf(FIELD_SEPARATOR, timestampStart - 1) : -1;
+        if (sequenceStart < 1) {
+            return null;
+        }
+        try {
+            return new LatencyStamp(value.substring(0, sequenceStart),
+                    Long.parseLong(value.substring(sequenceStart + 1, timestampStart)),
+                    Long.parseLong(value.substring(timestampStart + 1)));
+        } catch (final NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the stamp of the first payload line or null if the payload does not start with a stamp
+     */
+    public static @Nullable LatencyStamp fromPayload(final @NotNull ByteBuffer payload) {
+        final int separator = findSeparator(payload);
+        if (separator == -1) {
+            return null;
+        }
+        final ByteBuffer value = payload.duplicate();
+        value.position(payload.position() + PAYLOAD_PREFIX.length);
+        value.limit(separator);
+        return decode(StandardCharsets.UTF_8.decode(value).toString());
+    }
+
+    /**
+     * @return the payload after the stamp line or null if the payload does not start with a stamp
+     */
+    public static @Nullable ByteBuffer removeFromPayload(final @NotNull ByteBuffer payload) {
+        final int separator = findSeparator(payload);
+        if (separator == -1) {
+            return null;
+        }
+        final ByteBuffer unstamped = payload.duplicate();
+        unstamped.position(separator + 1);
+        return unstamped.slice();
+    }
+
+    /**
+     * @return the index of the separator after the stamp or -1 if the payload does not start with a stamp
+     */
+    private static int findSeparator(final @NotNull ByteBuffer payload) {
+        final int start = payload.position();
+        if (payload.remaining() < PAYLOAD_PREFIX.length) {
+            return -1;
+        }
+        for (int i = 0; i < PAYLOAD_PREFIX.length; i++) {
+            if (payload.get(start + i) != PAYLOAD_PREFIX[i]) {
+                return -1;
+            }
+        }
+        for (int i = start + PAYLOAD_PREFIX.length; i < payload.limit(); i++) {
+            if (payload.get(i) == PAYLOAD_SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a new payload starting with a line containing the stamp, followed by the given payload
+     */
+    public @NotNull ByteBuffer prependTo(final @NotNull ByteBuffer payload) {
+        final byte[] stamp = encode().getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer stamped = ByteBuffer.allocate(PAYLOAD_PREFIX.length + stamp.length + 1 + payload.remaining());
+        stamped.put(PAYLOAD_PREFIX).put(stamp).put(PAYLOAD_SEPARATOR).put(payload.duplicate());
+        stamped.flip();
+        return stamped;
+    }
+
+    public @NotNull String encode() {
+        return publisherId + FIELD_SEPARATOR + sequence + FIELD_SEPARATOR + timestampMicros;
+    }
+
+    public @NotNull String getPublisherId() {
+        return publisherId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyStamp{" +
+                "publisherId=" + publisherId +
+                ", sequence=" + sequence +
+                ", timestampMicros=" + timestampMicros +
+                '}';
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the end-to-end latency of the publishes stamped by `pub --stamp` and checks the sequence numbers of every
+ * publisher and topic for lost, duplicate and reordered publishes.
+ * <p>
+ * The sequence numbers of the last {@value #SEQUENCE_WINDOW} publishes of a publisher and topic are remembered, so a
+ * publish arriving late is told apart from a duplicate. A late publish was counted as lost before, so it is no longer
+ * counted as lost once it arrives. Publishes older than the window can not be told apart from duplicates, they are
+ * counted as late and the lost count stays as it is. The publishes missing in a stream when it continues after a reconnect are also
+ * counted as lost during reconnects.
+ */
+public class LatencyStatistics {
+
+    private static final int SEQUENCE_WINDOW = 1024;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final @NotNull LatencyHistogram latencyMicros = new LatencyHistogram();
+    private final @NotNull LongAdder received = new LongAdder();
+    private final @NotNull LongAdder unstamped = new LongAdder();
+    private final @NotNull LongAdder lost = new LongAdder();
+    private final @NotNull LongAdder lostDuringReconnects = new LongAdder();
+    private final @NotNull LongAdder duplicates = new LongAdder();
+    private final @NotNull LongAdder reordered = new LongAdder();
+    private final @NotNull LongAdder late = new LongAdder();
+    private final @NotNull LongAdder negativeLatencies = new LongAdder();
+    private final @NotNull Map<String, SequenceWindow> sequenceWindows = new ConcurrentHashMap<>();
+    private volatile int reconnects;
+
+    private long lastNanos = System.nanoTime();
+    private long lastReceived;
+    private @NotNull LatencyHistogram.Snapshot lastLatencyMicros = latencyMicros.getSnapshot();
+
+    /**
+     * @param stamp          the stamp of the publish or null if it was not stamped
+     * @param receivedMicros the receive time as returned by {@link LatencyStamp#currentTimeMicros()}
+     */
+    public void record(final @Nullable LatencyStamp stamp, final @NotNull String topic, final long receivedMicros) {
+        received.increment();
+        if (stamp == null) {
+            unstamped.increment();
+            return;
+        }
+        final long latency = receivedMicros - stamp.getTimestampMicros();
+        if (latency < 0) {
+            // The clock of the publisher is ahead
+            negativeLatencies.increment();
+        }
+        latencyMicros.record(latency);
+        sequenceWindows.computeIfAbsent(topic + '\n' + stamp.getPublisherId(), key -> new SequenceWindow())
+                .check(stamp.getSequence());
+    }
+
+    /**
+     * Marks that the client reconnected, so the next gap of every stream is counted as lost during reconnects.
+     */
+    public synchronized void reconnected() {
+        reconnects++;
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getUnstamped() {
+        return unstamped.sum();
+    }
+
+    public long getLost() {
+        return lost.sum();
+    }
+
+    public long getLostDuringReconnects() {
+        return lostDuringReconnects.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public long getReordered() {
+        return reordered.sum();
+    }
+
+    /**
+     * @return the publishes older than the sequence window, which may be late or duplicates
+     */
+    public long getLate() {
+        return late.sum();
+    }
+
+    public @NotNull LatencyHistogram.Snapshot getLatencyMicros() {
+        return latencyMicros.getSnapshot();
+    }
+
+    /**
+     * Prints the counters and the latencies since the previous report, or since the start for the final report.
+     */
+    public synchronized void printReport(final @NotNull PrintStream output, final boolean finalReport) {
+        final long now = System.nanoTime();
+        final double seconds = Math.max(1, now - lastNanos) / 1_000_000_000d;
+        final long currentReceived = received.sum();
+        final LatencyHistogram.Snapshot currentLatencyMicros = latencyMicros.getSnapshot();
+        final LatencyHistogram.Snapshot latency = finalReport ? currentLatencyMicros : currentLatencyMicros.minus(lastLatencyMicros);
+
+        output.printf("%s  received %d (%.1f msg/s)  latency (ms) p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  max %.3f%s%n",
+                finalReport ? "total   " : LocalTime.now().format(TIME_FORMATTER),
+                currentReceived, (currentReceived - lastReceived) / seconds,
+                latency.getValueAtQuantile(0.5) / 1000d,
+                latency.getValueAtQuantile(0.9) / 1000d,
+                latency.getValueAtQuantile(0.99) / 1000d,
+                latency.getValueAtQuantile(0.999) / 1000d,
+                latency.getMax() / 1000d,
+                negativeLatencies.sum() > 0 ? "  (clocks out of sync for " + negativeLatencies.sum() + " publishes)" : "");
+        output.printf("streams %d  lost %d%s  duplicates %d  reordered %d%s  unstamped %d%n",
+                sequenceWindows.size(), lost.sum(),
+                reconnects > 0 ? " (" + lostDuringReconnects.sum() + " during reconnects)" : "",
+                duplicates.sum(), reordered.sum(),
+                late.sum() > 0 ? "  late or duplicate " + late.sum() : "",
+                unstamped.sum());
+        output.flush();
+
+        lastNanos = now;
+        lastReceived = currentReceived;
+        lastLatencyMicros = currentLatencyMicros;
+    }
+
+    /**
+     * The received sequence numbers of one publisher and topic. The first received sequence number is the start, as
+     * the subscription may begin after the publisher.
+     */
+    private class SequenceWindow {
+
+        private final @NotNull long[] seen = new long[SEQUENCE_WINDOW / Long.SIZE];
+        private long first = -1;
+        private long next;
+        private int checkedReconnects;
+
+        private synchronized void check(final long sequence) {
+            final int currentReconnects = reconnects;
+            final boolean reconnectedSinceLastCheck = currentReconnects != checkedReconnects;
+            checkedReconnects = currentReconnects;
+            if (first == -1) {
+                first = sequence;
+                next = sequence + 1;
+                mark(sequence);
+                return;
+            }
+            if (sequence >= next) {
+                final long missing = sequence - next;
+                for (long s = next; s < sequence && s < next + SEQUENCE_WINDOW; s++) {
+                    clear(s);
+                }
+                lost.add(missing);
+                if (reconnectedSinceLastCheck) {
+                    lostDuringReconnects.add(missing);
+                }
+                next = sequence + 1;
+                mark(sequence);
+                return;
+            }
+            if (sequence < first) {
+                reordered.increment();
+                return;
+            }
+            if (sequence < next - SEQUENCE_WINDOW) {
+                // Too old to tell if it was counted as lost or is a duplicate
+                late.increment();
+                return;
+            }
+            if (isMarked(sequence)) {
+                duplicates.increment();
+            } else {
+                // Every sequence number of the window which is not marked was cleared as part of a gap
+                mark(sequence);
+                reordered.increment();
+                lost.decrement();
+            }
+        }
+
+        private void mark(final long sequence) {
+            final int bit = (int) (sequence % SEQUENCE_WINDOW);
+            seen[bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+        }
+
+        private void clear(final long sequence) {
+            final int bit = (int) (sequence % SEQUENCE_WINDOW);
+            seen[bit / Long.SIZE] &= ~(1L << (bit % Long.SIZE));
+        }
+
+        private boolean isMarked(final long sequence) {
+            final int bit = (int) (sequence % SEQUENCE_WINDOW);
+            return (seen[bit / Long.SIZE] & (1L << (bit % Long.SIZE))) != 0;
+        }
+    }
+}
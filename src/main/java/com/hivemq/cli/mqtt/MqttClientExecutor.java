@@ -24,17 +24,26 @@ import com.hivemq.cli.commands.Subscribe;
 import com.hivemq.cli.commands.Unsubscribe;
 import com.hivemq.cli.utils.LoggerUtils;
 import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.datatypes.MqttTopicFilter;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
+import com.hivemq.client.mqtt.mqtt3.exceptions.Mqtt3SubAckException;
 import com.hivemq.client.mqtt.mqtt3.message.connect.Mqtt3Connect;
 import com.hivemq.client.mqtt.mqtt3.message.connect.connack.Mqtt3ConnAck;
 import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
 import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3PublishBuilder;
 import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscribe;
-import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3SubscribeBuilder;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.Mqtt3Subscription;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.suback.Mqtt3SubAck;
+import com.hivemq.client.mqtt.mqtt3.message.subscribe.suback.Mqtt3SubAckReturnCode;
 import com.hivemq.client.mqtt.mqtt3.message.unsubscribe.Mqtt3Unsubscribe;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserPropertiesBuilder;
+import com.hivemq.client.mqtt.mqtt5.exceptions.Mqtt5SubAckException;
+import com.hivemq.client.mqtt.mqtt5.exceptions.Mqtt5UnsubAckException;
 import com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5Connect;
 import com.hivemq.client.mqtt.mqtt5.message.connect.connack.Mqtt5ConnAck;
 import com.hivemq.client.mqtt.mqtt5.message.disconnect.Mqtt5Disconnect;
@@ -43,56 +52,77 @@ import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
 import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5PublishBuilder;
 import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscribe;
 import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5SubscribeBuilder;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.Mqtt5Subscription;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
+import com.hivemq.client.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAckReasonCode;
 import com.hivemq.client.mqtt.mqtt5.message.unsubscribe.Mqtt5Unsubscribe;
+import com.hivemq.client.mqtt.mqtt5.message.unsubscribe.Mqtt5UnsubscribeBuilder;
 import com.hivemq.client.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAck;
+import com.hivemq.client.mqtt.mqtt5.message.unsubscribe.unsuback.Mqtt5UnsubAckReasonCode;
+import dagger.Lazy;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 @Singleton
 public class MqttClientExecutor extends AbstractMqttClientExecutor {
 
     @Inject
-    MqttClientExecutor() {}
+    MqttClientExecutor(final @NotNull Lazy<MqttClientExecutorConfig> executorConfig) {
+        super(executorConfig);
+    }
 
-    void mqtt5Connect(final @NotNull Mqtt5Client client, final @NotNull Mqtt5Connect connectMessage, final @NotNull Connect connect) {
+    @NotNull CompletableFuture<Mqtt5ConnAck> mqtt5Connect(final @NotNull Mqtt5Client client, final @NotNull Mqtt5Connect connectMessage, final @NotNull Connect connect) {
 
         String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
         Logger.debug("{} sending CONNECT {}", clientLogPrefix, connectMessage);
 
-        final Mqtt5ConnAck connAck = client
-                .toBlocking()
-                .connect(connectMessage);
-
-        Logger.debug("{} received CONNACK {} ",  clientLogPrefix, connAck);
-
+        return client.toAsync()
+                .connect(connectMessage)
+                .whenComplete((connAck, throwable) -> {
+                    if (throwable == null) {
+                        Logger.debug("{} received CONNACK {} ", clientLogPrefix, connAck);
+                    }
+                });
     }
 
-    void mqtt3Connect(final @NotNull Mqtt3Client client, final @NotNull Mqtt3Connect connectMessage, final @NotNull Connect connect) {
+    @NotNull CompletableFuture<Mqtt3ConnAck> mqtt3Connect(final @NotNull Mqtt3Client client, final @NotNull Mqtt3Connect connectMessage, final @NotNull Connect connect) {
 
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
         Logger.debug("{} sending CONNECT {}", clientLogPrefix, connectMessage);
 
-        final Mqtt3ConnAck connAck = client
-                .toBlocking()
-                .connect(connectMessage);
-
-        Logger.debug("{} received CONNACK {} ", clientLogPrefix, connAck);
+        return client.toAsync()
+                .connect(connectMessage)
+                .whenComplete((connAck, throwable) -> {
+                    if (throwable == null) {
+                        Logger.debug("{} received CONNACK {} ", clientLogPrefix, connAck);
+                    }
+                });
     }
 
-    void mqtt5Subscribe(final @NotNull Mqtt5Client client, final @NotNull Subscribe subscribe, final @NotNull String topic, final @NotNull MqttQos qos) {
+    @NotNull CompletableFuture<Mqtt5SubAck> mqtt5Subscribe(final @NotNull Mqtt5Client client, final @NotNull Subscribe subscribe, final @NotNull String[] topics, final @NotNull MqttQos[] qos) {
 
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
-        final Mqtt5SubscribeBuilder.Start.Complete builder = Mqtt5Subscribe.builder()
-                .topicFilter(topic)
-                .qos(qos);
+        final List<Mqtt5Subscription> subscriptions = new ArrayList<>(topics.length);
+        for (int i = 0; i < topics.length; i++) {
+            subscriptions.add(Mqtt5Subscription.builder().topicFilter(topics[i]).qos(qos[i]).build());
+        }
+
+        final Mqtt5SubscribeBuilder.Complete builder = Mqtt5Subscribe.builder()
+                .addSubscriptions(subscriptions);
 
         if (subscribe.getUserProperties() != null) {
             builder.userProperties(subscribe.getUserProperties());
@@ -103,65 +133,157 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
 
         Logger.debug("{} sending SUBSCRIBE {}", clientLogPrefix, subscribeMessage);
 
-        client.toAsync()
-                .subscribe(subscribeMessage, new SubscribeMqtt5PublishCallback(subscribe, client))
+        final PublishRouter<Mqtt5Publish> publishRouter = getPublishRouter(client);
+        final CompletableFuture<Mqtt5SubAck> subAckFuture;
+        if (publishRouter != null) {
+            // The filters are routed before sending, as retained publishes may arrive before the SUBACK is handled
+            for (final String topic : topics) {
+                publishRouter.add(topic, subscribe);
+            }
+            subAckFuture = client.toAsync().subscribe(subscribeMessage);
+        }
+        else {
+            subAckFuture = client.toAsync().subscribe(subscribeMessage, new SubscribeMqtt5PublishCallback(subscribe, client));
+        }
+
+        return subAckFuture
                 .whenComplete((subAck, throwable) -> {
 
                     if (throwable != null) {
-                        Logger.error(throwable,"{} failed SUBSCRIBE to TOPIC '{}': {}",
+                        final Throwable cause = Throwables.getRootCause(throwable);
+                        if (cause instanceof Mqtt5SubAckException) {
+                            registerSubAckReasonCodes(client, subscribe, topics, qos, ((Mqtt5SubAckException) cause).getMqttMessage().getReasonCodes(),
+                                    Mqtt5SubAckReasonCode::isError, clientLogPrefix);
+                        }
+                        else if (publishRouter != null) {
+                            for (final String topic : topics) {
+                                publishRouter.remove(topic, subscribe);
+                            }
+                        }
+                        Logger.error(throwable,"{} failed SUBSCRIBE to TOPICS {}: {}",
                                 clientLogPrefix,
-                                topic,
-                                Throwables.getRootCause(throwable).getMessage());
+                                Arrays.toString(topics),
+                                cause.getMessage());
                     } else {
 
-                        final String clientKey = MqttUtils.buildKey(
-                                client.getConfig().getClientIdentifier().get().toString(),
-                                client.getConfig().getServerHost());
-
-                        getClientDataMap().get(clientKey).addSubscription(MqttTopicFilter.of(topic));
-
                         Logger.debug("{} received SUBACK {}", clientLogPrefix, subAck);
+
+                        registerSubAckReasonCodes(client, subscribe, topics, qos, subAck.getReasonCodes(), Mqtt5SubAckReasonCode::isError, clientLogPrefix);
                     }
-                })
-        .join();
+                });
 
     }
 
-    void mqtt3Subscribe(final @NotNull Mqtt3Client client, final @NotNull Subscribe subscribe, final @NotNull String topic, final @NotNull MqttQos qos) {
+    @NotNull CompletableFuture<Mqtt3SubAck> mqtt3Subscribe(final @NotNull Mqtt3Client client, final @NotNull Subscribe subscribe, final @NotNull String[] topics, final @NotNull MqttQos[] qos) {
 
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
-        final Mqtt3SubscribeBuilder.Start.Complete builder = Mqtt3Subscribe.builder()
-                .topicFilter(topic)
-                .qos(qos);
-
+        final List<Mqtt3Subscription> subscriptions = new ArrayList<>(topics.length);
+        for (int i = 0; i < topics.length; i++) {
+            subscriptions.add(Mqtt3Subscription.builder().topicFilter(topics[i]).qos(qos[i]).build());
+        }
 
-        final Mqtt3Subscribe subscribeMessage = builder.build();
+        final Mqtt3Subscribe subscribeMessage = Mqtt3Subscribe.builder()
+                .addSubscriptions(subscriptions)
+                .build();
 
         Logger.debug("{} sending SUBSCRIBE {}", clientLogPrefix, subscribeMessage);
 
-        client.toAsync()
-                .subscribe(subscribeMessage, new SubscribeMqtt3PublishCallback(subscribe, client))
+        final PublishRouter<Mqtt3Publish> publishRouter = getPublishRouter(client);
+        final CompletableFuture<Mqtt3SubAck> subAckFuture;
+        if (publishRouter != null) {
+            // The filters are routed before sending, as retained publishes may arrive before the SUBACK is handled
+            for (final String topic : topics) {
+                publishRouter.add(topic, subscribe);
+            }
+            subAckFuture = client.toAsync().subscribe(subscribeMessage);
+        }
+        else {
+            subAckFuture = client.toAsync().subscribe(subscribeMessage, new SubscribeMqtt3PublishCallback(subscribe, client));
+        }
+
+        return subAckFuture
                 .whenComplete((subAck, throwable) -> {
                     if (throwable != null) {
-                        Logger.error(throwable, "{} failed SUBSCRIBE to TOPIC '{}': {}",
+                        final Throwable cause = Throwables.getRootCause(throwable);
+                        if (cause instanceof Mqtt3SubAckException) {
+                            registerSubAckReasonCodes(client, subscribe, topics, qos, ((Mqtt3SubAckException) cause).getMqttMessage().getReturnCodes(),
+                                    Mqtt3SubAckReturnCode::isError, clientLogPrefix);
+                        }
+                        else if (publishRouter != null) {
+                            for (final String topic : topics) {
+                                publishRouter.remove(topic, subscribe);
+                            }
+                        }
+                        Logger.error(throwable, "{} failed SUBSCRIBE to TOPICS {}: {}",
                                 clientLogPrefix,
-                                topic,
-                                Throwables.getRootCause(throwable).getMessage());
+                                Arrays.toString(topics),
+                                cause.getMessage());
                     } else {
 
-                        final String clientKey = MqttUtils.buildKey(client.getConfig().getClientIdentifier().get().toString(),
-                                client.getConfig().getServerHost());
-
-                        getClientDataMap().get(clientKey).addSubscription(MqttTopicFilter.of(topic));
-
                         Logger.debug("{} received SUBACK {}", clientLogPrefix, subAck);
+
+                        registerSubAckReasonCodes(client, subscribe, topics, qos, subAck.getReturnCodes(), Mqtt3SubAckReturnCode::isError, clientLogPrefix);
                     }
-                })
-        .join();
+                });
+    }
+
+    /**
+     * Stores the reason code of every topic filter in the client data and registers the granted subscriptions.
+     * Rejected topic filters are no longer routed to the output of the subscribe command.
+     */
+    private <T extends Enum<T>> void registerSubAckReasonCodes(final @NotNull MqttClient client,
+                                                               final @NotNull Subscribe subscribe,
+                                                               final @NotNull String[] topics,
+                                                               final @NotNull MqttQos[] qos,
+                                                               final @NotNull List<T> reasonCodes,
+                                                               final @NotNull Predicate<T> isError,
+                                                               final @NotNull String clientLogPrefix) {
+
+        final ClientData clientData = getClientData(client);
+
+        for (int i = 0; i < topics.length && i < reasonCodes.size(); i++) {
+            final MqttTopicFilter topicFilter = MqttTopicFilter.of(topics[i]);
+            final T reasonCode = reasonCodes.get(i);
+            final boolean error = isError.test(reasonCode);
+            if (clientData != null) {
+                clientData.setSubscribeReasonCode(topicFilter, reasonCode.name());
+                if (!error) {
+                    clientData.addSubscription(topicFilter, qos[i]);
+                }
+                else if (clientData.getPublishRouter() != null) {
+                    clientData.getPublishRouter().remove(topics[i], subscribe);
+                }
+            }
+            if (error) {
+                Logger.error("{} failed SUBSCRIBE to TOPIC '{}': {}", clientLogPrefix, topics[i], reasonCode);
+            } else {
+                Logger.debug("{} subscribed to TOPIC '{}': {}", clientLogPrefix, topics[i], reasonCode);
+            }
+        }
+    }
+
+    private static @Nullable ClientData getClientData(final @NotNull MqttClient client) {
+        return getClientRegistry().get(MqttUtils.buildKey(client.getConfig().getClientIdentifier().get().toString(),
+                client.getConfig().getServerHost()));
     }
 
-    void mqtt5Publish(final @NotNull Mqtt5Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos) {
+    private static @NotNull LatencyStamp nextLatencyStamp(final @NotNull MqttClient client, final @NotNull String topic) {
+        final ClientData clientData = getClientData(client);
+        if (clientData != null) {
+            return clientData.nextLatencyStamp(topic);
+        }
+        return new LatencyStamp(LatencyStamp.newPublisherId(client.getConfig().getClientIdentifier().map(Object::toString).orElse("")),
+                0, LatencyStamp.currentTimeMicros());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable private static <P> PublishRouter<P> getPublishRouter(final @NotNull MqttClient client) {
+        final ClientData clientData = getClientData(client);
+        return clientData != null ? (PublishRouter<P>) clientData.getPublishRouter() : null;
+    }
+
+    @NotNull CompletableFuture<?> mqtt5Publish(final @NotNull Mqtt5Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos) {
 
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
@@ -180,7 +302,15 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
         if (publish.getMessageExpiryInterval() != null) {
             publishBuilder.messageExpiryInterval(publish.getMessageExpiryInterval());
         }
-        if (publish.getUserProperties() != null) {
+        if (publish.isStamp()) {
+            final Mqtt5UserPropertiesBuilder userPropertiesBuilder = Mqtt5UserProperties.builder();
+            if (publish.getUserProperties() != null) {
+                userPropertiesBuilder.addAll(publish.getUserProperties().asList());
+            }
+            userPropertiesBuilder.add(LatencyStamp.USER_PROPERTY_NAME, nextLatencyStamp(client, topic).encode());
+            publishBuilder.userProperties(userPropertiesBuilder.build());
+        }
+        else if (publish.getUserProperties() != null) {
             publishBuilder.userProperties(publish.getUserProperties());
         }
 
@@ -190,7 +320,7 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
                 bufferToString(publish.getMessage()),
                 publishMessage);
 
-        client.toAsync()
+        return client.toAsync()
             .publish(publishMessage)
             .whenComplete((publishResult, throwable) -> {
                 if (throwable != null) {
@@ -204,19 +334,21 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
                         clientLogPrefix,
                         publishResult);
                 }
-            })
-        .join();
+            });
 
     }
 
 
-    void mqtt3Publish(final @NotNull Mqtt3Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos) {
+    @NotNull CompletableFuture<?> mqtt3Publish(final @NotNull Mqtt3Client client, final @NotNull Publish publish, final @NotNull String topic, final @NotNull MqttQos qos) {
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
+        // MQTT 3 has no user properties, so the stamp is the first line of the payload
+        final ByteBuffer payload = publish.isStamp() ? nextLatencyStamp(client, topic).prependTo(publish.getMessage()) : publish.getMessage();
+
         final Mqtt3PublishBuilder.Complete publishBuilder = Mqtt3Publish.builder()
                 .topic(topic)
                 .qos(qos)
-                .payload(publish.getMessage());
+                .payload(payload);
 
         if (publish.getRetain() != null) {
             publishBuilder.retain(publish.getRetain());
@@ -224,9 +356,9 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
 
         final Mqtt3Publish publishMessage = publishBuilder.build();
 
-        Logger.debug("{} sending PUBLISH ('{}') {}", clientLogPrefix, bufferToString(publish.getMessage()), publishMessage);
+        Logger.debug("{} sending PUBLISH ('{}') {}", clientLogPrefix, bufferToString(payload), publishMessage);
 
-        client.toAsync().publish(publishMessage)
+        return client.toAsync().publish(publishMessage)
                 .whenComplete((publishResult, throwable) -> {
                     if (throwable != null) {
 
@@ -240,76 +372,105 @@ public class MqttClientExecutor extends AbstractMqttClientExecutor {
                                 clientLogPrefix,
                                 publishResult);
                     }
-                })
-        .join();
+                });
     }
 
     @Override
-    void mqtt5Unsubscribe(@NotNull final Mqtt5Client client, @NotNull final Unsubscribe unsubscribe) {
+    @NotNull CompletableFuture<Mqtt5UnsubAck> mqtt5Unsubscribe(@NotNull final Mqtt5Client client, @NotNull final Unsubscribe unsubscribe, @NotNull final String[] topics) {
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
-        for (String topic : unsubscribe.getTopics()) {
+        final Mqtt5UnsubscribeBuilder.Complete builder = Mqtt5Unsubscribe.builder()
+                .addTopicFilters(toTopicFilters(topics));
 
-            final Mqtt5Unsubscribe unsubscribeMessage = Mqtt5Unsubscribe.builder()
-                    .topicFilter(topic)
-                    .build();
+        if (unsubscribe.getUserProperties() != null) {
+            builder.userProperties(unsubscribe.getUserProperties());
+        }
 
-            Logger.debug("{} sending UNSUBSCRIBE {}",
-                        clientLogPrefix,
-                        unsubscribeMessage);
+        final Mqtt5Unsubscribe unsubscribeMessage = builder.build();
 
-            client.toAsync()
-                    .unsubscribe(unsubscribeMessage)
-                    .whenComplete((Mqtt5UnsubAck unsubAck, Throwable throwable) -> {
+        Logger.debug("{} sending UNSUBSCRIBE {}",
+                    clientLogPrefix,
+                    unsubscribeMessage);
 
-                        if (throwable != null) {
+        return client.toAsync()
+                .unsubscribe(unsubscribeMessage)
+                .whenComplete((Mqtt5UnsubAck unsubAck, Throwable throwable) -> {
 
-                            Logger.error(throwable,"{} failed UNSUBSCRIBE from TOPIC '{}': {}",
-                                    clientLogPrefix,
-                                    topic,
-                                    Throwables.getRootCause(throwable).getMessage());
-                        } else {
+                    if (throwable != null) {
+                        final Throwable cause = Throwables.getRootCause(throwable);
+                        if (cause instanceof Mqtt5UnsubAckException) {
+                            removeSubscriptions(client, topics, ((Mqtt5UnsubAckException) cause).getMqttMessage().getReasonCodes(), clientLogPrefix);
+                        }
+                        Logger.error(throwable,"{} failed UNSUBSCRIBE from TOPICS {}: {}",
+                                clientLogPrefix,
+                                Arrays.toString(topics),
+                                cause.getMessage());
+                    } else {
 
-                            getClientDataMap().get(unsubscribe.getKey()).removeSubscription(MqttTopicFilter.of(topic));
+                        Logger.debug("{} received UNSUBACK {}",
+                                clientLogPrefix,
+                                unsubAck);
 
-                            Logger.debug("{} received UNSUBACK {}",
-                                    clientLogPrefix,
-                                    unsubAck);
-                        }
-                    })
-            .join();
-        }
+                        removeSubscriptions(client, topics, unsubAck.getReasonCodes(), clientLogPrefix);
+                    }
+                });
     }
 
     @Override
-    void mqtt3Unsubscribe(@NotNull final Mqtt3Client client, @NotNull final Unsubscribe unsubscribe) {
+    @NotNull CompletableFuture<Void> mqtt3Unsubscribe(@NotNull final Mqtt3Client client, @NotNull final Unsubscribe unsubscribe, @NotNull final String[] topics) {
         final String clientLogPrefix = LoggerUtils.getClientPrefix(client.getConfig());
 
-        for (String topic : unsubscribe.getTopics()) {
+        final Mqtt3Unsubscribe unsubscribeMessage = Mqtt3Unsubscribe.builder()
+                .addTopicFilters(toTopicFilters(topics))
+                .build();
 
-            final Mqtt3Unsubscribe unsubscribeMessage = Mqtt3Unsubscribe.builder()
-                    .topicFilter(topic)
-                    .build();
+        Logger.debug("{} Sending UNSUBSCRIBE {}",
+                clientLogPrefix,
+                unsubscribeMessage);
 
-                Logger.debug("{} Sending UNSUBSCRIBE {}",
-                        clientLogPrefix,
-                        unsubscribeMessage);
-
-                client.toAsync()
-                    .unsubscribe(unsubscribeMessage)
-                    .whenComplete((Void unsubAck, Throwable throwable) -> {
-
-                        if (throwable != null) {
-                            Logger.error(throwable, "{} failed UNSUBSCRIBE from TOPIC '{}': {}",
-                                    clientLogPrefix,
-                                    topic,
-                                    Throwables.getRootCause(throwable).getMessage());
-                        } else {
-                            getClientDataMap().get(unsubscribe.getKey()).removeSubscription(MqttTopicFilter.of(topic));
-                            Logger.debug("{} received UNSUBACK", clientLogPrefix );
+        return client.toAsync()
+                .unsubscribe(unsubscribeMessage)
+                .whenComplete((Void unsubAck, Throwable throwable) -> {
+
+                    if (throwable != null) {
+                        Logger.error(throwable, "{} failed UNSUBSCRIBE from TOPICS {}: {}",
+                                clientLogPrefix,
+                                Arrays.toString(topics),
+                                Throwables.getRootCause(throwable).getMessage());
+                    } else {
+                        final ClientData clientData = getClientData(client);
+                        if (clientData != null) {
+                            for (final String topic : topics) {
+                                clientData.removeSubscription(MqttTopicFilter.of(topic));
+                            }
                         }
-                    })
-            .join();
+                        Logger.debug("{} received UNSUBACK", clientLogPrefix );
+                    }
+                });
+    }
+
+    private static @NotNull List<MqttTopicFilter> toTopicFilters(final @NotNull String[] topics) {
+        final List<MqttTopicFilter> topicFilters = new ArrayList<>(topics.length);
+        for (final String topic : topics) {
+            topicFilters.add(MqttTopicFilter.of(topic));
+        }
+        return topicFilters;
+    }
+
+    private void removeSubscriptions(final @NotNull MqttClient client,
+                                     final @NotNull String[] topics,
+                                     final @NotNull List<Mqtt5UnsubAckReasonCode> reasonCodes,
+                                     final @NotNull String clientLogPrefix) {
+
+        final ClientData clientData = getClientData(client);
+
+        for (int i = 0; i < topics.length && i < reasonCodes.size(); i++) {
+            final Mqtt5UnsubAckReasonCode reasonCode = reasonCodes.get(i);
+            if (reasonCode.isError()) {
+                Logger.error("{} failed UNSUBSCRIBE from TOPIC '{}': {}", clientLogPrefix, topics[i], reasonCode);
+            } else if (clientData != null) {
+                clientData.removeSubscription(MqttTopicFilter.of(topics[i]));
+            }
         }
     }
 
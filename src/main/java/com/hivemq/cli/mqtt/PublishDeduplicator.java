@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.DeduplicationCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drops the publishes received again within a time window, as QoS 1 publishes may be redelivered after a reconnect.
+ * <p>
+ * A publish stamped by `pub --stamp` is identified by its topic, publisher and sequence number, as publishes with the
+ * same payload are not duplicates then. Any other publish is identified by a 64 bit hash of its topic and payload.
+ */
+public class PublishDeduplicator {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final @NotNull DeduplicationCache cache;
+    private final @NotNull LongAdder received = new LongAdder();
+    private final @NotNull LongAdder duplicates = new LongAdder();
+
+    /**
+     * @param capacity      the maximum number of remembered publishes
+     * @param windowSeconds the time a publish is remembered, 0 to remember as many publishes as the capacity allows
+     */
+    public PublishDeduplicator(final int capacity, final long windowSeconds) {
+        cache = new DeduplicationCache(capacity, TimeUnit.SECONDS.toNanos(windowSeconds));
+    }
+
+    /**
+     * @param stamp the stamp of the publish or null if it was not stamped
+     * @return true if the publish was already received within the window
+     */
+    public boolean isDuplicate(final @NotNull String topic, final @Nullable LatencyStamp stamp, final @Nullable ByteBuffer payload) {
+        received.increment();
+        if (cache.add(key(topic, stamp, payload), System.nanoTime())) {
+            return false;
+        }
+        duplicates.increment();
+        return true;
+    }
+
+    static long key(final @NotNull String topic, final @Nullable LatencyStamp stamp, final @Nullable ByteBuffer payload) {
+        long hash = hash(FNV_OFFSET_BASIS, topic);
+        if (stamp != null) {
+            hash = hash(hash ^ 1, stamp.getPublisherId());
+            final long sequence = stamp.getSequence();
+            for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+                hash = (hash ^ ((sequence >>> shift) & 0xff)) * FNV_PRIME;
+            }
+            return hash;
+        }
+        hash = (hash ^ 2) * FNV_PRIME;
+        if (payload != null) {
+            // Absolute reads, so the payload is neither copied nor its position changed
+            for (int i = payload.position(); i < payload.limit(); i++) {
+                hash = (hash ^ (payload.get(i) & 0xff)) * FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, final @NotNull String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return (hash ^ 0xff) * FNV_PRIME;
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getDuplicates() {
+        return duplicates.sum();
+    }
+
+    public void printReport(final @NotNull PrintStream output) {
+        final long currentReceived = received.sum();
+        final long currentDuplicates = duplicates.sum();
+        output.printf("received %d  duplicates %d (%.2f%%)%n",
+                currentReceived, currentDuplicates, currentReceived == 0 ? 0d : currentDuplicates * 100d / currentReceived);
+        output.flush();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.json.JsonPathPredicate;
+import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
+import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Decides if a received publish is printed, before it is formatted.
+ * <p>
+ * All given conditions have to match. They are checked from the cheapest to the most expensive one: the topic, the
+ * user property, a substring searched in the raw payload bytes, and only then the decoded payload for the regular
+ * expression and the JSONPath predicate. The payload is decoded at most once per publish.
+ */
+public class PublishFilter {
+
+    public static final @NotNull PublishFilter ACCEPT_ALL = new PublishFilter(null, null, null, null, null);
+
+    private final @Nullable Pattern topicPattern;
+    private final @Nullable Mqtt5UserProperty userProperty;
+    private final @Nullable byte[] payloadSubstring;
+    private final @Nullable Pattern payloadPattern;
+    private final @Nullable JsonPathPredicate jsonPathPredicate;
+    private final boolean acceptAll;
+
+    /**
+     * @param topicPattern      found in the topic
+     * @param userProperty      contained in the user properties, never matches MQTT 3 publishes
+     * @param payloadSubstring  contained in the UTF-8 payload
+     * @param payloadPattern    found in the UTF-8 payload
+     * @param jsonPathPredicate true for the JSON payload
+     */
+    public PublishFilter(final @Nullable Pattern topicPattern,
+                         final @Nullable Mqtt5UserProperty userProperty,
+                         final @Nullable String payloadSubstring,
+                         final @Nullable Pattern payloadPattern,
+                         final @Nullable JsonPathPredicate jsonPathPredicate) {
+        this.topicPattern = topicPattern;
+        this.userProperty = userProperty;
+        this.payloadSubstring = payloadSubstring != null ? payloadSubstring.getBytes(StandardCharsets.UTF_8) : null;
+        this.payloadPattern = payloadPattern;
+        this.jsonPathPredicate = jsonPathPredicate;
+        this.acceptAll = topicPattern == null && userProperty == null && payloadSubstring == null &&
+                payloadPattern == null && jsonPathPredicate == null;
+    }
+
+    public boolean matches(final @NotNull Mqtt5Publish publish) {
+        return acceptAll || matches(publish.getTopic().toString(), publish.getPayload().orElse(null), publish.getUserProperties());
+    }
+
+    public boolean matches(final @NotNull Mqtt3Publish publish) {
+        return acceptAll || matches(publish.getTopic().toString(), publish.getPayload().orElse(null), null);
+    }
+
+    private boolean matches(final @NotNull String topic,
+                            final @Nullable ByteBuffer payload,
+                            final @Nullable Mqtt5UserProperties userProperties) {
+
+        if (topicPattern != null && !topicPattern.matcher(topic).find()) {
+            return false;
+        }
+        if (userProperty != null && (userProperties == null || !userProperties.asList().contains(userProperty))) {
+            return false;
+        }
+        if (payloadSubstring != null && (payload == null || indexOf(payload, payloadSubstring) == -1)) {
+            return false;
+        }
+        if (payloadPattern == null && jsonPathPredicate == null) {
+            return true;
+        }
+        final String payloadString = payload != null ? StandardCharsets.UTF_8.decode(payload.duplicate()).toString() : "";
+        if (payloadPattern != null && !payloadPattern.matcher(payloadString).find()) {
+            return false;
+        }
+        return jsonPathPredicate == null || jsonPathPredicate.test(payloadString);
+    }
+
+    static int indexOf(final @NotNull ByteBuffer buffer, final @NotNull byte[] bytes) {
+        final int start = buffer.position();
+        final int end = buffer.limit() - bytes.length;
+        outer:
+        for (int i = start; i <= end; i++) {
+            for (int j = 0; j < bytes.length; j++) {
+                if (buffer.get(i + j) != bytes[j]) {
+                    continue outer;
+                }
+            }
+            return i - start;
+        }
+        return -1;
+    }
+
+    public boolean isAcceptAll() {
+        return acceptAll;
+    }
+
+    @Override
+    public String toString() {
+        return "PublishFilter{" +
+                "topicPattern=" + topicPattern +
+                ", userProperty=" + userProperty +
+                ", payloadSubstring=" + (payloadSubstring != null ? new String(payloadSubstring, StandardCharsets.UTF_8) : null) +
+                ", payloadPattern=" + payloadPattern +
+                ", jsonPathPredicate=" + jsonPathPredicate +
+                '}';
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.commands.Subscribe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Receives all publishes of a client and passes each publish to the outputs of the subscribe commands whose topic
+ * filters match its topic.
+ * <p>
+ * An output is created once per subscribe command, so a publish matching several overlapping filters of the same
+ * command is printed once, while every other command with a matching filter prints it as well. Publishes matching
+ * no filter are passed to the fallback consumer.
+ */
+public class PublishRouter<P> implements Consumer<P> {
+
+    private final @NotNull TopicTrie<Subscribe> subscriptions = new TopicTrie<>();
+    private final @NotNull Map<Subscribe, Output<P>> outputs = new ConcurrentHashMap<>();
+    private final @NotNull Function<P, String> topicFunction;
+    private final @NotNull Function<Subscribe, Consumer<P>> outputFactory;
+    private final @NotNull Consumer<P> fallback;
+
+    /**
+     * @param topicFunction returns the topic of a publish
+     * @param outputFactory creates the output of a subscribe command
+     * @param fallback      receives the publishes which do not match any topic filter
+     */
+    public PublishRouter(final @NotNull Function<P, String> topicFunction,
+                         final @NotNull Function<Subscribe, Consumer<P>> outputFactory,
+                         final @NotNull Consumer<P> fallback) {
+        this.topicFunction = topicFunction;
+        this.outputFactory = outputFactory;
+        this.fallback = fallback;
+    }
+
+    public void add(final @NotNull String topicFilter, final @NotNull Subscribe subscribe) {
+        synchronized (subscriptions) {
+            if (subscriptions.add(topicFilter, subscribe)) {
+                outputs.computeIfAbsent(subscribe, s -> new Output<>(outputFactory.apply(s))).filters++;
+            }
+        }
+    }
+
+    public void remove(final @NotNull String topicFilter, final @NotNull Subscribe subscribe) {
+        synchronized (subscriptions) {
+            if (subscriptions.remove(topicFilter, subscribe)) {
+                release(subscribe);
+            }
+        }
+    }
+
+    public void removeAll(final @NotNull String topicFilter) {
+        synchronized (subscriptions) {
+            for (final Subscribe subscribe : subscriptions.removeAll(topicFilter)) {
+                release(subscribe);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (subscriptions) {
+            subscriptions.clear();
+            outputs.clear();
+        }
+    }
+
+    @Override
+    public void accept(final @NotNull P publish) {
+        final Set<Subscribe> matches = subscriptions.match(topicFunction.apply(publish));
+        if (matches.isEmpty()) {
+            fallback.accept(publish);
+            return;
+        }
+        for (final Subscribe subscribe : matches) {
+            final Output<P> output = outputs.get(subscribe);
+            if (output != null) {
+                output.consumer.accept(publish);
+            }
+        }
+    }
+
+    private void release(final @NotNull Subscribe subscribe) {
+        final Output<P> output = outputs.get(subscribe);
+        if (output != null && --output.filters == 0) {
+            outputs.remove(subscribe);
+        }
+    }
+
+    private static class Output<P> {
+        private final @NotNull Consumer<P> consumer;
+        private int filters;
+
+        private Output(final @NotNull Consumer<P> consumer) {
+            this.consumer = consumer;
+        }
+    }
+}
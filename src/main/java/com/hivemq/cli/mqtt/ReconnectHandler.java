@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.google.common.base.Throwables;
+import com.hivemq.cli.utils.LoggerUtils;
+import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.client.mqtt.MqttClientConfig;
+import com.hivemq.client.mqtt.lifecycle.MqttClientConnectedContext;
+import com.hivemq.client.mqtt.lifecycle.MqttClientConnectedListener;
+import com.hivemq.client.mqtt.lifecycle.MqttClientDisconnectedContext;
+import com.hivemq.client.mqtt.lifecycle.MqttClientDisconnectedListener;
+import com.hivemq.client.mqtt.lifecycle.MqttDisconnectSource;
+import com.hivemq.client.mqtt.mqtt3.lifecycle.Mqtt3ClientConnectedContext;
+import com.hivemq.client.mqtt.mqtt3.lifecycle.Mqtt3ClientDisconnectedContext;
+import com.hivemq.client.mqtt.mqtt5.lifecycle.Mqtt5ClientConnectedContext;
+import com.hivemq.client.mqtt.mqtt5.lifecycle.Mqtt5ClientDisconnectedContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reconnects a client which lost its connection with an exponential backoff and jitter, so the clients of a restarted
+ * broker do not all reconnect at the same time.
+ * <p>
+ * The session is resumed on reconnect. If the broker did not keep it, the subscriptions of the client data are sent
+ * again. Only a client which was connected before is reconnected, a failing first connect still fails the command.
+ * Has to be added to the client before the {@link ContextClientDisconnectListener}.
+ */
+public class ReconnectHandler implements MqttClientConnectedListener, MqttClientDisconnectedListener {
+
+    public static final long INITIAL_DELAY_MILLIS = 1000;
+
+    private final long maxDelayMillis;
+    private final boolean resumeSession;
+    private final @NotNull Consumer<ClientData> resubscribe;
+    private final @Nullable LatencyStatistics latencyStatistics;
+
+    private boolean connected;
+    private int attempts;
+    private long outageStartNanos = -1;
+    private long reconnects;
+    private long totalOutageNanos;
+    private long maxOutageNanos;
+
+    /**
+     * @param maxDelayMillis    the maximum delay between two reconnect attempts
+     * @param resumeSession     whether to reconnect with clean start false, for MQTT 3 only if the session was persistent
+     * @param resubscribe       sends the subscriptions of the client data again if the session was not resumed
+     * @param latencyStatistics the statistics which count the publishes lost during a reconnect, or null
+     */
+    public ReconnectHandler(final long maxDelayMillis,
+                            final boolean resumeSession,
+                            final @NotNull Consumer<ClientData> resubscribe,
+                            final @Nullable LatencyStatistics latencyStatistics) {
+        this.maxDelayMillis = Math.max(INITIAL_DELAY_MILLIS, maxDelayMillis);
+        this.resumeSession = resumeSession;
+        this.resubscribe = resubscribe;
+        this.latencyStatistics = latencyStatistics;
+    }
+
+    @Override
+    public synchronized void onConnected(final @NotNull MqttClientConnectedContext context) {
+        connected = true;
+        attempts = 0;
+        if (outageStartNanos < 0) {
+            return;
+        }
+
+        final long outageNanos = System.nanoTime() - outageStartNanos;
+        outageStartNanos = -1;
+        reconnects++;
+        totalOutageNanos += outageNanos;
+        maxOutageNanos = Math.max(maxOutageNanos, outageNanos);
+        if (latencyStatistics != null) {
+            latencyStatistics.reconnected();
+        }
+
+        final MqttClientConfig clientConfig = context.getClientConfig();
+        final boolean sessionPresent = isSessionPresent(context);
+        Logger.info("{} reconnected after {} ms, session {}", LoggerUtils.getClientPrefix(clientConfig),
+                TimeUnit.NANOSECONDS.toMillis(outageNanos), sessionPresent ? "resumed" : "not present");
+
+        if (!sessionPresent) {
+            final ClientData clientData = MqttClientExecutor.getClientRegistry().get(MqttUtils.buildKey(
+                    clientConfig.getClientIdentifier().get().toString(), clientConfig.getServerHost()));
+            if (clientData != null) {
+                resubscribe.accept(clientData);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onDisconnected(final @NotNull MqttClientDisconnectedContext context) {
+        if (context.getSource() == MqttDisconnectSource.USER || !connected) {
+            return;
+        }
+        if (outageStartNanos < 0) {
+            outageStartNanos = System.nanoTime();
+            Logger.warn("{} lost the connection ({}), reconnecting", LoggerUtils.getClientPrefix(context.getClientConfig()),
+                    Throwables.getRootCause(context.getCause()).getMessage());
+        }
+
+        final long delayMillis = getDelayMillis(attempts++, INITIAL_DELAY_MILLIS, maxDelayMillis, ThreadLocalRandom.current());
+        Logger.debug("{} reconnect attempt {} in {} ms", LoggerUtils.getClientPrefix(context.getClientConfig()), attempts, delayMillis);
+
+        // The subscriptions are restored from the client data, which also knows about the removed ones
+        if (context instanceof Mqtt5ClientDisconnectedContext) {
+            ((Mqtt5ClientDisconnectedContext) context).getReconnector()
+                    .connectWith().cleanStart(!resumeSession).applyConnect()
+                    .resubscribeIfSessionExpired(false);
+        }
+        else if (context instanceof Mqtt3ClientDisconnectedContext) {
+            ((Mqtt3ClientDisconnectedContext) context).getReconnector()
+                    .connectWith().cleanSession(!resumeSession).applyConnect()
+                    .resubscribeIfSessionExpired(false);
+        }
+        context.getReconnector().reconnect(true).delay(delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the exponentially growing delay for the attempt, of which a random part up to the half is left out
+     */
+    static long getDelayMillis(final int attempt, final long initialDelayMillis, final long maxDelayMillis, final @NotNull Random random) {
+        final long delay = Math.min(maxDelayMillis, initialDelayMillis << Math.min(attempt, 30));
+        final long half = delay / 2;
+        return half + (long) (random.nextDouble() * (delay - half));
+    }
+
+    private static boolean isSessionPresent(final @NotNull MqttClientConnectedContext context) {
+        if (context instanceof Mqtt5ClientConnectedContext) {
+            return ((Mqtt5ClientConnectedContext) context).getConnAck().isSessionPresent();
+        }
+        if (context instanceof Mqtt3ClientConnectedContext) {
+            return ((Mqtt3ClientConnectedContext) context).getConnAck().isSessionPresent();
+        }
+        return false;
+    }
+
+    public synchronized long getReconnects() {
+        return reconnects;
+    }
+
+    /**
+     * @return the time the client was not connected, including a currently ongoing outage
+     */
+    public synchronized long getTotalOutageMillis() {
+        final long currentOutageNanos = outageStartNanos < 0 ? 0 : System.nanoTime() - outageStartNanos;
+        return TimeUnit.NANOSECONDS.toMillis(totalOutageNanos + currentOutageNanos);
+    }
+
+    public synchronized long getMaxOutageMillis() {
+        final long currentOutageNanos = outageStartNanos < 0 ? 0 : System.nanoTime() - outageStartNanos;
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(maxOutageNanos, currentOutageNanos));
+    }
+
+    public void printReport(final @NotNull PrintStream output) {
+        output.printf("reconnects %d  outage total %.1f s  max %.1f s%s%n",
+                getReconnects(), getTotalOutageMillis() / 1000d, getMaxOutageMillis() / 1000d,
+                latencyStatistics != null ? "  lost during reconnects " + latencyStatistics.getLostDuringReconnects() : "");
+        output.flush();
+    }
+}
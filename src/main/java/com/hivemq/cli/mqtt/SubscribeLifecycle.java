@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when a subscribe ends: after a number of handled publishes, after a timeout, after a time without any
+ * publish or when the client is disconnected.
+ * <p>
+ * Nothing polls for these conditions. The publish callbacks and the disconnect complete the result directly and the
+ * timeouts are scheduled for the moment they can expire at the earliest.
+ */
+public class SubscribeLifecycle {
+
+    public enum Result {
+        COUNT_REACHED,
+        TIMEOUT,
+        IDLE_TIMEOUT,
+        DISCONNECTED
+    }
+
+    private final long count;
+    private final long timeoutMillis;
+    private final long idleTimeoutMillis;
+    private final @NotNull AtomicLong received = new AtomicLong();
+    private final @NotNull AtomicLong handled = new AtomicLong();
+    private final @NotNull CompletableFuture<Result> result = new CompletableFuture<>();
+    private volatile long lastPublishNanos = System.nanoTime();
+
+    /**
+     * @param count             the number of publishes after which the subscribe ends, 0 for no limit
+     * @param timeoutMillis     the time after which the subscribe ends, 0 for no timeout
+     * @param idleTimeoutMillis the time without publishes after which the subscribe ends, 0 for no idle timeout
+     */
+    public SubscribeLifecycle(final long count, final long timeoutMillis, final long idleTimeoutMillis) {
+        this.count = count;
+        this.timeoutMillis = timeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Starts the timeouts, the idle timeout counts from now until the first publish.
+     */
+    public void start(final @NotNull ScheduledExecutorService scheduler) {
+        lastPublishNanos = System.nanoTime();
+        if (timeoutMillis > 0) {
+            final ScheduledFuture<?> timeout =
+                    scheduler.schedule(() -> result.complete(Result.TIMEOUT), timeoutMillis, TimeUnit.MILLISECONDS);
+            result.whenComplete((r, throwable) -> timeout.cancel(false));
+        }
+        if (idleTimeoutMillis > 0) {
+            scheduleIdleCheck(scheduler, idleTimeoutMillis);
+        }
+    }
+
+    private void scheduleIdleCheck(final @NotNull ScheduledExecutorService scheduler, final long delayMillis) {
+        scheduler.schedule(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            final long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastPublishNanos);
+            if (idleMillis >= idleTimeoutMillis) {
+                result.complete(Result.IDLE_TIMEOUT);
+            } else {
+                // A publish arrived in the meantime, so the idle timeout can expire at the earliest after the rest of it
+                scheduleIdleCheck(scheduler, idleTimeoutMillis - idleMillis);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Has to be called before a publish is handled.
+     *
+     * @return false if the publish must not be handled because the count is already reached
+     */
+    public boolean publishReceived() {
+        if (count > 0 && received.incrementAndGet() > count) {
+            return false;
+        }
+        if (idleTimeoutMillis > 0) {
+            lastPublishNanos = System.nanoTime();
+        }
+        return true;
+    }
+
+    /**
+     * Has to be called after a publish was handled, so the last publish is written before the subscribe ends.
+     */
+    public void publishHandled() {
+        if (count > 0 && handled.incrementAndGet() == count) {
+            result.complete(Result.COUNT_REACHED);
+        }
+    }
+
+    public void disconnected() {
+        result.complete(Result.DISCONNECTED);
+    }
+
+    /**
+     * @return the future completed with the first condition that ended the subscribe
+     */
+    public @NotNull CompletableFuture<Result> getResult() {
+        return result;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getHandled() {
+        return handled.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SubscribeLifecycle{" +
+                "count=" + count +
+                ", timeoutMillis=" + timeoutMillis +
+                ", idleTimeoutMillis=" + idleTimeoutMillis +
+                '}';
+    }
+}
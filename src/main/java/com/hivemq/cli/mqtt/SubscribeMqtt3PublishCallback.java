@@ -27,6 +27,8 @@ import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 
 import java.io.File;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.function.Consumer;
 
@@ -35,21 +37,83 @@ public class SubscribeMqtt3PublishCallback implements Consumer<Mqtt3Publish> {
     private final @Nullable File publishFile;
     private final @NotNull Mqtt3Client client;
     private final boolean printToStdout;
+    private final @NotNull PrintStream output;
     private final boolean isBase64;
     private final boolean isJsonOutput;
     private final boolean showTopics;
+    private final @NotNull PublishFilter publishFilter;
+    private final @Nullable SubscribeStatistics statistics;
+    private final @Nullable LatencyStatistics latencyStatistics;
+    private final @Nullable SubscribeLifecycle lifecycle;
+    private final @Nullable PublishDeduplicator deduplicator;
+    private final @Nullable TopicAggregator aggregator;
 
     SubscribeMqtt3PublishCallback(final @NotNull Subscribe subscribe, final @NotNull Mqtt3Client client) {
         printToStdout = subscribe.isPrintToSTDOUT();
+        output = subscribe.getOutput();
         publishFile = subscribe.getPublishFile();
         isBase64 = subscribe.isBase64();
         isJsonOutput = subscribe.isJsonOutput();
         showTopics = subscribe.showTopics();
+        publishFilter = subscribe.getPublishFilter();
+        statistics = subscribe.getStatistics();
+        latencyStatistics = subscribe.getLatencyStatistics();
+        lifecycle = subscribe.getLifecycle();
+        deduplicator = subscribe.getDeduplicator();
+        aggregator = subscribe.getAggregator();
         this.client = client;
     }
 
     @Override
-    public void accept(final @NotNull Mqtt3Publish mqtt3Publish) {
+    public void accept(final @NotNull Mqtt3Publish stampedPublish) {
+
+        // The stamp of 'pub --stamp' is the first line of a MQTT 3 payload, the filters and the output only see the
+        // published payload
+        final ByteBuffer stampedPayload = stampedPublish.getPayload().orElse(null);
+        final ByteBuffer unstampedPayload = stampedPayload != null ? LatencyStamp.removeFromPayload(stampedPayload) : null;
+        final Mqtt3Publish mqtt3Publish = unstampedPayload != null ?
+                stampedPublish.extend().payload(unstampedPayload).build() : stampedPublish;
+
+        // Filtered publishes are dropped before any formatting
+        if (!publishFilter.matches(mqtt3Publish)) {
+            return;
+        }
+        // The payload hash of the stamped payload tells stamped publishes apart
+        if (deduplicator != null &&
+                deduplicator.isDuplicate(mqtt3Publish.getTopic().toString(), null, stampedPayload)) {
+            return;
+        }
+
+        final LatencyStamp stamp = unstampedPayload != null && latencyStatistics != null ?
+                LatencyStamp.fromPayload(stampedPayload) : null;
+        if (lifecycle == null) {
+            handle(mqtt3Publish, stamp);
+        }
+        else if (lifecycle.publishReceived()) {
+            handle(mqtt3Publish, stamp);
+            lifecycle.publishHandled();
+        }
+    }
+
+    private void handle(final @NotNull Mqtt3Publish mqtt3Publish, final @Nullable LatencyStamp stamp) {
+
+        if (latencyStatistics != null) {
+            latencyStatistics.record(stamp,
+                    mqtt3Publish.getTopic().toString(),
+                    LatencyStamp.currentTimeMicros());
+        }
+        if (statistics != null) {
+            statistics.record(mqtt3Publish.getTopic().toString(),
+                    mqtt3Publish.getPayload().map(ByteBuffer::remaining).orElse(0),
+                    mqtt3Publish.getQos(),
+                    mqtt3Publish.isRetain());
+        }
+        if (aggregator != null) {
+            aggregator.record(mqtt3Publish.getTopic().toString(), mqtt3Publish.getPayload().orElse(null));
+        }
+        if (statistics != null || latencyStatistics != null || aggregator != null) {
+            return;
+        }
 
         String message;
 
@@ -59,7 +123,7 @@ public class SubscribeMqtt3PublishCallback implements Consumer<Mqtt3Publish> {
         if (showTopics) { message = mqtt3Publish.getTopic().toString() + ": " + message; }
 
         if (publishFile != null) { MqttPublishUtils.printToFile(publishFile, message); }
-        if (printToStdout) { System.out.println(message); }
+        if (printToStdout) { output.println(message); }
 
         Logger.debug("{} received PUBLISH ('{}') {}",
                 LoggerUtils.getClientPrefix(client.getConfig()),
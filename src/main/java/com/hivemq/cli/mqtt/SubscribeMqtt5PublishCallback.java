@@ -21,12 +21,15 @@ import com.hivemq.cli.utils.LoggerUtils;
 import com.hivemq.cli.utils.MqttPublishUtils;
 import com.hivemq.cli.utils.json.JsonMqttPublish;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5Client;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
 import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.tinylog.Logger;
 
 import java.io.File;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.function.Consumer;
 
@@ -35,22 +38,74 @@ public class SubscribeMqtt5PublishCallback implements Consumer<Mqtt5Publish> {
     private final @Nullable File publishFile;
     private final @NotNull Mqtt5Client client;
     private final boolean printToStdout;
+    private final @NotNull PrintStream output;
     private final boolean isBase64;
     private final boolean isJsonOutput;
     private final boolean showTopics;
+    private final @NotNull PublishFilter publishFilter;
+    private final @Nullable SubscribeStatistics statistics;
+    private final @Nullable LatencyStatistics latencyStatistics;
+    private final @Nullable SubscribeLifecycle lifecycle;
+    private final @Nullable PublishDeduplicator deduplicator;
+    private final @Nullable TopicAggregator aggregator;
 
     SubscribeMqtt5PublishCallback(final @NotNull Subscribe subscribe, final @NotNull Mqtt5Client client) {
         printToStdout = subscribe.isPrintToSTDOUT();
+        output = subscribe.getOutput();
         publishFile = subscribe.getPublishFile();
         isBase64 = subscribe.isBase64();
         isJsonOutput = subscribe.isJsonOutput();
         showTopics = subscribe.showTopics();
+        publishFilter = subscribe.getPublishFilter();
+        statistics = subscribe.getStatistics();
+        latencyStatistics = subscribe.getLatencyStatistics();
+        lifecycle = subscribe.getLifecycle();
+        deduplicator = subscribe.getDeduplicator();
+        aggregator = subscribe.getAggregator();
         this.client  = client;
     }
 
     @Override
     public void accept(final @NotNull Mqtt5Publish mqtt5Publish) {
 
+        // Filtered publishes are dropped before any formatting
+        if (!publishFilter.matches(mqtt5Publish)) {
+            return;
+        }
+        if (deduplicator != null &&
+                deduplicator.isDuplicate(mqtt5Publish.getTopic().toString(), getLatencyStamp(mqtt5Publish), mqtt5Publish.getPayload().orElse(null))) {
+            return;
+        }
+
+        if (lifecycle == null) {
+            handle(mqtt5Publish);
+        }
+        else if (lifecycle.publishReceived()) {
+            handle(mqtt5Publish);
+            lifecycle.publishHandled();
+        }
+    }
+
+    private void handle(final @NotNull Mqtt5Publish mqtt5Publish) {
+
+        if (latencyStatistics != null) {
+            latencyStatistics.record(getLatencyStamp(mqtt5Publish),
+                    mqtt5Publish.getTopic().toString(),
+                    LatencyStamp.currentTimeMicros());
+        }
+        if (statistics != null) {
+            statistics.record(mqtt5Publish.getTopic().toString(),
+                    mqtt5Publish.getPayload().map(ByteBuffer::remaining).orElse(0),
+                    mqtt5Publish.getQos(),
+                    mqtt5Publish.isRetain());
+        }
+        if (aggregator != null) {
+            aggregator.record(mqtt5Publish.getTopic().toString(), mqtt5Publish.getPayload().orElse(null));
+        }
+        if (statistics != null || latencyStatistics != null || aggregator != null) {
+            return;
+        }
+
         String message;
 
         if (isJsonOutput) { message = new JsonMqttPublish(mqtt5Publish, isBase64).toString(); }
@@ -59,7 +114,7 @@ public class SubscribeMqtt5PublishCallback implements Consumer<Mqtt5Publish> {
         if (showTopics) { message = mqtt5Publish.getTopic() + ": " + message; }
 
         if (publishFile != null) { MqttPublishUtils.printToFile(publishFile, message); }
-        if (printToStdout) { System.out.println(message); }
+        if (printToStdout) { output.println(message); }
 
         Logger.debug("{} received PUBLISH ('{}') {}",
                 LoggerUtils.getClientPrefix(client.getConfig()),
@@ -68,5 +123,12 @@ public class SubscribeMqtt5PublishCallback implements Consumer<Mqtt5Publish> {
 
     }
 
-
+    private static @Nullable LatencyStamp getLatencyStamp(final @NotNull Mqtt5Publish mqtt5Publish) {
+        for (final Mqtt5UserProperty userProperty : mqtt5Publish.getUserProperties().asList()) {
+            if (userProperty.getName().toString().equals(LatencyStamp.USER_PROPERTY_NAME)) {
+                return LatencyStamp.decode(userProperty.getValue().toString());
+            }
+        }
+        return null;
+    }
 }
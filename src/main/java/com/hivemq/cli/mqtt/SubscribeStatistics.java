@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.HeavyHitters;
+import com.hivemq.cli.utils.LatencyHistogram;
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the received publishes of a subscribe command instead of printing them, and prints a table of the topics
+ * with the highest message and byte rates since the previous report.
+ * <p>
+ * Recording only adds to striped counters and a heavy hitters sketch of fixed size, so the memory stays the same
+ * for any number of distinct topics.
+ */
+public class SubscribeStatistics {
+
+    private static final int TOPICS_PER_REPORTED_TOPIC = 64;
+    private static final int MAXIMUM_TOPIC_WIDTH = 80;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final int top;
+    private final @NotNull LongAdder messages = new LongAdder();
+    private final @NotNull LongAdder bytes = new LongAdder();
+    private final @NotNull LongAdder retained = new LongAdder();
+    private final @NotNull LongAdder[] messagesPerQos = new LongAdder[MqttQos.values().length];
+    private final @NotNull LatencyHistogram payloadSizes = new LatencyHistogram();
+    private final @NotNull HeavyHitters topicsByMessages;
+    private final @NotNull HeavyHitters topicsByBytes;
+
+    private long lastNanos = System.nanoTime();
+    private long lastMessages;
+    private long lastBytes;
+    private @NotNull LatencyHistogram.Snapshot lastPayloadSizes = payloadSizes.getSnapshot();
+
+    /**
+     * @param top the number of topics to report
+     */
+    public SubscribeStatistics(final int top) {
+        this.top = top;
+        for (int i = 0; i < messagesPerQos.length; i++) {
+            messagesPerQos[i] = new LongAdder();
+        }
+        // More topics than reported are counted, so the reported ones are accurate
+        final int stripes = Runtime.getRuntime().availableProcessors() * 2;
+        topicsByMessages = new HeavyHitters(top * TOPICS_PER_REPORTED_TOPIC, stripes);
+        topicsByBytes = new HeavyHitters(top * TOPICS_PER_REPORTED_TOPIC, stripes);
+    }
+
+    public void record(final @NotNull String topic, final int payloadSize, final @NotNull MqttQos qos, final boolean retain) {
+        messages.increment();
+        bytes.add(payloadSize);
+        messagesPerQos[qos.ordinal()].increment();
+        if (retain) {
+            retained.increment();
+        }
+        payloadSizes.record(payloadSize);
+        topicsByMessages.add(topic, 1);
+        topicsByBytes.add(topic, payloadSize);
+    }
+
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Prints the totals and the rates since the previous report.
+     */
+    public synchronized void printReport(final @NotNull PrintStream output) {
+        final long now = System.nanoTime();
+        final double seconds = Math.max(1, now - lastNanos) / 1_000_000_000d;
+        final long currentMessages = messages.sum();
+        final long currentBytes = bytes.sum();
+        final LatencyHistogram.Snapshot currentPayloadSizes = payloadSizes.getSnapshot();
+        final LatencyHistogram.Snapshot intervalPayloadSizes = currentPayloadSizes.minus(lastPayloadSizes);
+        final List<HeavyHitters.Entry> topMessages = topicsByMessages.getTopAndReset(top);
+        final List<HeavyHitters.Entry> topBytes = topicsByBytes.getTopAndReset(top);
+
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format("%s  messages %d (%.1f msg/s)  bytes %d (%.1f bytes/s)%n",
+                LocalTime.now().format(TIME_FORMATTER),
+                currentMessages, (currentMessages - lastMessages) / seconds,
+                currentBytes, (currentBytes - lastBytes) / seconds));
+        report.append(String.format("qos0 %d  qos1 %d  qos2 %d  retained %d%n",
+                messagesPerQos[0].sum(), messagesPerQos[1].sum(), messagesPerQos[2].sum(), retained.sum()));
+        report.append(String.format("payload size (bytes)  mean %.1f  p50 %d  p90 %d  p99 %d  max %d%n",
+                intervalPayloadSizes.getMean(),
+                intervalPayloadSizes.getValueAtQuantile(0.5),
+                intervalPayloadSizes.getValueAtQuantile(0.9),
+                intervalPayloadSizes.getValueAtQuantile(0.99),
+                currentPayloadSizes.getMax()));
+        appendTopics(report, "msg/s", topMessages, seconds);
+        appendTopics(report, "bytes/s", topBytes, seconds);
+
+        lastNanos = now;
+        lastMessages = currentMessages;
+        lastBytes = currentBytes;
+        lastPayloadSizes = currentPayloadSizes;
+
+        output.print(report);
+        output.flush();
+    }
+
+    private static void appendTopics(final @NotNull StringBuilder report,
+                                     final @NotNull String unit,
+                                     final @NotNull List<HeavyHitters.Entry> entries,
+                                     final double seconds) {
+        int topicWidth = "topic".length();
+        for (final HeavyHitters.Entry entry : entries) {
+            topicWidth = Math.max(topicWidth, Math.min(MAXIMUM_TOPIC_WIDTH, entry.getKey().length()));
+        }
+        final String format = "%-" + topicWidth + "s %12s%n";
+        report.append(String.format("%n" + format, "topic", unit));
+        for (final HeavyHitters.Entry entry : entries) {
+            report.append(String.format(format, abbreviate(entry.getKey()), String.format("%.1f", entry.getWeight() / seconds)));
+        }
+    }
+
+    private static @NotNull String abbreviate(final @NotNull String topic) {
+        if (topic.length() <= MAXIMUM_TOPIC_WIDTH) {
+            return topic;
+        }
+        return "..." + topic.substring(topic.length() - MAXIMUM_TOPIC_WIDTH + 3);
+    }
+}
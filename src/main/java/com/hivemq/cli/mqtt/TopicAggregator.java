@@ -0,0 +1,206 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.json.JsonNumberExtractor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates numeric fields of the received JSON payloads per topic in windows: count, min, max, average and the
+ * 95th percentile.
+ * <p>
+ * The values of a window are kept in a reservoir sample per topic and field, so the percentile is exact for up to
+ * {@value #RESERVOIR_SIZE} values per window and estimated from a uniform sample above. The reservoir starts small and
+ * doubles with the values up to that size, so topics with few values stay cheap. Topics without values in a window
+ * are dropped.
+ */
+public class TopicAggregator {
+
+    private static final int INITIAL_RESERVOIR_SIZE = 16;
+    private static final int RESERVOIR_SIZE = 1024;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final @NotNull JsonNumberExtractor extractor;
+    private final @NotNull ConcurrentHashMap<String, Aggregate[]> aggregates = new ConcurrentHashMap<>();
+    private final @NotNull LongAdder withoutFields = new LongAdder();
+
+    public TopicAggregator(final @NotNull JsonNumberExtractor extractor) {
+        this.extractor = extractor;
+    }
+
+    public void record(final @NotNull String topic, final @Nullable ByteBuffer payload) {
+        if (payload == null) {
+            withoutFields.increment();
+            return;
+        }
+        // The aggregates of a topic are only changed within the lock of its map entry
+        aggregates.compute(topic, (t, topicAggregates) -> {
+            final Aggregate[] current = topicAggregates != null ? topicAggregates : newAggregates();
+            final long countBefore = count(current);
+            extractor.extract(new InputStreamReader(new PayloadInputStream(payload.duplicate()), StandardCharsets.UTF_8),
+                    (field, value) -> current[field].add(value));
+            if (count(current) == countBefore) {
+                withoutFields.increment();
+                return topicAggregates;
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Prints the aggregates of the window since the previous report and starts the next window.
+     */
+    public synchronized void printReport(final @NotNull PrintStream output) {
+        final String time = LocalTime.now().format(TIME_FORMATTER);
+        final List<String> topics = new ArrayList<>(aggregates.keySet());
+        Collections.sort(topics);
+        final List<String> fields = extractor.getFields();
+        for (final String topic : topics) {
+            aggregates.computeIfPresent(topic, (t, topicAggregates) -> {
+                if (count(topicAggregates) == 0) {
+                    return null;
+                }
+                for (int field = 0; field < topicAggregates.length; field++) {
+                    final Aggregate aggregate = topicAggregates[field];
+                    if (aggregate.count > 0) {
+                        output.printf("%s  %s  %s  count %d  min %.3f  max %.3f  avg %.3f  p95 %.3f%n",
+                                time, topic, fields.get(field), aggregate.count, aggregate.min, aggregate.max,
+                                aggregate.sum / aggregate.count, aggregate.getPercentile(0.95));
+                    }
+                    aggregate.reset();
+                }
+                return topicAggregates;
+            });
+        }
+        final long currentWithoutFields = withoutFields.sumThenReset();
+        if (currentWithoutFields > 0) {
+            output.printf("%s  %d publishes without the fields %s%n", time, currentWithoutFields, fields);
+        }
+        output.flush();
+    }
+
+    private @NotNull Aggregate[] newAggregates() {
+        final Aggregate[] topicAggregates = new Aggregate[extractor.getFields().size()];
+        for (int i = 0; i < topicAggregates.length; i++) {
+            topicAggregates[i] = new Aggregate();
+        }
+        return topicAggregates;
+    }
+
+    private static long count(final @NotNull Aggregate[] topicAggregates) {
+        long count = 0;
+        for (final Aggregate aggregate : topicAggregates) {
+            count += aggregate.count;
+        }
+        return count;
+    }
+
+    private static class Aggregate {
+
+        private @NotNull double[] reservoir = new double[INITIAL_RESERVOIR_SIZE];
+        private long count;
+        private double min;
+        private double max;
+        private double sum;
+
+        private void add(final double value) {
+            if (count == 0) {
+                min = value;
+                max = value;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            sum += value;
+            count++;
+            if (count <= RESERVOIR_SIZE) {
+                if (count > reservoir.length) {
+                    reservoir = Arrays.copyOf(reservoir, Math.min(reservoir.length * 2, RESERVOIR_SIZE));
+                }
+                reservoir[(int) count - 1] = value;
+            } else {
+                final long index = ThreadLocalRandom.current().nextLong(count);
+                if (index < RESERVOIR_SIZE) {
+                    reservoir[(int) index] = value;
+                }
+            }
+        }
+
+        private double getPercentile(final double quantile) {
+            final double[] sorted = Arrays.copyOf(reservoir, (int) Math.min(count, RESERVOIR_SIZE));
+            Arrays.sort(sorted);
+            final int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        private void reset() {
+            count = 0;
+            sum = 0;
+        }
+    }
+
+    /**
+     * Reads the payload without copying it, so the extractor can stop before the end of large payloads.
+     */
+    private static class PayloadInputStream extends InputStream {
+
+        private final @NotNull ByteBuffer buffer;
+
+        PayloadInputStream(final @NotNull ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final @NotNull byte[] bytes, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits topic filters into as few SUBSCRIBE or UNSUBSCRIBE packets as the maximum packet size allows.
+ * <p>
+ * The topic filters can either be split at once with {@link #split} or be added one by one while they are streamed,
+ * e.g. from a file. In the latter case a batch is also completed when it reaches the maximum number of topic filters,
+ * so the first packets can be sent before all topic filters are read.
+ */
+class TopicFilterBatches {
+
+    static final int MAXIMUM_PACKET_SIZE = 268_435_460;
+
+    // the string length prefix and the subscription options byte
+    static final int SUBSCRIBE_TOPIC_FILTER_OVERHEAD = 2 + 1;
+    // the string length prefix
+    static final int UNSUBSCRIBE_TOPIC_FILTER_OVERHEAD = 2;
+
+    // packet type and the longest remaining length
+    private static final int FIXED_HEADER_SIZE = 1 + 4;
+    private static final int PACKET_IDENTIFIER_SIZE = 2;
+    private static final int PROPERTY_LENGTH_SIZE = 4;
+
+    private final int headerSize;
+    private final int topicFilterOverhead;
+    private final int maximumPacketSize;
+    private final int maximumTopicFilters;
+
+    private @NotNull List<String> batch = new ArrayList<>();
+    private long batchSize;
+
+    /**
+     * @param headerSize          the size of a packet without topic filters
+     * @param topicFilterOverhead the bytes which are added to every topic filter in the packet
+     * @param maximumPacketSize   the maximum size of a packet
+     * @param maximumTopicFilters the maximum number of topic filters of a packet
+     */
+    TopicFilterBatches(final int headerSize, final int topicFilterOverhead, final int maximumPacketSize, final int maximumTopicFilters) {
+        this.headerSize = headerSize;
+        this.topicFilterOverhead = topicFilterOverhead;
+        this.maximumPacketSize = maximumPacketSize;
+        this.maximumTopicFilters = maximumTopicFilters;
+        this.batchSize = headerSize;
+    }
+
+    /**
+     * @return the completed batch if the topic filter did not fit into it, else null
+     * @throws IllegalArgumentException if the topic filter does not fit into a packet at all
+     */
+    @Nullable List<String> add(final @NotNull String topicFilter) {
+        final int topicFilterSize = topicFilterOverhead + utf8Length(topicFilter);
+        checkSize(topicFilter, topicFilterSize, headerSize, maximumPacketSize);
+        List<String> completed = null;
+        if (batchSize + topicFilterSize > maximumPacketSize || batch.size() == maximumTopicFilters) {
+            completed = flush();
+        }
+        batch.add(topicFilter);
+        batchSize += topicFilterSize;
+        return completed;
+    }
+
+    /**
+     * @return the current batch or null if it is empty
+     */
+    @Nullable List<String> flush() {
+        if (batch.isEmpty()) {
+            return null;
+        }
+        final List<String> completed = batch;
+        batch = new ArrayList<>();
+        batchSize = headerSize;
+        return completed;
+    }
+
+    static int mqtt3HeaderSize() {
+        return FIXED_HEADER_SIZE + PACKET_IDENTIFIER_SIZE;
+    }
+
+    static int mqtt5HeaderSize(final int propertiesSize) {
+        return FIXED_HEADER_SIZE + PACKET_IDENTIFIER_SIZE + PROPERTY_LENGTH_SIZE + propertiesSize;
+    }
+
+    static int userPropertySize(final @NotNull String name, final @NotNull String value) {
+        return 1 + 2 + utf8Length(name) + 2 + utf8Length(value);
+    }
+
+    /**
+     * @param topicFilters      the topic filters in the order they are subscribed
+     * @param headerSize        the size of a SUBSCRIBE packet without topic filters
+     * @param maximumPacketSize the maximum size of a SUBSCRIBE packet
+     * @return the ranges of topic filter indexes (inclusive start, exclusive end) which fit into one SUBSCRIBE packet
+     * @throws IllegalArgumentException if a single topic filter does not fit into a SUBSCRIBE packet
+     */
+    static @NotNull List<int[]> split(final @NotNull String[] topicFilters, final int headerSize, final int maximumPacketSize) {
+        final List<int[]> ranges = new ArrayList<>();
+        int start = 0;
+        long size = headerSize;
+        for (int i = 0; i < topicFilters.length; i++) {
+            final int topicFilterSize = SUBSCRIBE_TOPIC_FILTER_OVERHEAD + utf8Length(topicFilters[i]);
+            checkSize(topicFilters[i], topicFilterSize, headerSize, maximumPacketSize);
+            if (size + topicFilterSize > maximumPacketSize) {
+                ranges.add(new int[]{start, i});
+                start = i;
+                size = headerSize;
+            }
+            size += topicFilterSize;
+        }
+        if (start < topicFilters.length) {
+            ranges.add(new int[]{start, topicFilters.length});
+        }
+        return ranges;
+    }
+
+    private static void checkSize(final @NotNull String topicFilter, final int topicFilterSize, final int headerSize, final int maximumPacketSize) {
+        if (headerSize + topicFilterSize > maximumPacketSize) {
+            throw new IllegalArgumentException("Topic filter '" + topicFilter + "' exceeds the maximum packet size of " + maximumPacketSize + " bytes");
+        }
+    }
+
+    private static int utf8Length(final @NotNull String string) {
+        return string.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
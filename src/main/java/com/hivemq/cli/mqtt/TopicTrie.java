@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Maps MQTT topic filters to values, so all values of the filters matching a topic are found by walking the levels
+ * of the topic instead of comparing the topic with every filter.
+ * <p>
+ * The single level (+) and multi level (#) wildcards are child nodes of their own. Following the MQTT specification,
+ * wildcards at the first level do not match topics starting with '$', and '#' also matches its parent level. Shared
+ * subscription filters ($share/group/filter) are matched by the filter without the share prefix, as the
+ * publishes carry the original topic. The values are still kept per original filter, so removing a shared filter
+ * does not remove the values of the plain filter or of another share group on the same node.
+ * <p>
+ * Matching does not lock and may run concurrently with modifications.
+ */
+public class TopicTrie<V> {
+
+    private static final String SHARE_PREFIX = "$share/";
+    private static final String SINGLE_LEVEL_WILDCARD = "+";
+    private static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private final @NotNull Node<V> root = new Node<>();
+
+    /**
+     * @return true if the value was not yet stored for the topic filter
+     */
+    public synchronized boolean add(final @NotNull String topicFilter, final @NotNull V value) {
+        Node<V> node = root;
+        for (final String level : levels(topicFilter)) {
+            node = node.children.computeIfAbsent(level, l -> new Node<>());
+        }
+        return node.values.computeIfAbsent(topicFilter, f -> ConcurrentHashMap.newKeySet()).add(value);
+    }
+
+    /**
+     * @return true if the value was stored for the topic filter
+     */
+    public synchronized boolean remove(final @NotNull String topicFilter, final @NotNull V value) {
+        final Node<V> node = find(topicFilter);
+        final Set<V> values = node != null ? node.values.get(topicFilter) : null;
+        if (values == null || !values.remove(value)) {
+            return false;
+        }
+        if (values.isEmpty()) {
+            node.values.remove(topicFilter);
+        }
+        prune(topicFilter);
+        return true;
+    }
+
+    /**
+     * Removes the topic filter with all its values.
+     *
+     * @return the values that were stored for the topic filter
+     */
+    public synchronized @NotNull Set<V> removeAll(final @NotNull String topicFilter) {
+        final Node<V> node = find(topicFilter);
+        final Set<V> values = node != null ? node.values.remove(topicFilter) : null;
+        if (values == null) {
+            return Collections.emptySet();
+        }
+        prune(topicFilter);
+        return new HashSet<>(values);
+    }
+
+    public synchronized void clear() {
+        root.children.clear();
+        root.values.clear();
+    }
+
+    public boolean isEmpty() {
+        return root.children.isEmpty() && root.values.isEmpty();
+    }
+
+    /**
+     * Passes every value of the topic filters matching the topic to the consumer. A value stored for several matching
+     * topic filters is passed once for every filter.
+     */
+    public void match(final @NotNull String topic, final @NotNull Consumer<V> consumer) {
+        final String[] levels = topic.split("/", -1);
+        match(root, levels, 0, !topic.startsWith("$"), consumer);
+    }
+
+    /**
+     * @return the distinct values of all topic filters matching the topic
+     */
+    public @NotNull Set<V> match(final @NotNull String topic) {
+        final Set<V> matches = new HashSet<>();
+        match(topic, matches::add);
+        return matches;
+    }
+
+    private static <V> void match(final @NotNull Node<V> node,
+                                  final @NotNull String[] levels,
+                                  final int index,
+                                  final boolean wildcardsAllowed,
+                                  final @NotNull Consumer<V> consumer) {
+
+        if (wildcardsAllowed) {
+            final Node<V> multiLevel = node.children.get(MULTI_LEVEL_WILDCARD);
+            if (multiLevel != null) {
+                multiLevel.forEachValue(consumer);
+            }
+        }
+        if (index == levels.length) {
+            node.forEachValue(consumer);
+            return;
+        }
+        if (wildcardsAllowed) {
+            final Node<V> singleLevel = node.children.get(SINGLE_LEVEL_WILDCARD);
+            if (singleLevel != null) {
+                match(singleLevel, levels, index + 1, true, consumer);
+            }
+        }
+        final Node<V> child = node.children.get(levels[index]);
+        if (child != null) {
+            match(child, levels, index + 1, true, consumer);
+        }
+    }
+
+    private @Nullable Node<V> find(final @NotNull String topicFilter) {
+        Node<V> node = root;
+        for (final String level : levels(topicFilter)) {
+            node = node.children.get(level);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Removes the nodes of the topic filter that have neither values nor children anymore, starting at the leaf.
+     */
+    private void prune(final @NotNull String topicFilter) {
+        final String[] levels = levels(topicFilter);
+        for (int depth = levels.length; depth > 0; depth--) {
+            Node<V> parent = root;
+            for (int i = 0; i < depth - 1; i++) {
+                parent = parent.children.get(levels[i]);
+            }
+            final Node<V> node = parent.children.get(levels[depth - 1]);
+            if (!node.values.isEmpty() || !node.children.isEmpty()) {
+                return;
+            }
+            parent.children.remove(levels[depth - 1]);
+        }
+    }
+
+    private static @NotNull String[] levels(final @NotNull String topicFilter) {
+        if (topicFilter.startsWith(SHARE_PREFIX)) {
+            final int filterStart = topicFilter.indexOf('/', SHARE_PREFIX.length());
+            if (filterStart != -1) {
+                return topicFilter.substring(filterStart + 1).split("/", -1);
+            }
+        }
+        return topicFilter.split("/", -1);
+    }
+
+    private static class Node<V> {
+        private final @NotNull Map<String, Node<V>> children = new ConcurrentHashMap<>();
+        // The values by the original topic filter, which may carry a share prefix
+        private final @NotNull Map<String, Set<V>> values = new ConcurrentHashMap<>();
+
+        private void forEachValue(final @NotNull Consumer<V> consumer) {
+            for (final Set<V> filterValues : values.values()) {
+                filterValues.forEach(consumer);
+            }
+        }
+    }
+}
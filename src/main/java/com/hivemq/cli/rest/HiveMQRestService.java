@@ -19,12 +19,21 @@ package com.hivemq.cli.rest;
 import com.hivemq.cli.openapi.ApiCallback;
 import com.hivemq.cli.openapi.ApiClient;
 import com.hivemq.cli.openapi.ApiException;
-import com.hivemq.cli.openapi.Configuration;
+import com.hivemq.cli.openapi.hivemq.BackupItem;
+import com.hivemq.cli.openapi.hivemq.BackupList;
+import com.hivemq.cli.openapi.hivemq.BackupRestoreApi;
 import com.hivemq.cli.openapi.hivemq.ClientItem;
 import com.hivemq.cli.openapi.hivemq.ClientList;
 import com.hivemq.cli.openapi.hivemq.MqttClientsApi;
+import com.hivemq.cli.openapi.hivemq.TraceRecording;
+import com.hivemq.cli.openapi.hivemq.TraceRecordingItem;
+import com.hivemq.cli.openapi.hivemq.TraceRecordingList;
+import com.hivemq.cli.openapi.hivemq.TraceRecordingsApi;
+import com.hivemq.cli.utils.CryptoUtils;
 import okhttp3.Call;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -34,17 +43,33 @@ public class HiveMQRestService {
 
     private final @NotNull ApiClient apiClient;
     private final @NotNull MqttClientsApi clientsApi;
+    private final @NotNull BackupRestoreApi backupApi;
+    private final @NotNull TraceRecordingsApi traceRecordingsApi;
 
     private static final long CONNECT_TIMEOUT = 60;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 100;
 
     public HiveMQRestService(final @NotNull String host, final double requestPerSecondLimit) {
-        final OkHttpClient okHttpClient = buildOkHttpClient(requestPerSecondLimit);
+        this(host, requestPerSecondLimit, DEFAULT_MAX_CONCURRENT_REQUESTS);
+    }
 
-        apiClient = Configuration.getDefaultApiClient();
+    public HiveMQRestService(final @NotNull String host,
+                             final double requestPerSecondLimit,
+                             final int maxConcurrentRequests) {
+        if (host.regionMatches(true, 0, "https", 0, 5)) {
+            CryptoUtils.initCryptoPolicy();
+        }
+        final OkHttpClient okHttpClient = buildOkHttpClient(requestPerSecondLimit, maxConcurrentRequests);
+
+        // Every service gets its own api client, as the default one is shared and would be re-targeted
+        // by every further service that is created for another cluster node
+        apiClient = new ApiClient();
         apiClient.setHttpClient(okHttpClient);
         apiClient.setBasePath(host);
 
         clientsApi = new MqttClientsApi(apiClient);
+        backupApi = new BackupRestoreApi(apiClient);
+        traceRecordingsApi = new TraceRecordingsApi(apiClient);
     }
 
 
@@ -59,12 +84,67 @@ public class HiveMQRestService {
     }
 
 
+    public @NotNull BackupItem createBackup() throws ApiException {
+        return backupApi.createBackup();
+    }
+
+    public @NotNull BackupList getAllBackups() throws ApiException {
+        return backupApi.getAllBackups();
+    }
+
+    public @NotNull BackupItem getBackup(final @NotNull String backupId) throws ApiException {
+        return backupApi.getBackup(backupId);
+    }
+
+    /**
+     * The generated api materializes binary responses into a temporary file,
+     * so the download call is built directly to be able to stream the body and to request a byte range.
+     */
+    public @NotNull Call downloadBackupFile(final @NotNull String backupId, final long offset) {
+        return downloadFile("/api/v1/management/files/backups/" + apiClient.escapeString(backupId), offset);
+    }
+
+    public @NotNull TraceRecordingItem createTraceRecording(final @NotNull TraceRecording traceRecording) throws ApiException {
+        return traceRecordingsApi.createTraceRecording(new TraceRecordingItem().traceRecording(traceRecording));
+    }
+
+    public @NotNull TraceRecordingItem stopTraceRecording(final @NotNull String traceRecordingId) throws ApiException {
+        final TraceRecording stopped = new TraceRecording().state(TraceRecording.StateEnum.STOPPED);
+        return traceRecordingsApi.stopTraceRecording(traceRecordingId, new TraceRecordingItem().traceRecording(stopped));
+    }
+
+    public @NotNull TraceRecordingList getAllTraceRecordings() throws ApiException {
+        return traceRecordingsApi.getAllTraceRecordings();
+    }
+
+    public @NotNull Call downloadTraceRecordingFile(final @NotNull String traceRecordingId, final long offset) {
+        return downloadFile("/api/v1/management/files/trace-recordings/" + apiClient.escapeString(traceRecordingId), offset);
+    }
+
+    private @NotNull Call downloadFile(final @NotNull String path, final long offset) {
+        final Request.Builder requestBuilder = new Request.Builder()
+                .url(apiClient.getBasePath() + path)
+                .get();
+        if (offset > 0) {
+            requestBuilder.header("Range", "bytes=" + offset + "-");
+        }
+        return apiClient.getHttpClient().newCall(requestBuilder.build());
+    }
+
     public @NotNull ApiClient getApiClient() { return apiClient; }
 
     public @NotNull  MqttClientsApi getClientsApi() { return clientsApi; }
 
-    private @NotNull OkHttpClient buildOkHttpClient(final double requestsPerSecondLimit) {
+    public @NotNull String getHost() { return apiClient.getBasePath(); }
+
+    private @NotNull OkHttpClient buildOkHttpClient(final double requestsPerSecondLimit, final int maxConcurrentRequests) {
+        // The dispatcher limits the concurrent asynchronous calls to 5 per host by default
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConcurrentRequests);
+        dispatcher.setMaxRequestsPerHost(maxConcurrentRequests);
+
         return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
                 .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
                 .addInterceptor(new RateLimitInterceptor(requestsPerSecondLimit))
                 .build();
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.rest;
+
+import com.google.common.io.BaseEncoding;
+import com.hivemq.cli.openapi.ApiException;
+import okhttp3.Call;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tinylog.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streams a file from the HiveMQ REST API directly to disk.
+ * <p>
+ * The content is written to a '.part' file next to the target file. If the connection breaks, the download is resumed
+ * from the size of the '.part' file with a HTTP range request, which also works across separate CLI invocations.
+ * The SHA-256 checksum is calculated while the content is written, so the file never has to be held in memory.
+ * The '.part' file is only moved to the target file when its size and checksum were verified.
+ */
+public class ResumableFileDownloader {
+
+    public static final String PART_FILE_SUFFIX = ".part";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long INITIAL_RETRY_DELAY = 500;
+    private static final long MAX_RETRY_DELAY = 30_000;
+    private static final Pattern CONTENT_RANGE_PATTERN = Pattern.compile("bytes (\\d+|\\*)(?:-\\d+)?/(\\d+|\\*)");
+
+    private final @NotNull LongFunction<Call> downloadCallSupplier;
+    private final @NotNull File file;
+    private final @NotNull Path partFile;
+    private final int maxRetries;
+    private final @NotNull MessageDigest digest;
+
+    private final @NotNull AtomicLong downloadedBytes = new AtomicLong(0);
+    private volatile long totalBytes = -1;
+    private long digestedBytes = 0;
+
+    /**
+     * @param downloadCallSupplier creates the download call for the given byte offset
+     * @param file                 the file to download to
+     * @param maxRetries           the number of times a broken download is resumed before giving up
+     */
+    public ResumableFileDownloader(final @NotNull LongFunction<Call> downloadCallSupplier,
+                                   final @NotNull File file,
+                                   final int maxRetries) {
+        this.downloadCallSupplier = downloadCallSupplier;
+        this.file = file;
+        this.partFile = Paths.get(file.getPath() + PART_FILE_SUFFIX);
+        this.maxRetries = maxRetries;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    /**
+     * Downloads the file, resuming a partial download if one exists.
+     *
+     * @return the lower case hex encoded SHA-256 checksum of the downloaded file
+     * @throws ApiException if the REST API answers with a client error
+     * @throws IOException  if the download still fails after all retries
+     */
+    public @NotNull String download() throws ApiException, IOException, InterruptedException {
+        return download(-1, null);
+    }
+
+    /**
+     * Downloads the file like {@link #download()} and verifies it before it is moved to the target file.
+     *
+     * @param expectedBytes    the size of the complete file or -1 if it is not known
+     * @param expectedChecksum the hex encoded SHA-256 checksum of the complete file or null if it is not known
+     * @return the lower case hex encoded SHA-256 checksum of the downloaded file
+     * @throws VerificationException if the downloaded file does not have the expected size or checksum, the '.part'
+     *                               file is deleted then, as resuming the download would lead to the same content
+     */
+    public @NotNull String download(final long expectedBytes, final @Nullable String expectedChecksum)
+            throws ApiException, IOException, InterruptedException {
+        int attempt = 0;
+        while (true) {
+            try {
+                downloadToPartFile();
+                break;
+            } catch (final ApiException apiException) {
+                if (apiException.getCode() < 500 || attempt >= maxRetries) {
+                    throw apiException;
+                }
+                attempt++;
+                Logger.warn("Download of {} failed with status {}, retrying ({}/{})", file, apiException.getCode(), attempt, maxRetries);
+            } catch (final IOException ioException) {
+                if (attempt >= maxRetries) {
+                    throw ioException;
+                }
+                attempt++;
+                Logger.warn(ioException, "Download of {} was interrupted, resuming ({}/{})", file, attempt, maxRetries);
+            }
+            Thread.sleep(Math.min(MAX_RETRY_DELAY, INITIAL_RETRY_DELAY << Math.min(attempt, 10)));
+        }
+
+        final String checksum = BaseEncoding.base16().lowerCase().encode(digest.digest());
+        final long bytes = downloadedBytes.get();
+        if (expectedBytes >= 0 && bytes != expectedBytes) {
+            restartFromBeginning();
+            throw new VerificationException("Downloaded " + bytes + " bytes but " + file + " has " + expectedBytes + " bytes");
+        }
+        if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+            restartFromBeginning();
+            throw new VerificationException("Checksum mismatch for " + file + ": expected " + expectedChecksum + " but was " + checksum);
+        }
+
+        moveToTarget();
+
+        return checksum;
+    }
+
+    public long getDownloadedBytes() {
+        return downloadedBytes.get();
+    }
+
+    /**
+     * @return the size of the complete file or -1 if the REST API did not send it (yet)
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void downloadToPartFile() throws ApiException, IOException {
+        long offset = Files.exists(partFile) ? Files.size(partFile) : 0;
+        if (offset != digestedBytes) {
+            // The part file stems from an earlier invocation or a failed write, so its checksum has to be rebuilt
+            digestPartFile();
+        }
+        downloadedBytes.set(offset);
+
+        try (final Response response = downloadCallSupplier.apply(offset).execute()) {
+            final ResponseBody body = response.body();
+            if (body == null) {
+                throw new IOException("Download response of " + file + " contained no body");
+            }
+
+            if (response.code() == 416) {
+                // The part file already contains the whole file
+                final long completeSize = parseContentRangeTotal(response.header("Content-Range"));
+                if (completeSize == offset) {
+                    totalBytes = completeSize;
+                    return;
+                }
+                restartFromBeginning();
+                throw new IOException("Requested range of " + file + " is not available, restarting download");
+            }
+
+            if (!response.isSuccessful()) {
+                throw new ApiException(response.message(), response.code(), response.headers().toMultimap(), body.string());
+            }
+
+            if (response.code() == 206 && parseContentRangeStart(response.header("Content-Range")) == offset) {
+                final long completeSize = parseContentRangeTotal(response.header("Content-Range"));
+                if (completeSize >= 0) {
+                    totalBytes = completeSize;
+                } else {
+                    totalBytes = body.contentLength() >= 0 ? offset + body.contentLength() : -1;
+                }
+            } else {
+                // No range was requested or the REST API ignored it and sends the complete file
+                offset = restartFromBeginning();
+                totalBytes = body.contentLength();
+            }
+
+            try (final ReadableByteChannel source = Channels.newChannel(body.byteStream());
+                 final FileChannel target = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+
+                target.position(offset);
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                int read;
+                while ((read = source.read(buffer)) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.rewind();
+                    digest.update(buffer);
+                    digestedBytes += read;
+                    downloadedBytes.addAndGet(read);
+                    buffer.clear();
+                }
+                target.force(false);
+            }
+        }
+
+        if (totalBytes >= 0 && downloadedBytes.get() != totalBytes) {
+            throw new IOException("Download of " + file + " ended after " + downloadedBytes.get() + " of " + totalBytes + " bytes");
+        }
+    }
+
+    private long restartFromBeginning() throws IOException {
+        Files.deleteIfExists(partFile);
+        digest.reset();
+        digestedBytes = 0;
+        downloadedBytes.set(0);
+        return 0;
+    }
+
+    private void digestPartFile() throws IOException {
+        digest.reset();
+        digestedBytes = 0;
+        if (!Files.exists(partFile)) {
+            return;
+        }
+        Logger.debug("Resuming download of {} from existing part file {}", file, partFile);
+        try (final FileChannel channel = FileChannel.open(partFile, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                digestedBytes += read;
+                buffer.clear();
+            }
+        }
+    }
+
+    private void moveToTarget() throws IOException {
+        if (!Files.exists(partFile)) {
+            // An empty download never opened the part file
+            Files.createFile(partFile);
+        }
+        try {
+            Files.move(partFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException ex) {
+            Files.move(partFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long parseContentRangeStart(final String contentRange) {
+        if (contentRange != null) {
+            final Matcher matcher = CONTENT_RANGE_PATTERN.matcher(contentRange);
+            if (matcher.matches() && !matcher.group(1).equals("*")) {
+                return Long.parseLong(matcher.group(1));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The downloaded file did not match the expected size or checksum, neither the target file nor the '.part' file exist.
+     */
+    public static class VerificationException extends IOException {
+
+        VerificationException(final @NotNull String message) {
+            super(message);
+        }
+    }
+
+    private static long parseContentRangeTotal(final String contentRange) {
+        if (contentRange != null) {
+            final Matcher matcher = CONTENT_RANGE_PATTERN.matcher(contentRange);
+            if (matcher.matches() && !matcher.group(2).equals("*")) {
+                return Long.parseLong(matcher.group(2));
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.security.Security;
+
+/**
+ * Prepares the JCA only when a command actually needs TLS or key parsing,
+ * so invocations without any crypto options do not pay for it at startup.
+ */
+public class CryptoUtils {
+
+    private static boolean cryptoPolicyInitialized = false;
+    private static boolean bouncyCastleInitialized = false;
+
+    /**
+     * Has to be called before the first cipher is created.
+     */
+    public static synchronized void initCryptoPolicy() {
+        if (!cryptoPolicyInitialized) {
+            Security.setProperty("crypto.policy", "unlimited");
+            cryptoPolicyInitialized = true;
+        }
+    }
+
+    public static synchronized void initBouncyCastle() {
+        initCryptoPolicy();
+        if (!bouncyCastleInitialized) {
+            Security.addProvider(new BouncyCastleProvider());
+            bouncyCastleInitialized = true;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the 64 bit keys added within a time window, bounded by a maximum number of keys.
+ * <p>
+ * The keys are kept in insertion order in a ring and are indexed by an open addressing table with linear probing,
+ * so neither adding nor evicting a key allocates. When the ring is full or its oldest key is older than the window,
+ * the oldest key is evicted and removed from the table by shifting the following entries back.
+ */
+public class DeduplicationCache {
+
+    private static final int EMPTY = -1;
+
+    private final @NotNull long[] keys;
+    private final @NotNull long[] times;
+    private final @NotNull int[] table;
+    private final int mask;
+    private final long windowNanos;
+    private int head;
+    private int size;
+
+    /**
+     * @param capacity    the maximum number of remembered keys
+     * @param windowNanos the time a key is remembered, 0 to evict keys only when the capacity is reached
+     */
+    public DeduplicationCache(final int capacity, final long windowNanos) {
+        if (capacity < 1 || capacity > (1 << 29)) {
+            throw new IllegalArgumentException("The capacity must be between 1 and " + (1 << 29) + " but was " + capacity);
+        }
+        keys = new long[capacity];
+        times = new long[capacity];
+        // At most half of the table is used, so the probe sequences stay short
+        int tableSize = 2;
+        while (tableSize < capacity * 2) {
+            tableSize <<= 1;
+        }
+        table = new int[tableSize];
+        Arrays.fill(table, EMPTY);
+        mask = tableSize - 1;
+        this.windowNanos = windowNanos;
+    }
+
+    /**
+     * @param nowNanos the current time as returned by {@link System#nanoTime()}
+     * @return true if the key was added, false if it was already added within the window
+     */
+    public synchronized boolean add(final long key, final long nowNanos) {
+        if (windowNanos > 0) {
+            while (size > 0 && nowNanos - times[head] > windowNanos) {
+                evictOldest();
+            }
+        }
+        if (find(key) != EMPTY) {
+            return false;
+        }
+        if (size == keys.length) {
+            evictOldest();
+        }
+        int index = head + size;
+        if (index >= keys.length) {
+            index -= keys.length;
+        }
+        keys[index] = key;
+        times[index] = nowNanos;
+        size++;
+
+        int slot = home(key);
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index;
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void evictOldest() {
+        remove(find(keys[head]));
+        head = head + 1 == keys.length ? 0 : head + 1;
+        size--;
+    }
+
+    /**
+     * @return the table slot of the key or {@link #EMPTY}
+     */
+    private int find(final long key) {
+        int slot = home(key);
+        while (table[slot] != EMPTY) {
+            if (keys[table[slot]] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    private void remove(final int slot) {
+        int hole = slot;
+        int next = (slot + 1) & mask;
+        while (table[next] != EMPTY) {
+            // An entry may only move back if the hole is not before its home slot
+            final int home = home(keys[table[next]]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[hole] = EMPTY;
+    }
+
+    private int home(final long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the keys with the highest weights in a stream with the Space-Saving algorithm, using a fixed amount of
+ * memory no matter how many distinct keys are added.
+ * <p>
+ * Every key is counted in one of several stripes chosen by its hash, so concurrent adds of different keys rarely
+ * wait for each other. Each stripe keeps its counters in a min heap: a key which is not counted yet replaces the
+ * key with the lowest weight and inherits its weight as error. A key whose weight exceeds
+ * (total weight of its stripe / counters per stripe) is always among the counted keys.
+ */
+public class HeavyHitters {
+
+    private final @NotNull Stripe[] stripes;
+
+    /**
+     * @param capacity    the total number of counted keys
+     * @param stripeCount the number of stripes, rounded up to a power of two
+     */
+    public HeavyHitters(final int capacity, final int stripeCount) {
+        int stripesPowerOfTwo = 1;
+        while (stripesPowerOfTwo < stripeCount) {
+            stripesPowerOfTwo <<= 1;
+        }
+        final int stripeCapacity = Math.max(1, (capacity + stripesPowerOfTwo - 1) / stripesPowerOfTwo);
+        stripes = new Stripe[stripesPowerOfTwo];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+    public void add(final @NotNull String key, final long weight) {
+        final int hash = key.hashCode();
+        stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)].add(key, weight);
+    }
+
+    /**
+     * @return the counted keys with the highest weights, highest first
+     */
+    public @NotNull List<Entry> getTop(final int n) {
+        return getTop(n, false);
+    }
+
+    /**
+     * Returns the counted keys with the highest weights and starts counting from zero, so every call describes the
+     * keys added since the previous call.
+     */
+    public @NotNull List<Entry> getTopAndReset(final int n) {
+        return getTop(n, true);
+    }
+
+    private @NotNull List<Entry> getTop(final int n, final boolean reset) {
+        final List<Entry> entries = new ArrayList<>();
+        for (final Stripe stripe : stripes) {
+            stripe.collect(entries, reset);
+        }
+        entries.sort(Comparator.comparingLong(Entry::getWeight).reversed().thenComparing(Entry::getKey));
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    public static class Entry {
+
+        private final @NotNull String key;
+        private final long weight;
+        private final long error;
+
+        private Entry(final @NotNull String key, final long weight, final long error) {
+            this.key = key;
+            this.weight = weight;
+            this.error = error;
+        }
+
+        public @NotNull String getKey() {
+            return key;
+        }
+
+        /**
+         * @return the counted weight, which overestimates the real weight by at most {@link #getError()}
+         */
+        public long getWeight() {
+            return weight;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "key=" + key +
+                    ", weight=" + weight +
+                    ", error=" + error +
+                    '}';
+        }
+    }
+
+    private static class Counter {
+        private @NotNull String key;
+        private long weight;
+        private long error;
+        private int heapIndex;
+
+        private Counter(final @NotNull String key, final long weight, final int heapIndex) {
+            this.key = key;
+            this.weight = weight;
+            this.heapIndex = heapIndex;
+        }
+    }
+
+    private static class Stripe {
+
+        private final @NotNull Map<String, Counter> counters;
+        private final @NotNull Counter[] heap;
+        private int size;
+
+        private Stripe(final int capacity) {
+            counters = new HashMap<>(capacity * 2);
+            heap = new Counter[capacity];
+        }
+
+        private synchronized void add(final @NotNull String key, final long weight) {
+            final Counter counter = counters.get(key);
+            if (counter != null) {
+                counter.weight += weight;
+                siftDown(counter.heapIndex);
+            } else if (size < heap.length) {
+                final Counter added = new Counter(key, weight, size);
+                heap[size++] = added;
+                counters.put(key, added);
+                siftUp(added.heapIndex);
+            } else {
+                final Counter minimum = heap[0];
+                counters.remove(minimum.key);
+                minimum.key = key;
+                minimum.error = minimum.weight;
+                minimum.weight += weight;
+                counters.put(key, minimum);
+                siftDown(0);
+            }
+        }
+
+        private synchronized void collect(final @NotNull List<Entry> entries, final boolean reset) {
+            for (int i = 0; i < size; i++) {
+                entries.add(new Entry(heap[i].key, heap[i].weight, heap[i].error));
+            }
+            if (reset) {
+                counters.clear();
+                for (int i = 0; i < size; i++) {
+                    heap[i] = null;
+                }
+                size = 0;
+            }
+        }
+
+        private void siftUp(int index) {
+            final Counter counter = heap[index];
+            while (index > 0) {
+                final int parent = (index - 1) >>> 1;
+                if (heap[parent].weight <= counter.weight) {
+                    break;
+                }
+                place(heap[parent], index);
+                index = parent;
+            }
+            place(counter, index);
+        }
+
+        private void siftDown(int index) {
+            final Counter counter = heap[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1].weight < heap[child].weight) {
+                    child++;
+                }
+                if (counter.weight <= heap[child].weight) {
+                    break;
+                }
+                place(heap[child], index);
+                index = child;
+            }
+            place(counter, index);
+        }
+
+        private void place(final @NotNull Counter counter, final int index) {
+            heap[index] = counter;
+            counter.heapIndex = index;
+        }
+    }
+}
@@ -16,24 +16,27 @@
  */
 package com.hivemq.cli.utils;
 
-import org.bouncycastle.util.encoders.Base64;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.io.PrintWriter;
+import java.util.Base64;
 
 public class MqttPublishUtils {
 
     public static String formatPayload(final byte[] payload, final boolean isBase64) {
         if (isBase64) {
-            return Base64.toBase64String(payload);
+            return Base64.getEncoder().encodeToString(payload);
         }
         else {
             return new String(payload);
         }
     }
 
-    public static void printToFile(final @NotNull File publishFile, final @NotNull String message) {
+    /**
+     * Synchronized, so the lines of the consumers of a shared subscription group writing to the same file do not interleave.
+     */
+    public static synchronized void printToFile(final @NotNull File publishFile, final @NotNull String message) {
         final PrintWriter fileWriter = FileUtils.createFileAppender(publishFile);
         fileWriter.println(message);
         fileWriter.flush();
@@ -22,11 +22,13 @@ import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedReader;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class MqttUtils {
 
@@ -51,6 +53,26 @@ public class MqttUtils {
         throw new IllegalArgumentException("Topics do not match up to the QoS given. Topics Size {" + topics.length + "}, QoS Size {" + qos.length + "}");
     }
 
+    /**
+     * @return the shared subscription topic filter, so the broker distributes the publishes among the clients of the group
+     * @throws IllegalArgumentException if the group name is empty or contains '/', '+' or '#'
+     */
+    public static @NotNull String toSharedTopicFilter(final @NotNull String group, final @NotNull String topicFilter) {
+        if (group.isEmpty() || group.indexOf('/') != -1 || group.indexOf('+') != -1 || group.indexOf('#') != -1) {
+            throw new IllegalArgumentException("The shared subscription group '" + group + "' must not be empty or contain '/', '+' or '#'");
+        }
+        return "$share/" + group + "/" + topicFilter;
+    }
+
+    /**
+     * Reads the topic filters of a topic file lazily, one per line. Surrounding whitespace and empty lines are ignored.
+     */
+    public static @NotNull Stream<String> readTopicFilters(final @NotNull BufferedReader reader) {
+        return reader.lines()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty());
+    }
+
     public static @Nullable Mqtt5UserProperties convertToMqtt5UserProperties(final @Nullable Mqtt5UserProperty... userProperties) {
         if (userProperties == null) {
             return null;
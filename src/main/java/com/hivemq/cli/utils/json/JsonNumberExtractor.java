@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the numeric values of several fields of a JSON document in one pass, e.g. {@code temperature} or
+ * {@code $.sensor.values[0]}.
+ * <p>
+ * The fields are kept in a tree of their path segments. The document is read with a streaming reader which only
+ * descends into the objects and arrays on the path of a field, skips everything else and stops as soon as all fields
+ * were found, so no tree of the document is built.
+ */
+public class JsonNumberExtractor {
+
+    private static final Pattern FIELD_PATTERN = Pattern.compile("\\$((?:\\.[^.\\[\\s]+|\\[\\d+])*)");
+
+    @FunctionalInterface
+    public interface ValueConsumer {
+
+        /**
+         * @param field the index of the field in the list of fields
+         */
+        void accept(int field, double value);
+    }
+
+    private final @NotNull List<String> fields;
+    private final @NotNull Node root = new Node();
+
+    private JsonNumberExtractor(final @NotNull List<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @param fields paths made of '.name' and '[index]' segments, optionally starting with '$', e.g. 'a.b[0]'
+     * @throws IllegalArgumentException if a field is not a valid path
+     */
+    public static @NotNull JsonNumberExtractor of(final @NotNull List<String> fields) {
+        final JsonNumberExtractor extractor = new JsonNumberExtractor(Collections.unmodifiableList(new ArrayList<>(fields)));
+        for (int i = 0; i < fields.size(); i++) {
+            final String field = fields.get(i);
+            final Matcher matcher = FIELD_PATTERN.matcher(field.startsWith("$") ? field : "$." + field);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("'" + field + "' is not a field path like a.b[0]");
+            }
+            Node node = extractor.root;
+            for (final Object segment : JsonPathPredicate.parseSegments(matcher.group(1))) {
+                node = segment instanceof String ?
+                        node.names.computeIfAbsent((String) segment, name -> new Node()) :
+                        node.indexes.computeIfAbsent((Integer) segment, index -> new Node());
+            }
+            node.fields.add(i);
+        }
+        return extractor;
+    }
+
+    public @NotNull List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Passes the value of every field which is a number or a string containing a number to the consumer.
+     * Values of an invalid document are passed until the first error.
+     */
+    public void extract(final @NotNull String json, final @NotNull ValueConsumer consumer) {
+        extract(new StringReader(json), consumer);
+    }
+
+    /**
+     * Passes the value of every field which is a number or a string containing a number to the consumer.
+     * Values of an invalid document are passed until the first error.
+     */
+    public void extract(final @NotNull Reader json, final @NotNull ValueConsumer consumer) {
+        try {
+            scan(new JsonReader(json), root, consumer, new int[]{fields.size()});
+        } catch (final IOException | IllegalStateException ignored) {
+        }
+    }
+
+    /**
+     * @param remaining the number of fields which were not found yet
+     * @return true if all fields were found, so the rest of the document can be skipped
+     */
+    private boolean scan(final @NotNull JsonReader reader,
+                         final @NotNull Node node,
+                         final @NotNull ValueConsumer consumer,
+                         final @NotNull int[] remaining) throws IOException {
+
+        final JsonToken token = reader.peek();
+        if (!node.fields.isEmpty() && (token == JsonToken.NUMBER || token == JsonToken.STRING)) {
+            final double value;
+            try {
+                value = reader.nextDouble();
+            } catch (final NumberFormatException ex) {
+                reader.skipValue();
+                return false;
+            }
+            for (final int field : node.fields) {
+                consumer.accept(field, value);
+            }
+            remaining[0] -= node.fields.size();
+            return remaining[0] <= 0;
+        }
+        if (token == JsonToken.BEGIN_OBJECT && !node.names.isEmpty()) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final Node child = node.names.get(reader.nextName());
+                if (child == null) {
+                    reader.skipValue();
+                } else if (scan(reader, child, consumer, remaining)) {
+                    return true;
+                }
+            }
+            reader.endObject();
+            return false;
+        }
+        if (token == JsonToken.BEGIN_ARRAY && !node.indexes.isEmpty()) {
+            reader.beginArray();
+            for (int index = 0; reader.hasNext(); index++) {
+                final Node child = node.indexes.get(index);
+                if (child == null) {
+                    reader.skipValue();
+                } else if (scan(reader, child, consumer, remaining)) {
+                    return true;
+                }
+            }
+            reader.endArray();
+            return false;
+        }
+        reader.skipValue();
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+
+    private static class Node {
+
+        private final @NotNull Map<String, Node> names = new HashMap<>();
+        private final @NotNull Map<Integer, Node> indexes = new HashMap<>();
+        private final @NotNull List<Integer> fields = new ArrayList<>(1);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A predicate on a single value of a JSON document, written as a simple JSONPath expression like
+ * {@code $.sensor.values[0] > 20.5}, {@code $.state == 'on'} or {@code $.alarm} (the value exists).
+ * <p>
+ * The document is read with a streaming reader which skips everything outside the path and stops at the value,
+ * so no tree of the document is built.
+ */
+public class JsonPathPredicate {
+
+    private static final Pattern EXPRESSION_PATTERN =
+            Pattern.compile("\\s*\\$((?:\\.[^.\\[\\s=!<>]+|\\[\\d+])*)\\s*(?:(==|!=|<=|>=|<|>)\\s*(.+?))?\\s*");
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("\\.([^.\\[]+)|\\[(\\d+)]");
+
+    private enum Operator {
+        EXISTS, EQUAL, NOT_EQUAL, LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL
+    }
+
+    private final @NotNull String expression;
+    private final @NotNull List<Object> path;
+    private final @NotNull Operator operator;
+    private final @Nullable Object literal;
+
+    private JsonPathPredicate(final @NotNull String expression,
+                              final @NotNull List<Object> path,
+                              final @NotNull Operator operator,
+                              final @Nullable Object literal) {
+        this.expression = expression;
+        this.path = path;
+        this.operator = operator;
+        this.literal = literal;
+    }
+
+    /**
+     * @param expression a path starting with '$' made of '.name' and '[index]' segments, optionally followed by one of
+     *                   the operators ==, !=, &lt;, &lt;=, &gt;, &gt;= and a number, a quoted string, true, false or null
+     * @throws IllegalArgumentException if the expression is not valid
+     */
+    public static @NotNull JsonPathPredicate parse(final @NotNull String expression) {
+        final Matcher matcher = EXPRESSION_PATTERN.matcher(expression);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("'" + expression + "' is not a JSONPath expression like $.a.b[0] == 'value'");
+        }
+
+        final List<Object> path = parseSegments(matcher.group(1));
+
+        if (matcher.group(2) == null) {
+            return new JsonPathPredicate(expression, Collections.unmodifiableList(path), Operator.EXISTS, null);
+        }
+        final Operator operator;
+        switch (matcher.group(2)) {
+            case "==": operator = Operator.EQUAL; break;
+            case "!=": operator = Operator.NOT_EQUAL; break;
+            case "<": operator = Operator.LESS; break;
+            case "<=": operator = Operator.LESS_OR_EQUAL; break;
+            case ">": operator = Operator.GREATER; break;
+            default: operator = Operator.GREATER_OR_EQUAL;
+        }
+        final Object literal = parseLiteral(matcher.group(3));
+        if (operator.compareTo(Operator.LESS) >= 0 && !(literal instanceof BigDecimal)) {
+            throw new IllegalArgumentException("'" + expression + "' compares with " + matcher.group(2) + " but the value is not a number");
+        }
+        return new JsonPathPredicate(expression, Collections.unmodifiableList(path), operator, literal);
+    }
+
+    /**
+     * @param segments the '.name' and '[index]' segments of a path after the '$'
+     * @return the names as strings and the indexes as integers
+     */
+    static @NotNull List<Object> parseSegments(final @NotNull String segments) {
+        final List<Object> path = new ArrayList<>();
+        final Matcher segmentMatcher = SEGMENT_PATTERN.matcher(segments);
+        while (segmentMatcher.find()) {
+            if (segmentMatcher.group(1) != null) {
+                path.add(segmentMatcher.group(1));
+            } else {
+                path.add(Integer.parseInt(segmentMatcher.group(2)));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * @return false also if the JSON is not valid or the path does not exist
+     */
+    public boolean test(final @NotNull String json) {
+        return test(new StringReader(json));
+    }
+
+    /**
+     * @return false also if the JSON is not valid or the path does not exist
+     */
+    public boolean test(final @NotNull Reader json) {
+        try {
+            final JsonReader reader = new JsonReader(json);
+            if (!moveToValue(reader)) {
+                return false;
+            }
+            return testValue(reader);
+        } catch (final IOException | IllegalStateException | NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    private boolean moveToValue(final @NotNull JsonReader reader) throws IOException {
+        for (final Object segment : path) {
+            if (segment instanceof String) {
+                if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                    return false;
+                }
+                reader.beginObject();
+                while (true) {
+                    if (!reader.hasNext()) {
+                        return false;
+                    }
+                    if (reader.nextName().equals(segment)) {
+                        break;
+                    }
+                    reader.skipValue();
+                }
+            } else {
+                if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    return false;
+                }
+                reader.beginArray();
+                for (int i = 0; i < (Integer) segment; i++) {
+                    if (!reader.hasNext()) {
+                        return false;
+                    }
+                    reader.skipValue();
+                }
+                if (!reader.hasNext()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean testValue(final @NotNull JsonReader reader) throws IOException {
+        final Object value;
+        switch (reader.peek()) {
+            case STRING: value = reader.nextString(); break;
+            case NUMBER: value = new BigDecimal(reader.nextString()); break;
+            case BOOLEAN: value = reader.nextBoolean(); break;
+            case NULL: value = null; break;
+            default:
+                // An object or array can only be tested for existence
+                return operator == Operator.EXISTS || operator == Operator.NOT_EQUAL;
+        }
+
+        switch (operator) {
+            case EXISTS: return true;
+            case EQUAL: return valueEquals(value);
+            case NOT_EQUAL: return !valueEquals(value);
+            default:
+                if (!(value instanceof BigDecimal)) {
+                    return false;
+                }
+                final int comparison = ((BigDecimal) value).compareTo((BigDecimal) literal);
+                switch (operator) {
+                    case LESS: return comparison < 0;
+                    case LESS_OR_EQUAL: return comparison <= 0;
+                    case GREATER: return comparison > 0;
+                    default: return comparison >= 0;
+                }
+        }
+    }
+
+    private boolean valueEquals(final @Nullable Object value) {
+        if (value instanceof BigDecimal && literal instanceof BigDecimal) {
+            return ((BigDecimal) value).compareTo((BigDecimal) literal) == 0;
+        }
+        return value == null ? literal == null : value.equals(literal);
+    }
+
+    private static @Nullable Object parseLiteral(final @NotNull String literal) {
+        if (literal.length() >= 2 && (literal.startsWith("'") && literal.endsWith("'") || literal.startsWith("\"") && literal.endsWith("\""))) {
+            return literal.substring(1, literal.length() - 1);
+        }
+        switch (literal) {
+            case "true": return true;
+            case "false": return false;
+            case "null": return null;
+            default:
+                try {
+                    return new BigDecimal(literal);
+                } catch (final NumberFormatException ex) {
+                    throw new IllegalArgumentException("'" + literal + "' is neither a number, a quoted string, true, false nor null");
+                }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -80,6 +80,8 @@ class DefaultCLIPropertiesTest {
         assertNull(defaultCLIProperties.getClientCertificate());
         assertNull(defaultCLIProperties.getServerCertificate());
         assertNull(defaultCLIProperties.getClientPrivateKey());
+        assertEquals(Runtime.getRuntime().availableProcessors(), defaultCLIProperties.getClientNettyThreads());
+        assertEquals(Runtime.getRuntime().availableProcessors(), defaultCLIProperties.getClientApplicationThreads());
     }
 
     @Test
@@ -99,6 +101,8 @@ class DefaultCLIPropertiesTest {
         assertNull(defaultCLIProperties.getClientCertificate());
         assertNull(defaultCLIProperties.getServerCertificate());
         assertNull(defaultCLIProperties.getClientPrivateKey());
+        assertEquals(Runtime.getRuntime().availableProcessors(), defaultCLIProperties.getClientNettyThreads());
+        assertEquals(Runtime.getRuntime().availableProcessors(), defaultCLIProperties.getClientApplicationThreads());
     }
 
     @Test
@@ -118,6 +122,8 @@ class DefaultCLIPropertiesTest {
         assertNull(defaultCLIProperties.getClientCertificate());
         assertNull(defaultCLIProperties.getServerCertificate());
         assertNull(defaultCLIProperties.getClientPrivateKey());
+        assertEquals(2, defaultCLIProperties.getClientNettyThreads());
+        assertEquals(4, defaultCLIProperties.getClientApplicationThreads());
     }
 
     @Test
@@ -45,4 +45,16 @@ class MqttCLIMainTest {
     void hivemq_export_clients_help_command() {
         MqttCLIMain.main(new String[]{"hivemq", "export", "clients", "-h"});
     }
-}
\ No newline at end of file
+
+    @Test
+    @ExpectSystemExitWithStatus(0)
+    void pub_help_command() {
+        MqttCLIMain.main(new String[]{"pub", "--help"});
+    }
+
+    @Test
+    @ExpectSystemExitWithStatus(0)
+    void subscribe_alias_help_command() {
+        MqttCLIMain.main(new String[]{"subscribe", "--help"});
+    }
+}
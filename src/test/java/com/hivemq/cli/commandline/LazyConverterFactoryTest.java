@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commandline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LazyConverterFactoryTest {
+
+    private static final AtomicInteger CREATED_CONVERTERS = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        CREATED_CONVERTERS.set(0);
+    }
+
+    @Test
+    void converter_not_created_when_option_unused() {
+        final TestCommand command = new TestCommand();
+        new CommandLine(command, new LazyConverterFactory()).parseArgs();
+
+        assertEquals(0, CREATED_CONVERTERS.get());
+        assertNull(command.values);
+    }
+
+    @Test
+    void converter_created_once_when_option_used() {
+        final TestCommand command = new TestCommand();
+        new CommandLine(command, new LazyConverterFactory()).parseArgs("-v", "1", "-v", "2");
+
+        assertEquals(1, CREATED_CONVERTERS.get());
+        assertArrayEquals(new int[]{10, 20}, command.values);
+    }
+
+    @CommandLine.Command(name = "test")
+    static class TestCommand {
+
+        @CommandLine.Option(names = {"-v"}, converter = TimesTenConverter.class)
+        int[] values;
+    }
+
+    public static class TimesTenConverter implements CommandLine.ITypeConverter<Integer> {
+
+        public TimesTenConverter() {
+            CREATED_CONVERTERS.incrementAndGet();
+        }
+
+        @Override
+        public Integer convert(final String value) {
+            return Integer.parseInt(value) * 10;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.cli;
+
+import com.hivemq.cli.DefaultCLIProperties;
+import com.hivemq.cli.commandline.LazyConverterFactory;
+import com.hivemq.cli.commands.Connect;
+import com.hivemq.cli.commands.Subscribe;
+import com.hivemq.cli.mqtt.MqttClientExecutor;
+import com.hivemq.client.mqtt.MqttClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubscribeCommandTest {
+
+    private MqttClientExecutor mqttClientExecutor;
+    private SubscribeCommand subscribeCommand;
+    private MqttClient[] clients;
+
+    @BeforeEach
+    void setUp() {
+        mqttClientExecutor = mock(MqttClientExecutor.class);
+        subscribeCommand = new SubscribeCommand(mqttClientExecutor, mock(DefaultCLIProperties.class));
+        new CommandLine(subscribeCommand, new LazyConverterFactory())
+                .parseArgs("-t", "a/b", "-i", "client", "--group", "g", "--consumers", "3");
+        clients = new MqttClient[]{mock(MqttClient.class), mock(MqttClient.class), mock(MqttClient.class)};
+    }
+
+    @Test
+    void consumers_subscribe_to_shared_topic_filters() {
+        for (int i = 0; i < clients.length; i++) {
+            connects(i + 1, CompletableFuture.completedFuture(clients[i]));
+        }
+
+        assertSame(clients[0], subscribeCommand.subscribe());
+
+        for (final MqttClient client : clients) {
+            verify(mqttClientExecutor).subscribe(client, subscribeCommand);
+        }
+        assertArrayEquals(new String[]{"$share/g/a/b"}, subscribeCommand.getTopics());
+    }
+
+    @Test
+    void connected_consumers_are_disconnected_when_one_fails() {
+        final CompletableFuture<MqttClient> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("refused"));
+        connects(1, CompletableFuture.completedFuture(clients[0]));
+        connects(2, failed);
+        connects(3, CompletableFuture.completedFuture(clients[2]));
+
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, subscribeCommand::subscribe);
+
+        assertEquals("refused", exception.getMessage());
+        verify(mqttClientExecutor).disconnect(clients[0]);
+        verify(mqttClientExecutor).disconnect(clients[2]);
+        verify(mqttClientExecutor, never()).subscribe(any(MqttClient.class), any(Subscribe.class));
+    }
+
+    private void connects(final int consumer, final CompletableFuture<MqttClient> future) {
+        when(mqttClientExecutor.connectAsync(any(Connect.class), eq("client-" + consumer))).thenReturn(future);
+    }
+}
@@ -31,6 +31,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.hivemq.cli.rest.hivemq.TestResponseBodies.CLIENT_DETAILS_ALL;
@@ -148,6 +149,41 @@ class ClientDetailsRetrieverTaskTest {
         assertEquals(50, clientDetailsQueue.size());
     }
 
+    @Test
+    void details_50_two_nodes_success() throws IOException {
+        final MockWebServer secondServer = new MockWebServer();
+        secondServer.start();
+        final HiveMQRestService secondHiveMQRestService = new HiveMQRestService(secondServer.url("/").toString(), 500, 10);
+
+        for (int i = 0; i < 50; i++) {
+            clientIdsQueue.add("client-" + i);
+            server.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setBody(CLIENT_DETAILS_PERSISTENT_OFFLINE)
+            );
+            secondServer.enqueue(new MockResponse()
+                    .setResponseCode(200)
+                    .setBody(CLIENT_DETAILS_PERSISTENT_OFFLINE)
+            );
+        }
+        when(clientIdsFuture.isDone()).thenReturn(true);
+
+        final AtomicBoolean failed = new AtomicBoolean(false);
+        final ExportMetrics metrics = new ExportMetrics();
+        final ClientDetailsRetrieverTask firstNodeTask = new ClientDetailsRetrieverTask(hiveMQRestService, clientIdsFuture, clientIdsQueue, clientDetailsQueue, 10, failed, metrics);
+        final ClientDetailsRetrieverTask secondNodeTask = new ClientDetailsRetrieverTask(secondHiveMQRestService, clientIdsFuture, clientIdsQueue, clientDetailsQueue, 10, failed, metrics);
+
+        CompletableFuture.allOf(CompletableFuture.runAsync(firstNodeTask), CompletableFuture.runAsync(secondNodeTask)).join();
+
+        assertEquals(50, clientDetailsQueue.size());
+        assertEquals(50, server.getRequestCount() + secondServer.getRequestCount());
+        assertEquals(50, metrics.getReceivedClientDetails());
+        assertEquals(0, metrics.getRequestsInFlight());
+        assertEquals(50, metrics.getRequestLatencyMicros().getCount());
+
+        secondServer.shutdown();
+    }
+
     @Test
     void blocking_client_ids_queue_success() {
         clientIdsQueue = new LinkedBlockingQueue<>(1);
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.export.clients;
+
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvRowWriterTest {
+
+    private static final String[][] ROWS = {
+            {"clientId", "connected", "sessionExpiryInterval"},
+            {"test", null, "120"},
+            {"with \"quotes\"", "with,separator", "with\nline break"},
+            {"with\rcarriage return", "with\\backslash", ""},
+            {null, null, null},
+            {"\"", "\\\"", ";"}
+    };
+
+    @Test
+    void default_characters_same_as_opencsv() throws IOException {
+        assertSameAsOpenCsv(CSVWriter.DEFAULT_SEPARATOR, CSVWriter.DEFAULT_QUOTE_CHARACTER,
+                CSVWriter.DEFAULT_ESCAPE_CHARACTER, CSVWriter.DEFAULT_LINE_END);
+    }
+
+    @Test
+    void custom_characters_same_as_opencsv() throws IOException {
+        assertSameAsOpenCsv(';', '\'', '\\', "\r\n");
+    }
+
+    @Test
+    void no_quote_character_same_as_opencsv() throws IOException {
+        assertSameAsOpenCsv(',', ICSVWriter.NO_QUOTE_CHARACTER, '\\', "\n");
+    }
+
+    @Test
+    void no_escape_character_same_as_opencsv() throws IOException {
+        assertSameAsOpenCsv(',', '"', ICSVWriter.NO_ESCAPE_CHARACTER, "\n");
+    }
+
+    @Test
+    void reused_row_only_writes_given_length() throws IOException {
+        final StringWriter output = new StringWriter();
+        final CsvRowWriter csvRowWriter = new CsvRowWriter(output, ',', '"', '"', "\n");
+
+        csvRowWriter.writeRow(new String[]{"a", "b", "stale"}, 2);
+        csvRowWriter.flush();
+
+        assertEquals("\"a\",\"b\"\n", output.toString());
+    }
+
+    private static void assertSameAsOpenCsv(final char separator,
+                                            final char quoteCharacter,
+                                            final char escapeCharacter,
+                                            final String lineEnd) throws IOException {
+        final StringWriter expected = new StringWriter();
+        try (final CSVWriter csvWriter = new CSVWriter(expected, separator, quoteCharacter, escapeCharacter, lineEnd)) {
+            for (final String[] row : ROWS) {
+                csvWriter.writeNext(row);
+            }
+        }
+
+        final StringWriter actual = new StringWriter();
+        try (final CsvRowWriter csvRowWriter = new CsvRowWriter(actual, separator, quoteCharacter, escapeCharacter, lineEnd)) {
+            for (final String[] row : ROWS) {
+                csvRowWriter.writeRow(row);
+            }
+        }
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.hivemq.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceRecordingFilterTest {
+
+    private static final String CONNECT_1 = "2020-07-23 12:07:30,000 - [client-1] - Received CONNECT message (protocol version: 5)";
+    private static final String PUBLISH_1 = "2020-07-23 12:07:31,000 - [client-1] - Received PUBLISH message (topic: sensors/temp, QoS: 1, retain: false)";
+    private static final String PUBLISH_2 = "2020-07-23 12:07:32,000 - [client-2] - Received PUBLISH message (topic: sensors/humidity, QoS: 0, retain: false)";
+    private static final String SUBSCRIBE_2 = "2020-07-23 12:07:33,000 - [client-2] - Received SUBSCRIBE message (topics: [topic: alerts/#, QoS: 1])";
+
+    @Test
+    void filter_client_id() throws IOException {
+        final TraceRecordingFilter filter = new TraceRecordingFilter(Pattern.compile("client-1"), null);
+
+        final Map<String, String> result = filter(filter, trace());
+
+        assertEquals(CONNECT_1 + "\n" + PUBLISH_1 + "\n", result.get("client-1.log"));
+        assertEquals("", result.get("client-2.log"));
+        assertEquals(4, filter.getScannedLines());
+        assertEquals(2, filter.getMatchedLines());
+    }
+
+    @Test
+    void filter_topic() throws IOException {
+        final TraceRecordingFilter filter = new TraceRecordingFilter(null, Pattern.compile("sensors/.*"));
+
+        final Map<String, String> result = filter(filter, trace());
+
+        assertEquals(PUBLISH_1 + "\n", result.get("client-1.log"));
+        assertEquals(PUBLISH_2 + "\n", result.get("client-2.log"));
+    }
+
+    @Test
+    void filter_client_id_and_topic() throws IOException {
+        final TraceRecordingFilter filter = new TraceRecordingFilter(Pattern.compile("client-2"), Pattern.compile("alerts/.*"));
+
+        final Map<String, String> result = filter(filter, trace());
+
+        assertEquals("", result.get("client-1.log"));
+        assertEquals(SUBSCRIBE_2 + "\n", result.get("client-2.log"));
+        assertEquals(1, filter.getMatchedLines());
+    }
+
+    @Test
+    void matches_line_without_client_id() {
+        final TraceRecordingFilter filter = new TraceRecordingFilter(Pattern.compile(".*"), null);
+
+        assertFalse(filter.matches("no client in this line"));
+        assertTrue(filter.matches(CONNECT_1));
+    }
+
+    private static byte[] trace() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("client-1.log"));
+            zip.write((CONNECT_1 + "\n" + PUBLISH_1 + "\n").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("client-2.log"));
+            zip.write((PUBLISH_2 + "\n" + SUBSCRIBE_2 + "\n").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, String> filter(final TraceRecordingFilter filter, final byte[] trace) throws IOException {
+        final ByteArrayOutputStream filtered = new ByteArrayOutputStream();
+        filter.filter(new ByteArrayInputStream(trace), filtered);
+
+        final Map<String, String> entries = new LinkedHashMap<>();
+        try (final ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(filtered.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[1024];
+                int read;
+                while ((read = zip.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+                entries.put(entry.getName(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+}
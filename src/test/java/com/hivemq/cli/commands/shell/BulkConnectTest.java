@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.shell;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkConnectTest {
+
+    @Test
+    void connects_all_identifiers_with_bounded_parallelism() throws InterruptedException {
+        final Set<String> identifiers = ConcurrentHashMap.newKeySet();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LongAccumulator maxInFlight = new LongAccumulator(Math::max, 0);
+
+        final BulkConnect.Result result = new BulkConnect(100, "dev-%d", 4, null).run(identifier -> {
+            maxInFlight.accumulate(inFlight.incrementAndGet());
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(1);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                identifiers.add(identifier);
+                inFlight.decrementAndGet();
+            });
+        });
+
+        assertEquals(100, result.getConnected());
+        assertEquals(0, result.getFailed());
+        assertEquals(100, identifiers.size());
+        assertTrue(identifiers.contains("dev-1"));
+        assertTrue(identifiers.contains("dev-100"));
+        assertTrue(maxInFlight.get() <= 4);
+        assertEquals(100, result.getConnectLatencyMicros().getCount());
+    }
+
+    @Test
+    void failures_are_counted_by_cause() throws InterruptedException {
+        final BulkConnect.Result result = new BulkConnect(10, "dev-%d", 2, null).run(identifier -> {
+            if (identifier.endsWith("0")) {
+                throw new IllegalStateException("refused");
+            }
+            final CompletableFuture<Void> future = new CompletableFuture<>();
+            if (identifier.endsWith("5")) {
+                future.completeExceptionally(new IllegalStateException("refused"));
+            } else {
+                future.complete(null);
+            }
+            return future;
+        });
+
+        assertEquals(8, result.getConnected());
+        assertEquals(2, result.getFailed());
+        final Map<String, Long> failureCauses = result.getFailureCauses();
+        assertEquals(1, failureCauses.size());
+        assertEquals(2, (long) failureCauses.get("refused"));
+    }
+
+    @Test
+    void invalid_arguments_are_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BulkConnect(0, "dev-%d", 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new BulkConnect(1, "dev-%d", 0, null));
+        assertThrows(IllegalArgumentException.class, () -> new BulkConnect(1, "dev-%d", 1, 0d));
+        assertThrows(IllegalArgumentException.class, () -> new BulkConnect(1, "dev-%s-%s", 1, null));
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.commands.shell;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PublishPipelineTest {
+
+    @Test
+    void completed_publishes_are_released() {
+        final PublishPipeline pipeline = new PublishPipeline(10);
+
+        pipeline.add(CompletableFuture.completedFuture(null));
+        pipeline.add(CompletableFuture.completedFuture(null));
+
+        assertEquals(0, pipeline.getInFlight());
+        assertEquals(2, pipeline.getCompleted());
+    }
+
+    @Test
+    void publishes_stay_in_flight_until_acknowledged() {
+        final PublishPipeline pipeline = new PublishPipeline(10);
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        final CompletableFuture<Void> second = new CompletableFuture<>();
+
+        pipeline.add(first);
+        pipeline.add(second);
+        assertEquals(2, pipeline.getInFlight());
+
+        first.complete(null);
+        second.complete(null);
+        pipeline.awaitAll();
+
+        assertEquals(0, pipeline.getInFlight());
+        assertEquals(2, pipeline.getCompleted());
+    }
+
+    @Test
+    void oldest_publish_awaited_when_limit_reached() {
+        final PublishPipeline pipeline = new PublishPipeline(1);
+        final CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (final InterruptedException ignored) {
+            }
+            first.complete(null);
+        });
+
+        pipeline.add(first);
+        pipeline.add(new CompletableFuture<>());
+
+        assertEquals(1, pipeline.getCompleted());
+        assertEquals(1, pipeline.getInFlight());
+    }
+
+    @Test
+    void failed_publishes_are_counted() {
+        final PublishPipeline pipeline = new PublishPipeline(10);
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RuntimeException("no ack"));
+
+        pipeline.add(failed);
+        pipeline.add(CompletableFuture.completedFuture(null));
+        pipeline.awaitAll();
+
+        assertEquals(1, pipeline.getFailed());
+        assertEquals(1, pipeline.getCompleted());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.converters;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DurationConverterTest {
+
+    private DurationConverter durationConverter;
+
+    @BeforeEach
+    void setUp() {
+        durationConverter = new DurationConverter();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "s", "0", "0s", "-1s", "1.5s", "10 s", "10d", "10sec", "1234567890"})
+    void testInvalidString(final String s) {
+        final Exception e = assertThrows(Exception.class, () -> durationConverter.convert(s));
+        assertEquals(DurationConverter.WRONG_INPUT_MESSAGE, e.getMessage());
+    }
+
+    @Test
+    void testSuccess() throws Exception {
+        assertEquals(Duration.ofMillis(500), durationConverter.convert("500ms"));
+        assertEquals(Duration.ofSeconds(10), durationConverter.convert("10s"));
+        assertEquals(Duration.ofSeconds(10), durationConverter.convert("10"));
+        assertEquals(Duration.ofMinutes(5), durationConverter.convert("5m"));
+        assertEquals(Duration.ofHours(1), durationConverter.convert("1h"));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DaemonClientTest {
+
+    @Test
+    void forwarding_requires_opt_in() {
+        final String[] args = {"pub", "-t", "topic", "-m", "message"};
+
+        assertFalse(DaemonClient.isForwarded(null, args));
+        assertFalse(DaemonClient.isForwarded("", args));
+        assertFalse(DaemonClient.isForwarded("false", args));
+        assertTrue(DaemonClient.isForwarded("true", args));
+        assertTrue(DaemonClient.isForwarded("TRUE", args));
+    }
+
+    @Test
+    void only_pub_and_sub_are_forwarded() {
+        assertTrue(DaemonClient.isForwarded("true", new String[]{"subscribe", "-t", "topic"}));
+        assertFalse(DaemonClient.isForwarded("true", new String[]{"shell"}));
+        assertFalse(DaemonClient.isForwarded("true", new String[0]));
+    }
+}
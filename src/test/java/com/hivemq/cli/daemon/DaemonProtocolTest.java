@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DaemonProtocolTest {
+
+    @Test
+    void arguments_round_trip() {
+        final String[] args = {"pub", "-t", "topic", "-m", "hello world", ""};
+
+        assertArrayEquals(args, DaemonProtocol.decodeArguments(DaemonProtocol.encodeArguments(args)));
+    }
+
+    @Test
+    void no_arguments_round_trip() {
+        assertArrayEquals(new String[0], DaemonProtocol.decodeArguments(DaemonProtocol.encodeArguments(new String[0])));
+    }
+
+    @Test
+    void run_carries_working_directory_and_arguments() {
+        final File workingDirectory = new File("work").getAbsoluteFile();
+        final String[] args = {"sub", "-t", "topic", "-of", "out.txt"};
+
+        final String run = DaemonProtocol.encodeRun(workingDirectory, args);
+
+        assertEquals(workingDirectory, DaemonProtocol.decodeWorkingDirectory(run));
+        assertArrayEquals(args, DaemonProtocol.decodeRunArguments(run));
+    }
+
+    @Test
+    void run_without_arguments() {
+        final String run = DaemonProtocol.encodeRun(new File("work").getAbsoluteFile(), new String[0]);
+
+        assertArrayEquals(new String[0], DaemonProtocol.decodeRunArguments(run));
+    }
+
+    @Test
+    void frame_starts_with_type() {
+        final ByteBuf frame = DaemonProtocol.frame(ByteBufAllocator.DEFAULT, DaemonProtocol.EXIT, "-1");
+        try {
+            assertEquals(DaemonProtocol.EXIT, frame.readByte());
+            assertEquals("-1", DaemonProtocol.text(frame));
+        } finally {
+            frame.release();
+        }
+    }
+}
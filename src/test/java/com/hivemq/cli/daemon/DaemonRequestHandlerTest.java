@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.daemon;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class DaemonRequestHandlerTest {
+
+    private final File workingDirectory = new File("work").getAbsoluteFile();
+
+    @Test
+    void relative_paths_are_resolved_against_working_directory() {
+        final String[] args = {"sub", "-t", "topic", "-of", "out.txt", "--topicFile", "topics/list.txt", "--cafile", "ca.pem"};
+
+        final String[] resolved = DaemonRequestHandler.resolvePaths(args, workingDirectory);
+
+        assertArrayEquals(new String[]{"sub", "-t", "topic",
+                "-of", path("out.txt"),
+                "--topicFile", path("topics/list.txt"),
+                "--cafile", path("ca.pem")}, resolved);
+    }
+
+    @Test
+    void attached_values_are_resolved() {
+        final String[] resolved = DaemonRequestHandler.resolvePaths(new String[]{"pub", "--key=client.key", "-pw:file=pw.txt"}, workingDirectory);
+
+        assertArrayEquals(new String[]{"pub", "--key=" + path("client.key"), "-pw:file=" + path("pw.txt")}, resolved);
+    }
+
+    @Test
+    void absolute_paths_and_other_options_are_kept() {
+        final String absolute = new File("out.txt").getAbsolutePath();
+        final String[] args = {"sub", "-t", "out.txt", "-of", absolute, "-m", "--cert"};
+
+        assertArrayEquals(args, DaemonRequestHandler.resolvePaths(args, workingDirectory));
+    }
+
+    private String path(final String relative) {
+        return new File(workingDirectory, relative).getPath();
+    }
+}
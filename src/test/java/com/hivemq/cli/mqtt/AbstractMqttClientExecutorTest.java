@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.commandline.LazyConverterFactory;
+import com.hivemq.cli.commands.Connect;
+import com.hivemq.cli.commands.cli.SubscribeCommand;
+import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.MqttClientState;
+import dagger.Lazy;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AbstractMqttClientExecutorTest {
+
+    @Test
+    void backpressure_requests_publishes_in_batches() throws Exception {
+        final List<Long> requests = new CopyOnWriteArrayList<>();
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch allReceived = new CountDownLatch(1);
+
+        AbstractMqttClientExecutor.routeWithBackpressure(
+                Flowable.range(0, 1_000).doOnRequest(requests::add),
+                Schedulers.single(),
+                16,
+                publish -> {
+                    received.add(publish);
+                    if (received.size() == 1_000) {
+                        allReceived.countDown();
+                    }
+                });
+
+        assertTrue(allReceived.await(10, TimeUnit.SECONDS));
+        assertEquals(0, (int) received.get(0));
+        assertEquals(999, (int) received.get(999));
+        assertEquals(16, (long) requests.get(0));
+        assertTrue(requests.size() > 1);
+        for (final long request : requests) {
+            assertTrue(request <= 16, "requested " + request);
+        }
+    }
+
+    @Test
+    void backpressure_is_off_by_default() {
+        assertEquals(0, requestBatchSize("-t", "a"));
+        assertEquals(SubscribeCommand.DEFAULT_REQUEST_BATCH_SIZE, requestBatchSize("-t", "a", "--backpressure"));
+        assertEquals(8, requestBatchSize("-t", "a", "--backpressure", "8"));
+        assertEquals(0, AbstractMqttClientExecutor.getRequestBatchSize(mock(Connect.class)));
+    }
+
+    @Test
+    void reconnecting_client_is_reused() throws Exception {
+        final MqttClient client = mock(MqttClient.class, RETURNS_DEEP_STUBS);
+        when(client.getState()).thenReturn(MqttClientState.DISCONNECTED_RECONNECT);
+        when(client.getConfig().getClientIdentifier()).thenReturn(Optional.empty());
+        when(client.getConfig().getServerHost()).thenReturn("localhost");
+        when(client.getConfig().getSslConfig()).thenReturn(Optional.empty());
+        final Connect connect = mock(Connect.class);
+        when(connect.getHost()).thenReturn("localhost");
+        final String clientKey = MqttUtils.buildKey("reconnecting", "localhost");
+        AbstractMqttClientExecutor.getClientRegistry().put(clientKey, new ClientData(client));
+        try {
+            final MqttClientExecutor executor = new MqttClientExecutor(mock(Lazy.class));
+
+            assertSame(client, executor.connectAsync(connect, "reconnecting").get(10, TimeUnit.SECONDS));
+        } finally {
+            AbstractMqttClientExecutor.getClientRegistry().remove(clientKey);
+        }
+    }
+
+    private static int requestBatchSize(final String... args) {
+        final SubscribeCommand subscribeCommand = new SubscribeCommand();
+        new CommandLine(subscribeCommand, new LazyConverterFactory()).parseArgs(args);
+        return AbstractMqttClientExecutor.getRequestBatchSize(subscribeCommand);
+    }
+}
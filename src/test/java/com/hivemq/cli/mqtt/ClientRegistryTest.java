@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.MqttUtils;
+import com.hivemq.client.mqtt.MqttClient;
+import com.hivemq.client.mqtt.MqttClientState;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientRegistryTest {
+
+    private ClientRegistry clientRegistry;
+
+    @BeforeEach
+    void setUp() {
+        clientRegistry = new ClientRegistry();
+    }
+
+    @Test
+    void indexes_sorted_by_identifier_and_creation_time() {
+        final LocalDateTime now = LocalDateTime.now();
+        put("c", "localhost", now);
+        put("a", "localhost", now.plusSeconds(2));
+        put("b", "broker.hivemq.com", now.plusSeconds(1));
+
+        assertEquals(3, clientRegistry.size());
+        assertEquals(Arrays.asList("a", "b", "c"), identifiers(clientRegistry.getByIdentifier()));
+        assertEquals(Arrays.asList("c", "b", "a"), identifiers(clientRegistry.getByCreationTime()));
+        assertEquals(Arrays.asList("c", "b", "a"), identifiers(clientRegistry.getByIdentifier().descendingSet()));
+        assertEquals(Arrays.asList("a", "c"), identifiers(clientRegistry.getByHost("localhost")));
+        assertTrue(clientRegistry.getByHost("unknown").isEmpty());
+    }
+
+    @Test
+    void remove_updates_indexes_and_widths() {
+        final LocalDateTime now = LocalDateTime.now();
+        put("short", "localhost", now);
+        put("a-much-longer-identifier", "broker.hivemq.com", now);
+
+        assertEquals("a-much-longer-identifier".length(), clientRegistry.getIdentifierWidth());
+        assertEquals("broker.hivemq.com".length(), clientRegistry.getHostWidth());
+        assertEquals(ClientRegistry.NO_SSL.length(), clientRegistry.getSslWidth());
+
+        clientRegistry.remove(MqttUtils.buildKey("a-much-longer-identifier", "broker.hivemq.com"));
+
+        assertEquals(1, clientRegistry.size());
+        assertEquals("short".length(), clientRegistry.getIdentifierWidth());
+        assertEquals("localhost".length(), clientRegistry.getHostWidth());
+        assertEquals(Arrays.asList("short"), identifiers(clientRegistry.getByCreationTime()));
+        assertTrue(clientRegistry.getByHost("broker.hivemq.com").isEmpty());
+    }
+
+    @Test
+    void count_by_host_and_state() {
+        final LocalDateTime now = LocalDateTime.now();
+        put("a", "localhost", now);
+        put("b", "localhost", now);
+        put("c", "broker.hivemq.com", now);
+
+        assertEquals(3, clientRegistry.count(null, null));
+        assertEquals(2, clientRegistry.count("localhost", null));
+        assertEquals(0, clientRegistry.count("unknown", null));
+        assertEquals(2, clientRegistry.count("localhost", MqttClientState.DISCONNECTED));
+        assertEquals(0, clientRegistry.count(null, MqttClientState.CONNECTED));
+
+        clientRegistry.remove(MqttUtils.buildKey("a", "localhost"));
+
+        assertEquals(1, clientRegistry.count("localhost", null));
+        assertEquals(1, clientRegistry.count("broker.hivemq.com", null));
+    }
+
+    @Test
+    void put_replaces_client_with_same_key() {
+        final LocalDateTime now = LocalDateTime.now();
+        put("client", "localhost", now);
+        final ClientData replacement = put("client", "localhost", now.plusSeconds(1));
+
+        assertEquals(1, clientRegistry.size());
+        assertEquals(1, clientRegistry.getByIdentifier().size());
+        assertEquals(1, clientRegistry.getByCreationTime().size());
+        assertEquals(replacement, clientRegistry.get(MqttUtils.buildKey("client", "localhost")));
+    }
+
+    @Test
+    void clear_removes_all_clients() {
+        put("client", "localhost", LocalDateTime.now());
+
+        clientRegistry.clear();
+
+        assertEquals(0, clientRegistry.size());
+        assertNull(clientRegistry.get(MqttUtils.buildKey("client", "localhost")));
+        assertTrue(clientRegistry.getByIdentifier().isEmpty());
+        assertEquals(0, clientRegistry.getIdentifierWidth());
+    }
+
+    private @NotNull ClientData put(final @NotNull String identifier, final @NotNull String host, final @NotNull LocalDateTime creationTime) {
+        final MqttClient client = MqttClient.builder()
+                .identifier(identifier)
+                .serverHost(host)
+                .useMqttVersion5()
+                .build();
+        final ClientData clientData = new ClientData(client, creationTime);
+        clientRegistry.put(MqttUtils.buildKey(identifier, host), clientData);
+        return clientData;
+    }
+
+    private static @NotNull List<String> identifiers(final @NotNull Iterable<ClientData> clientData) {
+        final List<String> identifiers = new ArrayList<>();
+        clientData.forEach(data -> identifiers.add(ClientRegistry.getIdentifier(data.getClient())));
+        return identifiers;
+    }
+}
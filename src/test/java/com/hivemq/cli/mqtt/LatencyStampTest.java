@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyStampTest {
+
+    @Test
+    void encode_and_decode() {
+        final LatencyStamp stamp = LatencyStamp.decode(new LatencyStamp("client/with/slashes-1f", 42, 1_600_000_000_000_000L).encode());
+
+        assertNotNull(stamp);
+        assertEquals("client/with/slashes-1f", stamp.getPublisherId());
+        assertEquals(42, stamp.getSequence());
+        assertEquals(1_600_000_000_000_000L, stamp.getTimestampMicros());
+    }
+
+    @Test
+    void invalid_stamps_are_null() {
+        assertNull(LatencyStamp.decode("client"));
+        assertNull(LatencyStamp.decode("/1/2"));
+        assertNull(LatencyStamp.decode("client/x/2"));
+    }
+
+    @Test
+    void stamp_is_prepended_to_payload() {
+        final ByteBuffer payload = ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8));
+        final ByteBuffer stamped = new LatencyStamp("client", 7, 123).prependTo(payload);
+
+        final LatencyStamp stamp = LatencyStamp.fromPayload(stamped);
+
+        assertNotNull(stamp);
+        assertEquals(7, stamp.getSequence());
+        assertEquals(5, payload.remaining());
+        assertTrue(StandardCharsets.UTF_8.decode(stamped).toString().endsWith("\nhello"));
+        assertNull(LatencyStamp.fromPayload(payload));
+        assertNull(LatencyStamp.fromPayload(ByteBuffer.wrap("mqtt-cli-stamp=client/1/2".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void stamp_is_removed_from_payload() {
+        final ByteBuffer stamped = new LatencyStamp("client", 7, 123).prependTo(ByteBuffer.wrap("a\nb".getBytes(StandardCharsets.UTF_8)));
+
+        final ByteBuffer unstamped = LatencyStamp.removeFromPayload(stamped);
+
+        assertNotNull(unstamped);
+        assertEquals("a\nb", StandardCharsets.UTF_8.decode(unstamped).toString());
+        assertNotNull(LatencyStamp.fromPayload(stamped));
+        assertNull(LatencyStamp.removeFromPayload(ByteBuffer.wrap("hello".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void clock_does_not_go_backwards() {
+        final long first = LatencyStamp.currentTimeMicros();
+        assertTrue(LatencyStamp.currentTimeMicros() >= first);
+    }
+}
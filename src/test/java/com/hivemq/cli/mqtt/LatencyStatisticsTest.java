@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyStatisticsTest {
+
+    @Test
+    void latency_is_recorded() {
+        final LatencyStatistics statistics = new LatencyStatistics();
+        statistics.record(new LatencyStamp("p", 0, 1_000), "t", 3_000);
+        statistics.record(null, "t", 3_000);
+
+        assertEquals(2, statistics.getReceived());
+        assertEquals(1, statistics.getUnstamped());
+        assertEquals(1, statistics.getLatencyMicros().getCount());
+        assertEquals(2_000, statistics.getLatencyMicros().getMax());
+    }
+
+    @Test
+    void gaps_duplicates_and_reordering() {
+        final LatencyStatistics statistics = new LatencyStatistics();
+        record(statistics, "p", 10);
+        record(statistics, "p", 11);
+        record(statistics, "p", 14);
+        assertEquals(2, statistics.getLost());
+
+        record(statistics, "p", 12);
+        assertEquals(1, statistics.getLost());
+        assertEquals(1, statistics.getReordered());
+
+        record(statistics, "p", 12);
+        record(statistics, "p", 14);
+        assertEquals(2, statistics.getDuplicates());
+
+        record(statistics, "p", 5);
+        assertEquals(2, statistics.getReordered());
+        assertEquals(1, statistics.getLost());
+    }
+
+    @Test
+    void sequences_are_checked_per_publisher_and_topic() {
+        final LatencyStatistics statistics = new LatencyStatistics();
+        record(statistics, "p1", 0);
+        record(statistics, "p2", 0);
+        statistics.record(new LatencyStamp("p1", 0, 0), "other", 0);
+        record(statistics, "p1", 1);
+
+        assertEquals(0, statistics.getLost());
+        assertEquals(0, statistics.getDuplicates());
+        assertEquals(0, statistics.getReordered());
+    }
+
+    @Test
+    void large_gaps_are_lost() {
+        final LatencyStatistics statistics = new LatencyStatistics();
+        record(statistics, "p", 0);
+        record(statistics, "p", 5_000);
+        record(statistics, "p", 4_999);
+        record(statistics, "p", 10);
+
+        assertEquals(4_998, statistics.getLost());
+        assertEquals(1, statistics.getReordered());
+        assertEquals(1, statistics.getLate());
+    }
+
+    @Test
+    void old_duplicates_do_not_reduce_lost() {
+        final LatencyStatistics statistics = new LatencyStatistics();
+        for (int sequence = 0; sequence <= 2_000; sequence++) {
+            record(statistics, "p", sequence);
+        }
+        record(statistics, "p", 10);
+        record(statistics, "p", 10);
+        record(statistics, "p", 11);
+
+        assertEquals(0, statistics.getLost());
+        assertEquals(0, statistics.getReordered());
+        assertEquals(3, statistics.getLate());
+    }
+
+    @Test
+    void first_gap_after_reconnect_is_lost_during_reconnects() {
+        final LatencyStatistics statistics = new LatencyStatistics();
+        record(statistics, "p", 0);
+        record(statistics, "p", 2);
+        statistics.reconnected();
+        record(statistics, "p", 10);
+        record(statistics, "p", 12);
+
+        assertEquals(9, statistics.getLost());
+        assertEquals(7, statistics.getLostDuringReconnects());
+    }
+
+    @Test
+    void report_is_printed() {
+        final LatencyStatistics statistics = new LatencyStatistics();
+        statistics.record(new LatencyStamp("p", 0, 0), "t", 1_500);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        statistics.printReport(new PrintStream(bytes, true), true);
+
+        final String report = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(report.startsWith("total"));
+        assertTrue(report.contains("received 1 "));
+        assertTrue(report.contains("streams 1  lost 0  duplicates 0  reordered 0  unstamped 0"));
+    }
+
+    private static void record(final LatencyStatistics statistics, final String publisher, final long sequence) {
+        statistics.record(new LatencyStamp(publisher, sequence, 0), "t", 0);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublishDeduplicatorTest {
+
+    @Test
+    void duplicate_payloads_are_dropped_per_topic() {
+        final PublishDeduplicator deduplicator = new PublishDeduplicator(100, 60);
+
+        assertFalse(deduplicator.isDuplicate("a", null, payload("hello")));
+        assertFalse(deduplicator.isDuplicate("b", null, payload("hello")));
+        assertFalse(deduplicator.isDuplicate("a", null, payload("world")));
+        assertFalse(deduplicator.isDuplicate("a", null, null));
+        assertTrue(deduplicator.isDuplicate("a", null, payload("hello")));
+        assertTrue(deduplicator.isDuplicate("a", null, null));
+
+        assertEquals(6, deduplicator.getReceived());
+        assertEquals(2, deduplicator.getDuplicates());
+    }
+
+    @Test
+    void stamped_publishes_are_identified_by_sequence() {
+        final PublishDeduplicator deduplicator = new PublishDeduplicator(100, 60);
+
+        assertFalse(deduplicator.isDuplicate("a", new LatencyStamp("p1", 0, 10), payload("same")));
+        assertFalse(deduplicator.isDuplicate("a", new LatencyStamp("p1", 1, 20), payload("same")));
+        assertFalse(deduplicator.isDuplicate("a", new LatencyStamp("p2", 0, 10), payload("same")));
+        assertTrue(deduplicator.isDuplicate("a", new LatencyStamp("p1", 1, 20), payload("same")));
+    }
+
+    @Test
+    void key_does_not_change_the_payload_position() {
+        final ByteBuffer payload = payload("hello");
+        payload.position(1);
+
+        final long key = PublishDeduplicator.key("a", null, payload);
+
+        assertEquals(1, payload.position());
+        assertEquals(key, PublishDeduplicator.key("a", null, payload("ello")));
+    }
+
+    @Test
+    void report() {
+        final PublishDeduplicator deduplicator = new PublishDeduplicator(100, 0);
+        deduplicator.isDuplicate("a", null, payload("hello"));
+        deduplicator.isDuplicate("a", null, payload("hello"));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        deduplicator.printReport(new PrintStream(bytes, true));
+
+        assertTrue(new String(bytes.toByteArray(), StandardCharsets.UTF_8).startsWith("received 2  duplicates 1 (50"));
+    }
+
+    private static ByteBuffer payload(final String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.json.JsonPathPredicate;
+import com.hivemq.client.mqtt.mqtt3.message.publish.Mqtt3Publish;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperties;
+import com.hivemq.client.mqtt.mqtt5.datatypes.Mqtt5UserProperty;
+import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublishFilterTest {
+
+    private final Mqtt5Publish publish = Mqtt5Publish.builder()
+            .topic("sensors/kitchen/temperature")
+            .payload("{\"value\":21.5}".getBytes(StandardCharsets.UTF_8))
+            .userProperties(Mqtt5UserProperties.of(Mqtt5UserProperty.of("unit", "celsius")))
+            .build();
+
+    @Test
+    void no_conditions_accept_all() {
+        assertTrue(PublishFilter.ACCEPT_ALL.isAcceptAll());
+        assertTrue(PublishFilter.ACCEPT_ALL.matches(publish));
+    }
+
+    @Test
+    void all_conditions_have_to_match() {
+        final PublishFilter filter = new PublishFilter(Pattern.compile("kitchen"),
+                Mqtt5UserProperty.of("unit", "celsius"),
+                "value",
+                Pattern.compile("\\d+\\.5"),
+                JsonPathPredicate.parse("$.value > 20"));
+        assertTrue(filter.matches(publish));
+
+        assertFalse(new PublishFilter(Pattern.compile("^kitchen"), null, null, null, null).matches(publish));
+        assertFalse(new PublishFilter(null, Mqtt5UserProperty.of("unit", "kelvin"), null, null, null).matches(publish));
+        assertFalse(new PublishFilter(null, null, "humidity", null, null).matches(publish));
+        assertFalse(new PublishFilter(null, null, null, Pattern.compile("^\\d"), null).matches(publish));
+        assertFalse(new PublishFilter(null, null, null, null, JsonPathPredicate.parse("$.value < 20")).matches(publish));
+    }
+
+    @Test
+    void user_property_never_matches_mqtt3() {
+        final Mqtt3Publish mqtt3Publish = Mqtt3Publish.builder()
+                .topic("sensors/kitchen/temperature")
+                .payload("21.5".getBytes(StandardCharsets.UTF_8))
+                .build();
+
+        assertTrue(new PublishFilter(null, null, "21", null, null).matches(mqtt3Publish));
+        assertFalse(new PublishFilter(null, Mqtt5UserProperty.of("unit", "celsius"), null, null, null).matches(mqtt3Publish));
+    }
+
+    @Test
+    void substring_is_searched_in_payload_bytes() {
+        final ByteBuffer buffer = ByteBuffer.wrap("xxabcabd".getBytes(StandardCharsets.UTF_8));
+        buffer.position(2);
+
+        assertEquals(0, PublishFilter.indexOf(buffer, "abc".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, PublishFilter.indexOf(buffer, "abd".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(-1, PublishFilter.indexOf(buffer, "xx".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(-1, PublishFilter.indexOf(buffer, "abcabdx".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, buffer.position());
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReconnectHandlerTest {
+
+    @Test
+    void delay_doubles_per_attempt_with_jitter() {
+        final Random random = new Random(42);
+        for (int attempt = 0; attempt < 5; attempt++) {
+            final long delay = 1000L << attempt;
+            for (int i = 0; i < 100; i++) {
+                final long jittered = ReconnectHandler.getDelayMillis(attempt, 1000, 120_000, random);
+                assertTrue(jittered >= delay / 2 && jittered <= delay, "attempt " + attempt + ": " + jittered);
+            }
+        }
+    }
+
+    @Test
+    void delay_is_capped() {
+        final Random random = new Random(42);
+        for (final int attempt : new int[]{10, 30, 31, 100, Integer.MAX_VALUE}) {
+            final long jittered = ReconnectHandler.getDelayMillis(attempt, 1000, 120_000, random);
+            assertTrue(jittered >= 60_000 && jittered <= 120_000, "attempt " + attempt + ": " + jittered);
+        }
+    }
+
+    @Test
+    void delay_without_random_part_is_half() {
+        final Random noJitter = new Random() {
+            @Override
+            public double nextDouble() {
+                return 0;
+            }
+        };
+        assertEquals(500, ReconnectHandler.getDelayMillis(0, 1000, 120_000, noJitter));
+        assertEquals(4000, ReconnectHandler.getDelayMillis(3, 1000, 120_000, noJitter));
+        assertEquals(60_000, ReconnectHandler.getDelayMillis(20, 1000, 120_000, noJitter));
+    }
+}
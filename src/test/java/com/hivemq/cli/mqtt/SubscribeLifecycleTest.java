@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubscribeLifecycleTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void count_completes_after_last_publish_is_handled() {
+        final SubscribeLifecycle lifecycle = new SubscribeLifecycle(2, 0, 0);
+        lifecycle.start(scheduler);
+
+        assertTrue(lifecycle.publishReceived());
+        lifecycle.publishHandled();
+        assertTrue(lifecycle.publishReceived());
+        assertFalse(lifecycle.getResult().isDone());
+        assertFalse(lifecycle.publishReceived());
+        lifecycle.publishHandled();
+
+        assertEquals(SubscribeLifecycle.Result.COUNT_REACHED, lifecycle.getResult().getNow(null));
+        assertEquals(2, lifecycle.getHandled());
+    }
+
+    @Test
+    void no_count_handles_all_publishes() {
+        final SubscribeLifecycle lifecycle = new SubscribeLifecycle(0, 0, 0);
+        lifecycle.start(scheduler);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(lifecycle.publishReceived());
+            lifecycle.publishHandled();
+        }
+        assertFalse(lifecycle.getResult().isDone());
+    }
+
+    @Test
+    void timeout() throws Exception {
+        final SubscribeLifecycle lifecycle = new SubscribeLifecycle(10, 50, 0);
+        lifecycle.start(scheduler);
+
+        assertEquals(SubscribeLifecycle.Result.TIMEOUT, lifecycle.getResult().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void idle_timeout_is_extended_by_publishes() throws Exception {
+        final SubscribeLifecycle lifecycle = new SubscribeLifecycle(0, 0, 200);
+        final long start = System.nanoTime();
+        lifecycle.start(scheduler);
+
+        Thread.sleep(100);
+        assertTrue(lifecycle.publishReceived());
+        lifecycle.publishHandled();
+
+        assertEquals(SubscribeLifecycle.Result.IDLE_TIMEOUT, lifecycle.getResult().get(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 300);
+    }
+
+    @Test
+    void first_condition_wins() {
+        final SubscribeLifecycle lifecycle = new SubscribeLifecycle(1, 0, 0);
+        lifecycle.start(scheduler);
+
+        lifecycle.disconnected();
+        assertTrue(lifecycle.publishReceived());
+        lifecycle.publishHandled();
+
+        assertEquals(SubscribeLifecycle.Result.DISCONNECTED, lifecycle.getResult().getNow(null));
+    }
+}
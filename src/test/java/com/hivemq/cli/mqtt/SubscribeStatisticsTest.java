@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.client.mqtt.datatypes.MqttQos;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubscribeStatisticsTest {
+
+    @Test
+    void report_contains_totals_and_top_topics() {
+        final SubscribeStatistics statistics = new SubscribeStatistics(2);
+        statistics.record("a", 10, MqttQos.AT_MOST_ONCE, false);
+        statistics.record("a", 10, MqttQos.AT_MOST_ONCE, false);
+        statistics.record("b", 1000, MqttQos.EXACTLY_ONCE, true);
+        statistics.record("c", 1, MqttQos.AT_LEAST_ONCE, false);
+
+        assertEquals(4, statistics.getMessages());
+        assertEquals(1021, statistics.getBytes());
+
+        final String report = printReport(statistics);
+        final String[] lines = report.split(System.lineSeparator());
+
+        assertTrue(lines[0].contains("messages 4"));
+        assertTrue(lines[1].contains("qos0 2  qos1 1  qos2 1  retained 1"));
+        assertTrue(lines[2].contains("max 1000"));
+        assertTrue(lines[5].startsWith("a "));
+        assertTrue(lines[9].startsWith("b "));
+        assertEquals(11, lines.length);
+    }
+
+    @Test
+    void topic_rates_start_again_after_report() {
+        final SubscribeStatistics statistics = new SubscribeStatistics(5);
+        statistics.record("a", 1, MqttQos.AT_MOST_ONCE, false);
+        printReport(statistics);
+
+        final String report = printReport(statistics);
+
+        assertTrue(report.contains("messages 1 "));
+        assertEquals(7, report.split(System.lineSeparator()).length);
+    }
+
+    private static String printReport(final SubscribeStatistics statistics) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        statistics.printReport(new PrintStream(bytes, true));
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
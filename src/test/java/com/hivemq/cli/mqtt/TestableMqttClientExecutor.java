@@ -21,6 +21,7 @@ import com.hivemq.cli.commands.Disconnect;
 import com.hivemq.cli.commands.Publish;
 import com.hivemq.cli.commands.Subscribe;
 import com.hivemq.cli.commands.Unsubscribe;
+import com.hivemq.client.mqtt.MqttClientExecutorConfig;
 import com.hivemq.client.mqtt.datatypes.MqttQos;
 import com.hivemq.client.mqtt.mqtt3.Mqtt3Client;
 import com.hivemq.client.mqtt.mqtt3.message.connect.Mqtt3Connect;
@@ -29,6 +30,7 @@ import com.hivemq.client.mqtt.mqtt5.message.connect.Mqtt5Connect;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class TestableMqttClientExecutor extends AbstractMqttClientExecutor {
 
@@ -37,6 +39,7 @@ public class TestableMqttClientExecutor extends AbstractMqttClientExecutor {
     private ArrayList<String> subscribeTopic;
 
     private TestableMqttClientExecutor() {
+        super(() -> MqttClientExecutorConfig.builder().build());
     }
 
     public static TestableMqttClientExecutor getInstance() {
@@ -56,43 +59,43 @@ public class TestableMqttClientExecutor extends AbstractMqttClientExecutor {
 
 
     @Override
-    void mqtt5Connect(@NotNull Mqtt5Client client, @NotNull Mqtt5Connect connectMessage, @NotNull Connect connect) {
-
+    @NotNull CompletableFuture<?> mqtt5Connect(@NotNull Mqtt5Client client, @NotNull Mqtt5Connect connectMessage, @NotNull Connect connect) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    void mqtt3Connect(@NotNull Mqtt3Client client, @NotNull Mqtt3Connect connectMessage, @NotNull Connect connect) {
-
+    @NotNull CompletableFuture<?> mqtt3Connect(@NotNull Mqtt3Client client, @NotNull Mqtt3Connect connectMessage, @NotNull Connect connect) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    void mqtt5Subscribe(@NotNull Mqtt5Client client, @NotNull Subscribe subscribe, @NotNull String topic, @NotNull MqttQos qos) {
-
+    @NotNull CompletableFuture<?> mqtt5Subscribe(@NotNull Mqtt5Client client, @NotNull Subscribe subscribe, @NotNull String[] topics, @NotNull MqttQos[] qos) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    void mqtt3Subscribe(@NotNull Mqtt3Client client, @NotNull Subscribe subscribe, @NotNull String topic, @NotNull MqttQos qos) {
-
+    @NotNull CompletableFuture<?> mqtt3Subscribe(@NotNull Mqtt3Client client, @NotNull Subscribe subscribe, @NotNull String[] topics, @NotNull MqttQos[] qos) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    void mqtt5Publish(@NotNull Mqtt5Client client, @NotNull Publish publish, @NotNull String topic, @NotNull MqttQos qos) {
-
+    @NotNull CompletableFuture<?> mqtt5Publish(@NotNull Mqtt5Client client, @NotNull Publish publish, @NotNull String topic, @NotNull MqttQos qos) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    void mqtt3Publish(@NotNull Mqtt3Client client, @NotNull Publish publish, @NotNull String topic, @NotNull MqttQos qos) {
-
+    @NotNull CompletableFuture<?> mqtt3Publish(@NotNull Mqtt3Client client, @NotNull Publish publish, @NotNull String topic, @NotNull MqttQos qos) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    void mqtt5Unsubscribe(@NotNull Mqtt5Client client, @NotNull Unsubscribe unsubscribe) {
-
+    @NotNull CompletableFuture<?> mqtt5Unsubscribe(@NotNull Mqtt5Client client, @NotNull Unsubscribe unsubscribe, @NotNull String[] topics) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
-    void mqtt3Unsubscribe(@NotNull Mqtt3Client client, @NotNull Unsubscribe unsubscribe) {
-
+    @NotNull CompletableFuture<?> mqtt3Unsubscribe(@NotNull Mqtt3Client client, @NotNull Unsubscribe unsubscribe, @NotNull String[] topics) {
+        return CompletableFuture.completedFuture(null);
     }
 
     @Override
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import com.hivemq.cli.utils.json.JsonNumberExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopicAggregatorTest {
+
+    @Test
+    void aggregates_per_topic_and_field() {
+        final TopicAggregator aggregator = new TopicAggregator(JsonNumberExtractor.of(Arrays.asList("t", "h")));
+        for (int i = 1; i <= 100; i++) {
+            aggregator.record("sensors/1", payload("{\"t\":" + i + "}"));
+        }
+        aggregator.record("sensors/2", payload("{\"t\":-1.5,\"h\":40}"));
+        aggregator.record("sensors/2", payload("{\"other\":1}"));
+        aggregator.record("sensors/3", null);
+
+        final String[] lines = report(aggregator);
+
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].endsWith("sensors/1  t  count 100  min 1.000  max 100.000  avg 50.500  p95 95.000"), lines[0]);
+        assertTrue(lines[1].endsWith("sensors/2  t  count 1  min -1.500  max -1.500  avg -1.500  p95 -1.500"), lines[1]);
+        assertTrue(lines[2].endsWith("sensors/2  h  count 1  min 40.000  max 40.000  avg 40.000  p95 40.000"), lines[2]);
+        assertTrue(lines[3].endsWith("2 publishes without the fields [t, h]"), lines[3]);
+    }
+
+    @Test
+    void windows_are_reset_and_idle_topics_dropped() {
+        final TopicAggregator aggregator = new TopicAggregator(JsonNumberExtractor.of(Arrays.asList("t")));
+        aggregator.record("a", payload("{\"t\":1}"));
+        aggregator.record("b", payload("{\"t\":5}"));
+        report(aggregator);
+
+        aggregator.record("a", payload("{\"t\":3}"));
+        final String[] lines = report(aggregator);
+
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].endsWith("a  t  count 1  min 3.000  max 3.000  avg 3.000  p95 3.000"), lines[0]);
+        assertEquals(0, report(aggregator).length);
+    }
+
+    @Test
+    void percentile_is_exact_up_to_the_reservoir_size() {
+        final TopicAggregator aggregator = new TopicAggregator(JsonNumberExtractor.of(Arrays.asList("t")));
+        for (int i = 1024; i >= 1; i--) {
+            aggregator.record("a", payload("{\"t\":" + i + "}"));
+        }
+
+        final String line = report(aggregator)[0];
+
+        assertTrue(line.endsWith("a  t  count 1024  min 1.000  max 1024.000  avg 512.500  p95 973.000"), line);
+    }
+
+    @Test
+    void percentile_is_estimated_from_the_sample() {
+        final TopicAggregator aggregator = new TopicAggregator(JsonNumberExtractor.of(Arrays.asList("t")));
+        for (int i = 1; i <= 100_000; i++) {
+            aggregator.record("a", payload("{\"t\":" + i + "}"));
+        }
+
+        final String line = report(aggregator)[0];
+        final double p95 = Double.parseDouble(line.substring(line.lastIndexOf(' ') + 1));
+
+        assertTrue(p95 > 90_000 && p95 < 99_000, line);
+    }
+
+    @Test
+    void read_only_direct_payloads_are_read_in_place() {
+        final TopicAggregator aggregator = new TopicAggregator(JsonNumberExtractor.of(Arrays.asList("t")));
+        final byte[] bytes = "{\"t\":\"21.5\",\"text\":\"\u00e4\u00f6\u00fc\"}".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        final ByteBuffer payload = direct.asReadOnlyBuffer();
+
+        aggregator.record("a", payload);
+
+        assertEquals(0, payload.position());
+        final String line = report(aggregator)[0];
+        assertTrue(line.endsWith("a  t  count 1  min 21.500  max 21.500  avg 21.500  p95 21.500"), line);
+    }
+
+    private static ByteBuffer payload(final String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] report(final TopicAggregator aggregator) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        aggregator.printReport(new PrintStream(bytes, true));
+        final String report = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        return report.isEmpty() ? new String[0] : report.split("\n");
+    }
+}
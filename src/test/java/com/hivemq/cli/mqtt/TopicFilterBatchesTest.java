@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TopicFilterBatchesTest {
+
+    @Test
+    void all_topics_in_one_packet() {
+        final String[] topics = {"a/b", "c/#", "+/d"};
+
+        final List<int[]> ranges = TopicFilterBatches.split(topics, TopicFilterBatches.mqtt3HeaderSize(), TopicFilterBatches.MAXIMUM_PACKET_SIZE);
+
+        assertEquals(1, ranges.size());
+        assertArrayEquals(new int[]{0, 3}, ranges.get(0));
+    }
+
+    @Test
+    void split_by_maximum_packet_size() {
+        // every topic filter takes 2 + 3 + 1 bytes
+        final String[] topics = {"t/1", "t/2", "t/3", "t/4", "t/5"};
+        final int headerSize = TopicFilterBatches.mqtt3HeaderSize();
+
+        final List<int[]> ranges = TopicFilterBatches.split(topics, headerSize, headerSize + 2 * 6);
+
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new int[]{0, 2}, ranges.get(0));
+        assertArrayEquals(new int[]{2, 4}, ranges.get(1));
+        assertArrayEquals(new int[]{4, 5}, ranges.get(2));
+    }
+
+    @Test
+    void user_properties_reduce_the_space_for_topics() {
+        final String[] topics = {"t/1", "t/2"};
+        final int headerSize = TopicFilterBatches.mqtt5HeaderSize(TopicFilterBatches.userPropertySize("key", "value"));
+
+        assertEquals(TopicFilterBatches.mqtt5HeaderSize(0) + 1 + 2 + 3 + 2 + 5, headerSize);
+        assertEquals(2, TopicFilterBatches.split(topics, headerSize, headerSize + 6).size());
+    }
+
+    @Test
+    void topic_larger_than_packet_is_rejected() {
+        final String[] topics = {"a-very-long-topic"};
+
+        assertThrows(IllegalArgumentException.class,
+                () -> TopicFilterBatches.split(topics, TopicFilterBatches.mqtt3HeaderSize(), TopicFilterBatches.mqtt3HeaderSize() + 5));
+    }
+
+    @Test
+    void no_topics() {
+        assertEquals(0, TopicFilterBatches.split(new String[0], TopicFilterBatches.mqtt3HeaderSize(), TopicFilterBatches.MAXIMUM_PACKET_SIZE).size());
+    }
+
+    @Test
+    void streamed_topics_are_batched_by_count_and_size() {
+        final int headerSize = TopicFilterBatches.mqtt3HeaderSize();
+        // every topic filter takes 2 + 3 bytes in an UNSUBSCRIBE
+        final TopicFilterBatches batches = new TopicFilterBatches(headerSize, TopicFilterBatches.UNSUBSCRIBE_TOPIC_FILTER_OVERHEAD, headerSize + 3 * 5, 2);
+
+        assertNull(batches.add("t/1"));
+        assertNull(batches.add("t/2"));
+        assertEquals(Arrays.asList("t/1", "t/2"), batches.add("t/3"));
+        assertNull(batches.add("t/4"));
+        assertEquals(Arrays.asList("t/3", "t/4"), batches.add("a/long/topic"));
+        assertEquals(Arrays.asList("a/long/topic"), batches.flush());
+        assertNull(batches.flush());
+    }
+}
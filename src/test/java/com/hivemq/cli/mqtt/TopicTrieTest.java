@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopicTrieTest {
+
+    @Test
+    void exact_and_wildcard_filters_match() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/b/c", "exact");
+        trie.add("a/+/c", "single");
+        trie.add("a/#", "multi");
+        trie.add("#", "all");
+        trie.add("a/b", "other");
+
+        assertEquals(new HashSet<>(Arrays.asList("exact", "single", "multi", "all")), trie.match("a/b/c"));
+        assertEquals(new HashSet<>(Arrays.asList("single", "multi", "all")), trie.match("a/x/c"));
+        assertEquals(new HashSet<>(Arrays.asList("multi", "all", "other")), trie.match("a/b"));
+        assertEquals(new HashSet<>(Arrays.asList("all")), trie.match("b"));
+    }
+
+    @Test
+    void multi_level_wildcard_matches_parent_level() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/#", "multi");
+
+        assertEquals(new HashSet<>(Arrays.asList("multi")), trie.match("a"));
+        assertTrue(trie.match("ab").isEmpty());
+    }
+
+    @Test
+    void empty_levels_are_levels() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/+", "single");
+        trie.add("+/b", "leading");
+
+        assertEquals(new HashSet<>(Arrays.asList("single")), trie.match("a/"));
+        assertEquals(new HashSet<>(Arrays.asList("leading")), trie.match("/b"));
+        assertTrue(trie.match("a//").isEmpty());
+    }
+
+    @Test
+    void wildcards_do_not_match_dollar_topics_at_first_level() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("#", "all");
+        trie.add("+/info", "single");
+        trie.add("$SYS/#", "sys");
+
+        assertEquals(new HashSet<>(Arrays.asList("sys")), trie.match("$SYS/info"));
+    }
+
+    @Test
+    void shared_subscriptions_match_without_share_prefix() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("$share/group/a/+", "shared");
+
+        assertEquals(new HashSet<>(Arrays.asList("shared")), trie.match("a/b"));
+        assertEquals(new HashSet<>(Arrays.asList("shared")), trie.removeAll("$share/group/a/+"));
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    void removing_a_shared_filter_keeps_the_plain_filter_and_other_groups() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/b", "plain");
+        trie.add("$share/g/a/b", "g");
+        trie.add("$share/h/a/b", "h");
+
+        assertEquals(new HashSet<>(Arrays.asList("plain", "g", "h")), trie.match("a/b"));
+        assertEquals(new HashSet<>(Arrays.asList("g")), trie.removeAll("$share/g/a/b"));
+        assertEquals(new HashSet<>(Arrays.asList("plain", "h")), trie.match("a/b"));
+        assertFalse(trie.remove("$share/g/a/b", "h"));
+        assertTrue(trie.remove("$share/h/a/b", "h"));
+        assertEquals(new HashSet<>(Arrays.asList("plain")), trie.match("a/b"));
+
+        trie.removeAll("a/b");
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    void overlapping_filters_pass_a_value_once_per_filter() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.add("a/#", "output");
+        trie.add("a/b", "output");
+
+        final List<String> matches = new ArrayList<>();
+        trie.match("a/b", matches::add);
+
+        assertEquals(2, matches.size());
+        assertEquals(1, trie.match("a/b").size());
+    }
+
+    @Test
+    void removed_filters_are_pruned() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        assertTrue(trie.add("a/b/c", "first"));
+        assertFalse(trie.add("a/b/c", "first"));
+        trie.add("a/b/c", "second");
+        trie.add("a/b", "parent");
+
+        assertTrue(trie.remove("a/b/c", "first"));
+        assertFalse(trie.remove("a/b/c", "first"));
+        assertFalse(trie.remove("x/y", "first"));
+        assertEquals(new HashSet<>(Arrays.asList("second")), trie.removeAll("a/b/c"));
+        assertEquals(new HashSet<>(Arrays.asList("parent")), trie.match("a/b"));
+
+        trie.remove("a/b", "parent");
+        assertTrue(trie.isEmpty());
+    }
+}
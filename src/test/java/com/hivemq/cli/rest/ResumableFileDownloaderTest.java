@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.rest;
+
+import com.google.common.hash.Hashing;
+import com.hivemq.cli.openapi.ApiException;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResumableFileDownloaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    MockWebServer server;
+    OkHttpClient httpClient;
+    File file;
+    byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        httpClient = new OkHttpClient();
+        file = tempDir.resolve("backup").toFile();
+        content = new byte[300_000];
+        new Random(42).nextBytes(content);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void download_complete_file() throws Exception {
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(new Buffer().write(content)));
+
+        final ResumableFileDownloader downloader = createDownloader(0);
+        final String checksum = downloader.download();
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(sha256(content), checksum);
+        assertEquals(content.length, downloader.getDownloadedBytes());
+        assertEquals(content.length, downloader.getTotalBytes());
+        assertFalse(new File(file.getPath() + ResumableFileDownloader.PART_FILE_SUFFIX).exists());
+
+        final RecordedRequest request = server.takeRequest();
+        assertNull(request.getHeader("Range"));
+    }
+
+    @Test
+    void download_resume_from_part_file() throws Exception {
+        final int offset = 100_000;
+        Files.write(tempDir.resolve("backup" + ResumableFileDownloader.PART_FILE_SUFFIX), Arrays.copyOf(content, offset));
+
+        server.enqueue(new MockResponse()
+                .setResponseCode(206)
+                .setHeader("Content-Range", "bytes " + offset + "-" + (content.length - 1) + "/" + content.length)
+                .setBody(new Buffer().write(Arrays.copyOfRange(content, offset, content.length))));
+
+        final ResumableFileDownloader downloader = createDownloader(0);
+        final String checksum = downloader.download();
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(sha256(content), checksum);
+        assertEquals("bytes=" + offset + "-", server.takeRequest().getHeader("Range"));
+    }
+
+    @Test
+    void download_range_ignored_restarts() throws Exception {
+        Files.write(tempDir.resolve("backup" + ResumableFileDownloader.PART_FILE_SUFFIX), new byte[]{1, 2, 3});
+
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(new Buffer().write(content)));
+
+        final String checksum = createDownloader(0).download();
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(sha256(content), checksum);
+    }
+
+    @Test
+    void download_server_error_retried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(new Buffer().write(content)));
+
+        final String checksum = createDownloader(1).download();
+
+        assertEquals(sha256(content), checksum);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void download_not_found() {
+        server.enqueue(new MockResponse()
+                .setResponseCode(404)
+                .setBody("{\"errors\":[{\"title\":\"Backup not found\"}]}"));
+
+        final ApiException apiException = assertThrows(ApiException.class, () -> createDownloader(3).download());
+
+        assertEquals(404, apiException.getCode());
+        assertEquals(1, server.getRequestCount());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    void download_verified() throws Exception {
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(new Buffer().write(content)));
+
+        final String checksum = createDownloader(0).download(content.length, sha256(content).toUpperCase());
+
+        assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+        assertEquals(sha256(content), checksum);
+    }
+
+    @Test
+    void download_size_mismatch() {
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(new Buffer().write(content)));
+
+        assertThrows(ResumableFileDownloader.VerificationException.class,
+                () -> createDownloader(0).download(content.length + 1, null));
+
+        assertFalse(file.exists());
+        assertFalse(new File(file.getPath() + ResumableFileDownloader.PART_FILE_SUFFIX).exists());
+    }
+
+    @Test
+    void download_checksum_mismatch() {
+        server.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(new Buffer().write(content)));
+
+        assertThrows(ResumableFileDownloader.VerificationException.class,
+                () -> createDownloader(0).download(content.length, sha256(new byte[]{1})));
+
+        assertFalse(file.exists());
+        assertFalse(new File(file.getPath() + ResumableFileDownloader.PART_FILE_SUFFIX).exists());
+    }
+
+    private ResumableFileDownloader createDownloader(final int maxRetries) {
+        return new ResumableFileDownloader(offset -> {
+            final Request.Builder builder = new Request.Builder().url(server.url("/backup"));
+            if (offset > 0) {
+                builder.header("Range", "bytes=" + offset + "-");
+            }
+            return httpClient.newCall(builder.build());
+        }, file, maxRetries);
+    }
+
+    private static String sha256(final byte[] bytes) {
+        return Hashing.sha256().hashBytes(bytes).toString();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeduplicationCacheTest {
+
+    @Test
+    void duplicate_is_detected() {
+        final DeduplicationCache cache = new DeduplicationCache(16, 0);
+
+        assertTrue(cache.add(1, 0));
+        assertTrue(cache.add(2, 0));
+        assertFalse(cache.add(1, 0));
+        assertFalse(cache.add(2, 0));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void oldest_key_is_evicted_when_full() {
+        final DeduplicationCache cache = new DeduplicationCache(3, 0);
+
+        assertTrue(cache.add(1, 0));
+        assertTrue(cache.add(2, 0));
+        assertTrue(cache.add(3, 0));
+        assertTrue(cache.add(4, 0));
+
+        assertEquals(3, cache.size());
+        assertFalse(cache.add(4, 0));
+        assertFalse(cache.add(2, 0));
+        assertTrue(cache.add(1, 0));
+    }
+
+    @Test
+    void expired_keys_are_evicted() {
+        final DeduplicationCache cache = new DeduplicationCache(16, 100);
+
+        assertTrue(cache.add(1, 0));
+        assertTrue(cache.add(2, 50));
+        assertFalse(cache.add(1, 100));
+        assertTrue(cache.add(1, 101));
+        assertFalse(cache.add(2, 150));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void matches_a_set_with_the_same_evictions() {
+        final int capacity = 1000;
+        final DeduplicationCache cache = new DeduplicationCache(capacity, 0);
+        final long[] ring = new long[capacity];
+        final Set<Long> expected = new HashSet<>();
+        final Random random = new Random(42);
+        int added = 0;
+
+        for (int i = 0; i < 200_000; i++) {
+            // Few distinct keys with colliding low bits, so many probe sequences overlap
+            final long key = (long) random.nextInt(3000) << 40;
+            final boolean isNew = !expected.contains(key);
+            assertEquals(isNew, cache.add(key, 0), "key " + key + " at step " + i);
+            if (isNew) {
+                if (added >= capacity) {
+                    expected.remove(ring[added % capacity]);
+                }
+                ring[added % capacity] = key;
+                expected.add(key);
+                added++;
+            }
+        }
+        assertEquals(capacity, cache.size());
+    }
+}
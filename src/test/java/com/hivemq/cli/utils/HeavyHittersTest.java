@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    @Test
+    void exact_while_all_keys_fit() {
+        final HeavyHitters heavyHitters = new HeavyHitters(10, 1);
+        heavyHitters.add("a", 1);
+        heavyHitters.add("b", 5);
+        heavyHitters.add("a", 1);
+        heavyHitters.add("c", 3);
+
+        final List<HeavyHitters.Entry> top = heavyHitters.getTop(2);
+
+        assertEquals(2, top.size());
+        assertEquals("b", top.get(0).getKey());
+        assertEquals(5, top.get(0).getWeight());
+        assertEquals("c", top.get(1).getKey());
+        assertEquals(0, top.get(1).getError());
+    }
+
+    @Test
+    void frequent_keys_survive_many_distinct_keys() {
+        final HeavyHitters heavyHitters = new HeavyHitters(64, 4);
+        for (int i = 0; i < 100_000; i++) {
+            heavyHitters.add("noise/" + i, 1);
+            if (i % 10 == 0) {
+                heavyHitters.add("hot/1", 1);
+            }
+            if (i % 20 == 0) {
+                heavyHitters.add("hot/2", 1);
+            }
+        }
+
+        final List<HeavyHitters.Entry> top = heavyHitters.getTop(2);
+
+        assertEquals("hot/1", top.get(0).getKey());
+        assertEquals("hot/2", top.get(1).getKey());
+        assertTrue(top.get(0).getWeight() - top.get(0).getError() <= 10_000);
+        assertTrue(top.get(0).getWeight() >= 10_000);
+        assertTrue(heavyHitters.getTop(1_000).size() <= 64);
+    }
+
+    @Test
+    void reset_starts_a_new_window() {
+        final HeavyHitters heavyHitters = new HeavyHitters(10, 2);
+        heavyHitters.add("a", 7);
+
+        assertEquals(7, heavyHitters.getTopAndReset(1).get(0).getWeight());
+        assertTrue(heavyHitters.getTop(1).isEmpty());
+
+        heavyHitters.add("b", 2);
+        assertEquals("b", heavyHitters.getTop(1).get(0).getKey());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucket_bounds_contain_value() {
+        for (final long value : new long[]{0, 1, 7, 8, 15, 16, 17, 100, 1_000, 123_456_789, Long.MAX_VALUE}) {
+            final int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= value, "upper bound of " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < value, "lower bound of " + value);
+            }
+        }
+    }
+
+    @Test
+    void quantiles_within_bucket_precision() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+
+        final LatencyHistogram.Snapshot snapshot = histogram.getSnapshot();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(5_000.5, snapshot.getMean(), 0.001);
+        assertEquals(10_000, snapshot.getMax());
+        assertEquals(5_000, snapshot.getValueAtQuantile(0.5), 5_000 * 0.125);
+        assertEquals(9_900, snapshot.getValueAtQuantile(0.99), 9_900 * 0.125);
+        assertEquals(10_000, snapshot.getValueAtQuantile(1));
+    }
+
+    @Test
+    void snapshot_difference() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(1_000_000);
+        }
+        final LatencyHistogram.Snapshot first = histogram.getSnapshot();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(10);
+        }
+
+        final LatencyHistogram.Snapshot difference = histogram.getSnapshot().minus(first);
+
+        assertEquals(100, difference.getCount());
+        assertEquals(10, difference.getValueAtQuantile(0.99));
+        assertEquals(10, difference.getMean(), 0.001);
+    }
+
+    @Test
+    void empty_histogram() {
+        final LatencyHistogram.Snapshot snapshot = new LatencyHistogram().getSnapshot();
+
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtQuantile(0.99));
+    }
+}
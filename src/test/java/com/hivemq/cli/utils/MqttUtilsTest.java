@@ -93,4 +93,19 @@ class MqttUtilsTest {
 
     }
 
+    @Test
+    void testToSharedTopicFilter_Success() {
+
+        assertEquals("$share/group/sensors/#", MqttUtils.toSharedTopicFilter("group", "sensors/#"));
+
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "a/b", "a+", "#"})
+    void testToSharedTopicFilter_Failure_Invalid_Group(final String group) {
+
+        assertThrows(IllegalArgumentException.class, () -> MqttUtils.toSharedTopicFilter(group, "sensors/#"));
+
+    }
+
 }
\ No newline at end of file
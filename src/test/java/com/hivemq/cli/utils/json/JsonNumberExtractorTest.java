@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils.json;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonNumberExtractorTest {
+
+    @Test
+    void extracts_nested_fields_in_one_pass() {
+        final JsonNumberExtractor extractor = JsonNumberExtractor.of(Arrays.asList("temperature", "$.sensor.values[1]", "humidity"));
+
+        final List<String> values = extract(extractor,
+                "{\"id\":\"a\",\"sensor\":{\"values\":[1,2.5,3],\"other\":{\"x\":1}},\"temperature\":21.5,\"humidity\":\"40\"}");
+
+        assertEquals(Arrays.asList("1=2.5", "0=21.5", "2=40.0"), values);
+    }
+
+    @Test
+    void missing_and_non_numeric_fields_are_skipped() {
+        final JsonNumberExtractor extractor = JsonNumberExtractor.of(Arrays.asList("a", "b", "c.d"));
+
+        assertEquals(Arrays.asList("1=3.0"), extract(extractor, "{\"a\":\"text\",\"b\":3,\"c\":[1,2]}"));
+        assertEquals(new ArrayList<>(), extract(extractor, "[1,2,3]"));
+    }
+
+    @Test
+    void invalid_document_passes_values_before_the_error() {
+        final JsonNumberExtractor extractor = JsonNumberExtractor.of(Arrays.asList("a", "b"));
+
+        assertEquals(Arrays.asList("0=1.0"), extract(extractor, "{\"a\":1,\"b\":"));
+        assertEquals(new ArrayList<>(), extract(extractor, "not json"));
+    }
+
+    @Test
+    void same_field_twice() {
+        final JsonNumberExtractor extractor = JsonNumberExtractor.of(Arrays.asList("a", "$.a"));
+
+        assertEquals(Arrays.asList("0=1.0", "1=1.0"), extract(extractor, "{\"a\":1}"));
+    }
+
+    @Test
+    void invalid_field() {
+        assertThrows(IllegalArgumentException.class, () -> JsonNumberExtractor.of(Arrays.asList("a b")));
+    }
+
+    private static List<String> extract(final JsonNumberExtractor extractor, final String json) {
+        final List<String> values = new ArrayList<>();
+        extractor.extract(json, (field, value) -> values.add(field + "=" + value));
+        return values;
+    }
+}
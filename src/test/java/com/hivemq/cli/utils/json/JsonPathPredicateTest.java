@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 HiveMQ and the HiveMQ Community
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package com.hivemq.cli.utils.json;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonPathPredicateTest {
+
+    private static final String JSON = "{\"id\":\"s1\",\"meta\":{\"tags\":[\"a\",\"b\"]},\"values\":[{\"t\":19.5},{\"t\":21}],\"on\":true,\"note\":null}";
+
+    @Test
+    void compare_numbers() {
+        assertTrue(JsonPathPredicate.parse("$.values[1].t > 20").test(JSON));
+        assertTrue(JsonPathPredicate.parse("$.values[1].t == 21.0").test(JSON));
+        assertTrue(JsonPathPredicate.parse("$.values[0].t <= 19.5").test(JSON));
+        assertFalse(JsonPathPredicate.parse("$.values[0].t >= 20").test(JSON));
+        assertFalse(JsonPathPredicate.parse("$.id > 1").test(JSON));
+    }
+
+    @Test
+    void compare_strings_booleans_and_null() {
+        assertTrue(JsonPathPredicate.parse("$.id == 's1'").test(JSON));
+        assertTrue(JsonPathPredicate.parse("$.meta.tags[1] == \"b\"").test(JSON));
+        assertTrue(JsonPathPredicate.parse("$.id != 's2'").test(JSON));
+        assertTrue(JsonPathPredicate.parse("$.on == true").test(JSON));
+        assertTrue(JsonPathPredicate.parse("$.note == null").test(JSON));
+        assertFalse(JsonPathPredicate.parse("$.on == false").test(JSON));
+    }
+
+    @Test
+    void path_exists() {
+        assertTrue(JsonPathPredicate.parse("$.meta.tags").test(JSON));
+        assertTrue(JsonPathPredicate.parse("$.note").test(JSON));
+        assertTrue(JsonPathPredicate.parse("$").test(JSON));
+        assertFalse(JsonPathPredicate.parse("$.meta.tags[2]").test(JSON));
+        assertFalse(JsonPathPredicate.parse("$.id.name").test(JSON));
+        assertFalse(JsonPathPredicate.parse("$.missing").test(JSON));
+    }
+
+    @Test
+    void invalid_json_does_not_match() {
+        assertFalse(JsonPathPredicate.parse("$.id").test("not json"));
+        assertFalse(JsonPathPredicate.parse("$.id").test("{\"id\":"));
+        assertFalse(JsonPathPredicate.parse("$.id").test(""));
+    }
+
+    @Test
+    void invalid_expressions() {
+        assertThrows(IllegalArgumentException.class, () -> JsonPathPredicate.parse("id == 1"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPathPredicate.parse("$.id == s1"));
+        assertThrows(IllegalArgumentException.class, () -> JsonPathPredicate.parse("$.id > 'a'"));
+    }
+}
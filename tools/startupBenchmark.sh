@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+#
+# Measures the cold start of the MQTT CLI for the JVM and the native build.
+# Every invocation is started RUNS times as a fresh process and the wall clock time until it exits is reported.
+# The publish invocation connects to the broker at MQTT_HOST:MQTT_PORT, so it covers the time until the first CONNECT.
+#
+# Usage: ./startupBenchmark.sh [RUNS]
+#   JAR       the shadow jar to benchmark (default build/libs/mqtt-cli-*.jar, build with ./gradlew shadowJar)
+#   BASE_JAR  an optional jar of an earlier version to compare against, e.g. built from the previous release
+#   NATIVE    the native image to benchmark (default build/graal/mqtt-cli, build with ./gradlew nativeImage)
+#   MQTT_HOST the broker host used by the publish invocations (default localhost)
+#   MQTT_PORT the broker port used by the publish invocations (default 1883)
+#
+# Requires GNU date for nanosecond timestamps.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-20}
+# ls fails without a matching jar, which would abort the script because of pipefail
+JAR=${JAR:-$(ls build/libs/mqtt-cli-*.jar 2>/dev/null | head -n 1 || true)}
+BASE_JAR=${BASE_JAR:-}
+NATIVE=${NATIVE:-build/graal/mqtt-cli}
+MQTT_HOST=${MQTT_HOST:-localhost}
+MQTT_PORT=${MQTT_PORT:-1883}
+
+INVOCATIONS=(
+    "--version"
+    "--help"
+    "pub --help"
+    "sub --help"
+    "hivemq export clients --help"
+    "pub -h ${MQTT_HOST} -p ${MQTT_PORT} -t benchmark/startup -m payload"
+)
+
+measure() {
+    local build=$1
+    local invocation=$2
+    shift 2
+    local samples=()
+    local i start end
+    for ((i = 0; i < RUNS; i++)); do
+        start=$(date +%s%N)
+        # shellcheck disable=SC2086
+        if ! "$@" ${invocation} > /dev/null 2>&1; then
+            echo "${build}: '${invocation}' failed" >&2
+            return
+        fi
+        end=$(date +%s%N)
+        samples+=($(((end - start) / 1000000)))
+    done
+    local sorted
+    sorted=($(printf '%s\n' "${samples[@]}" | sort -n))
+    printf '%-7s %-65s min %5d ms  median %5d ms  p90 %5d ms  max %5d ms\n' \
+        "${build}" "${invocation}" \
+        "${sorted[0]}" "${sorted[$((RUNS / 2))]}" "${sorted[$((RUNS * 9 / 10))]}" "${sorted[$((RUNS - 1))]}"
+}
+
+echo "Cold start over ${RUNS} runs"
+
+for invocation in "${INVOCATIONS[@]}"; do
+    if [[ -n "${BASE_JAR}" && -f "${BASE_JAR}" ]]; then
+        measure "base" "${invocation}" java -jar "${BASE_JAR}"
+    fi
+    if [[ -n "${JAR}" && -f "${JAR}" ]]; then
+        measure "jvm" "${invocation}" java -jar "${JAR}"
+    fi
+    if [[ -x "${NATIVE}" ]]; then
+        measure "native" "${invocation}" "${NATIVE}"
+    fi
+done
+
+if [[ -z "${JAR}" || ! -f "${JAR}" ]] && [[ ! -x "${NATIVE}" ]]; then
+    echo "Neither a jar nor a native image was found, build one with ./gradlew shadowJar or ./gradlew nativeImage" >&2
+    exit 1
+fi